@@ -0,0 +1,135 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.features.Feature;
+import io.github.msdk.datamodel.featuretables.FeatureTable;
+import io.github.msdk.datamodel.featuretables.FeatureTableRow;
+import io.github.msdk.datamodel.featuretables.Sample;
+import io.github.msdk.datamodel.impl.ColumnarFeatureTable;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.util.synthetic.SyntheticLCMSGenerator;
+
+/**
+ * Input data shared by the benchmarks. The test files bundled with the MSDK modules are located
+ * relative to the MSDK source tree, which is given by the msdk.sourceDir system property, or found
+ * by searching the working directory and its parents. The synthetic data are generated from a
+ * fixed seed, so all runs of a benchmark process the same data.
+ */
+public class BenchmarkData {
+
+  private static final long SEED = 42;
+
+  /**
+   * Returns a test file bundled with one of the MSDK modules.
+   *
+   * @param relativePath path of the file relative to the MSDK source tree, e.g.
+   *        msdk-io/msdk-io-mzml2/src/test/resources/tiny.pwiz.mzML
+   * @return the test file
+   * @throws MSDKException if the file cannot be found
+   */
+  public static @Nonnull File getTestFile(@Nonnull String relativePath) throws MSDKException {
+    final File sourceDir = getSourceDir();
+    final File testFile = new File(sourceDir, relativePath);
+    if (!testFile.canRead())
+      throw new MSDKException("Cannot read benchmark input " + testFile);
+    return testFile;
+  }
+
+  private static @Nonnull File getSourceDir() throws MSDKException {
+    final String sourceDirProperty = System.getProperty("msdk.sourceDir");
+    if (sourceDirProperty != null)
+      return new File(sourceDirProperty);
+    File dir = new File("").getAbsoluteFile();
+    while (dir != null) {
+      if (new File(dir, "msdk-datamodel").isDirectory())
+        return dir;
+      dir = dir.getParentFile();
+    }
+    throw new MSDKException(
+        "Cannot find the MSDK source tree, please set the msdk.sourceDir system property");
+  }
+
+  /**
+   * Generates profile scans with {@link SyntheticLCMSGenerator}, with one chromatographic peak per
+   * 20 data points of a scan. The scans are computed again on each access of the scan list.
+   *
+   * @param numberOfScans number of scans
+   * @param dataPointsPerScan number of data points of each scan
+   * @return a raw data file with the generated scans
+   */
+  public static @Nonnull RawDataFile generateProfileScans(int numberOfScans,
+      int dataPointsPerScan) {
+    final SyntheticLCMSGenerator generator = new SyntheticLCMSGenerator(SEED);
+    generator.setNumberOfScans(numberOfScans);
+    generator.setDataPointsPerScan(dataPointsPerScan);
+    generator.setNumberOfPeaks(dataPointsPerScan / 20);
+    return generator.generateRawDataFile(0);
+  }
+
+  /**
+   * Generates feature tables of one sample each with {@link SyntheticLCMSGenerator}. The tables
+   * contain the same features, shifted by the retention time drift of each sample.
+   *
+   * @param numberOfTables number of feature tables
+   * @param rowsPerTable number of rows of each table
+   * @return the generated feature tables
+   */
+  public static @Nonnull List<FeatureTable> generateFeatureTables(int numberOfTables,
+      int rowsPerTable) {
+    final SyntheticLCMSGenerator generator = new SyntheticLCMSGenerator(SEED);
+    generator.setNumberOfScans(3600);
+    generator.setNumberOfPeaks(rowsPerTable);
+    final FeatureTable allSamples = generator.generateFeatureTable(numberOfTables);
+
+    final List<FeatureTable> featureTables = new ArrayList<>(numberOfTables);
+    for (int s = 0; s < numberOfTables; s++) {
+      final Sample sample = allSamples.getSamples().get(s);
+      final ColumnarFeatureTable featureTable =
+          new ColumnarFeatureTable(Collections.singletonList(sample));
+      for (FeatureTableRow row : allSamples.getRows()) {
+        final Feature feature = row.getFeature(s);
+        if (feature == null)
+          continue;
+        featureTable.addRow();
+        featureTable.setFeature(featureTable.getNumberOfRows() - 1, 0, feature);
+      }
+      featureTables.add(featureTable);
+    }
+    return featureTables;
+  }
+
+  /**
+   * <p>
+   * getScans.
+   * </p>
+   *
+   * @param rawDataFile a {@link io.github.msdk.datamodel.rawdata.RawDataFile} object.
+   * @return the scans of the file as an array.
+   */
+  public static @Nonnull MsScan[] getScans(@Nonnull RawDataFile rawDataFile) {
+    final List<MsScan> scans = rawDataFile.getScans();
+    return scans.toArray(new MsScan[scans.size()]);
+  }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.rawdata.centroiding.BinningCentroidingAlgorithm;
+import io.github.msdk.rawdata.centroiding.ExactMassCentroidingAlgorithm;
+import io.github.msdk.rawdata.centroiding.LocalMaximaCentroidingAlgorithm;
+import io.github.msdk.rawdata.centroiding.MSDKCentroidingAlgorithm;
+import io.github.msdk.rawdata.centroiding.WaveletCentroidingAlgorithm;
+
+/**
+ * Benchmarks of the centroiding algorithms on synthetic profile scans. The throughput is reported
+ * in scans per second.
+ *
+ * RecursiveCentroidingAlgorithm is not included, because it currently fails on any non-empty scan
+ * (it reads the data point before the first one).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CentroidingBenchmark {
+
+  private static final int NUMBER_OF_SCANS = 100;
+
+  @Param({"LocalMaxima", "ExactMass", "Binning", "Wavelet"})
+  public String algorithmName;
+
+  @Param({"20000"})
+  public int dataPointsPerScan;
+
+  private MsScan scans[];
+  private MSDKCentroidingAlgorithm algorithm;
+
+  @Setup
+  public void setup() {
+    scans = BenchmarkData
+        .getScans(BenchmarkData.generateProfileScans(NUMBER_OF_SCANS, dataPointsPerScan));
+    switch (algorithmName) {
+      case "LocalMaxima":
+        algorithm = new LocalMaximaCentroidingAlgorithm();
+        break;
+      case "ExactMass":
+        algorithm = new ExactMassCentroidingAlgorithm();
+        break;
+      case "Binning":
+        algorithm = new BinningCentroidingAlgorithm(0.1);
+        break;
+      case "Wavelet":
+        algorithm = new WaveletCentroidingAlgorithm(3, 3.0);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown centroiding algorithm " + algorithmName);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUMBER_OF_SCANS)
+  public void centroidScans(Blackhole blackhole) {
+    for (MsScan scan : scans)
+      blackhole.consume(algorithm.centroidScan(scan));
+  }
+
+}
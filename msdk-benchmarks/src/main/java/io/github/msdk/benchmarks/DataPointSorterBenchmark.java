@@ -0,0 +1,78 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.msdk.util.DataPointSorter;
+import io.github.msdk.util.DataPointSorter.SortingDirection;
+import io.github.msdk.util.DataPointSorter.SortingProperty;
+
+/**
+ * Benchmarks of DataPointSorter. Each invocation copies the unsorted data points into the sorted
+ * arrays before sorting them, the cost of the copy is included in the results.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DataPointSorterBenchmark {
+
+  @Param({"100", "10000", "1000000"})
+  public int size;
+
+  @Param({"MZ", "INTENSITY"})
+  public SortingProperty property;
+
+  private double unsortedMzValues[], mzValues[];
+  private float unsortedIntensityValues[], intensityValues[];
+
+  @Setup
+  public void setup() {
+    final Random random = new Random(42);
+    unsortedMzValues = new double[size];
+    unsortedIntensityValues = new float[size];
+    for (int i = 0; i < size; i++) {
+      unsortedMzValues[i] = 100.0 + random.nextDouble() * 900.0;
+      unsortedIntensityValues[i] = random.nextFloat() * 100000f;
+    }
+    mzValues = new double[size];
+    intensityValues = new float[size];
+  }
+
+  @Benchmark
+  public double[] sortDataPoints() {
+    System.arraycopy(unsortedMzValues, 0, mzValues, 0, size);
+    System.arraycopy(unsortedIntensityValues, 0, intensityValues, 0, size);
+    DataPointSorter.sortDataPoints(mzValues, intensityValues, size, property,
+        SortingDirection.ASCENDING);
+    return mzValues;
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.msdk.datamodel.datastore.DataPointStore;
+import io.github.msdk.datamodel.datastore.DataPointStoreFactory;
+
+/**
+ * Benchmarks of concurrent reads from the file-based data point stores. All threads share one
+ * store and each invocation loads a randomly chosen array, so the results compare the lock-free
+ * reads of MappedFileDataStore with the synchronized reads of TmpFileDataStore.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class DataPointStoreBenchmark {
+
+  public enum StoreType {
+    MAPPED_FILE, TMP_FILE
+  }
+
+  private static final int NUM_OF_ARRAYS = 200;
+
+  @Param({"MAPPED_FILE", "TMP_FILE"})
+  public StoreType storeType;
+
+  @Param({"5000"})
+  public int size;
+
+  private DataPointStore store;
+  private Object storageIds[];
+
+  /**
+   * The array that the data are loaded into, one per thread.
+   */
+  @State(Scope.Thread)
+  public static class ReadBuffer {
+
+    double mzValues[];
+
+    @Setup
+    public void setup(DataPointStoreBenchmark benchmark) {
+      mzValues = new double[benchmark.size];
+    }
+
+  }
+
+  @Setup
+  public void setup() {
+    store = (storeType == StoreType.MAPPED_FILE) ? DataPointStoreFactory.getMappedFileDataStore()
+        : DataPointStoreFactory.getTmpFileDataStore();
+    storageIds = new Object[NUM_OF_ARRAYS];
+    final double mzValues[] = new double[size];
+    for (int j = 0; j < NUM_OF_ARRAYS; j++) {
+      for (int i = 0; i < size; i++)
+        mzValues[i] = j + (double) i / size;
+      storageIds[j] = store.storeData(mzValues, size);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    store.dispose();
+  }
+
+  @Benchmark
+  public double[] loadData(ReadBuffer buffer) {
+    final Object storageId = storageIds[ThreadLocalRandom.current().nextInt(NUM_OF_ARRAYS)];
+    store.loadData(storageId, buffer.mzValues);
+    return buffer.mzValues;
+  }
+
+}
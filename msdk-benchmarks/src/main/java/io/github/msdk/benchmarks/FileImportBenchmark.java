@@ -0,0 +1,120 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.io.mzml2.MzMLFileParser;
+import io.github.msdk.io.mzxml.MzXMLFileParser;
+import io.github.msdk.io.netcdf.NetCDFFileImportMethod;
+
+/**
+ * Benchmarks of the raw data file parsers on the test files bundled with the parser modules. Each
+ * benchmark reads the data points of all scans, because the mzML parser decodes them lazily.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileImportBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class MzMLInput {
+
+    @Param({"5peptideFT.mzML", "MzValues_Zlib+Numpress.mzML", "mzML_with_UV.mzML"})
+    public String fileName;
+
+    File file;
+
+    @Setup
+    public void setup() throws MSDKException {
+      file = BenchmarkData.getTestFile("msdk-io/msdk-io-mzml2/src/test/resources/" + fileName);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class MzXMLInput {
+
+    @Param({"A1-0_A2.mzXML", "R1_RG59_B4_1.mzXML"})
+    public String fileName;
+
+    File file;
+
+    @Setup
+    public void setup() throws MSDKException {
+      file = BenchmarkData.getTestFile("msdk-io/msdk-io-mzxml/src/test/resources/" + fileName);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class NetCDFInput {
+
+    @Param({"wt15.CDF"})
+    public String fileName;
+
+    File file;
+
+    @Setup
+    public void setup() throws MSDKException {
+      file = BenchmarkData.getTestFile("msdk-io/msdk-io-netcdf/src/test/resources/" + fileName);
+    }
+  }
+
+  @Benchmark
+  public void mzMLFileParser(MzMLInput input, Blackhole blackhole) throws MSDKException {
+    consume(new MzMLFileParser(input.file).execute(), blackhole);
+  }
+
+  @Benchmark
+  public void mzXMLFileParser(MzXMLInput input, Blackhole blackhole) throws MSDKException {
+    consume(new MzXMLFileParser(input.file).execute(), blackhole);
+  }
+
+  @Benchmark
+  public void netCDFFileImportMethod(NetCDFInput input, Blackhole blackhole)
+      throws MSDKException {
+    consume(new NetCDFFileImportMethod(input.file).execute(), blackhole);
+  }
+
+  private static void consume(RawDataFile rawDataFile, Blackhole blackhole) {
+    double mzBuffer[] = new double[10000];
+    float intensityBuffer[] = new float[10000];
+    for (MsScan scan : rawDataFile.getScans()) {
+      mzBuffer = scan.getMzValues(mzBuffer);
+      intensityBuffer = scan.getIntensityValues(intensityBuffer);
+      blackhole.consume(mzBuffer);
+      blackhole.consume(intensityBuffer);
+    }
+    rawDataFile.dispose();
+  }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.msdk.datamodel.msspectra.MsSpectrum;
+import io.github.msdk.spectra.isotopepattern.IsotopePatternGeneratorAlgorithm;
+
+/**
+ * Benchmark of IsotopePatternGeneratorAlgorithm on formulas of increasing size.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IsotopePatternGeneratorBenchmark {
+
+  @Param({"C10", "C39H60N14O14", "C20H30Fe2P2S4Cl4", "C254H377N65O75S6"})
+  public String formula;
+
+  @Benchmark
+  public MsSpectrum generateIsotopes() {
+    return IsotopePatternGeneratorAlgorithm.generateIsotopes(formula, 0.001, 1000.0f, 0.001);
+  }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.featuretables.FeatureTable;
+import io.github.msdk.features.joinaligner.JoinAlignerMethod;
+import io.github.msdk.util.tolerances.MaximumMzTolerance;
+import io.github.msdk.util.tolerances.RTTolerance;
+
+/**
+ * Benchmark of JoinAlignerMethod on synthetic feature tables, which contain the same features with
+ * a different retention time drift.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JoinAlignerBenchmark {
+
+  @Param({"2", "10"})
+  public int numberOfTables;
+
+  @Param({"1000", "10000"})
+  public int rowsPerTable;
+
+  private List<FeatureTable> featureTables;
+
+  @Setup
+  public void setup() {
+    featureTables = BenchmarkData.generateFeatureTables(numberOfTables, rowsPerTable);
+  }
+
+  @Benchmark
+  public FeatureTable alignFeatureTables() throws MSDKException {
+    final FeatureTable result = new JoinAlignerMethod(featureTables,
+        new MaximumMzTolerance(0.003, 5.0), new RTTolerance(0.1f, false)).execute();
+    result.dispose();
+    return result;
+  }
+
+}
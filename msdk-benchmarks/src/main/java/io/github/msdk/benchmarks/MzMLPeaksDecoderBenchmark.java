@@ -0,0 +1,180 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.io.mzml2.data.MzMLBinaryDataInfo;
+import io.github.msdk.io.mzml2.data.MzMLBitLength;
+import io.github.msdk.io.mzml2.data.MzMLCompressionType;
+import io.github.msdk.io.mzml2.util.MzMLPeaksDecoder;
+import io.github.msdk.util.MSNumpress;
+import it.unimi.dsi.io.ByteBufferInputStream;
+
+/**
+ * Benchmarks of MzMLPeaksDecoder for each compression type. The binary data array is encoded once
+ * in the setup, the same way as an mzML writer would encode it. The linear prediction encoding is
+ * applied to m/z values, the other encodings to intensity values, as recommended by MS-Numpress.
+ *
+ * The block decoder of MzMLPeaksDecoder is compared with the previous stream based decoder, and
+ * also measured when decoding into a reused array.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MzMLPeaksDecoderBenchmark {
+
+  @Param({"NO_COMPRESSION", "ZLIB", "NUMPRESS_LINPRED", "NUMPRESS_POSINT", "NUMPRESS_SHLOGF",
+      "NUMPRESS_LINPRED_ZLIB", "NUMPRESS_POSINT_ZLIB", "NUMPRESS_SHLOGF_ZLIB"})
+  public MzMLCompressionType compressionType;
+
+  @Param({"10000"})
+  public int arrayLength;
+
+  private ByteBufferInputStream encodedData;
+  private MzMLBinaryDataInfo binaryDataInfo;
+  private double doubleBuffer[];
+  private float floatBuffer[];
+
+  @Setup
+  public void setup() {
+    final Random random = new Random(42);
+    final double values[] = new double[arrayLength];
+    for (int i = 0; i < arrayLength; i++) {
+      if (compressionType.name().startsWith("NUMPRESS_LINPRED"))
+        values[i] = 100.0 + i * 0.01 + random.nextDouble() * 0.001;
+      else
+        values[i] = Math.floor(random.nextDouble() * 100000.0);
+    }
+
+    byte bytes[];
+    switch (compressionType) {
+      case NUMPRESS_LINPRED:
+      case NUMPRESS_LINPRED_ZLIB:
+        bytes = new byte[arrayLength * 5 + 8];
+        bytes = Arrays.copyOf(bytes, MSNumpress.encodeLinear(values, arrayLength, bytes,
+            MSNumpress.optimalLinearFixedPoint(values, arrayLength)));
+        break;
+      case NUMPRESS_POSINT:
+      case NUMPRESS_POSINT_ZLIB:
+        bytes = new byte[arrayLength * 5];
+        bytes = Arrays.copyOf(bytes, MSNumpress.encodePic(values, arrayLength, bytes));
+        break;
+      case NUMPRESS_SHLOGF:
+      case NUMPRESS_SHLOGF_ZLIB:
+        bytes = new byte[arrayLength * 2 + 8];
+        bytes = Arrays.copyOf(bytes, MSNumpress.encodeSlof(values, arrayLength, bytes,
+            MSNumpress.optimalSlofFixedPoint(values, arrayLength)));
+        break;
+      default:
+        final ByteBuffer buffer =
+            ByteBuffer.allocate(arrayLength * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (double value : values)
+          buffer.putDouble(value);
+        bytes = buffer.array();
+    }
+
+    switch (compressionType) {
+      case ZLIB:
+      case NUMPRESS_LINPRED_ZLIB:
+      case NUMPRESS_POSINT_ZLIB:
+      case NUMPRESS_SHLOGF_ZLIB:
+        bytes = deflate(bytes);
+        break;
+      default:
+        break;
+    }
+
+    final byte base64[] = Base64.getEncoder().encodeToString(bytes)
+        .getBytes(StandardCharsets.US_ASCII);
+    encodedData = new ByteBufferInputStream(ByteBuffer.wrap(base64));
+    binaryDataInfo = new MzMLBinaryDataInfo(base64.length, arrayLength);
+    binaryDataInfo.setBitLength(MzMLBitLength.SIXTY_FOUR_BIT_FLOAT);
+    binaryDataInfo.setCompressionType(compressionType);
+    binaryDataInfo.setPosition(0);
+    doubleBuffer = new double[arrayLength];
+    floatBuffer = new float[arrayLength];
+  }
+
+  @Benchmark
+  public double[] decodeToDouble() throws DataFormatException, IOException, MSDKException {
+    return MzMLPeaksDecoder.decodeToDouble(encodedData, binaryDataInfo);
+  }
+
+  @Benchmark
+  public float[] decodeToFloat() throws DataFormatException, IOException, MSDKException {
+    return MzMLPeaksDecoder.decodeToFloat(encodedData, binaryDataInfo);
+  }
+
+  @Benchmark
+  public double[] decodeToDoubleReuse() throws DataFormatException, IOException, MSDKException {
+    return MzMLPeaksDecoder.decodeToDouble(encodedData, binaryDataInfo, doubleBuffer);
+  }
+
+  @Benchmark
+  public float[] decodeToFloatReuse() throws DataFormatException, IOException, MSDKException {
+    return MzMLPeaksDecoder.decodeToFloat(encodedData, binaryDataInfo, floatBuffer);
+  }
+
+  @Benchmark
+  public double[] decodeToDoubleStream() throws DataFormatException, IOException, MSDKException {
+    return StreamMzMLPeaksDecoder.decodeToDouble(encodedData, binaryDataInfo);
+  }
+
+  @Benchmark
+  public float[] decodeToFloatStream() throws DataFormatException, IOException, MSDKException {
+    return StreamMzMLPeaksDecoder.decodeToFloat(encodedData, binaryDataInfo);
+  }
+
+  private static byte[] deflate(byte data[]) {
+    final Deflater deflater = new Deflater();
+    deflater.setInput(data);
+    deflater.finish();
+    byte output[] = new byte[data.length + 64];
+    int length = 0;
+    while (!deflater.finished()) {
+      if (length == output.length)
+        output = Arrays.copyOf(output, output.length * 2);
+      length += deflater.deflate(output, length, output.length - length);
+    }
+    deflater.end();
+    return Arrays.copyOf(output, length);
+  }
+
+}
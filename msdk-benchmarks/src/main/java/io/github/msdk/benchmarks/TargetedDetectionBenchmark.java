@@ -0,0 +1,97 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.chromatograms.Chromatogram;
+import io.github.msdk.datamodel.impl.SimpleIonAnnotation;
+import io.github.msdk.datamodel.ionannotations.IonAnnotation;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.featdet.targeteddetection.TargetedDetectionMethod;
+import io.github.msdk.io.mzml.MzMLFileImportMethod;
+import io.github.msdk.util.tolerances.MaximumMzTolerance;
+import io.github.msdk.util.tolerances.RTTolerance;
+
+/**
+ * Benchmark of TargetedDetectionMethod on the Orbitrap test file of the targeted detection module.
+ * The first three targets are the ions verified by the module tests, the others have random m/z
+ * and RT values inside the range of the file.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TargetedDetectionBenchmark {
+
+  @Param({"3", "100"})
+  public int numberOfTargets;
+
+  private RawDataFile rawDataFile;
+  private final List<IonAnnotation> ionAnnotations = new ArrayList<>();
+
+  @Setup
+  public void setup() throws MSDKException {
+    rawDataFile = new MzMLFileImportMethod(BenchmarkData.getTestFile(
+        "msdk-featdet/msdk-featdet-targeteddetection/src/test/resources/orbitrap_300-600mz.mzML"))
+            .execute();
+
+    final double mzValues[] = {332.56, 508.004, 362.102};
+    final float rtValues[] = {772.8f, 868.8f, 643.2f};
+    final Random random = new Random(42);
+    for (int i = 0; i < numberOfTargets; i++) {
+      final SimpleIonAnnotation ion = new SimpleIonAnnotation();
+      if (i < mzValues.length) {
+        ion.setExpectedMz(mzValues[i]);
+        ion.setExpectedRetentionTime(rtValues[i]);
+      } else {
+        ion.setExpectedMz(300.0 + random.nextDouble() * 300.0);
+        ion.setExpectedRetentionTime(600f + random.nextFloat() * 300f);
+      }
+      ion.setAnnotationId("Target " + (i + 1));
+      ionAnnotations.add(ion);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    rawDataFile.dispose();
+  }
+
+  @Benchmark
+  public List<Chromatogram> detectTargets() throws MSDKException {
+    return new TargetedDetectionMethod(ionAnnotations, rawDataFile,
+        new MaximumMzTolerance(0.003, 5.0), new RTTolerance(0.2f, false), 0.10, 5000.0).execute();
+  }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.featdet.chromatogrambuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.msdk.benchmarks.BenchmarkData;
+import io.github.msdk.datamodel.chromatograms.Chromatogram;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.rawdata.centroiding.LocalMaximaCentroidingAlgorithm;
+import io.github.msdk.util.metrics.MSDKMetrics;
+import io.github.msdk.util.tolerances.MaximumMzTolerance;
+import io.github.msdk.util.tolerances.MzTolerance;
+
+/**
+ * Benchmark of HighestDataPointConnector, which is package-private, on synthetic centroided scans.
+ * The throughput is reported in scans per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HighestDataPointConnectorBenchmark {
+
+  private static final int NUMBER_OF_SCANS = 1000;
+
+  private final MzTolerance mzTolerance = new MaximumMzTolerance(0.003, 10.0);
+  private MsScan scans[];
+
+  @Setup
+  public void setup() {
+    final MsScan profileScans[] =
+        BenchmarkData.getScans(BenchmarkData.generateProfileScans(NUMBER_OF_SCANS, 20000));
+    final LocalMaximaCentroidingAlgorithm centroider = new LocalMaximaCentroidingAlgorithm();
+    scans = new MsScan[profileScans.length];
+    for (int i = 0; i < profileScans.length; i++)
+      scans[i] = centroider.centroidScan(profileScans[i]);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUMBER_OF_SCANS)
+  public List<Chromatogram> connectScans() {
+    final HighestDataPointConnector connector = new HighestDataPointConnector(100.0, 2.0, 1000.0,
+        MSDKMetrics.start("HighestDataPointConnectorBenchmark", "scans"));
+    for (MsScan scan : scans)
+      connector.addScan(scan, mzTolerance);
+    final List<Chromatogram> chromatograms = new ArrayList<>();
+    connector.finishChromatograms(chromatograms);
+    return chromatograms;
+  }
+
+}
@@ -0,0 +1,262 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+
+import io.github.msdk.util.metrics.MSDKMetrics;
+
+/**
+ * Executes many {@link MSDKMethod}s concurrently on a bounded thread pool, for example one
+ * {@link MSDKMethodChain} per raw data file of a batch. Each submitted method has an estimated
+ * memory weight (in any unit, for example megabytes), and methods are started only while the sum
+ * of the weights of the running methods stays within the memory limit. A method whose weight
+ * exceeds the limit on its own is run when no other method is running. The methods are started
+ * in the order in which they were submitted: a method that fits within the limit still waits
+ * until all methods submitted before it have started.
+ *
+ * The results are returned as {@link CompletableFuture}s. A future completes exceptionally if its
+ * method throws an exception, and is canceled if the method or the whole executor is canceled.
+ * Canceling a future cancels its method. The wall time of each method is reported to the
+ * {@link io.github.msdk.util.metrics.MSDKMetricsListener}, if one is registered.
+ */
+public class MSDKBatchExecutor {
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final @Nonnull ExecutorService threadPool;
+  private final long memoryLimit;
+
+  // Tasks that were submitted and have not completed yet. Completed tasks are only counted, so that
+  // their methods and results can be garbage collected.
+  private final @Nonnull Set<BatchTask<?>> activeTasks = new LinkedHashSet<>();
+  // Tasks that have not started yet, in the order of submission. Only the first of them may start.
+  private final @Nonnull Deque<BatchTask<?>> pendingTasks = new ArrayDeque<>();
+  private int submittedTasks = 0, completedTasks = 0;
+  private long usedMemory = 0;
+  private volatile boolean canceled = false;
+
+  /**
+   * <p>
+   * Constructor for MSDKBatchExecutor.
+   * </p>
+   *
+   * @param numberOfThreads the maximum number of methods that run at the same time
+   * @param memoryLimit the maximum sum of the memory weights of the running methods
+   */
+  public MSDKBatchExecutor(int numberOfThreads, long memoryLimit) {
+    Preconditions.checkArgument(numberOfThreads >= 1, "Number of threads must be at least 1");
+    Preconditions.checkArgument(memoryLimit >= 0, "Memory limit must not be negative");
+    this.memoryLimit = memoryLimit;
+    final AtomicInteger threadCounter = new AtomicInteger();
+    final ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, "MSDKBatchExecutor-" + threadCounter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    this.threadPool = Executors.newFixedThreadPool(numberOfThreads, threadFactory);
+  }
+
+  /**
+   * Submits a method for execution.
+   *
+   * @param method a {@link io.github.msdk.MSDKMethod} object.
+   * @param memoryWeight the estimated memory use of the method, in the unit of the memory limit
+   * @param <T> Type of the result of the method.
+   * @return a future of the result of the method
+   */
+  public @Nonnull <T> CompletableFuture<T> submit(@Nonnull MSDKMethod<T> method,
+      long memoryWeight) {
+    Preconditions.checkNotNull(method);
+    Preconditions.checkArgument(memoryWeight >= 0, "Memory weight must not be negative");
+
+    final BatchTask<T> task = new BatchTask<>(method, memoryWeight);
+    synchronized (this) {
+      Preconditions.checkState(!canceled, "The batch executor was canceled");
+      activeTasks.add(task);
+      pendingTasks.addLast(task);
+      submittedTasks++;
+    }
+
+    // Canceling the future cancels the method
+    task.future.whenComplete((result, exception) -> {
+      if (task.future.isCancelled())
+        method.cancel();
+      taskCompleted(task);
+    });
+
+    threadPool.execute(() -> runTask(task));
+    return task.future;
+  }
+
+  /**
+   * Returns the overall progress of all submitted methods. Finished methods count as 1, methods
+   * that have not started yet as 0.
+   *
+   * @return Finished percentage (0.0 to 1.0, inclusive), or null if no method was submitted.
+   */
+  public synchronized @Nullable Float getFinishedPercentage() {
+    if (submittedTasks == 0)
+      return null;
+    float finished = completedTasks;
+    for (BatchTask<?> task : activeTasks)
+      finished += task.getFinishedPercentage();
+    return finished / submittedTasks;
+  }
+
+  /**
+   * Cancels all running methods and all methods that have not started yet. No further methods can
+   * be submitted after a cancel.
+   */
+  public void cancel() {
+    final List<BatchTask<?>> tasksToCancel;
+    synchronized (this) {
+      canceled = true;
+      tasksToCancel = new ArrayList<>(activeTasks);
+      notifyAll();
+    }
+    for (BatchTask<?> task : tasksToCancel) {
+      task.future.cancel(false);
+      task.method.cancel();
+    }
+  }
+
+  /**
+   * Shuts down the thread pool after all submitted methods have finished.
+   */
+  public void shutdown() {
+    threadPool.shutdown();
+  }
+
+  /**
+   * Waits until all submitted methods have finished after a shutdown.
+   *
+   * @param timeout a long.
+   * @param unit a {@link java.util.concurrent.TimeUnit} object.
+   * @return true if the executor terminated, false if the timeout elapsed
+   * @throws java.lang.InterruptedException if any.
+   */
+  public boolean awaitTermination(long timeout, @Nonnull TimeUnit unit)
+      throws InterruptedException {
+    return threadPool.awaitTermination(timeout, unit);
+  }
+
+  private <T> void runTask(@Nonnull BatchTask<T> task) {
+    if (task.future.isDone())
+      return;
+
+    try {
+      acquireMemory(task);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      task.future.cancel(false);
+      return;
+    } catch (CancellationException e) {
+      task.future.cancel(false);
+      return;
+    }
+
+    try {
+      if (task.future.isDone())
+        return;
+      task.started = true;
+      final T result = MSDKMetrics.execute(task.method);
+      if (canceled || task.future.isCancelled())
+        task.future.cancel(false);
+      else
+        task.future.complete(result);
+    } catch (Throwable e) {
+      logger.warn("Batch method " + task.method.getClass().getName() + " failed: " + e);
+      task.future.completeExceptionally(e);
+    } finally {
+      releaseMemory(task.memoryWeight);
+    }
+  }
+
+  private synchronized void acquireMemory(@Nonnull BatchTask<?> task) throws InterruptedException {
+    while ((pendingTasks.peekFirst() != task)
+        || ((usedMemory > 0) && (usedMemory + task.memoryWeight > memoryLimit))) {
+      // A task that was canceled while waiting has been removed from the pending tasks
+      if (canceled || task.future.isDone() || !pendingTasks.contains(task))
+        throw new CancellationException();
+      wait();
+    }
+    if (canceled || task.future.isDone())
+      throw new CancellationException();
+    usedMemory += task.memoryWeight;
+
+    // Let the next pending task check the memory limit
+    pendingTasks.removeFirst();
+    notifyAll();
+  }
+
+  private synchronized void taskCompleted(@Nonnull BatchTask<?> task) {
+    if (activeTasks.remove(task))
+      completedTasks++;
+
+    // A task that was canceled before it started must not block the tasks submitted after it
+    pendingTasks.remove(task);
+    notifyAll();
+  }
+
+  private synchronized void releaseMemory(long memoryWeight) {
+    usedMemory -= memoryWeight;
+    notifyAll();
+  }
+
+  /**
+   * A submitted method with its future.
+   */
+  private static class BatchTask<T> {
+
+    private final @Nonnull MSDKMethod<T> method;
+    private final long memoryWeight;
+    private final @Nonnull CompletableFuture<T> future = new CompletableFuture<>();
+    private volatile boolean started = false;
+
+    BatchTask(@Nonnull MSDKMethod<T> method, long memoryWeight) {
+      this.method = method;
+      this.memoryWeight = memoryWeight;
+    }
+
+    float getFinishedPercentage() {
+      if (!started)
+        return 0f;
+      final Float percentage = method.getFinishedPercentage();
+      return (percentage == null) ? 0f : Math.min(1f, percentage);
+    }
+
+  }
+
+}
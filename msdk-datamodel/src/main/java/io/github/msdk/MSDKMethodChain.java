@@ -0,0 +1,149 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A sequence of methods that are executed one after another, where each method is created from the
+ * result of the previous one, for example import, chromatogram building and export of one file.
+ * The chain is itself an {@link MSDKMethod}, whose result is the result of the last method.
+ *
+ * The progress of the chain is the number of finished methods plus the progress of the running
+ * method, divided by the number of methods. cancel() is forwarded to the running method, and no
+ * further methods are started after a cancel.
+ *
+ * A chain is immutable, {@link #then(Function)} returns a new chain. Each chain object can be
+ * executed only once, because it keeps the state of the execution.
+ *
+ * @param <ResultType> Type of the result of the last method of the chain.
+ */
+public class MSDKMethodChain<ResultType> implements MSDKMethod<ResultType> {
+
+  private final @Nonnull List<Function<Object, MSDKMethod<?>>> steps;
+
+  private volatile @Nullable MSDKMethod<?> runningMethod;
+  private volatile int finishedSteps = 0;
+  private volatile boolean canceled = false;
+  private ResultType result;
+
+  private MSDKMethodChain(@Nonnull List<Function<Object, MSDKMethod<?>>> steps) {
+    this.steps = Collections.unmodifiableList(steps);
+  }
+
+  /**
+   * Creates a chain that starts with the given method.
+   *
+   * @param firstMethod the first method of the chain
+   * @param <T> Type of the result of the method.
+   * @return a {@link io.github.msdk.MSDKMethodChain} object.
+   */
+  public static @Nonnull <T> MSDKMethodChain<T> of(@Nonnull MSDKMethod<T> firstMethod) {
+    Preconditions.checkNotNull(firstMethod);
+    List<Function<Object, MSDKMethod<?>>> steps = new ArrayList<>();
+    steps.add(input -> firstMethod);
+    return new MSDKMethodChain<>(steps);
+  }
+
+  /**
+   * Returns a new chain that continues this chain with the method created by the given function
+   * from the result of the last method of this chain.
+   *
+   * @param nextMethod creates the next method from the result of the previous method
+   * @param <T> Type of the result of the next method.
+   * @return a {@link io.github.msdk.MSDKMethodChain} object.
+   */
+  @SuppressWarnings("unchecked")
+  public @Nonnull <T> MSDKMethodChain<T> then(
+      @Nonnull Function<? super ResultType, ? extends MSDKMethod<T>> nextMethod) {
+    Preconditions.checkNotNull(nextMethod);
+    List<Function<Object, MSDKMethod<?>>> newSteps = new ArrayList<>(steps);
+    newSteps.add(input -> nextMethod.apply((ResultType) input));
+    return new MSDKMethodChain<>(newSteps);
+  }
+
+  /**
+   * <p>
+   * getNumberOfMethods.
+   * </p>
+   *
+   * @return the number of methods in this chain
+   */
+  public int getNumberOfMethods() {
+    return steps.size();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Float getFinishedPercentage() {
+    final MSDKMethod<?> method = runningMethod;
+    float finished = finishedSteps;
+    if (method != null) {
+      final Float methodPercentage = method.getFinishedPercentage();
+      if (methodPercentage != null)
+        finished += methodPercentage;
+    }
+    return finished / steps.size();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @SuppressWarnings("unchecked")
+  public ResultType execute() throws MSDKException {
+    Object stepResult = null;
+    for (Function<Object, MSDKMethod<?>> step : steps) {
+      if (canceled)
+        return null;
+      final MSDKMethod<?> method = step.apply(stepResult);
+      Preconditions.checkNotNull(method, "The chain produced a null method");
+      runningMethod = method;
+
+      // The chain may have been canceled before runningMethod was set
+      if (canceled)
+        method.cancel();
+
+      stepResult = method.execute();
+      runningMethod = null;
+      finishedSteps++;
+    }
+    if (canceled)
+      return null;
+    result = (ResultType) stepResult;
+    return result;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public ResultType getResult() {
+    return result;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void cancel() {
+    canceled = true;
+    final MSDKMethod<?> method = runningMethod;
+    if (method != null)
+      method.cancel();
+  }
+
+}
@@ -13,6 +13,8 @@
 
 package io.github.msdk.datamodel.chromatograms;
 
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
 import java.util.List;
 
 import javax.annotation.Nonnull;
@@ -130,6 +132,83 @@ public interface Chromatogram {
   @Nullable
   double[] getMzValues(@Nullable double array[]);
 
+  /**
+   * Returns the retention time of the data point at the given index. Implementations that keep the
+   * data points in memory return the value without copying the whole array.
+   *
+   * @param index index of the data point, between 0 and getNumberOfDataPoints() - 1
+   * @return retention time
+   */
+  default float getRetentionTime(int index) {
+    return getRetentionTimes()[index];
+  }
+
+  /**
+   * Returns the intensity value of the data point at the given index. Implementations that keep the
+   * data points in memory return the value without copying the whole array.
+   *
+   * @param index index of the data point, between 0 and getNumberOfDataPoints() - 1
+   * @return intensity value
+   */
+  default float getIntensity(int index) {
+    return getIntensityValues()[index];
+  }
+
+  /**
+   * Returns the m/z value of the data point at the given index. Implementations that keep the data
+   * points in memory return the value without copying the whole array.
+   *
+   * @param index index of the data point, between 0 and getNumberOfDataPoints() - 1
+   * @return m/z value
+   * @throws IllegalStateException if this chromatogram has no m/z values
+   */
+  default double getMz(int index) {
+    final double mzValues[] = getMzValues();
+    if (mzValues == null)
+      throw new IllegalStateException("This chromatogram has no m/z values");
+    return mzValues[index];
+  }
+
+  /**
+   * Returns a read-only view of the retention times of this chromatogram. The limit of the buffer
+   * is equal to the number of data points. Implementations that keep the data points in memory
+   * return a view of their internal data instead of a copy, therefore the content of the buffer is
+   * only guaranteed to be valid until the data points of this chromatogram are changed.
+   *
+   * @return read-only buffer of retention times
+   */
+  @Nonnull
+  default FloatBuffer getRetentionTimeBuffer() {
+    return FloatBuffer.wrap(getRetentionTimes(), 0, getNumberOfDataPoints()).slice()
+        .asReadOnlyBuffer();
+  }
+
+  /**
+   * Returns a read-only view of the intensity values of this chromatogram. See
+   * {@link #getRetentionTimeBuffer()} for details.
+   *
+   * @return read-only buffer of intensity values
+   */
+  @Nonnull
+  default FloatBuffer getIntensityBuffer() {
+    return FloatBuffer.wrap(getIntensityValues(), 0, getNumberOfDataPoints()).slice()
+        .asReadOnlyBuffer();
+  }
+
+  /**
+   * Returns a read-only view of the m/z values of this chromatogram, or null if this chromatogram
+   * has no m/z values. See {@link #getRetentionTimeBuffer()} for details.
+   *
+   * @return read-only buffer of m/z values, or null
+   */
+  @Nullable
+  default DoubleBuffer getMzBuffer() {
+    final double mzValues[] = getMzValues();
+    if (mzValues == null)
+      return null;
+    return DoubleBuffer.wrap(mzValues, 0, getNumberOfDataPoints()).slice().asReadOnlyBuffer();
+  }
+
 
   /**
    * Returns the m/z value of this chromatogram, or null if no m/z value is set for the
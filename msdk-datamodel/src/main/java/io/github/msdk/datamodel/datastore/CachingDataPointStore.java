@@ -0,0 +1,208 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.datastore;
+
+import java.lang.reflect.Array;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A DataPointStore that wraps another store and keeps recently loaded arrays in memory, so that
+ * repeated loads of the same data do not need to read from the underlying store (e.g. from disk).
+ * The size of the cache is limited by the total number of bytes of the cached arrays, and the
+ * least recently used arrays are evicted first.
+ *
+ * Only data stored through this object are cached, because the size of the stored arrays must be
+ * known. The numbers of cache hits, misses and evictions are counted, so the cache size can be
+ * tuned for a particular workload.
+ *
+ * This class can be safely used by multiple threads. The cache itself is guarded by the lock of
+ * this object, but loadData() reads from the underlying store and copies cached arrays without
+ * holding it, so cache misses of different threads are not serialized.
+ */
+public class CachingDataPointStore implements DataPointStore {
+
+  private final @Nonnull DataPointStore dataStore;
+  private final long maxCacheBytes;
+
+  // Size of the arrays stored through this object
+  private HashMap<Object, Integer> storedSizes = new HashMap<>();
+
+  // Access-ordered map, the first entry is the least recently used one
+  private final LinkedHashMap<Object, Object> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long cachedBytes = 0;
+  private long hitCount = 0, missCount = 0, evictionCount = 0;
+
+  CachingDataPointStore(@Nonnull DataPointStore dataStore, long maxCacheBytes) {
+    Preconditions.checkNotNull(dataStore);
+    Preconditions.checkArgument(maxCacheBytes > 0, "Cache size must be positive");
+    this.dataStore = dataStore;
+    this.maxCacheBytes = maxCacheBytes;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  synchronized public @Nonnull Object storeData(@Nonnull Object data, @Nonnull Integer size) {
+
+    if (storedSizes == null)
+      throw new IllegalStateException("This object has been disposed");
+
+    final Object id = dataStore.storeData(data, size);
+    storedSizes.put(id, size);
+    return id;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void loadData(@Nonnull Object id, @Nonnull Object array) {
+
+    final Object cachedArray;
+    final Integer size;
+    synchronized (this) {
+      if (storedSizes == null)
+        throw new IllegalStateException("This object has been disposed");
+      cachedArray = cache.get(id);
+      if ((cachedArray != null) && (array.getClass() == cachedArray.getClass()))
+        hitCount++;
+      else
+        missCount++;
+      size = storedSizes.get(id);
+    }
+
+    // The cached arrays are never modified, so they can be copied without holding the lock
+    if ((cachedArray != null) && (array.getClass() == cachedArray.getClass())) {
+      final int cachedSize = Array.getLength(cachedArray);
+      if (Array.getLength(array) < cachedSize)
+        throw new IllegalArgumentException("The provided array does not fit all loaded objects");
+      System.arraycopy(cachedArray, 0, array, 0, cachedSize);
+      return;
+    }
+
+    // Read from the underlying store without holding the lock, so that concurrent misses do not
+    // wait for each other. Two threads missing the same ID both load it, the later one replaces
+    // the cached copy.
+    dataStore.loadData(id, array);
+
+    // Cache a copy of the loaded data
+    if (size == null)
+      return;
+    final long numOfBytes = getNumOfBytes(array, size);
+    if (numOfBytes > maxCacheBytes)
+      return;
+    final Object copy = Array.newInstance(array.getClass().getComponentType(), size);
+    System.arraycopy(array, 0, copy, 0, size);
+
+    synchronized (this) {
+
+      // Disposed or removed while loading
+      if ((storedSizes == null) || (!storedSizes.containsKey(id)))
+        return;
+
+      removeFromCache(id);
+      cache.put(id, copy);
+      cachedBytes += numOfBytes;
+
+      // Evict the least recently used arrays
+      Iterator<Map.Entry<Object, Object>> iterator = cache.entrySet().iterator();
+      while ((cachedBytes > maxCacheBytes) && iterator.hasNext()) {
+        Object evicted = iterator.next().getValue();
+        iterator.remove();
+        cachedBytes -= getNumOfBytes(evicted, Array.getLength(evicted));
+        evictionCount++;
+      }
+    }
+
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  synchronized public void removeData(@Nonnull Object id) {
+
+    if (storedSizes == null)
+      throw new IllegalStateException("This object has been disposed");
+
+    removeFromCache(id);
+    storedSizes.remove(id);
+    dataStore.removeData(id);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  synchronized public void dispose() {
+    cache.clear();
+    cachedBytes = 0;
+    storedSizes = null;
+    dataStore.dispose();
+  }
+
+  /**
+   * Returns the number of loadData() calls that were served from the cache.
+   *
+   * @return number of cache hits
+   */
+  synchronized public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of loadData() calls that had to read from the underlying store.
+   *
+   * @return number of cache misses
+   */
+  synchronized public long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns the number of arrays that were evicted from the cache to stay within its size limit.
+   *
+   * @return number of evictions
+   */
+  synchronized public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Returns the total size of the arrays currently held in the cache.
+   *
+   * @return cached data size in bytes
+   */
+  synchronized public long getCachedBytes() {
+    return cachedBytes;
+  }
+
+  private void removeFromCache(Object id) {
+    final Object removed = cache.remove(id);
+    if (removed != null)
+      cachedBytes -= getNumOfBytes(removed, Array.getLength(removed));
+  }
+
+  private static long getNumOfBytes(Object array, int size) {
+    final Class<?> componentType = array.getClass().getComponentType();
+    if (componentType.equals(Double.TYPE))
+      return (long) size * (Double.SIZE / 8);
+    else if (componentType.equals(Float.TYPE))
+      return (long) size * (Float.SIZE / 8);
+    else
+      throw new IllegalArgumentException("Unsupported array type");
+  }
+
+}
@@ -0,0 +1,364 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.datastore;
+
+import java.lang.reflect.Array;
+import java.util.HashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import javax.annotation.Nonnull;
+
+import io.github.msdk.MSDKRuntimeException;
+import io.github.msdk.util.MSNumpress;
+
+/**
+ * A DataPointStore implementation that keeps the data points in memory in a compressed form. The
+ * encoding is selected per store, see {@link DataPointCompression}. Arrays that cannot be encoded
+ * by MS-Numpress (e.g. negative or non-finite values) are always stored losslessly.
+ *
+ * Each loadData() call decodes the stored bytes again, therefore this store trades CPU time for
+ * memory.
+ *
+ * The methods of this class are synchronized, therefore it can be safely used by multiple threads.
+ */
+class CompressedMemoryDataStore implements DataPointStore {
+
+  private static final byte ENCODING_DELTA = 0;
+  private static final byte ENCODING_NUMPRESS = 1;
+
+  private final DataPointCompression compression;
+
+  private HashMap<Integer, StoredArray> storageMap = new HashMap<>();
+
+  private int lastStorageId = 0;
+
+  // Buffers and (de)compressors reused between calls
+  private byte encodeBuffer[] = new byte[20000];
+  private byte compressionBuffer[] = new byte[20000];
+  private double doubleBuffer[] = new double[2500];
+  private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+  private final Inflater inflater = new Inflater();
+
+  private long compressedSize = 0, uncompressedSize = 0;
+
+  /**
+   * One compressed array.
+   */
+  private static final class StoredArray {
+    final byte data[];
+    final int encodedLength;
+    final int size;
+    final boolean isDouble;
+    final byte encoding;
+    final boolean deflated;
+
+    StoredArray(byte data[], int encodedLength, int size, boolean isDouble, byte encoding,
+        boolean deflated) {
+      this.data = data;
+      this.encodedLength = encodedLength;
+      this.size = size;
+      this.isDouble = isDouble;
+      this.encoding = encoding;
+      this.deflated = deflated;
+    }
+  }
+
+  CompressedMemoryDataStore(@Nonnull DataPointCompression compression) {
+    this.compression = compression;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  synchronized public @Nonnull Object storeData(@Nonnull Object data, @Nonnull Integer size) {
+
+    if (storageMap == null)
+      throw new IllegalStateException("This object has been disposed");
+
+    final boolean isDouble;
+    if (data.getClass().getComponentType().equals(Double.TYPE))
+      isDouble = true;
+    else if (data.getClass().getComponentType().equals(Float.TYPE))
+      isDouble = false;
+    else
+      throw new IllegalArgumentException("Unsupported array type");
+
+    // Encode the values
+    byte encoding = ENCODING_DELTA;
+    int encodedLength = -1;
+    if (compression != DataPointCompression.LOSSLESS) {
+      encodedLength = isDouble ? encodeNumpress((double[]) data, size)
+          : encodeNumpress((float[]) data, size);
+      if (encodedLength >= 0)
+        encoding = ENCODING_NUMPRESS;
+    }
+    if (encodedLength < 0) {
+      encodedLength =
+          isDouble ? encodeDelta((double[]) data, size) : encodeDelta((float[]) data, size);
+    }
+
+    // Compress the encoded bytes
+    final boolean deflate = (compression != DataPointCompression.NEAR_LOSSLESS)
+        || (encoding == ENCODING_DELTA);
+    final byte storedBytes[];
+    if (deflate) {
+      storedBytes = deflate(encodedLength);
+    } else {
+      storedBytes = new byte[encodedLength];
+      System.arraycopy(encodeBuffer, 0, storedBytes, 0, encodedLength);
+    }
+
+    compressedSize += storedBytes.length;
+    uncompressedSize += (long) size * (isDouble ? 8 : 4);
+
+    // Increase the storage ID
+    lastStorageId++;
+    storageMap.put(lastStorageId,
+        new StoredArray(storedBytes, encodedLength, size, isDouble, encoding, deflate));
+
+    return lastStorageId;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  synchronized public void loadData(@Nonnull Object id, @Nonnull Object array) {
+
+    if (storageMap == null)
+      throw new IllegalStateException("This object has been disposed");
+
+    final StoredArray storedArray = storageMap.get(id);
+
+    if (storedArray == null)
+      throw new IllegalArgumentException("ID " + id + " not found in storage");
+
+    if (!array.getClass().isArray())
+      throw new IllegalArgumentException("The provided argument is not an array");
+
+    if (Array.getLength(array) < storedArray.size)
+      throw new IllegalArgumentException("The provided array does not fit all loaded objects");
+
+    final Class<?> componentType = array.getClass().getComponentType();
+    if (!componentType.equals(storedArray.isDouble ? Double.TYPE : Float.TYPE))
+      throw new IllegalArgumentException("The provided array type does not match the stored data");
+
+    if (storedArray.size == 0)
+      return;
+
+    // Decompress the encoded bytes
+    final byte encodedBytes[];
+    if (storedArray.deflated) {
+      encodedBytes = inflate(storedArray);
+    } else {
+      encodedBytes = storedArray.data;
+    }
+
+    // Decode the values directly into the provided array
+    if (storedArray.encoding == ENCODING_NUMPRESS) {
+      final int decoded;
+      if (storedArray.isDouble)
+        decoded =
+            MSNumpress.decodeLinear(encodedBytes, storedArray.encodedLength, (double[]) array);
+      else
+        decoded = MSNumpress.decodeSlof(encodedBytes, storedArray.encodedLength, (float[]) array);
+      if (decoded != storedArray.size)
+        throw new MSDKRuntimeException("MSNumpress decoder failed for ID " + id);
+    } else {
+      if (storedArray.isDouble)
+        decodeDelta(encodedBytes, (double[]) array, storedArray.size);
+      else
+        decodeDelta(encodedBytes, (float[]) array, storedArray.size);
+    }
+
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  synchronized public void removeData(@Nonnull Object id) {
+
+    if (storageMap == null)
+      throw new IllegalStateException("This object has been disposed");
+
+    StoredArray removed = storageMap.remove(id);
+    if (removed != null) {
+      compressedSize -= removed.data.length;
+      uncompressedSize -= (long) removed.size * (removed.isDouble ? 8 : 4);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  synchronized public void dispose() {
+    storageMap = null;
+    deflater.end();
+    inflater.end();
+  }
+
+  /**
+   * Returns the ratio between the size of the stored data and the size of the same data in
+   * uncompressed form.
+   *
+   * @return compression ratio, or 1 if no data are stored
+   */
+  synchronized double getCompressionRatio() {
+    if (compressedSize == 0)
+      return 1;
+    return (double) uncompressedSize / compressedSize;
+  }
+
+  private int encodeNumpress(double data[], int size) {
+    for (int i = 0; i < size; i++) {
+      if ((data[i] < 0) || Double.isNaN(data[i]) || Double.isInfinite(data[i]))
+        return -1;
+    }
+    final double fixedPoint = MSNumpress.optimalLinearFixedPoint(data, size);
+    if ((size > 0) && ((fixedPoint <= 0) || Double.isInfinite(fixedPoint)))
+      return -1;
+    ensureEncodeBuffer(8 + size * 5);
+    return MSNumpress.encodeLinear(data, size, encodeBuffer, fixedPoint);
+  }
+
+  private int encodeNumpress(float data[], int size) {
+    if (doubleBuffer.length < size)
+      doubleBuffer = new double[size * 2];
+    for (int i = 0; i < size; i++) {
+      if ((data[i] < 0) || Float.isNaN(data[i]) || Float.isInfinite(data[i]))
+        return -1;
+      doubleBuffer[i] = data[i];
+    }
+    ensureEncodeBuffer(8 + size * 2);
+    final double fixedPoint = MSNumpress.optimalSlofFixedPoint(doubleBuffer, size);
+    return MSNumpress.encodeSlof(doubleBuffer, size, encodeBuffer, fixedPoint);
+  }
+
+  /*
+   * The lossless encoding stores the differences between the bit patterns of consecutive values.
+   * For sorted or smooth data, the differences are small numbers, which are written as zig-zag
+   * encoded variable-length integers, so that the subsequent Deflate step can compress them well.
+   */
+  private int encodeDelta(double data[], int size) {
+    ensureEncodeBuffer(size * 10);
+    int pos = 0;
+    long previous = 0;
+    for (int i = 0; i < size; i++) {
+      final long bits = Double.doubleToRawLongBits(data[i]);
+      pos = writeVarLong(bits - previous, pos);
+      previous = bits;
+    }
+    return pos;
+  }
+
+  private int encodeDelta(float data[], int size) {
+    ensureEncodeBuffer(size * 5);
+    int pos = 0;
+    int previous = 0;
+    for (int i = 0; i < size; i++) {
+      final int bits = Float.floatToRawIntBits(data[i]);
+      pos = writeVarLong(bits - previous, pos);
+      previous = bits;
+    }
+    return pos;
+  }
+
+  private int writeVarLong(long value, int pos) {
+    long zigZag = (value << 1) ^ (value >> 63);
+    while ((zigZag & ~0x7FL) != 0) {
+      encodeBuffer[pos++] = (byte) ((zigZag & 0x7F) | 0x80);
+      zigZag >>>= 7;
+    }
+    encodeBuffer[pos++] = (byte) zigZag;
+    return pos;
+  }
+
+  private void decodeDelta(byte encoded[], double array[], int size) {
+    int pos = 0;
+    long previous = 0;
+    for (int i = 0; i < size; i++) {
+      long zigZag = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = encoded[pos++];
+        zigZag |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      previous += (zigZag >>> 1) ^ -(zigZag & 1);
+      array[i] = Double.longBitsToDouble(previous);
+    }
+  }
+
+  private void decodeDelta(byte encoded[], float array[], int size) {
+    int pos = 0;
+    int previous = 0;
+    for (int i = 0; i < size; i++) {
+      long zigZag = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = encoded[pos++];
+        zigZag |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      previous += (int) ((zigZag >>> 1) ^ -(zigZag & 1));
+      array[i] = Float.intBitsToFloat(previous);
+    }
+  }
+
+  private byte[] deflate(int encodedLength) {
+    deflater.reset();
+    deflater.setInput(encodeBuffer, 0, encodedLength);
+    deflater.finish();
+    if (compressionBuffer.length < encodedLength + 64)
+      compressionBuffer = new byte[(encodedLength + 64) * 2];
+    int compressedLength = 0;
+    while (!deflater.finished()) {
+      if (compressedLength == compressionBuffer.length) {
+        byte newBuffer[] = new byte[compressionBuffer.length * 2];
+        System.arraycopy(compressionBuffer, 0, newBuffer, 0, compressedLength);
+        compressionBuffer = newBuffer;
+      }
+      compressedLength += deflater.deflate(compressionBuffer, compressedLength,
+          compressionBuffer.length - compressedLength);
+    }
+    byte result[] = new byte[compressedLength];
+    System.arraycopy(compressionBuffer, 0, result, 0, compressedLength);
+    return result;
+  }
+
+  private byte[] inflate(StoredArray storedArray) {
+    if (compressionBuffer.length < storedArray.encodedLength)
+      compressionBuffer = new byte[storedArray.encodedLength * 2];
+    inflater.reset();
+    inflater.setInput(storedArray.data);
+    try {
+      int inflatedLength = 0;
+      while (inflatedLength < storedArray.encodedLength) {
+        int n = inflater.inflate(compressionBuffer, inflatedLength,
+            storedArray.encodedLength - inflatedLength);
+        if ((n == 0) && (inflater.finished() || inflater.needsInput()))
+          throw new MSDKRuntimeException("Compressed data are truncated");
+        inflatedLength += n;
+      }
+    } catch (DataFormatException e) {
+      throw new MSDKRuntimeException(e);
+    }
+    return compressionBuffer;
+  }
+
+  private void ensureEncodeBuffer(int size) {
+    if (encodeBuffer.length < size)
+      encodeBuffer = new byte[size * 2];
+  }
+
+}
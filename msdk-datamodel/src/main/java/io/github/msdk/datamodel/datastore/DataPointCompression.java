@@ -0,0 +1,39 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.datastore;
+
+/**
+ * Encoding used by the compressed data point store.
+ */
+public enum DataPointCompression {
+
+  /**
+   * Values are delta-encoded on their binary representation and compressed with Deflate. The
+   * loaded data are identical to the stored data.
+   */
+  LOSSLESS,
+
+  /**
+   * Double arrays (m/z values) are encoded with MS-Numpress linear prediction, float arrays
+   * (intensities, retention times) with MS-Numpress short logged float encoding. The relative
+   * error is in the order of 1e-4 for floats and well below 1 ppm for doubles.
+   */
+  NEAR_LOSSLESS,
+
+  /**
+   * Same as NEAR_LOSSLESS, followed by Deflate compression of the encoded bytes.
+   */
+  NEAR_LOSSLESS_DEFLATE;
+
+}
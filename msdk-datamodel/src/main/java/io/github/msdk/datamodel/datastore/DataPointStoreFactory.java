@@ -43,4 +43,82 @@ public class DataPointStoreFactory {
     return new TmpFileDataStore();
   }
 
+  /**
+   * <p>
+   * getTmpFileDataPointStore with compaction. Once the share of removed data in the temporary file
+   * exceeds the given ratio, the remaining data are rewritten into a new file in the background.
+   * </p>
+   *
+   * @param maxGarbageRatio a double value between 0 and 1 (exclusive).
+   * @return a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
+   */
+  public static final @Nonnull DataPointStore getTmpFileDataStore(double maxGarbageRatio) {
+    if ((maxGarbageRatio <= 0) || (maxGarbageRatio >= 1))
+      throw new IllegalArgumentException("Maximum garbage ratio must be between 0 and 1");
+    return new TmpFileDataStore(maxGarbageRatio);
+  }
+
+  /**
+   * <p>
+   * getMappedFileDataStore.
+   * </p>
+   *
+   * @return a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
+   */
+  public static final @Nonnull DataPointStore getMappedFileDataStore() {
+    return new MappedFileDataStore();
+  }
+
+  /**
+   * <p>
+   * getCompressedMemoryDataStore.
+   * </p>
+   *
+   * @param compression a {@link io.github.msdk.datamodel.datastore.DataPointCompression} object.
+   * @return a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
+   */
+  public static final @Nonnull DataPointStore getCompressedMemoryDataStore(
+      @Nonnull DataPointCompression compression) {
+    return new CompressedMemoryDataStore(compression);
+  }
+
+  /**
+   * <p>
+   * getOffHeapDataStore.
+   * </p>
+   *
+   * @return a {@link io.github.msdk.datamodel.datastore.OffHeapDataStore} object.
+   */
+  public static final @Nonnull OffHeapDataStore getOffHeapDataStore() {
+    return new OffHeapDataStore();
+  }
+
+  /**
+   * <p>
+   * getOffHeapDataStore with a limit on the allocated native memory. When the limit would be
+   * exceeded, storeData() throws an MSDKRuntimeException.
+   * </p>
+   *
+   * @param maxAllocatedBytes maximum native memory in bytes.
+   * @return a {@link io.github.msdk.datamodel.datastore.OffHeapDataStore} object.
+   */
+  public static final @Nonnull OffHeapDataStore getOffHeapDataStore(long maxAllocatedBytes) {
+    return new OffHeapDataStore(OffHeapDataStore.DEFAULT_SLAB_SIZE, maxAllocatedBytes);
+  }
+
+  /**
+   * <p>
+   * getCachingDataStore. Wraps the given store with a cache of recently loaded arrays, limited by
+   * the total size of the cached arrays.
+   * </p>
+   *
+   * @param dataStore a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
+   * @param maxCacheBytes maximum size of the cached arrays in bytes.
+   * @return a {@link io.github.msdk.datamodel.datastore.CachingDataPointStore} object.
+   */
+  public static final @Nonnull CachingDataPointStore getCachingDataStore(
+      @Nonnull DataPointStore dataStore, long maxCacheBytes) {
+    return new CachingDataPointStore(dataStore, maxCacheBytes);
+  }
+
 }
@@ -0,0 +1,273 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.datastore;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.msdk.MSDKRuntimeException;
+
+/**
+ * A DataPointStore implementation that stores the data points in a memory-mapped temporary file.
+ * The file is mapped in segments of fixed size, and new segments are mapped as needed when the
+ * existing ones are full. Each stored array occupies a contiguous region of a single segment.
+ *
+ * Only the storeData() method is synchronized. The loadData() method reads directly from the
+ * mapping without any locking, therefore multiple threads can load data concurrently.
+ *
+ * Like TmpFileDataStore, removing the data points only removes the reference, and the data remain
+ * in the temporary file until the store is disposed.
+ *
+ * Since this class stores data on disk, there is a risk that IOException may occur. If that
+ * happens, the IOException is wrapped in a MSDKRuntimeException and thrown.
+ */
+class MappedFileDataStore implements DataPointStore {
+
+  /** Default size of one mapped segment (64 MB) */
+  static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final File tmpDataFileName;
+  private final RandomAccessFile tmpDataFile;
+  private final FileChannel fileChannel;
+  private final int segmentSize;
+
+  /*
+   * The array of segments is replaced (never modified in place) when a new segment is mapped, so
+   * readers can safely access it without locking.
+   */
+  private volatile MappedByteBuffer segments[] = new MappedByteBuffer[0];
+
+  // Position in the file where the next segment will be mapped
+  private long nextSegmentOffset = 0;
+
+  // Write position within the last segment
+  private int writePosition = 0;
+
+  private final ConcurrentHashMap<Integer, StoredArray> storedArrays = new ConcurrentHashMap<>();
+
+  private volatile boolean disposed = false;
+
+  private int lastStorageId = 0;
+
+  /**
+   * Location of one stored array within the mapped segments.
+   */
+  private static final class StoredArray {
+    final int segment;
+    final int offset;
+    final int size;
+    final Class<?> componentType;
+
+    StoredArray(int segment, int offset, int size, Class<?> componentType) {
+      this.segment = segment;
+      this.offset = offset;
+      this.size = size;
+      this.componentType = componentType;
+    }
+  }
+
+  MappedFileDataStore() {
+    this(DEFAULT_SEGMENT_SIZE);
+  }
+
+  MappedFileDataStore(int segmentSize) {
+
+    if (segmentSize <= 0)
+      throw new IllegalArgumentException("Segment size must be positive");
+
+    this.segmentSize = segmentSize;
+
+    try {
+      tmpDataFileName = File.createTempFile("msdk", ".tmp");
+
+      logger.debug("Initializing a new memory-mapped data store in " + tmpDataFileName);
+
+      tmpDataFile = new RandomAccessFile(tmpDataFileName, "rw");
+      fileChannel = tmpDataFile.getChannel();
+
+      tmpDataFileName.deleteOnExit();
+
+    } catch (IOException e) {
+      throw new MSDKRuntimeException(e);
+    }
+
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nonnull
+  synchronized public Object storeData(@Nonnull Object array, @Nonnull Integer size) {
+
+    if (disposed)
+      throw new IllegalStateException("This object has been disposed");
+
+    final Class<?> componentType = array.getClass().getComponentType();
+    final int objectSize = getObjectSize(componentType);
+    final int numOfBytes = size * objectSize;
+
+    try {
+      // Map a new segment if the current one cannot hold the data
+      MappedByteBuffer currentSegments[] = segments;
+      if ((currentSegments.length == 0)
+          || (currentSegments[currentSegments.length - 1].capacity() - writePosition < numOfBytes)) {
+        mapNewSegment(Math.max(segmentSize, numOfBytes));
+        currentSegments = segments;
+      }
+
+      final int segmentIndex = currentSegments.length - 1;
+      final ByteBuffer target = currentSegments[segmentIndex].duplicate();
+      target.position(writePosition);
+
+      if (componentType.equals(Double.TYPE))
+        target.asDoubleBuffer().put((double[]) array, 0, size);
+      else
+        target.asFloatBuffer().put((float[]) array, 0, size);
+
+      // Increase the storage ID
+      lastStorageId++;
+
+      // Save the reference to the new items
+      storedArrays.put(lastStorageId,
+          new StoredArray(segmentIndex, writePosition, size, componentType));
+
+      writePosition += numOfBytes;
+
+    } catch (IOException e) {
+      throw new MSDKRuntimeException(e);
+    }
+
+    return lastStorageId;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void loadData(@Nonnull Object id, @Nonnull Object array) {
+
+    if (disposed)
+      throw new IllegalStateException("This object has been disposed");
+
+    final StoredArray storedArray = storedArrays.get(id);
+
+    if (storedArray == null)
+      throw new IllegalArgumentException(
+          "ID " + id + " not found in storage file " + tmpDataFileName);
+
+    if (!array.getClass().isArray())
+      throw new IllegalArgumentException("The provided argument is not an array");
+
+    if (Array.getLength(array) < storedArray.size)
+      throw new IllegalArgumentException("The provided array does not fit all loaded objects");
+
+    final Class<?> componentType = array.getClass().getComponentType();
+    if (!componentType.equals(storedArray.componentType))
+      throw new IllegalArgumentException("The provided array type does not match the stored data");
+
+    // Each reader works on its own view of the mapping, so no locking is needed
+    final MappedByteBuffer currentSegments[] = segments;
+    if (storedArray.segment >= currentSegments.length)
+      throw new IllegalStateException("This object has been disposed");
+    final ByteBuffer source = currentSegments[storedArray.segment].duplicate();
+    source.position(storedArray.offset);
+
+    if (componentType.equals(Double.TYPE))
+      source.asDoubleBuffer().get((double[]) array, 0, storedArray.size);
+    else
+      source.asFloatBuffer().get((float[]) array, 0, storedArray.size);
+
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void removeData(@Nonnull Object id) {
+
+    if (disposed)
+      throw new IllegalStateException("This object has been disposed");
+
+    storedArrays.remove(id);
+
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  synchronized public void dispose() {
+
+    if (disposed)
+      return;
+
+    disposed = true;
+
+    // Discard the references to the stored data and the mapped segments
+    storedArrays.clear();
+    segments = new MappedByteBuffer[0];
+
+    // Remove the temporary file
+    if (tmpDataFileName.exists()) {
+      logger.debug("Removing tmp-file " + tmpDataFileName);
+
+      try {
+        tmpDataFile.close();
+        tmpDataFileName.delete();
+      } catch (IOException e) {
+        logger.warn(
+            "Could not close and remove temporary file " + tmpDataFileName + ": " + e.toString());
+        e.printStackTrace();
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * When this object is garbage collected, remove the associated temporary data file from disk.
+   */
+  @Override
+  protected void finalize() {
+    dispose();
+  }
+
+  private void mapNewSegment(int size) throws IOException {
+    MappedByteBuffer newSegment =
+        fileChannel.map(FileChannel.MapMode.READ_WRITE, nextSegmentOffset, size);
+    nextSegmentOffset += size;
+    writePosition = 0;
+
+    MappedByteBuffer newSegments[] = new MappedByteBuffer[segments.length + 1];
+    System.arraycopy(segments, 0, newSegments, 0, segments.length);
+    newSegments[segments.length] = newSegment;
+    segments = newSegments;
+  }
+
+  private static int getObjectSize(Class<?> componentType) {
+    if (Double.TYPE.equals(componentType))
+      return Double.SIZE / 8;
+    else if (Float.TYPE.equals(componentType))
+      return Float.SIZE / 8;
+    else
+      throw new IllegalArgumentException("Unsupported array type");
+  }
+
+}
@@ -0,0 +1,270 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.datastore;
+
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nonnull;
+
+import io.github.msdk.MSDKRuntimeException;
+
+/**
+ * A DataPointStore implementation that stores the data points outside of the Java heap, in direct
+ * ByteBuffers (slabs) allocated from an arena. The data do not contribute to the heap size and are
+ * never moved or scanned by the garbage collector.
+ *
+ * The storage ID is a Long that packs the slab index, the offset within the slab and the number of
+ * stored values, so no lookup table is needed to locate the data. Each record is preceded by a
+ * 4-byte header holding the number and type of the values, which is cleared when the record is
+ * removed. A slab is released as soon as all records in it have been removed, and all slabs are
+ * released by dispose().
+ *
+ * The storeData() and removeData() methods are synchronized, loadData() works without locking.
+ */
+public class OffHeapDataStore implements DataPointStore {
+
+  /** Default size of one slab (16 MB) */
+  static final int DEFAULT_SLAB_SIZE = 16 * 1024 * 1024;
+
+  // Layout of the storage ID: 16 bits slab, 24 bits offset (in 4-byte units), 24 bits length
+  private static final int OFFSET_BITS = 24, LENGTH_BITS = 24;
+  private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+  private static final long LENGTH_MASK = (1L << LENGTH_BITS) - 1;
+  private static final int MAX_SLABS = 1 << 16;
+  private static final int HEADER_SIZE = 4;
+  private static final int REMOVED = -1;
+
+  private final int slabSize;
+  private final long maxAllocatedBytes;
+
+  /*
+   * The array of slabs is replaced (never modified in place) when it grows, so readers can safely
+   * access it without locking. Released slabs are set to null in a new copy of the array.
+   */
+  private volatile ByteBuffer slabs[] = new ByteBuffer[0];
+  private int liveRecords[] = new int[0];
+
+  // Write position within the last slab
+  private int writePosition = 0;
+
+  private long allocatedBytes = 0, usedBytes = 0;
+
+  private volatile boolean disposed = false;
+
+  OffHeapDataStore() {
+    this(DEFAULT_SLAB_SIZE, Long.MAX_VALUE);
+  }
+
+  OffHeapDataStore(int slabSize, long maxAllocatedBytes) {
+    if ((slabSize <= HEADER_SIZE) || (slabSize > (OFFSET_MASK << 2)))
+      throw new IllegalArgumentException("Invalid slab size " + slabSize);
+    if (maxAllocatedBytes <= 0)
+      throw new IllegalArgumentException("The memory limit must be positive");
+    this.slabSize = slabSize;
+    this.maxAllocatedBytes = maxAllocatedBytes;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nonnull
+  synchronized public Object storeData(@Nonnull Object array, @Nonnull Integer size) {
+
+    if (disposed)
+      throw new IllegalStateException("This object has been disposed");
+
+    final Class<?> componentType = array.getClass().getComponentType();
+    final int objectSize;
+    if (componentType.equals(Double.TYPE))
+      objectSize = Double.SIZE / 8;
+    else if (componentType.equals(Float.TYPE))
+      objectSize = Float.SIZE / 8;
+    else
+      throw new IllegalArgumentException("Unsupported array type");
+
+    if (size > LENGTH_MASK)
+      throw new IllegalArgumentException("Cannot store more than " + LENGTH_MASK + " values");
+
+    final int numOfBytes = HEADER_SIZE + size * objectSize;
+
+    // Allocate a new slab if the current one cannot hold the data
+    ByteBuffer currentSlabs[] = slabs;
+    if ((currentSlabs.length == 0) || (currentSlabs[currentSlabs.length - 1] == null)
+        || (currentSlabs[currentSlabs.length - 1].capacity() - writePosition < numOfBytes)) {
+      allocateSlab(Math.max(slabSize, numOfBytes));
+      currentSlabs = slabs;
+    }
+
+    final int slabIndex = currentSlabs.length - 1;
+    final ByteBuffer target = currentSlabs[slabIndex].duplicate();
+    target.position(writePosition);
+    target.putInt(encodeHeader(size, objectSize == Double.SIZE / 8));
+    if (objectSize == Double.SIZE / 8)
+      target.asDoubleBuffer().put((double[]) array, 0, size);
+    else
+      target.asFloatBuffer().put((float[]) array, 0, size);
+
+    final long id = ((long) slabIndex << (OFFSET_BITS + LENGTH_BITS))
+        | ((long) (writePosition >> 2) << LENGTH_BITS) | size;
+
+    liveRecords[slabIndex]++;
+    usedBytes += numOfBytes;
+
+    // Keep the records aligned to 4 bytes, so that the offset fits in the storage ID
+    writePosition += (numOfBytes + 3) & ~3;
+
+    return id;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void loadData(@Nonnull Object id, @Nonnull Object array) {
+
+    if (disposed)
+      throw new IllegalStateException("This object has been disposed");
+
+    if (!(id instanceof Long))
+      throw new IllegalArgumentException("ID " + id + " not found in storage");
+
+    final long packedId = (Long) id;
+    final int slabIndex = (int) (packedId >>> (OFFSET_BITS + LENGTH_BITS));
+    final int offset = (int) ((packedId >>> LENGTH_BITS) & OFFSET_MASK) << 2;
+    final int size = (int) (packedId & LENGTH_MASK);
+
+    final ByteBuffer currentSlabs[] = slabs;
+    final ByteBuffer slab = (slabIndex < currentSlabs.length) ? currentSlabs[slabIndex] : null;
+    if ((slab == null) || (offset + HEADER_SIZE > slab.capacity()))
+      throw new IllegalArgumentException("ID " + id + " not found in storage");
+
+    final int header = slab.getInt(offset);
+    if ((header == REMOVED) || ((header >>> 1) != size))
+      throw new IllegalArgumentException("ID " + id + " not found in storage");
+
+    if (!array.getClass().isArray())
+      throw new IllegalArgumentException("The provided argument is not an array");
+
+    if (Array.getLength(array) < size)
+      throw new IllegalArgumentException("The provided array does not fit all loaded objects");
+
+    final boolean isDouble = (header & 1) != 0;
+    final Class<?> componentType = array.getClass().getComponentType();
+    if (!componentType.equals(isDouble ? Double.TYPE : Float.TYPE))
+      throw new IllegalArgumentException("The provided array type does not match the stored data");
+
+    final ByteBuffer source = slab.duplicate();
+    source.position(offset + HEADER_SIZE);
+
+    if (isDouble)
+      source.asDoubleBuffer().get((double[]) array, 0, size);
+    else
+      source.asFloatBuffer().get((float[]) array, 0, size);
+
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  synchronized public void removeData(@Nonnull Object id) {
+
+    if (disposed)
+      throw new IllegalStateException("This object has been disposed");
+
+    if (!(id instanceof Long))
+      return;
+
+    final long packedId = (Long) id;
+    final int slabIndex = (int) (packedId >>> (OFFSET_BITS + LENGTH_BITS));
+    final int offset = (int) ((packedId >>> LENGTH_BITS) & OFFSET_MASK) << 2;
+    final int size = (int) (packedId & LENGTH_MASK);
+
+    final ByteBuffer currentSlabs[] = slabs;
+    if ((slabIndex >= currentSlabs.length) || (currentSlabs[slabIndex] == null)
+        || (offset + HEADER_SIZE > currentSlabs[slabIndex].capacity()))
+      return;
+
+    final ByteBuffer slab = currentSlabs[slabIndex];
+    final int header = slab.getInt(offset);
+    if ((header == REMOVED) || ((header >>> 1) != size))
+      return;
+
+    final int objectSize = ((header & 1) != 0) ? Double.SIZE / 8 : Float.SIZE / 8;
+    slab.putInt(offset, REMOVED);
+    usedBytes -= HEADER_SIZE + (long) size * objectSize;
+    liveRecords[slabIndex]--;
+
+    // Release the slab when it is empty, unless we are still writing into it
+    if ((liveRecords[slabIndex] == 0) && (slabIndex < currentSlabs.length - 1)) {
+      ByteBuffer newSlabs[] = currentSlabs.clone();
+      newSlabs[slabIndex] = null;
+      allocatedBytes -= slab.capacity();
+      slabs = newSlabs;
+    }
+
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  synchronized public void dispose() {
+    disposed = true;
+    slabs = new ByteBuffer[0];
+    liveRecords = new int[0];
+    allocatedBytes = 0;
+    usedBytes = 0;
+  }
+
+  /**
+   * Returns the total size of the native memory allocated by this store, including the free space
+   * in the slabs.
+   *
+   * @return allocated native memory in bytes
+   */
+  synchronized public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * Returns the size of the native memory occupied by the data that have not been removed.
+   *
+   * @return used native memory in bytes
+   */
+  synchronized public long getUsedBytes() {
+    return usedBytes;
+  }
+
+  private static int encodeHeader(int size, boolean isDouble) {
+    return (size << 1) | (isDouble ? 1 : 0);
+  }
+
+  private void allocateSlab(int size) {
+
+    if (slabs.length >= MAX_SLABS)
+      throw new MSDKRuntimeException("Maximum number of slabs exceeded");
+
+    if (allocatedBytes + size > maxAllocatedBytes)
+      throw new MSDKRuntimeException("Cannot allocate " + size
+          + " bytes of native memory, the limit of " + maxAllocatedBytes + " bytes was reached");
+
+    ByteBuffer newSlab = ByteBuffer.allocateDirect(size);
+    allocatedBytes += size;
+
+    ByteBuffer newSlabs[] = new ByteBuffer[slabs.length + 1];
+    System.arraycopy(slabs, 0, newSlabs, 0, slabs.length);
+    newSlabs[slabs.length] = newSlab;
+    int newLiveRecords[] = new int[liveRecords.length + 1];
+    System.arraycopy(liveRecords, 0, newLiveRecords, 0, liveRecords.length);
+    liveRecords = newLiveRecords;
+    writePosition = 0;
+    slabs = newSlabs;
+  }
+
+}
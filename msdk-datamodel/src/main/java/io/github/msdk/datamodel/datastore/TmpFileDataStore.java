@@ -22,6 +22,7 @@ import java.nio.DoubleBuffer;
 import java.nio.FloatBuffer;
 import java.nio.channels.FileChannel;
 import java.util.HashMap;
+import java.util.Map;
 
 import javax.annotation.Nonnull;
 
@@ -37,6 +38,13 @@ import io.github.msdk.MSDKRuntimeException;
  * in the temporary file. If a single instance is continuously used to add and remove data points,
  * the file will grow indefinitely.
  * 
+ * To avoid that, the store can be created in a compacting mode by specifying a maximum garbage
+ * ratio. The store then keeps track of the bytes occupied by removed data, and once their share of
+ * the file size exceeds the given ratio, the remaining data are rewritten into a fresh temporary
+ * file by a background thread. The storage IDs remain valid, because only their file offsets are
+ * updated when the new file replaces the old one. Data can be loaded from the old file while the
+ * new file is being written.
+ * 
  * Since this class stores data on disk, there is a risk that IOException may occur. If that
  * happens, the IOException is wrapped in a MSDKRuntimeException and thrown.
  * 
@@ -46,33 +54,41 @@ class TmpFileDataStore implements DataPointStore {
 
   private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-  private final File tmpDataFileName;
-  private final RandomAccessFile tmpDataFile;
+  private File tmpDataFileName;
+  private RandomAccessFile tmpDataFile;
 
   // Start with a ~20 KB byte buffer, that will be expanded based on needs
   private ByteBuffer byteBuffer = ByteBuffer.allocate(20000);
 
   private final HashMap<Integer, Long> dataPointsOffsets = new HashMap<>();
   private final HashMap<Integer, Integer> dataPointsLengths = new HashMap<>();
+  private final HashMap<Integer, Integer> dataPointsNumOfBytes = new HashMap<>();
 
   private int lastStorageId = 0;
 
+  // Compaction settings and state, maxGarbageRatio <= 0 disables compaction
+  private final double maxGarbageRatio;
+  private long deadBytes = 0;
+  private boolean compactionRunning = false;
+  private Thread compactionThread;
+
   TmpFileDataStore() {
+    this(0);
+  }
+
+  TmpFileDataStore(double maxGarbageRatio) {
+
+    if (maxGarbageRatio >= 1)
+      throw new IllegalArgumentException("Maximum garbage ratio must be lower than 1");
+
+    this.maxGarbageRatio = maxGarbageRatio;
 
     try {
       tmpDataFileName = File.createTempFile("msdk", ".tmp");
 
       logger.debug("Initializing a new tmp-file data store in " + tmpDataFileName);
 
-      tmpDataFile = new RandomAccessFile(tmpDataFileName, "rw");
-
-      /*
-       * Lock the temporary file.
-       */
-      FileChannel fileChannel = tmpDataFile.getChannel();
-      fileChannel.lock();
-
-      tmpDataFileName.deleteOnExit();
+      tmpDataFile = openTmpFile(tmpDataFileName);
 
     } catch (IOException e) {
       throw new MSDKRuntimeException(e);
@@ -91,6 +107,9 @@ class TmpFileDataStore implements DataPointStore {
     try {
       final long currentOffset = tmpDataFile.length();
 
+      // Always append at the end, loadData() may have moved the file pointer
+      tmpDataFile.seek(currentOffset);
+
       int objectSize;
       if (array.getClass().getComponentType().equals(Double.TYPE))
         objectSize = Double.SIZE / 8;
@@ -122,6 +141,7 @@ class TmpFileDataStore implements DataPointStore {
       // Save the reference to the new items
       dataPointsOffsets.put(lastStorageId, currentOffset);
       dataPointsLengths.put(lastStorageId, size);
+      dataPointsNumOfBytes.put(lastStorageId, numOfBytes);
 
     } catch (IOException e) {
       throw new MSDKRuntimeException(e);
@@ -194,7 +214,189 @@ class TmpFileDataStore implements DataPointStore {
 
     dataPointsOffsets.remove(id);
     dataPointsLengths.remove(id);
+    final Integer removedBytes = dataPointsNumOfBytes.remove(id);
+
+    if ((removedBytes == null) || (maxGarbageRatio <= 0))
+      return;
+
+    deadBytes += removedBytes;
+
+    try {
+      final long fileSize = tmpDataFile.length();
+      if ((!compactionRunning) && (fileSize > 0)
+          && ((double) deadBytes / fileSize > maxGarbageRatio)) {
+        compactionRunning = true;
+        compactionThread = new Thread(this::compact, "MSDK tmp-file compaction");
+        compactionThread.setDaemon(true);
+        compactionThread.start();
+      }
+    } catch (IOException e) {
+      throw new MSDKRuntimeException(e);
+    }
+
+  }
+
+  /**
+   * Waits until the compaction that is currently running, if any, has replaced the temporary file.
+   */
+  void awaitCompaction() throws InterruptedException {
+    final Thread thread;
+    synchronized (this) {
+      thread = compactionThread;
+    }
+    if (thread != null)
+      thread.join();
+  }
+
+  /**
+   * Returns the current size of the temporary file in bytes.
+   */
+  synchronized long getFileSize() {
+    try {
+      return tmpDataFile.length();
+    } catch (IOException e) {
+      throw new MSDKRuntimeException(e);
+    }
+  }
+
+  /**
+   * Rewrites the data that are still referenced into a new temporary file and replaces the current
+   * file with it. Only the final replacement is done while holding the lock of this object, the
+   * copying of the data runs concurrently with other operations.
+   */
+  private void compact() {
+
+    final File newFileName;
+    final RandomAccessFile newFile;
+    final FileChannel oldChannel;
+    final Map<Integer, Long> snapshotOffsets;
+    final Map<Integer, Integer> snapshotNumOfBytes;
+    final HashMap<Integer, Long> newOffsets = new HashMap<>();
+
+    try {
+
+      synchronized (this) {
+        if (byteBuffer == null) {
+          compactionRunning = false;
+          return;
+        }
+        oldChannel = tmpDataFile.getChannel();
+        snapshotOffsets = new HashMap<>(dataPointsOffsets);
+        snapshotNumOfBytes = new HashMap<>(dataPointsNumOfBytes);
+      }
+
+      newFileName = File.createTempFile("msdk", ".tmp");
+      logger.debug("Compacting tmp-file " + tmpDataFileName + " into " + newFileName);
+      newFile = openTmpFile(newFileName);
+
+    } catch (IOException e) {
+      logger.warn("Could not start compaction of tmp-file " + tmpDataFileName + ": " + e);
+      synchronized (this) {
+        compactionRunning = false;
+      }
+      return;
+    }
+
+    try {
+
+      // Copy the live data without holding the lock, using positional reads that do not interfere
+      // with the file pointer of the old file
+      ByteBuffer copyBuffer = ByteBuffer.allocate(20000);
+      for (Map.Entry<Integer, Long> entry : snapshotOffsets.entrySet()) {
+        final int numOfBytes = snapshotNumOfBytes.get(entry.getKey());
+        copyBuffer = copyRecord(oldChannel, entry.getValue(), numOfBytes, newFile, copyBuffer);
+        newOffsets.put(entry.getKey(), newFile.length() - numOfBytes);
+      }
+
+      synchronized (this) {
+
+        if (byteBuffer == null) {
+          // Disposed in the meantime
+          newFile.close();
+          newFileName.delete();
+          return;
+        }
+
+        // Copy the data that were added while the compaction was running
+        long newDeadBytes = 0;
+        for (Map.Entry<Integer, Long> entry : dataPointsOffsets.entrySet()) {
+          if (!newOffsets.containsKey(entry.getKey())) {
+            final int numOfBytes = dataPointsNumOfBytes.get(entry.getKey());
+            copyBuffer =
+                copyRecord(oldChannel, entry.getValue(), numOfBytes, newFile, copyBuffer);
+            newOffsets.put(entry.getKey(), newFile.length() - numOfBytes);
+          }
+        }
+
+        // Account for the data that were removed while the compaction was running
+        for (Map.Entry<Integer, Integer> entry : snapshotNumOfBytes.entrySet()) {
+          if (!dataPointsOffsets.containsKey(entry.getKey())) {
+            newOffsets.remove(entry.getKey());
+            newDeadBytes += entry.getValue();
+          }
+        }
+
+        // Replace the file and the offsets at once
+        final File oldFileName = tmpDataFileName;
+        final RandomAccessFile oldFile = tmpDataFile;
+        tmpDataFileName = newFileName;
+        tmpDataFile = newFile;
+        dataPointsOffsets.clear();
+        dataPointsOffsets.putAll(newOffsets);
+        deadBytes = newDeadBytes;
+
+        logger.debug("Removing compacted tmp-file " + oldFileName);
+        try {
+          oldFile.close();
+          oldFileName.delete();
+        } catch (IOException e) {
+          logger.warn("Could not close and remove temporary file " + oldFileName + ": " + e);
+        }
+      }
+
+    } catch (IOException e) {
+      logger.warn("Compaction of tmp-file " + tmpDataFileName + " failed: " + e);
+      try {
+        newFile.close();
+      } catch (IOException e2) {
+        // Ignore, the file is removed anyway
+      }
+      newFileName.delete();
+    } finally {
+      synchronized (this) {
+        compactionRunning = false;
+      }
+    }
+
+  }
+
+  private ByteBuffer copyRecord(FileChannel source, long offset, int numOfBytes,
+      RandomAccessFile target, ByteBuffer copyBuffer) throws IOException {
+    if (copyBuffer.capacity() < numOfBytes)
+      copyBuffer = ByteBuffer.allocate(numOfBytes * 2);
+    copyBuffer.clear();
+    copyBuffer.limit(numOfBytes);
+    while (copyBuffer.hasRemaining()) {
+      if (source.read(copyBuffer, offset + copyBuffer.position()) < 0)
+        throw new IOException("Unexpected end of file " + tmpDataFileName);
+    }
+    target.write(copyBuffer.array(), 0, numOfBytes);
+    return copyBuffer;
+  }
+
+  private static RandomAccessFile openTmpFile(File fileName) throws IOException {
+
+    RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+
+    /*
+     * Lock the temporary file.
+     */
+    FileChannel fileChannel = file.getChannel();
+    fileChannel.lock();
+
+    fileName.deleteOnExit();
 
+    return file;
   }
 
   /** {@inheritDoc} */
@@ -204,6 +406,7 @@ class TmpFileDataStore implements DataPointStore {
     // Discard the hash maps and byte buffer
     dataPointsOffsets.clear();
     dataPointsLengths.clear();
+    dataPointsNumOfBytes.clear();
     byteBuffer = null;
 
     // Remove the temporary file
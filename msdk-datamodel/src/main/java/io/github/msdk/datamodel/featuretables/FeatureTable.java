@@ -15,6 +15,7 @@ package io.github.msdk.datamodel.featuretables;
 import java.util.List;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
@@ -40,6 +41,17 @@ public interface FeatureTable {
   @Nonnull
   List<Sample> getSamples();
 
+  /**
+   * Returns the m/z x RT index of the rows of this feature table, if the implementation maintains
+   * one.
+   *
+   * @return the index, or null if this feature table is not indexed.
+   */
+  @Nullable
+  default FeatureTableIndex getFeatureTableIndex() {
+    return null;
+  }
+
   /**
    * Remove all data associated to this feature table.
    */
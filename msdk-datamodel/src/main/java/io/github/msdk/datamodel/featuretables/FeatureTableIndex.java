@@ -0,0 +1,198 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.featuretables;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import javax.annotation.Nonnull;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Range;
+
+/**
+ * Index of the rows of a feature table by m/z and retention time, which answers m/z window x RT
+ * window queries without iterating all rows of the table.
+ *
+ * The rows are kept in a tree sorted by their m/z value, so a query takes O(log n + k) time, where
+ * k is the number of rows inside the m/z window, and adding, removing or updating a row takes
+ * O(log n) time. The m/z and RT values of a row are read when the row is added or updated, so the
+ * index must be notified by {@link #updateRow(FeatureTableRow)} when the values of an indexed row
+ * change. Rows without m/z or RT value are not returned by the queries. Queries return the rows in
+ * the order in which they were added, same as iterating the rows of the table.
+ */
+public class FeatureTableIndex {
+
+  private final @Nonnull TreeMap<Double, List<IndexEntry>> rowsByMz = new TreeMap<>();
+  private final @Nonnull Map<FeatureTableRow, IndexEntry> entries = new HashMap<>();
+  private long nextSequenceNumber = 0;
+
+  /**
+   * Builds an empty index.
+   */
+  public FeatureTableIndex() {}
+
+  /**
+   * Builds an index of the given rows.
+   *
+   * @param rows the rows to index, in the order of the feature table
+   */
+  public FeatureTableIndex(@Nonnull Collection<FeatureTableRow> rows) {
+    Preconditions.checkNotNull(rows);
+    for (FeatureTableRow row : rows)
+      addRow(row);
+  }
+
+  /**
+   * <p>
+   * addRow.
+   * </p>
+   *
+   * @param row a {@link io.github.msdk.datamodel.featuretables.FeatureTableRow} object.
+   */
+  synchronized public void addRow(@Nonnull FeatureTableRow row) {
+    Preconditions.checkNotNull(row);
+    if (entries.containsKey(row))
+      return;
+    final IndexEntry entry = new IndexEntry(row, nextSequenceNumber++);
+    entries.put(row, entry);
+    insertEntry(entry);
+  }
+
+  /**
+   * <p>
+   * removeRow.
+   * </p>
+   *
+   * @param row a {@link io.github.msdk.datamodel.featuretables.FeatureTableRow} object.
+   */
+  synchronized public void removeRow(@Nonnull FeatureTableRow row) {
+    Preconditions.checkNotNull(row);
+    final IndexEntry entry = entries.remove(row);
+    if (entry != null)
+      removeEntry(entry);
+  }
+
+  /**
+   * Re-reads the m/z and RT values of the given row. Rows that are not indexed are ignored.
+   *
+   * @param row a {@link io.github.msdk.datamodel.featuretables.FeatureTableRow} object.
+   */
+  synchronized public void updateRow(@Nonnull FeatureTableRow row) {
+    Preconditions.checkNotNull(row);
+    final IndexEntry entry = entries.get(row);
+    if (entry == null)
+      return;
+    removeEntry(entry);
+    entry.update();
+    insertEntry(entry);
+  }
+
+  /**
+   * <p>
+   * getNumberOfRows.
+   * </p>
+   *
+   * @return the number of indexed rows
+   */
+  synchronized public int getNumberOfRows() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the rows whose m/z value is inside the given m/z range and whose RT value is inside the
+   * given RT range.
+   *
+   * @param rtRange a {@link com.google.common.collect.Range} object.
+   * @param mzRange a {@link com.google.common.collect.Range} object.
+   * @return a {@link java.util.List} object.
+   */
+  synchronized public @Nonnull List<FeatureTableRow> getRowsInsideRange(
+      @Nonnull Range<Float> rtRange, @Nonnull Range<Double> mzRange) {
+    Preconditions.checkNotNull(rtRange);
+    Preconditions.checkNotNull(mzRange);
+
+    NavigableMap<Double, List<IndexEntry>> mzWindow = rowsByMz;
+    if (mzRange.hasLowerBound())
+      mzWindow = mzWindow.tailMap(mzRange.lowerEndpoint(),
+          mzRange.lowerBoundType() == BoundType.CLOSED);
+    if (mzRange.hasUpperBound())
+      mzWindow = mzWindow.headMap(mzRange.upperEndpoint(),
+          mzRange.upperBoundType() == BoundType.CLOSED);
+
+    final List<IndexEntry> matches = new ArrayList<>();
+    for (List<IndexEntry> sameMzEntries : mzWindow.values()) {
+      for (IndexEntry entry : sameMzEntries) {
+        if (rtRange.contains(entry.rt))
+          matches.add(entry);
+      }
+    }
+
+    if (matches.size() > 1)
+      Collections.sort(matches, (e1, e2) -> Long.compare(e1.sequenceNumber, e2.sequenceNumber));
+
+    final List<FeatureTableRow> result = new ArrayList<>(matches.size());
+    for (IndexEntry entry : matches)
+      result.add(entry.row);
+    return result;
+  }
+
+  private void insertEntry(@Nonnull IndexEntry entry) {
+    if ((entry.mz == null) || (entry.rt == null))
+      return;
+    rowsByMz.computeIfAbsent(entry.mz, k -> new ArrayList<>(1)).add(entry);
+  }
+
+  private void removeEntry(@Nonnull IndexEntry entry) {
+    if ((entry.mz == null) || (entry.rt == null))
+      return;
+    final List<IndexEntry> sameMzEntries = rowsByMz.get(entry.mz);
+    if (sameMzEntries == null)
+      return;
+    sameMzEntries.remove(entry);
+    if (sameMzEntries.isEmpty())
+      rowsByMz.remove(entry.mz);
+  }
+
+  /**
+   * The m/z and RT values of a row at the time it was added or last updated.
+   */
+  private static class IndexEntry {
+
+    private final @Nonnull FeatureTableRow row;
+    private final long sequenceNumber;
+    private Double mz;
+    private Float rt;
+
+    IndexEntry(@Nonnull FeatureTableRow row, long sequenceNumber) {
+      this.row = row;
+      this.sequenceNumber = sequenceNumber;
+      update();
+    }
+
+    void update() {
+      mz = row.getMz();
+      rt = row.getRT();
+    }
+
+  }
+
+}
@@ -13,6 +13,9 @@
 
 package io.github.msdk.datamodel.impl;
 
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -72,6 +75,35 @@ public abstract class AbstractMsSpectrum implements MsSpectrum {
     return array;
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public double getMz(int index) {
+    Preconditions.checkElementIndex(index, numOfDataPoints);
+    return mzValues[index];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public float getIntensity(int index) {
+    Preconditions.checkElementIndex(index, numOfDataPoints);
+    return intensityValues[index];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public synchronized @Nonnull DoubleBuffer getMzBuffer() {
+    if (mzValues == null)
+      return DoubleBuffer.allocate(0);
+    return DoubleBuffer.wrap(mzValues, 0, numOfDataPoints).slice().asReadOnlyBuffer();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public synchronized @Nonnull FloatBuffer getIntensityBuffer() {
+    if (intensityValues == null)
+      return FloatBuffer.allocate(0);
+    return FloatBuffer.wrap(intensityValues, 0, numOfDataPoints).slice().asReadOnlyBuffer();
+  }
 
   /**
    * {@inheritDoc}
@@ -0,0 +1,641 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.impl;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import io.github.msdk.MSDKRuntimeException;
+import io.github.msdk.datamodel.chromatograms.Chromatogram;
+import io.github.msdk.datamodel.features.Feature;
+import io.github.msdk.datamodel.featuretables.FeatureTable;
+import io.github.msdk.datamodel.featuretables.FeatureTableIndex;
+import io.github.msdk.datamodel.featuretables.FeatureTableRow;
+import io.github.msdk.datamodel.featuretables.Sample;
+import io.github.msdk.datamodel.ionannotations.IonAnnotation;
+import io.github.msdk.datamodel.rawdata.MsScan;
+
+/**
+ * Implementation of the FeatureTable interface that stores the features in a column-oriented
+ * layout. For each sample, the m/z, retention time, area, height, S/N ratio and score of the
+ * features are kept in one primitive array per attribute, indexed by the position of the row in
+ * the table, and a bitmap marks the rows that have a feature in the sample. Missing area, height,
+ * S/N ratio and score values are stored as NaN; because NaN is a valid S/N ratio, an additional
+ * bitmap marks the S/N ratios that are present.
+ *
+ * The rows returned by {@link #getRows()} and the features returned by the rows are lightweight
+ * views that only hold their position in the table. Methods that process a whole column, such as
+ * normalization or export, can read the columns directly through {@link #getMzColumn(int)},
+ * {@link #getAreaColumn(int)} etc. without creating any row or feature objects. These views are
+ * valid until the next row is added.
+ *
+ * The samples are fixed when the table is created. Rows can only be appended, using
+ * {@link #addRow()}, and the features are set by {@link #setFeature(int, int, Feature)}, which
+ * copies the values of the given feature. The methods of this class are synchronized, therefore it
+ * can be safely used by multiple threads.
+ */
+public class ColumnarFeatureTable implements FeatureTable {
+
+  private static final int INITIAL_ROW_CAPACITY = 1024;
+
+  private final @Nonnull List<Sample> samples;
+  private final int numOfSamples;
+  private int numOfRows = 0;
+  private int rowCapacity = INITIAL_ROW_CAPACITY;
+
+  // Per-row columns. The sums of the m/z values and retention times of the features in each row
+  // are updated whenever a feature is set or removed, so the row averages are computed in
+  // constant time.
+  private int charges[] = new int[INITIAL_ROW_CAPACITY];
+  private double mzSums[] = new double[INITIAL_ROW_CAPACITY];
+  private double rtSums[] = new double[INITIAL_ROW_CAPACITY];
+  private int featureCounts[] = new int[INITIAL_ROW_CAPACITY];
+
+  // Per-sample columns, indexed by [sample][row]
+  private final @Nonnull double mzValues[][];
+  private final @Nonnull float rtValues[][];
+  private final @Nonnull float areaValues[][];
+  private final @Nonnull float heightValues[][];
+  private final @Nonnull float snRatioValues[][];
+  private final @Nonnull float scoreValues[][];
+  private final @Nonnull BitSet presence[];
+  private final @Nonnull BitSet snRatioPresence[];
+
+  // Rarely used attributes, the arrays are only allocated when needed
+  private final @Nullable Chromatogram chromatograms[][];
+  private final @Nullable List<MsScan> msmsSpectra[][];
+  private final @Nullable IonAnnotation ionAnnotations[][];
+
+  private final @Nonnull FeatureTableIndex index = new FeatureTableIndex();
+
+  /**
+   * <p>
+   * Constructor for ColumnarFeatureTable.
+   * </p>
+   *
+   * @param samples the samples of this feature table
+   */
+  public ColumnarFeatureTable(@Nonnull List<Sample> samples) {
+    Preconditions.checkNotNull(samples);
+    this.samples = ImmutableList.copyOf(samples);
+    this.numOfSamples = samples.size();
+    mzValues = new double[numOfSamples][INITIAL_ROW_CAPACITY];
+    rtValues = new float[numOfSamples][INITIAL_ROW_CAPACITY];
+    areaValues = new float[numOfSamples][INITIAL_ROW_CAPACITY];
+    heightValues = new float[numOfSamples][INITIAL_ROW_CAPACITY];
+    snRatioValues = new float[numOfSamples][INITIAL_ROW_CAPACITY];
+    scoreValues = new float[numOfSamples][INITIAL_ROW_CAPACITY];
+    presence = new BitSet[numOfSamples];
+    snRatioPresence = new BitSet[numOfSamples];
+    for (int s = 0; s < numOfSamples; s++) {
+      presence[s] = new BitSet();
+      snRatioPresence[s] = new BitSet();
+    }
+    chromatograms = new Chromatogram[numOfSamples][];
+    msmsSpectra = newMsmsSpectraArray(numOfSamples);
+    ionAnnotations = new IonAnnotation[numOfSamples][];
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The returned list is an immutable view of the rows that were present at the time of the call.
+   * Its elements are created on demand and only refer to the position of the row in this table.
+   */
+  @Override
+  synchronized public @Nonnull List<FeatureTableRow> getRows() {
+    return new RowList(numOfRows);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull List<Sample> getSamples() {
+    return samples;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull FeatureTableIndex getFeatureTableIndex() {
+    return index;
+  }
+
+  /**
+   * Returns the number of rows in this table.
+   *
+   * @return number of rows
+   */
+  synchronized public int getNumberOfRows() {
+    return numOfRows;
+  }
+
+  /**
+   * Appends a new row without any features to this table.
+   *
+   * @return the view of the new row
+   */
+  public @Nonnull FeatureTableRow addRow() {
+    final ColumnarFeatureTableRow row;
+    synchronized (this) {
+      if (numOfRows == Integer.MAX_VALUE - 8)
+        throw new MSDKRuntimeException("Too many rows in the feature table");
+      ensureRowCapacity(numOfRows + 1);
+      charges[numOfRows] = Integer.MIN_VALUE;
+      row = new ColumnarFeatureTableRow(numOfRows);
+      numOfRows++;
+    }
+    // The index reads the values of the row while holding its own lock, so it must not be called
+    // while holding the lock of this table
+    index.addRow(row);
+    return row;
+  }
+
+  /**
+   * Copies the values of the given feature into the columns of this table. The given object is not
+   * referenced afterwards.
+   *
+   * @param rowIndex the position of the row in this table
+   * @param sampleIndex the position of the sample in {@link #getSamples()}
+   * @param feature a {@link io.github.msdk.datamodel.features.Feature} object.
+   */
+  public void setFeature(int rowIndex, int sampleIndex, @Nonnull Feature feature) {
+    Preconditions.checkNotNull(feature);
+    synchronized (this) {
+      Preconditions.checkElementIndex(rowIndex, numOfRows);
+      Preconditions.checkElementIndex(sampleIndex, numOfSamples);
+      final int s = sampleIndex, r = rowIndex;
+      if (presence[s].get(r))
+        subtractFromRowSums(s, r);
+      mzValues[s][r] = feature.getMz();
+      rtValues[s][r] = feature.getRetentionTime();
+      mzSums[r] += mzValues[s][r];
+      rtSums[r] += rtValues[s][r];
+      featureCounts[r]++;
+      areaValues[s][r] = toPrimitive(feature.getArea());
+      heightValues[s][r] = toPrimitive(feature.getHeight());
+      scoreValues[s][r] = toPrimitive(feature.getScore());
+      final Float snRatio = feature.getSNRatio();
+      snRatioValues[s][r] = toPrimitive(snRatio);
+      snRatioPresence[s].set(r, snRatio != null);
+      presence[s].set(r);
+
+      final Chromatogram chromatogram = feature.getChromatogram();
+      if ((chromatogram != null) && (chromatograms[s] == null))
+        chromatograms[s] = new Chromatogram[rowCapacity];
+      if (chromatograms[s] != null)
+        chromatograms[s][r] = chromatogram;
+      final List<MsScan> featureMsmsSpectra = feature.getMSMSSpectra();
+      if ((featureMsmsSpectra != null) && (msmsSpectra[s] == null))
+        msmsSpectra[s] = newMsmsSpectraRow(rowCapacity);
+      if (msmsSpectra[s] != null)
+        msmsSpectra[s][r] =
+            (featureMsmsSpectra != null) ? ImmutableList.copyOf(featureMsmsSpectra) : null;
+      final IonAnnotation ionAnnotation = feature.getIonAnnotation();
+      if ((ionAnnotation != null) && (ionAnnotations[s] == null))
+        ionAnnotations[s] = new IonAnnotation[rowCapacity];
+      if (ionAnnotations[s] != null)
+        ionAnnotations[s][r] = ionAnnotation;
+    }
+    index.updateRow(new ColumnarFeatureTableRow(rowIndex));
+  }
+
+  /**
+   * <p>
+   * setFeature.
+   * </p>
+   *
+   * @param rowIndex the position of the row in this table
+   * @param sample a {@link io.github.msdk.datamodel.featuretables.Sample} object.
+   * @param feature a {@link io.github.msdk.datamodel.features.Feature} object.
+   */
+  public void setFeature(int rowIndex, @Nonnull Sample sample, @Nonnull Feature feature) {
+    setFeature(rowIndex, getSampleIndex(sample), feature);
+  }
+
+  /**
+   * Removes the feature of the given sample from the given row.
+   *
+   * @param rowIndex the position of the row in this table
+   * @param sampleIndex the position of the sample in {@link #getSamples()}
+   */
+  public void removeFeature(int rowIndex, int sampleIndex) {
+    synchronized (this) {
+      Preconditions.checkElementIndex(rowIndex, numOfRows);
+      Preconditions.checkElementIndex(sampleIndex, numOfSamples);
+      if (presence[sampleIndex].get(rowIndex))
+        subtractFromRowSums(sampleIndex, rowIndex);
+      presence[sampleIndex].clear(rowIndex);
+      if (chromatograms[sampleIndex] != null)
+        chromatograms[sampleIndex][rowIndex] = null;
+      if (msmsSpectra[sampleIndex] != null)
+        msmsSpectra[sampleIndex][rowIndex] = null;
+      if (ionAnnotations[sampleIndex] != null)
+        ionAnnotations[sampleIndex][rowIndex] = null;
+    }
+    index.updateRow(new ColumnarFeatureTableRow(rowIndex));
+  }
+
+  /**
+   * <p>
+   * setCharge.
+   * </p>
+   *
+   * @param rowIndex the position of the row in this table
+   * @param charge a {@link java.lang.Integer} object.
+   */
+  synchronized public void setCharge(int rowIndex, @Nullable Integer charge) {
+    Preconditions.checkElementIndex(rowIndex, numOfRows);
+    charges[rowIndex] = (charge == null) ? Integer.MIN_VALUE : charge;
+  }
+
+  /**
+   * Returns true if the given row has a feature in the given sample.
+   *
+   * @param rowIndex the position of the row in this table
+   * @param sampleIndex the position of the sample in {@link #getSamples()}
+   * @return a boolean.
+   */
+  synchronized public boolean hasFeature(int rowIndex, int sampleIndex) {
+    Preconditions.checkElementIndex(rowIndex, numOfRows);
+    Preconditions.checkElementIndex(sampleIndex, numOfSamples);
+    return presence[sampleIndex].get(rowIndex);
+  }
+
+  /**
+   * Returns a copy of the presence bitmap of the given sample. Bit i is set if row i has a feature
+   * in the sample.
+   *
+   * @param sampleIndex the position of the sample in {@link #getSamples()}
+   * @return a {@link java.util.BitSet} object.
+   */
+  synchronized public @Nonnull BitSet getPresence(int sampleIndex) {
+    Preconditions.checkElementIndex(sampleIndex, numOfSamples);
+    return (BitSet) presence[sampleIndex].clone();
+  }
+
+  /**
+   * Returns a read-only view of the m/z values of the features of the given sample, one value per
+   * row. The values of the rows without a feature in the sample are undefined, use
+   * {@link #getPresence(int)} to check which values are valid. The view is not copied and it is
+   * only valid until the next row is added: it reflects the features that are set until then, but
+   * adding a row may move the columns to larger arrays, after which the view keeps showing the old
+   * values. Get a new view after adding rows.
+   *
+   * @param sampleIndex the position of the sample in {@link #getSamples()}
+   * @return a {@link java.nio.DoubleBuffer} object.
+   */
+  synchronized public @Nonnull DoubleBuffer getMzColumn(int sampleIndex) {
+    Preconditions.checkElementIndex(sampleIndex, numOfSamples);
+    return DoubleBuffer.wrap(mzValues[sampleIndex], 0, numOfRows).slice().asReadOnlyBuffer();
+  }
+
+  /**
+   * Returns a read-only view of the retention times of the features of the given sample, see
+   * {@link #getMzColumn(int)}.
+   *
+   * @param sampleIndex the position of the sample in {@link #getSamples()}
+   * @return a {@link java.nio.FloatBuffer} object.
+   */
+  synchronized public @Nonnull FloatBuffer getRtColumn(int sampleIndex) {
+    return getColumn(rtValues, sampleIndex);
+  }
+
+  /**
+   * Returns a read-only view of the areas of the features of the given sample, see
+   * {@link #getMzColumn(int)}. Missing areas are NaN.
+   *
+   * @param sampleIndex the position of the sample in {@link #getSamples()}
+   * @return a {@link java.nio.FloatBuffer} object.
+   */
+  synchronized public @Nonnull FloatBuffer getAreaColumn(int sampleIndex) {
+    return getColumn(areaValues, sampleIndex);
+  }
+
+  /**
+   * Returns a read-only view of the heights of the features of the given sample, see
+   * {@link #getMzColumn(int)}. Missing heights are NaN.
+   *
+   * @param sampleIndex the position of the sample in {@link #getSamples()}
+   * @return a {@link java.nio.FloatBuffer} object.
+   */
+  synchronized public @Nonnull FloatBuffer getHeightColumn(int sampleIndex) {
+    return getColumn(heightValues, sampleIndex);
+  }
+
+  /**
+   * Returns a read-only view of the S/N ratios of the features of the given sample, see
+   * {@link #getMzColumn(int)}. Missing S/N ratios are NaN.
+   *
+   * @param sampleIndex the position of the sample in {@link #getSamples()}
+   * @return a {@link java.nio.FloatBuffer} object.
+   */
+  synchronized public @Nonnull FloatBuffer getSNRatioColumn(int sampleIndex) {
+    return getColumn(snRatioValues, sampleIndex);
+  }
+
+  /**
+   * Returns a read-only view of the scores of the features of the given sample, see
+   * {@link #getMzColumn(int)}. Missing scores are NaN.
+   *
+   * @param sampleIndex the position of the sample in {@link #getSamples()}
+   * @return a {@link java.nio.FloatBuffer} object.
+   */
+  synchronized public @Nonnull FloatBuffer getScoreColumn(int sampleIndex) {
+    return getColumn(scoreValues, sampleIndex);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void dispose() {
+    // Do nothing
+  }
+
+  private @Nonnull FloatBuffer getColumn(@Nonnull float columns[][], int sampleIndex) {
+    Preconditions.checkElementIndex(sampleIndex, numOfSamples);
+    return FloatBuffer.wrap(columns[sampleIndex], 0, numOfRows).slice().asReadOnlyBuffer();
+  }
+
+  private int getSampleIndex(@Nonnull Sample sample) {
+    Preconditions.checkNotNull(sample);
+    final int sampleIndex = samples.indexOf(sample);
+    if (sampleIndex < 0)
+      throw new MSDKRuntimeException(
+          "The feature table does not contain sample " + sample.getName());
+    return sampleIndex;
+  }
+
+  private static float toPrimitive(@Nullable Float value) {
+    return (value == null) ? Float.NaN : value;
+  }
+
+  private static @Nullable Float toObject(float value) {
+    return Float.isNaN(value) ? null : value;
+  }
+
+  private void subtractFromRowSums(int sampleIndex, int rowIndex) {
+    featureCounts[rowIndex]--;
+    if (featureCounts[rowIndex] == 0) {
+      // Do not keep rounding errors in empty rows
+      mzSums[rowIndex] = 0;
+      rtSums[rowIndex] = 0;
+      return;
+    }
+    mzSums[rowIndex] -= mzValues[sampleIndex][rowIndex];
+    rtSums[rowIndex] -= rtValues[sampleIndex][rowIndex];
+  }
+
+  private void ensureRowCapacity(int capacity) {
+    if (capacity <= rowCapacity)
+      return;
+    final int newCapacity =
+        (int) Math.min(Integer.MAX_VALUE - 8, Math.max(capacity, (long) rowCapacity * 2));
+    charges = Arrays.copyOf(charges, newCapacity);
+    mzSums = Arrays.copyOf(mzSums, newCapacity);
+    rtSums = Arrays.copyOf(rtSums, newCapacity);
+    featureCounts = Arrays.copyOf(featureCounts, newCapacity);
+    for (int s = 0; s < numOfSamples; s++) {
+      mzValues[s] = Arrays.copyOf(mzValues[s], newCapacity);
+      rtValues[s] = Arrays.copyOf(rtValues[s], newCapacity);
+      areaValues[s] = Arrays.copyOf(areaValues[s], newCapacity);
+      heightValues[s] = Arrays.copyOf(heightValues[s], newCapacity);
+      snRatioValues[s] = Arrays.copyOf(snRatioValues[s], newCapacity);
+      scoreValues[s] = Arrays.copyOf(scoreValues[s], newCapacity);
+      if (chromatograms[s] != null)
+        chromatograms[s] = Arrays.copyOf(chromatograms[s], newCapacity);
+      if (msmsSpectra[s] != null)
+        msmsSpectra[s] = Arrays.copyOf(msmsSpectra[s], newCapacity);
+      if (ionAnnotations[s] != null)
+        ionAnnotations[s] = Arrays.copyOf(ionAnnotations[s], newCapacity);
+    }
+    rowCapacity = newCapacity;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<MsScan>[][] newMsmsSpectraArray(int size) {
+    return new List[size][];
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<MsScan>[] newMsmsSpectraRow(int size) {
+    return new List[size];
+  }
+
+  /**
+   * Immutable list of row views, limited to the rows that existed when the list was created.
+   */
+  private class RowList extends AbstractList<FeatureTableRow> implements RandomAccess {
+
+    private final int size;
+
+    RowList(int size) {
+      this.size = size;
+    }
+
+    @Override
+    public FeatureTableRow get(int index) {
+      Preconditions.checkElementIndex(index, size);
+      return new ColumnarFeatureTableRow(index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+  }
+
+  /**
+   * Flyweight FeatureTableRow that reads all its values from the columns of the enclosing table.
+   */
+  private class ColumnarFeatureTableRow implements FeatureTableRow {
+
+    private final int rowIndex;
+
+    ColumnarFeatureTableRow(int rowIndex) {
+      this.rowIndex = rowIndex;
+    }
+
+    @Override
+    public @Nonnull FeatureTable getFeatureTable() {
+      return ColumnarFeatureTable.this;
+    }
+
+    @Override
+    public Double getMz() {
+      synchronized (ColumnarFeatureTable.this) {
+        final int count = featureCounts[rowIndex];
+        return (count == 0) ? null : mzSums[rowIndex] / count;
+      }
+    }
+
+    @Override
+    public Float getRT() {
+      synchronized (ColumnarFeatureTable.this) {
+        final int count = featureCounts[rowIndex];
+        return (count == 0) ? null : (float) (rtSums[rowIndex] / count);
+      }
+    }
+
+    @Override
+    public Integer getCharge() {
+      synchronized (ColumnarFeatureTable.this) {
+        final int charge = charges[rowIndex];
+        return (charge == Integer.MIN_VALUE) ? null : charge;
+      }
+    }
+
+    @Override
+    public Feature getFeature(@Nonnull Sample sample) {
+      return getFeature(getSampleIndex(sample));
+    }
+
+    @Override
+    public Feature getFeature(@Nonnull Integer index) {
+      synchronized (ColumnarFeatureTable.this) {
+        Preconditions.checkElementIndex(index, numOfSamples);
+        if (!presence[index].get(rowIndex))
+          return null;
+        return new ColumnarFeature(rowIndex, index);
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof ColumnarFeatureTableRow))
+        return false;
+      final ColumnarFeatureTableRow other = (ColumnarFeatureTableRow) o;
+      return (other.getFeatureTable() == getFeatureTable()) && (other.rowIndex == rowIndex);
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(ColumnarFeatureTable.this) * 31 + rowIndex;
+    }
+
+  }
+
+  /**
+   * Flyweight Feature that reads all its values from the columns of the enclosing table. The values
+   * are not checked for presence, the view is only created for rows that have a feature in the
+   * sample.
+   */
+  private class ColumnarFeature implements Feature {
+
+    private final int rowIndex, sampleIndex;
+
+    ColumnarFeature(int rowIndex, int sampleIndex) {
+      this.rowIndex = rowIndex;
+      this.sampleIndex = sampleIndex;
+    }
+
+    @Override
+    public Double getMz() {
+      synchronized (ColumnarFeatureTable.this) {
+        return mzValues[sampleIndex][rowIndex];
+      }
+    }
+
+    @Override
+    public Float getRetentionTime() {
+      synchronized (ColumnarFeatureTable.this) {
+        return rtValues[sampleIndex][rowIndex];
+      }
+    }
+
+    @Override
+    public Float getArea() {
+      synchronized (ColumnarFeatureTable.this) {
+        return toObject(areaValues[sampleIndex][rowIndex]);
+      }
+    }
+
+    @Override
+    public Float getHeight() {
+      synchronized (ColumnarFeatureTable.this) {
+        return toObject(heightValues[sampleIndex][rowIndex]);
+      }
+    }
+
+    @Override
+    public Float getSNRatio() {
+      synchronized (ColumnarFeatureTable.this) {
+        if (!snRatioPresence[sampleIndex].get(rowIndex))
+          return null;
+        return snRatioValues[sampleIndex][rowIndex];
+      }
+    }
+
+    @Override
+    public Float getScore() {
+      synchronized (ColumnarFeatureTable.this) {
+        return toObject(scoreValues[sampleIndex][rowIndex]);
+      }
+    }
+
+    @Override
+    public Chromatogram getChromatogram() {
+      synchronized (ColumnarFeatureTable.this) {
+        final Chromatogram sampleChromatograms[] = chromatograms[sampleIndex];
+        return (sampleChromatograms == null) ? null : sampleChromatograms[rowIndex];
+      }
+    }
+
+    @Override
+    public List<MsScan> getMSMSSpectra() {
+      synchronized (ColumnarFeatureTable.this) {
+        final List<MsScan> sampleMsmsSpectra[] = msmsSpectra[sampleIndex];
+        return (sampleMsmsSpectra == null) ? null : sampleMsmsSpectra[rowIndex];
+      }
+    }
+
+    @Override
+    public IonAnnotation getIonAnnotation() {
+      synchronized (ColumnarFeatureTable.this) {
+        final IonAnnotation sampleIonAnnotations[] = ionAnnotations[sampleIndex];
+        return (sampleIonAnnotations == null) ? null : sampleIonAnnotations[rowIndex];
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof ColumnarFeature))
+        return false;
+      final ColumnarFeature other = (ColumnarFeature) o;
+      return (other.getTable() == getTable()) && (other.rowIndex == rowIndex)
+          && (other.sampleIndex == sampleIndex);
+    }
+
+    @Override
+    public int hashCode() {
+      return (System.identityHashCode(ColumnarFeatureTable.this) * 31 + rowIndex) * 31
+          + sampleIndex;
+    }
+
+    private ColumnarFeatureTable getTable() {
+      return ColumnarFeatureTable.this;
+    }
+
+  }
+
+}
@@ -0,0 +1,639 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.impl;
+
+import java.io.File;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+
+import io.github.msdk.MSDKRuntimeException;
+import io.github.msdk.datamodel.chromatograms.Chromatogram;
+import io.github.msdk.datamodel.files.FileType;
+import io.github.msdk.datamodel.msspectra.MsSpectrumType;
+import io.github.msdk.datamodel.rawdata.ActivationInfo;
+import io.github.msdk.datamodel.rawdata.IsolationInfo;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.MsScanType;
+import io.github.msdk.datamodel.rawdata.PolarityType;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.ScanIndex;
+import io.github.msdk.util.tolerances.MzTolerance;
+
+/**
+ * Implementation of the RawDataFile interface that stores the scans in a column-oriented layout.
+ * The m/z values of all scans are packed into a single double array and the intensity values into
+ * a single float array. The scan metadata (data point offset and count, scan number, retention
+ * time, MS level, polarity etc.) are kept in one primitive array per attribute, indexed by the
+ * position of the scan in the file.
+ *
+ * The scans returned by {@link #getScans()} are lightweight views that only hold the position of
+ * the scan, so iterating over all scans of a large file does not keep any per-scan objects alive.
+ * The data points of a scan are copied directly from the packed arrays, or accessed without copying
+ * through the indexed and buffer accessors of MsSpectrum.
+ *
+ * Scans can only be appended to the file, using {@link #addScan(MsScan)}, which copies the data
+ * points and metadata of the given scan. The columns are published as an immutable snapshot through
+ * a volatile field: addScan() prepares the next snapshot while holding the lock of this object,
+ * copying the arrays when they need to grow, and the scan views read the current snapshot without
+ * any locking. Therefore the file can be safely used by multiple threads, and concurrent readers do
+ * not block each other.
+ */
+public class ColumnarRawDataFile implements RawDataFile {
+
+  private static final int INITIAL_SCAN_CAPACITY = 1024;
+  private static final int INITIAL_DATA_POINT_CAPACITY = 65536;
+
+  private static final MsSpectrumType SPECTRUM_TYPES[] = MsSpectrumType.values();
+  private static final PolarityType POLARITY_TYPES[] = PolarityType.values();
+  private static final MsScanType MS_SCAN_TYPES[] = MsScanType.values();
+
+  private @Nonnull String rawDataFileName;
+  private @Nonnull Optional<File> originalRawDataFile;
+  private @Nonnull FileType rawDataFileType;
+  private final @Nonnull ArrayList<Chromatogram> chromatograms = new ArrayList<>();
+
+  // Current snapshot of the columns, replaced by addScan()
+  private volatile @Nonnull Columns columns = new Columns();
+
+  private @Nullable ScanIndex scanIndex;
+
+  /**
+   * <p>
+   * Constructor for ColumnarRawDataFile.
+   * </p>
+   *
+   * @param rawDataFileName a {@link java.lang.String} object.
+   * @param originalRawDataFile a {@link java.util.Optional} object.
+   * @param rawDataFileType a {@link io.github.msdk.datamodel.files.FileType} object.
+   */
+  public ColumnarRawDataFile(@Nonnull String rawDataFileName,
+      @Nonnull Optional<File> originalRawDataFile, @Nonnull FileType rawDataFileType) {
+    Preconditions.checkNotNull(rawDataFileType);
+    this.rawDataFileName = rawDataFileName;
+    this.originalRawDataFile = originalRawDataFile;
+    this.rawDataFileType = rawDataFileType;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull String getName() {
+    return rawDataFileName;
+  }
+
+  /**
+   * <p>
+   * setName.
+   * </p>
+   *
+   * @param name a {@link java.lang.String} object.
+   */
+  public void setName(@Nonnull String name) {
+    Preconditions.checkNotNull(name);
+    this.rawDataFileName = name;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nonnull
+  public Optional<File> getOriginalFile() {
+    return originalRawDataFile;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nonnull
+  public String getOriginalFilename() {
+    if (originalRawDataFile.isPresent()) {
+      return originalRawDataFile.get().getName();
+    }
+
+    return "Unknown";
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull FileType getRawDataFileType() {
+    return rawDataFileType;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nonnull
+  public List<String> getMsFunctions() {
+    return new ArrayList<>(Arrays.asList(columns.msFunctions));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The returned list is an immutable view of the scans that were present at the time of the call.
+   * Its elements are created on demand and only refer to the position of the scan in this file.
+   */
+  @Override
+  @Nonnull
+  public List<MsScan> getScans() {
+    return new ScanList(columns.numOfScans);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The index is built on the first call and kept until a scan is added.
+   */
+  @Override
+  @Nonnull
+  synchronized public ScanIndex getScanIndex() {
+    if (scanIndex == null)
+      scanIndex = new ScanIndex(getScans());
+    return scanIndex;
+  }
+
+  /**
+   * Returns the number of scans in this file.
+   *
+   * @return number of scans
+   */
+  public int getNumberOfScans() {
+    return columns.numOfScans;
+  }
+
+  /**
+   * Returns the total number of data points of all scans in this file.
+   *
+   * @return number of data points
+   */
+  public int getTotalNumberOfDataPoints() {
+    return columns.numOfDataPoints;
+  }
+
+  /**
+   * Appends a copy of the given scan to this file. The data points and metadata of the scan are
+   * copied into the columns of this file, the given object is not referenced afterwards.
+   *
+   * @param scan a {@link io.github.msdk.datamodel.rawdata.MsScan} object.
+   * @return the view of the scan stored in this file
+   */
+  synchronized public @Nonnull MsScan addScan(@Nonnull MsScan scan) {
+    Preconditions.checkNotNull(scan);
+
+    // The published snapshot is never modified, only the array slots past its end are written
+    final Columns c = new Columns(columns);
+
+    final int size = scan.getNumberOfDataPoints();
+    if ((long) c.numOfDataPoints + size > Integer.MAX_VALUE - 8)
+      throw new MSDKRuntimeException("Too many data points in raw data file " + rawDataFileName);
+
+    c.ensureDataPointCapacity(c.numOfDataPoints + size);
+    c.ensureScanCapacity(c.numOfScans + 1);
+
+    // Copy the data points
+    final double scanMzValues[] = scan.getMzValues();
+    final float scanIntensityValues[] = scan.getIntensityValues();
+    System.arraycopy(scanMzValues, 0, c.mzValues, c.numOfDataPoints, size);
+    System.arraycopy(scanIntensityValues, 0, c.intensityValues, c.numOfDataPoints, size);
+
+    final int i = c.numOfScans;
+    c.dataPointOffsets[i] = c.numOfDataPoints;
+    c.dataPointCounts[i] = size;
+    c.scanNumbers[i] = scan.getScanNumber();
+    c.msLevels[i] = scan.getMsLevel();
+    final Float rt = scan.getRetentionTime();
+    c.retentionTimes[i] = (rt == null) ? Float.NaN : rt;
+    c.totalIonCurrents[i] = scan.getTIC();
+    final Range<Double> scanningRange = scan.getScanningRange();
+    c.scanningRangeMin[i] = (scanningRange == null) ? Double.NaN : scanningRange.lowerEndpoint();
+    c.scanningRangeMax[i] = (scanningRange == null) ? Double.NaN : scanningRange.upperEndpoint();
+    c.polarities[i] = (byte) scan.getPolarity().ordinal();
+    c.msScanTypes[i] = (byte) scan.getMsScanType().ordinal();
+    c.spectrumTypes[i] = (byte) scan.getSpectrumType().ordinal();
+    c.msFunctionIndexes[i] = c.getMsFunctionIndex(scan.getMsFunction());
+    c.scanDefinitions[i] = scan.getScanDefinition();
+
+    final MzTolerance mzTolerance = scan.getMzTolerance();
+    if (mzTolerance != null) {
+      if (c.mzTolerances == null)
+        c.mzTolerances = new MzTolerance[c.dataPointOffsets.length];
+      c.mzTolerances[i] = mzTolerance;
+    }
+    final ActivationInfo sourceInducedFragmentation = scan.getSourceInducedFragmentation();
+    if (sourceInducedFragmentation != null) {
+      if (c.sourceInducedFragmentations == null)
+        c.sourceInducedFragmentations = new ActivationInfo[c.dataPointOffsets.length];
+      c.sourceInducedFragmentations[i] = sourceInducedFragmentation;
+    }
+    final List<IsolationInfo> scanIsolations = scan.getIsolations();
+    if (!scanIsolations.isEmpty()) {
+      if (c.isolations == null)
+        c.isolations = newIsolationsArray(c.dataPointOffsets.length);
+      c.isolations[i] = ImmutableList.copyOf(scanIsolations);
+    }
+
+    c.numOfDataPoints += size;
+    c.numOfScans++;
+
+    // Publish the new snapshot
+    columns = c;
+    scanIndex = null;
+
+    return new ColumnarMsScan(i);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nonnull
+  public List<Chromatogram> getChromatograms() {
+    synchronized (chromatograms) {
+      return ImmutableList.copyOf(chromatograms);
+    }
+  }
+
+  /**
+   * <p>
+   * addChromatogram.
+   * </p>
+   *
+   * @param chromatogram a {@link io.github.msdk.datamodel.chromatograms.Chromatogram} object.
+   */
+  public void addChromatogram(@Nonnull Chromatogram chromatogram) {
+    Preconditions.checkNotNull(chromatogram);
+    synchronized (chromatograms) {
+      chromatograms.add(chromatogram);
+    }
+  }
+
+  /**
+   * <p>
+   * removeChromatogram.
+   * </p>
+   *
+   * @param chromatogram a {@link io.github.msdk.datamodel.chromatograms.Chromatogram} object.
+   */
+  public void removeChromatogram(@Nonnull Chromatogram chromatogram) {
+    Preconditions.checkNotNull(chromatogram);
+    synchronized (chromatograms) {
+      chromatograms.remove(chromatogram);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void dispose() {
+    // Do nothing
+  }
+
+  /**
+   * Snapshot of the columns. A published snapshot is never modified. Consecutive snapshots share
+   * their arrays until they need to grow; the slots past the end of a snapshot are written only
+   * while preparing the next one, before it is published.
+   */
+  private final class Columns {
+
+    // Packed data points of all scans
+    private double mzValues[];
+    private float intensityValues[];
+    private int numOfDataPoints;
+
+    // Per-scan columns
+    private int numOfScans;
+    private int dataPointOffsets[];
+    private int dataPointCounts[];
+    private int scanNumbers[];
+    private int msLevels[];
+    private float retentionTimes[];
+    private float totalIonCurrents[];
+    private double scanningRangeMin[];
+    private double scanningRangeMax[];
+    private byte polarities[];
+    private byte msScanTypes[];
+    private byte spectrumTypes[];
+    private short msFunctionIndexes[];
+    private String scanDefinitions[];
+
+    // Rarely used attributes, the arrays are only allocated when needed
+    private @Nullable MzTolerance mzTolerances[];
+    private @Nullable ActivationInfo sourceInducedFragmentations[];
+    private @Nullable List<IsolationInfo> isolations[];
+
+    // Distinct MS functions, referenced by msFunctionIndexes (-1 means no MS function)
+    private String msFunctions[];
+
+    Columns() {
+      mzValues = new double[INITIAL_DATA_POINT_CAPACITY];
+      intensityValues = new float[INITIAL_DATA_POINT_CAPACITY];
+      dataPointOffsets = new int[INITIAL_SCAN_CAPACITY];
+      dataPointCounts = new int[INITIAL_SCAN_CAPACITY];
+      scanNumbers = new int[INITIAL_SCAN_CAPACITY];
+      msLevels = new int[INITIAL_SCAN_CAPACITY];
+      retentionTimes = new float[INITIAL_SCAN_CAPACITY];
+      totalIonCurrents = new float[INITIAL_SCAN_CAPACITY];
+      scanningRangeMin = new double[INITIAL_SCAN_CAPACITY];
+      scanningRangeMax = new double[INITIAL_SCAN_CAPACITY];
+      polarities = new byte[INITIAL_SCAN_CAPACITY];
+      msScanTypes = new byte[INITIAL_SCAN_CAPACITY];
+      spectrumTypes = new byte[INITIAL_SCAN_CAPACITY];
+      msFunctionIndexes = new short[INITIAL_SCAN_CAPACITY];
+      scanDefinitions = new String[INITIAL_SCAN_CAPACITY];
+      msFunctions = new String[0];
+    }
+
+    Columns(Columns other) {
+      mzValues = other.mzValues;
+      intensityValues = other.intensityValues;
+      numOfDataPoints = other.numOfDataPoints;
+      numOfScans = other.numOfScans;
+      dataPointOffsets = other.dataPointOffsets;
+      dataPointCounts = other.dataPointCounts;
+      scanNumbers = other.scanNumbers;
+      msLevels = other.msLevels;
+      retentionTimes = other.retentionTimes;
+      totalIonCurrents = other.totalIonCurrents;
+      scanningRangeMin = other.scanningRangeMin;
+      scanningRangeMax = other.scanningRangeMax;
+      polarities = other.polarities;
+      msScanTypes = other.msScanTypes;
+      spectrumTypes = other.spectrumTypes;
+      msFunctionIndexes = other.msFunctionIndexes;
+      scanDefinitions = other.scanDefinitions;
+      mzTolerances = other.mzTolerances;
+      sourceInducedFragmentations = other.sourceInducedFragmentations;
+      isolations = other.isolations;
+      msFunctions = other.msFunctions;
+    }
+
+    private short getMsFunctionIndex(@Nullable String msFunction) {
+      if (msFunction == null)
+        return -1;
+      for (int i = 0; i < msFunctions.length; i++) {
+        if (msFunctions[i].equals(msFunction))
+          return (short) i;
+      }
+      if (msFunctions.length >= Short.MAX_VALUE)
+        throw new MSDKRuntimeException("Too many MS functions in raw data file " + rawDataFileName);
+      msFunctions = Arrays.copyOf(msFunctions, msFunctions.length + 1);
+      msFunctions[msFunctions.length - 1] = msFunction;
+      return (short) (msFunctions.length - 1);
+    }
+
+    private void ensureDataPointCapacity(int capacity) {
+      if (capacity <= mzValues.length)
+        return;
+      final int newCapacity = (int) Math.min(Integer.MAX_VALUE - 8,
+          Math.max(capacity, (long) mzValues.length + (mzValues.length >> 1)));
+      mzValues = Arrays.copyOf(mzValues, newCapacity);
+      intensityValues = Arrays.copyOf(intensityValues, newCapacity);
+    }
+
+    private void ensureScanCapacity(int capacity) {
+      if (capacity <= dataPointOffsets.length)
+        return;
+      final int newCapacity = Math.max(capacity, dataPointOffsets.length * 2);
+      dataPointOffsets = Arrays.copyOf(dataPointOffsets, newCapacity);
+      dataPointCounts = Arrays.copyOf(dataPointCounts, newCapacity);
+      scanNumbers = Arrays.copyOf(scanNumbers, newCapacity);
+      msLevels = Arrays.copyOf(msLevels, newCapacity);
+      retentionTimes = Arrays.copyOf(retentionTimes, newCapacity);
+      totalIonCurrents = Arrays.copyOf(totalIonCurrents, newCapacity);
+      scanningRangeMin = Arrays.copyOf(scanningRangeMin, newCapacity);
+      scanningRangeMax = Arrays.copyOf(scanningRangeMax, newCapacity);
+      polarities = Arrays.copyOf(polarities, newCapacity);
+      msScanTypes = Arrays.copyOf(msScanTypes, newCapacity);
+      spectrumTypes = Arrays.copyOf(spectrumTypes, newCapacity);
+      msFunctionIndexes = Arrays.copyOf(msFunctionIndexes, newCapacity);
+      scanDefinitions = Arrays.copyOf(scanDefinitions, newCapacity);
+      if (mzTolerances != null)
+        mzTolerances = Arrays.copyOf(mzTolerances, newCapacity);
+      if (sourceInducedFragmentations != null)
+        sourceInducedFragmentations = Arrays.copyOf(sourceInducedFragmentations, newCapacity);
+      if (isolations != null)
+        isolations = Arrays.copyOf(isolations, newCapacity);
+    }
+
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<IsolationInfo>[] newIsolationsArray(int size) {
+    return new List[size];
+  }
+
+  /**
+   * Immutable list of scan views, limited to the scans that existed when the list was created.
+   */
+  private class ScanList extends AbstractList<MsScan> implements RandomAccess {
+
+    private final int size;
+
+    ScanList(int size) {
+      this.size = size;
+    }
+
+    @Override
+    public MsScan get(int index) {
+      Preconditions.checkElementIndex(index, size);
+      return new ColumnarMsScan(index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+  }
+
+  /**
+   * Flyweight MsScan that reads all its values from the current snapshot of the columns of the
+   * enclosing file. The scan is contained in every snapshot published after it was added.
+   */
+  private class ColumnarMsScan implements MsScan {
+
+    private final int index;
+
+    ColumnarMsScan(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public RawDataFile getRawDataFile() {
+      return ColumnarRawDataFile.this;
+    }
+
+    @Override
+    public Integer getScanNumber() {
+      return columns.scanNumbers[index];
+    }
+
+    @Override
+    public String getScanDefinition() {
+      return columns.scanDefinitions[index];
+    }
+
+    @Override
+    public String getMsFunction() {
+      final Columns c = columns;
+      final short msFunctionIndex = c.msFunctionIndexes[index];
+      return (msFunctionIndex < 0) ? null : c.msFunctions[msFunctionIndex];
+    }
+
+    @Override
+    public Integer getMsLevel() {
+      return columns.msLevels[index];
+    }
+
+    @Override
+    public MsScanType getMsScanType() {
+      return MS_SCAN_TYPES[columns.msScanTypes[index]];
+    }
+
+    @Override
+    public Float getRetentionTime() {
+      final float rt = columns.retentionTimes[index];
+      return Float.isNaN(rt) ? null : rt;
+    }
+
+    @Override
+    public Range<Double> getScanningRange() {
+      final Columns c = columns;
+      if (Double.isNaN(c.scanningRangeMin[index]))
+        return null;
+      return Range.closed(c.scanningRangeMin[index], c.scanningRangeMax[index]);
+    }
+
+    @Override
+    public PolarityType getPolarity() {
+      return POLARITY_TYPES[columns.polarities[index]];
+    }
+
+    @Override
+    public ActivationInfo getSourceInducedFragmentation() {
+      final ActivationInfo sourceInducedFragmentations[] = columns.sourceInducedFragmentations;
+      return (sourceInducedFragmentations == null) ? null : sourceInducedFragmentations[index];
+    }
+
+    @Override
+    public List<IsolationInfo> getIsolations() {
+      final List<IsolationInfo> isolations[] = columns.isolations;
+      if ((isolations == null) || (isolations[index] == null))
+        return Collections.emptyList();
+      return isolations[index];
+    }
+
+    @Override
+    public MsSpectrumType getSpectrumType() {
+      return SPECTRUM_TYPES[columns.spectrumTypes[index]];
+    }
+
+    @Override
+    public Integer getNumberOfDataPoints() {
+      return columns.dataPointCounts[index];
+    }
+
+    @Override
+    public double[] getMzValues(double[] array) {
+      final Columns c = columns;
+      final int size = c.dataPointCounts[index];
+      if ((array == null) || (array.length < size))
+        array = new double[size];
+      System.arraycopy(c.mzValues, c.dataPointOffsets[index], array, 0, size);
+      return array;
+    }
+
+    @Override
+    public float[] getIntensityValues(float[] array) {
+      final Columns c = columns;
+      final int size = c.dataPointCounts[index];
+      if ((array == null) || (array.length < size))
+        array = new float[size];
+      System.arraycopy(c.intensityValues, c.dataPointOffsets[index], array, 0, size);
+      return array;
+    }
+
+    @Override
+    public double getMz(int index) {
+      final Columns c = columns;
+      Preconditions.checkElementIndex(index, c.dataPointCounts[this.index]);
+      return c.mzValues[c.dataPointOffsets[this.index] + index];
+    }
+
+    @Override
+    public float getIntensity(int index) {
+      final Columns c = columns;
+      Preconditions.checkElementIndex(index, c.dataPointCounts[this.index]);
+      return c.intensityValues[c.dataPointOffsets[this.index] + index];
+    }
+
+    @Override
+    public DoubleBuffer getMzBuffer() {
+      final Columns c = columns;
+      return DoubleBuffer.wrap(c.mzValues, c.dataPointOffsets[index], c.dataPointCounts[index])
+          .slice().asReadOnlyBuffer();
+    }
+
+    @Override
+    public FloatBuffer getIntensityBuffer() {
+      final Columns c = columns;
+      return FloatBuffer
+          .wrap(c.intensityValues, c.dataPointOffsets[index], c.dataPointCounts[index]).slice()
+          .asReadOnlyBuffer();
+    }
+
+    @Override
+    public Float getTIC() {
+      return columns.totalIonCurrents[index];
+    }
+
+    @Override
+    public Range<Double> getMzRange() {
+      final Columns c = columns;
+      final int size = c.dataPointCounts[index];
+      if (size == 0)
+        return null;
+      final int offset = c.dataPointOffsets[index];
+      return Range.closed(c.mzValues[offset], c.mzValues[offset + size - 1]);
+    }
+
+    @Override
+    public MzTolerance getMzTolerance() {
+      final MzTolerance mzTolerances[] = columns.mzTolerances;
+      return (mzTolerances == null) ? null : mzTolerances[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof ColumnarMsScan))
+        return false;
+      final ColumnarMsScan other = (ColumnarMsScan) o;
+      return (other.getRawDataFile() == getRawDataFile()) && (other.index == index);
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(ColumnarRawDataFile.this) * 31 + index;
+    }
+
+  }
+
+}
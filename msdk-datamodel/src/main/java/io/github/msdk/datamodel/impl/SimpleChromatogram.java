@@ -13,6 +13,8 @@
 
 package io.github.msdk.datamodel.impl;
 
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -156,6 +158,60 @@ public class SimpleChromatogram implements Chromatogram {
     return array;
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public float getRetentionTime(int index) {
+    Preconditions.checkElementIndex(index, numOfDataPoints);
+    return rtValues[index];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public float getIntensity(int index) {
+    Preconditions.checkElementIndex(index, numOfDataPoints);
+    return intensityValues[index];
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * Returns 0 if this chromatogram has no m/z values.
+   */
+  @Override
+  public double getMz(int index) {
+    Preconditions.checkElementIndex(index, numOfDataPoints);
+    return (mzValues == null) ? 0.0 : mzValues[index];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public synchronized @Nonnull FloatBuffer getRetentionTimeBuffer() {
+    if (rtValues == null)
+      return FloatBuffer.allocate(0);
+    return FloatBuffer.wrap(rtValues, 0, numOfDataPoints).slice().asReadOnlyBuffer();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public synchronized @Nonnull FloatBuffer getIntensityBuffer() {
+    if (intensityValues == null)
+      return FloatBuffer.allocate(0);
+    return FloatBuffer.wrap(intensityValues, 0, numOfDataPoints).slice().asReadOnlyBuffer();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * If this chromatogram has no m/z values, a buffer of zeros is returned, consistently with
+   * {@link #getMzValues(double[])}.
+   */
+  @Override
+  public synchronized @Nonnull DoubleBuffer getMzBuffer() {
+    if (mzValues == null)
+      return DoubleBuffer.allocate(numOfDataPoints).asReadOnlyBuffer();
+    return DoubleBuffer.wrap(mzValues, 0, numOfDataPoints).slice().asReadOnlyBuffer();
+  }
+
   /**
    * {@inheritDoc}
    *
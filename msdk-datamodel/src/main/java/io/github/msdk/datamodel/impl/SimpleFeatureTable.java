@@ -22,6 +22,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 
 import io.github.msdk.datamodel.featuretables.FeatureTable;
+import io.github.msdk.datamodel.featuretables.FeatureTableIndex;
 import io.github.msdk.datamodel.featuretables.FeatureTableRow;
 import io.github.msdk.datamodel.featuretables.Sample;
 
@@ -32,6 +33,7 @@ public class SimpleFeatureTable implements FeatureTable {
 
   private final @Nonnull ArrayList<FeatureTableRow> featureTableRows = new ArrayList<>();
   private final @Nonnull ArrayList<Sample> featureTableSamples = new ArrayList<>();
+  private final @Nonnull FeatureTableIndex index = new FeatureTableIndex();
 
   @Override
   public @Nonnull List<FeatureTableRow> getRows() {
@@ -42,16 +44,34 @@ public class SimpleFeatureTable implements FeatureTable {
     Preconditions.checkNotNull(row);
     synchronized (featureTableRows) {
       featureTableRows.add(row);
+      index.addRow(row);
     }
   }
 
   public void removeRow(@Nonnull FeatureTableRow row) {
     Preconditions.checkNotNull(row);
     synchronized (featureTableRows) {
-      featureTableRows.remove(row);
+      if (featureTableRows.remove(row))
+        index.removeRow(row);
     }
   }
 
+  /**
+   * Notifies the index of this table that the m/z or RT value of the given row has changed.
+   *
+   * @param row a {@link io.github.msdk.datamodel.featuretables.FeatureTableRow} object.
+   */
+  public void updateRow(@Nonnull FeatureTableRow row) {
+    Preconditions.checkNotNull(row);
+    index.updateRow(row);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull FeatureTableIndex getFeatureTableIndex() {
+    return index;
+  }
+
 
   /** {@inheritDoc} */
   @Override
@@ -51,15 +51,21 @@ public class SimpleFeatureTableRow implements FeatureTableRow {
 
   @Override
   public Double getMz() {
-    Collection<Feature> allFeatures = features.values();
-    double averageMz = allFeatures.stream().mapToDouble(Feature::getMz).average().getAsDouble();
-    return averageMz;
+    synchronized (features) {
+      Collection<Feature> allFeatures = features.values();
+      if (allFeatures.isEmpty())
+        return null;
+      double averageMz = allFeatures.stream().mapToDouble(Feature::getMz).average().getAsDouble();
+      return averageMz;
+    }
   }
 
   @Override
   public Float getRT() {
     synchronized (features) {
       Collection<Feature> allFeatures = features.values();
+      if (allFeatures.isEmpty())
+        return null;
       float averageRt = (float) allFeatures.stream().mapToDouble(Feature::getRetentionTime)
           .average().getAsDouble();
       return averageRt;
@@ -103,6 +109,11 @@ public class SimpleFeatureTableRow implements FeatureTableRow {
       }
       features.put(sample, feature);
     }
+
+    // Keep the m/z x RT index of the table up to date. This is done outside of the synchronized
+    // block, because the index reads the m/z and RT values of the rows while holding its own lock.
+    if (featureTable instanceof SimpleFeatureTable)
+      ((SimpleFeatureTable) featureTable).updateRow(this);
   }
 
 
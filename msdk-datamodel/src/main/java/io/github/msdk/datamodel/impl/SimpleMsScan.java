@@ -56,9 +56,7 @@ public class SimpleMsScan extends AbstractMsSpectrum implements MsScan {
    * Constructor for SimpleMsScan.
    * </p>
    *
-   * @param dataPointStore a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
    * @param scanNumber a {@link java.lang.Integer} object.
-   * @param msFunction a {@link io.github.msdk.datamodel.rawdata.MsFunction} object.
    */
   public SimpleMsScan(@Nonnull Integer scanNumber) {
     this(scanNumber, null);
@@ -69,9 +67,8 @@ public class SimpleMsScan extends AbstractMsSpectrum implements MsScan {
    * Constructor for SimpleMsScan.
    * </p>
    *
-   * @param dataPointStore a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
    * @param scanNumber a {@link java.lang.Integer} object.
-   * @param msFunction a {@link io.github.msdk.datamodel.rawdata.MsFunction} object.
+   * @param msFunction a {@link java.lang.String} object.
    */
   public SimpleMsScan(@Nonnull Integer scanNumber, String msFunction) {
     Preconditions.checkNotNull(scanNumber);
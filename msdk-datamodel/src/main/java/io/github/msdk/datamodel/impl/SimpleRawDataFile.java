@@ -28,6 +28,7 @@ import io.github.msdk.datamodel.chromatograms.Chromatogram;
 import io.github.msdk.datamodel.files.FileType;
 import io.github.msdk.datamodel.rawdata.MsScan;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.ScanIndex;
 
 /**
  * Implementation of the RawDataFile interface.
@@ -40,6 +41,7 @@ public class SimpleRawDataFile implements RawDataFile {
   private @Nonnull FileType rawDataFileType;
   private final @Nonnull ArrayList<MsScan> scans;
   private final @Nonnull ArrayList<Chromatogram> chromatograms;
+  private @Nullable ScanIndex scanIndex;
 
   /**
    * <p>
@@ -49,7 +51,6 @@ public class SimpleRawDataFile implements RawDataFile {
    * @param rawDataFileName a {@link java.lang.String} object.
    * @param originalRawDataFile a {@link java.util.Optional} object.
    * @param rawDataFileType a {@link io.github.msdk.datamodel.files.FileType} object.
-   * @param dataPointStore a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
    */
   public SimpleRawDataFile(@Nonnull String rawDataFileName,
       @Nonnull Optional<File> originalRawDataFile, @Nonnull FileType rawDataFileType) {
@@ -144,6 +145,20 @@ public class SimpleRawDataFile implements RawDataFile {
     return ImmutableList.copyOf(scans);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * The index is built on the first call and kept until a scan is added or removed.
+   */
+  @Override
+  public @Nonnull ScanIndex getScanIndex() {
+    synchronized (scans) {
+      if (scanIndex == null)
+        scanIndex = new ScanIndex(scans);
+      return scanIndex;
+    }
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -153,6 +168,7 @@ public class SimpleRawDataFile implements RawDataFile {
     Preconditions.checkNotNull(scan);
     synchronized (scans) {
       scans.add(scan);
+      scanIndex = null;
     }
   }
 
@@ -164,7 +180,8 @@ public class SimpleRawDataFile implements RawDataFile {
   public void removeScan(@Nonnull MsScan scan) {
     Preconditions.checkNotNull(scan);
     synchronized (scans) {
-      scans.remove(scan);
+      if (scans.remove(scan))
+        scanIndex = null;
     }
   }
 
@@ -0,0 +1,230 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.impl;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Range;
+
+import io.github.msdk.datamodel.datastore.DataPointStore;
+import io.github.msdk.util.ChromatogramUtil;
+
+/**
+ * Implementation of the Chromatogram interface that keeps its data points in a DataPointStore
+ * instead of the heap. Only the storage IDs and the RT range are kept in memory. The data points
+ * are loaded from the store on demand, directly into the array provided by the caller, if it is
+ * large enough.
+ */
+public class StoredChromatogram extends SimpleChromatogram {
+
+  private final @Nonnull DataPointStore dataPointStore;
+
+  private @Nullable Object rtStorageId, mzStorageId, intensityStorageId;
+  private @Nonnull Integer numOfDataPoints = 0;
+  private @Nullable Range<Float> rtRange;
+
+  /**
+   * <p>
+   * Constructor for StoredChromatogram.
+   * </p>
+   *
+   * @param dataPointStore a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
+   */
+  public StoredChromatogram(@Nonnull DataPointStore dataPointStore) {
+    Preconditions.checkNotNull(dataPointStore);
+    this.dataPointStore = dataPointStore;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull Integer getNumberOfDataPoints() {
+    return numOfDataPoints;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull float[] getRetentionTimes(@Nullable float[] array) {
+    if ((array == null) || (array.length < numOfDataPoints))
+      array = new float[numOfDataPoints];
+    if (rtStorageId != null)
+      dataPointStore.loadData(rtStorageId, array);
+    return array;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nullable double[] getMzValues(@Nullable double[] array) {
+    if ((array == null) || (array.length < numOfDataPoints))
+      array = new double[numOfDataPoints];
+    if (mzStorageId != null)
+      dataPointStore.loadData(mzStorageId, array);
+    return array;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull float[] getIntensityValues(@Nullable float array[]) {
+    if ((array == null) || (array.length < numOfDataPoints))
+      array = new float[numOfDataPoints];
+    if (intensityStorageId != null)
+      dataPointStore.loadData(intensityStorageId, array);
+    return array;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The data points are loaded from the DataPointStore, so this method is not suitable for
+   * accessing many individual values.
+   */
+  @Override
+  public float getRetentionTime(int index) {
+    Preconditions.checkElementIndex(index, numOfDataPoints);
+    return getRetentionTimes()[index];
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The data points are loaded from the DataPointStore, so this method is not suitable for
+   * accessing many individual values.
+   */
+  @Override
+  public float getIntensity(int index) {
+    Preconditions.checkElementIndex(index, numOfDataPoints);
+    return getIntensityValues()[index];
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The data points are loaded from the DataPointStore, so this method is not suitable for
+   * accessing many individual values.
+   */
+  @Override
+  public double getMz(int index) {
+    Preconditions.checkElementIndex(index, numOfDataPoints);
+    return getMzValues()[index];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull FloatBuffer getRetentionTimeBuffer() {
+    return FloatBuffer.wrap(getRetentionTimes(), 0, numOfDataPoints).slice().asReadOnlyBuffer();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull FloatBuffer getIntensityBuffer() {
+    return FloatBuffer.wrap(getIntensityValues(), 0, numOfDataPoints).slice().asReadOnlyBuffer();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull DoubleBuffer getMzBuffer() {
+    return DoubleBuffer.wrap(getMzValues(), 0, numOfDataPoints).slice().asReadOnlyBuffer();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The data points are copied into the DataPointStore, and the data previously stored for this
+   * chromatogram are removed from the store.
+   */
+  @Override
+  public synchronized void setDataPoints(@Nonnull float rtValues[], @Nullable double mzValues[],
+      @Nonnull float intensityValues[], @Nonnull Integer size) {
+
+    Preconditions.checkNotNull(rtValues);
+    Preconditions.checkNotNull(intensityValues);
+    Preconditions.checkArgument(rtValues.length >= size);
+    Preconditions.checkArgument(intensityValues.length >= size);
+    if (mzValues != null)
+      Preconditions.checkArgument(mzValues.length >= size);
+
+    // Discard the old data
+    if (rtStorageId != null)
+      dataPointStore.removeData(rtStorageId);
+    if (mzStorageId != null)
+      dataPointStore.removeData(mzStorageId);
+    if (intensityStorageId != null)
+      dataPointStore.removeData(intensityStorageId);
+
+    // Store the new data
+    this.rtStorageId = dataPointStore.storeData(rtValues, size);
+    this.intensityStorageId = dataPointStore.storeData(intensityValues, size);
+    this.mzStorageId = (mzValues != null) ? dataPointStore.storeData(mzValues, size) : null;
+
+    // Save the size of the arrays
+    this.numOfDataPoints = size;
+
+    // Update the RT range
+    this.rtRange = ChromatogramUtil.getRtRange(rtValues, size);
+
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * Note: the data points of a StoredChromatogram cannot be appended in place. This method loads
+   * all data points from the store and stores them again, therefore it should not be used to build
+   * the chromatogram point by point. Use setDataPoints() instead.
+   */
+  @Override
+  public synchronized void addDataPoint(@Nonnull Float rt, @Nullable Double mz,
+      @Nonnull Float intensity) {
+    Preconditions.checkNotNull(rt);
+    Preconditions.checkNotNull(intensity);
+    if (mzStorageId != null)
+      Preconditions.checkNotNull(mz);
+
+    final int newSize = numOfDataPoints + 1;
+    float rtValues[] = getRetentionTimes(new float[newSize]);
+    float intensityValues[] = getIntensityValues(new float[newSize]);
+    double mzValues[] = null;
+    if ((mz != null) && ((mzStorageId != null) || (numOfDataPoints == 0)))
+      mzValues = getMzValues(new double[newSize]);
+
+    rtValues[numOfDataPoints] = rt;
+    intensityValues[numOfDataPoints] = intensity;
+    if (mzValues != null)
+      mzValues[numOfDataPoints] = mz;
+
+    setDataPoints(rtValues, mzValues, intensityValues, newSize);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nullable
+  public Range<Float> getRtRange() {
+    return rtRange;
+  }
+
+  /**
+   * <p>
+   * Getter for the field <code>dataPointStore</code>.
+   * </p>
+   *
+   * @return a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
+   */
+  public @Nonnull DataPointStore getDataPointStore() {
+    return dataPointStore;
+  }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.impl;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Range;
+
+import io.github.msdk.MSDKRuntimeException;
+import io.github.msdk.datamodel.datastore.DataPointStore;
+import io.github.msdk.util.MsSpectrumUtil;
+
+/**
+ * Implementation of the MsScan interface that keeps its data points in a DataPointStore instead of
+ * the heap. Only the storage IDs and the values derived from the data points (m/z range, TIC) are
+ * kept in memory. The data points are loaded from the store on demand, directly into the array
+ * provided by the caller, if it is large enough.
+ */
+public class StoredMsScan extends SimpleMsScan {
+
+  private final @Nonnull DataPointStore dataPointStore;
+
+  private @Nullable Object mzStorageId, intensityStorageId;
+  private @Nonnull Integer numOfDataPoints = 0;
+  private @Nullable Range<Double> mzRange;
+  private @Nonnull Float totalIonCurrent = 0f;
+
+  /**
+   * <p>
+   * Constructor for StoredMsScan.
+   * </p>
+   *
+   * @param dataPointStore a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
+   * @param scanNumber a {@link java.lang.Integer} object.
+   */
+  public StoredMsScan(@Nonnull DataPointStore dataPointStore, @Nonnull Integer scanNumber) {
+    this(dataPointStore, scanNumber, null);
+  }
+
+  /**
+   * <p>
+   * Constructor for StoredMsScan.
+   * </p>
+   *
+   * @param dataPointStore a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
+   * @param scanNumber a {@link java.lang.Integer} object.
+   * @param msFunction a {@link java.lang.String} object.
+   */
+  public StoredMsScan(@Nonnull DataPointStore dataPointStore, @Nonnull Integer scanNumber,
+      @Nullable String msFunction) {
+    super(scanNumber, msFunction);
+    Preconditions.checkNotNull(dataPointStore);
+    this.dataPointStore = dataPointStore;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull Integer getNumberOfDataPoints() {
+    return numOfDataPoints;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull double[] getMzValues(@Nullable double[] array) {
+    if ((array == null) || (array.length < numOfDataPoints))
+      array = new double[numOfDataPoints];
+    if (mzStorageId != null)
+      dataPointStore.loadData(mzStorageId, array);
+    return array;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull float[] getIntensityValues(@Nullable float array[]) {
+    if ((array == null) || (array.length < numOfDataPoints))
+      array = new float[numOfDataPoints];
+    if (intensityStorageId != null)
+      dataPointStore.loadData(intensityStorageId, array);
+    return array;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The data points are loaded from the DataPointStore, so this method is not suitable for
+   * accessing many individual values.
+   */
+  @Override
+  public double getMz(int index) {
+    Preconditions.checkElementIndex(index, numOfDataPoints);
+    return getMzValues()[index];
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The data points are loaded from the DataPointStore, so this method is not suitable for
+   * accessing many individual values.
+   */
+  @Override
+  public float getIntensity(int index) {
+    Preconditions.checkElementIndex(index, numOfDataPoints);
+    return getIntensityValues()[index];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull DoubleBuffer getMzBuffer() {
+    return DoubleBuffer.wrap(getMzValues(), 0, numOfDataPoints).slice().asReadOnlyBuffer();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull FloatBuffer getIntensityBuffer() {
+    return FloatBuffer.wrap(getIntensityValues(), 0, numOfDataPoints).slice().asReadOnlyBuffer();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The data points are copied into the DataPointStore, and the data previously stored for this
+   * scan are removed from the store.
+   */
+  @Override
+  public synchronized void setDataPoints(@Nonnull double mzValues[],
+      @Nonnull float intensityValues[], @Nonnull Integer size) {
+
+    Preconditions.checkNotNull(mzValues);
+    Preconditions.checkNotNull(intensityValues);
+
+    // Make sure the spectrum is sorted
+    for (int i = 0; i < size - 1; i++) {
+      if (mzValues[i] > mzValues[i + 1])
+        throw new MSDKRuntimeException("m/z values must be sorted in ascending order");
+    }
+
+    // Discard the old data
+    if (mzStorageId != null)
+      dataPointStore.removeData(mzStorageId);
+    if (intensityStorageId != null)
+      dataPointStore.removeData(intensityStorageId);
+
+    // Store the new data
+    this.mzStorageId = dataPointStore.storeData(mzValues, size);
+    this.intensityStorageId = dataPointStore.storeData(intensityValues, size);
+
+    // Save the size of the arrays
+    this.numOfDataPoints = size;
+
+    // Calculate values
+    this.mzRange = MsSpectrumUtil.getMzRange(mzValues, size);
+    this.totalIonCurrent = MsSpectrumUtil.getTIC(intensityValues, size);
+
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nonnull
+  public Float getTIC() {
+    return totalIonCurrent;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Range<Double> getMzRange() {
+    return mzRange;
+  }
+
+  /**
+   * <p>
+   * Getter for the field <code>dataPointStore</code>.
+   * </p>
+   *
+   * @return a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
+   */
+  public @Nonnull DataPointStore getDataPointStore() {
+    return dataPointStore;
+  }
+
+}
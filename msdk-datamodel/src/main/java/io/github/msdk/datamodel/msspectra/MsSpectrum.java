@@ -13,6 +13,9 @@
 
 package io.github.msdk.datamodel.msspectra;
 
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -100,6 +103,54 @@ public interface MsSpectrum {
   @Nonnull
   float[] getIntensityValues(float array[]);
 
+  /**
+   * Returns the m/z value of the data point at the given index. Implementations that keep the data
+   * points in memory return the value without copying the whole array.
+   *
+   * @param index index of the data point, between 0 and getNumberOfDataPoints() - 1
+   * @return m/z value
+   */
+  default double getMz(int index) {
+    return getMzValues()[index];
+  }
+
+  /**
+   * Returns the intensity value of the data point at the given index. Implementations that keep the
+   * data points in memory return the value without copying the whole array.
+   *
+   * @param index index of the data point, between 0 and getNumberOfDataPoints() - 1
+   * @return intensity value
+   */
+  default float getIntensity(int index) {
+    return getIntensityValues()[index];
+  }
+
+  /**
+   * Returns a read-only view of the m/z values of this spectrum. The limit of the buffer is equal
+   * to the number of data points. Implementations that keep the data points in memory return a
+   * view of their internal data instead of a copy, therefore the content of the buffer is only
+   * guaranteed to be valid until the data points of this spectrum are changed.
+   *
+   * @return read-only buffer of m/z values
+   */
+  @Nonnull
+  default DoubleBuffer getMzBuffer() {
+    return DoubleBuffer.wrap(getMzValues(), 0, getNumberOfDataPoints()).slice()
+        .asReadOnlyBuffer();
+  }
+
+  /**
+   * Returns a read-only view of the intensity values of this spectrum. The limit of the buffer is
+   * equal to the number of data points. See {@link #getMzBuffer()} for details.
+   *
+   * @return read-only buffer of intensity values
+   */
+  @Nonnull
+  default FloatBuffer getIntensityBuffer() {
+    return FloatBuffer.wrap(getIntensityValues(), 0, getNumberOfDataPoints()).slice()
+        .asReadOnlyBuffer();
+  }
+
   /**
    * Returns the sum of intensities of all data points (total ion current or TIC).
    *
@@ -81,6 +81,19 @@ public interface RawDataFile {
   @Nonnull
   List<MsScan> getScans();
 
+  /**
+   * Returns an index of the scans of this file, for fast lookup of scans by retention time, MS
+   * level, polarity or precursor m/z. The default implementation builds a new index on every call;
+   * implementations that can track changes of their scans should cache the index and rebuild it
+   * only when the scans change.
+   *
+   * @return An index of all scans.
+   */
+  @Nonnull
+  default ScanIndex getScanIndex() {
+    return new ScanIndex(getScans());
+  }
+
   /**
    * Returns an immutable list of all chromatograms. The list can be safely iterated over, as it
    * cannot be modified by another thread.
@@ -0,0 +1,210 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.rawdata;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.google.common.collect.Range;
+
+/**
+ * Selects scans by MS level, retention time, polarity, scan number and precursor m/z. Criteria that
+ * are null match any scan. A scan matches a criterion that is not null only if the corresponding
+ * value is known, e.g. a retention time range rejects the scans without retention time and a
+ * precursor m/z range rejects the scans without precursor.
+ *
+ * Besides testing complete scans, the filter can test the single values, so that importers can
+ * reject a scan as soon as the value is read, before the rest of the scan is parsed and before its
+ * data points are decoded.
+ */
+@Immutable
+public class ScanFilter implements Predicate<MsScan> {
+
+  private final @Nullable Range<Integer> msLevelRange;
+  private final @Nullable Range<Float> rtRange;
+  private final @Nullable PolarityType polarity;
+  private final @Nullable Range<Integer> scanNumberRange;
+  private final @Nullable Range<Double> precursorMzRange;
+
+  /**
+   * <p>
+   * Constructor for ScanFilter.
+   * </p>
+   *
+   * @param msLevelRange range of MS levels, e.g. Range.singleton(1) for MS1 scans only, or null
+   * @param rtRange retention time range, or null
+   * @param polarity a {@link io.github.msdk.datamodel.rawdata.PolarityType} object, or null
+   * @param scanNumberRange range of scan numbers, or null
+   * @param precursorMzRange precursor m/z range, or null
+   */
+  public ScanFilter(@Nullable Range<Integer> msLevelRange, @Nullable Range<Float> rtRange,
+      @Nullable PolarityType polarity, @Nullable Range<Integer> scanNumberRange,
+      @Nullable Range<Double> precursorMzRange) {
+    this.msLevelRange = msLevelRange;
+    this.rtRange = rtRange;
+    this.polarity = polarity;
+    this.scanNumberRange = scanNumberRange;
+    this.precursorMzRange = precursorMzRange;
+  }
+
+  /**
+   * <p>
+   * getMsLevelRange.
+   * </p>
+   *
+   * @return range of MS levels, or null
+   */
+  public @Nullable Range<Integer> getMsLevelRange() {
+    return msLevelRange;
+  }
+
+  /**
+   * <p>
+   * getRtRange.
+   * </p>
+   *
+   * @return retention time range, or null
+   */
+  public @Nullable Range<Float> getRtRange() {
+    return rtRange;
+  }
+
+  /**
+   * <p>
+   * getPolarity.
+   * </p>
+   *
+   * @return a {@link io.github.msdk.datamodel.rawdata.PolarityType} object, or null
+   */
+  public @Nullable PolarityType getPolarity() {
+    return polarity;
+  }
+
+  /**
+   * <p>
+   * getScanNumberRange.
+   * </p>
+   *
+   * @return range of scan numbers, or null
+   */
+  public @Nullable Range<Integer> getScanNumberRange() {
+    return scanNumberRange;
+  }
+
+  /**
+   * <p>
+   * getPrecursorMzRange.
+   * </p>
+   *
+   * @return precursor m/z range, or null
+   */
+  public @Nullable Range<Double> getPrecursorMzRange() {
+    return precursorMzRange;
+  }
+
+  /**
+   * <p>
+   * acceptsMsLevel.
+   * </p>
+   *
+   * @param msLevel MS level, or null if unknown
+   * @return true if the MS level matches the filter
+   */
+  public boolean acceptsMsLevel(@Nullable Integer msLevel) {
+    return (msLevelRange == null) || ((msLevel != null) && msLevelRange.contains(msLevel));
+  }
+
+  /**
+   * <p>
+   * acceptsRetentionTime.
+   * </p>
+   *
+   * @param rt retention time, or null if unknown
+   * @return true if the retention time matches the filter
+   */
+  public boolean acceptsRetentionTime(@Nullable Float rt) {
+    return (rtRange == null) || ((rt != null) && rtRange.contains(rt));
+  }
+
+  /**
+   * <p>
+   * acceptsPolarity.
+   * </p>
+   *
+   * @param polarity a {@link io.github.msdk.datamodel.rawdata.PolarityType} object, or null if
+   *        unknown
+   * @return true if the polarity matches the filter
+   */
+  public boolean acceptsPolarity(@Nullable PolarityType polarity) {
+    return (this.polarity == null) || (this.polarity == polarity);
+  }
+
+  /**
+   * <p>
+   * acceptsScanNumber.
+   * </p>
+   *
+   * @param scanNumber scan number, or null if unknown
+   * @return true if the scan number matches the filter
+   */
+  public boolean acceptsScanNumber(@Nullable Integer scanNumber) {
+    return (scanNumberRange == null)
+        || ((scanNumber != null) && scanNumberRange.contains(scanNumber));
+  }
+
+  /**
+   * Returns true if the precursor m/z of any of the given isolations is within the precursor m/z
+   * range of the filter. The center of the isolation window is used for the isolations without
+   * precursor m/z.
+   *
+   * @param isolations the isolations of a scan
+   * @return true if the precursors match the filter
+   */
+  public boolean acceptsIsolations(@Nonnull List<IsolationInfo> isolations) {
+    if (precursorMzRange == null)
+      return true;
+    for (IsolationInfo isolation : isolations) {
+      Double precursorMz = isolation.getPrecursorMz();
+      if (precursorMz == null) {
+        final Range<Double> isolationRange = isolation.getIsolationMzRange();
+        if (!isolationRange.hasLowerBound() || !isolationRange.hasUpperBound())
+          continue;
+        precursorMz = (isolationRange.lowerEndpoint() + isolationRange.upperEndpoint()) / 2.0;
+      }
+      if (precursorMzRange.contains(precursorMz))
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * Only the values of the scan needed by the criteria that are not null are read, so the scan
+   * data points are never accessed.
+   */
+  @Override
+  public boolean test(@Nonnull MsScan scan) {
+    return ((scanNumberRange == null) || acceptsScanNumber(scan.getScanNumber()))
+        && ((msLevelRange == null) || acceptsMsLevel(scan.getMsLevel()))
+        && ((polarity == null) || acceptsPolarity(scan.getPolarity()))
+        && ((rtRange == null) || acceptsRetentionTime(scan.getRetentionTime()))
+        && ((precursorMzRange == null) || acceptsIsolations(scan.getIsolations()));
+  }
+
+}
@@ -0,0 +1,368 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.rawdata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Range;
+
+/**
+ * Immutable index of the scans of a raw data file, which allows fast lookup of scans by retention
+ * time, MS level, polarity, MS function and precursor m/z. The index is a snapshot of the scans
+ * that were present when it was built; use {@link RawDataFile#getScanIndex()} to obtain an index
+ * that is up to date.
+ *
+ * Lookups by retention time use binary search over the scans sorted by retention time, and take
+ * O(log n + k) time, where k is the number of returned scans. Scans without a retention time are
+ * not included in the retention time lookups. Lookups by precursor m/z take O(log m + k') time,
+ * where m is the number of isolation windows and k' is the number of windows whose lower bound is
+ * within the widest window width below the given m/z.
+ */
+public class ScanIndex {
+
+  private final @Nonnull List<MsScan> scans;
+
+  private final @Nonnull RtSortedScans allScans;
+  private final @Nonnull Map<Integer, RtSortedScans> scansByMsLevel = new HashMap<>();
+  private final @Nonnull Map<String, RtSortedScans> scansByMsFunction = new HashMap<>();
+  private final @Nonnull Map<PolarityType, List<MsScan>> scansByPolarity =
+      new EnumMap<>(PolarityType.class);
+
+  // Bounded isolation windows, sorted by their lower m/z bound
+  private final @Nonnull double isolationLowerBounds[];
+  private final @Nonnull double isolationUpperBounds[];
+  private final @Nonnull int isolationScanPositions[];
+  private final double maxIsolationWidth;
+
+  // Isolation windows without a lower or upper bound
+  private final @Nonnull List<Range<Double>> unboundedIsolations = new ArrayList<>();
+  private final @Nonnull List<Integer> unboundedIsolationScanPositions = new ArrayList<>();
+
+  /**
+   * Builds an index of the given scans.
+   *
+   * @param scans the scans to index, in the order of the raw data file
+   */
+  public ScanIndex(@Nonnull List<MsScan> scans) {
+    Preconditions.checkNotNull(scans);
+    this.scans = Collections.unmodifiableList(new ArrayList<>(scans));
+
+    final Map<Integer, List<MsScan>> msLevelLists = new HashMap<>();
+    final Map<String, List<MsScan>> msFunctionLists = new HashMap<>();
+    final List<double[]> isolationWindows = new ArrayList<>();
+
+    for (int i = 0; i < this.scans.size(); i++) {
+      final MsScan scan = this.scans.get(i);
+      msLevelLists.computeIfAbsent(scan.getMsLevel(), k -> new ArrayList<>()).add(scan);
+      final String msFunction = scan.getMsFunction();
+      if (msFunction != null)
+        msFunctionLists.computeIfAbsent(msFunction, k -> new ArrayList<>()).add(scan);
+      scansByPolarity.computeIfAbsent(scan.getPolarity(), k -> new ArrayList<>()).add(scan);
+
+      for (IsolationInfo isolation : scan.getIsolations()) {
+        final Range<Double> isolationRange = isolation.getIsolationMzRange();
+        if (isolationRange.hasLowerBound() && isolationRange.hasUpperBound()) {
+          isolationWindows.add(new double[] {isolationRange.lowerEndpoint(),
+              isolationRange.upperEndpoint(), i});
+        } else {
+          unboundedIsolations.add(isolationRange);
+          unboundedIsolationScanPositions.add(i);
+        }
+      }
+    }
+
+    allScans = new RtSortedScans(this.scans);
+    for (Map.Entry<Integer, List<MsScan>> e : msLevelLists.entrySet())
+      scansByMsLevel.put(e.getKey(), new RtSortedScans(e.getValue()));
+    for (Map.Entry<String, List<MsScan>> e : msFunctionLists.entrySet())
+      scansByMsFunction.put(e.getKey(), new RtSortedScans(e.getValue()));
+
+    isolationWindows.sort((a, b) -> Double.compare(a[0], b[0]));
+    final int numOfWindows = isolationWindows.size();
+    isolationLowerBounds = new double[numOfWindows];
+    isolationUpperBounds = new double[numOfWindows];
+    isolationScanPositions = new int[numOfWindows];
+    double maxWidth = 0;
+    for (int i = 0; i < numOfWindows; i++) {
+      final double window[] = isolationWindows.get(i);
+      isolationLowerBounds[i] = window[0];
+      isolationUpperBounds[i] = window[1];
+      isolationScanPositions[i] = (int) window[2];
+      maxWidth = Math.max(maxWidth, window[1] - window[0]);
+    }
+    maxIsolationWidth = maxWidth;
+  }
+
+  /**
+   * Returns all indexed scans, in the order of the raw data file.
+   *
+   * @return list of scans
+   */
+  public @Nonnull List<MsScan> getScans() {
+    return scans;
+  }
+
+  /**
+   * Returns the scans with retention time within the given range, sorted by retention time.
+   *
+   * @param rtRange retention time range
+   * @return list of scans
+   */
+  public @Nonnull List<MsScan> getScans(@Nonnull Range<Float> rtRange) {
+    Preconditions.checkNotNull(rtRange);
+    return allScans.getScans(rtRange);
+  }
+
+  /**
+   * Returns the scans of the given MS level, in the order of the raw data file.
+   *
+   * @param msLevel MS level
+   * @return list of scans
+   */
+  public @Nonnull List<MsScan> getScans(int msLevel) {
+    final RtSortedScans levelScans = scansByMsLevel.get(msLevel);
+    if (levelScans == null)
+      return Collections.emptyList();
+    return levelScans.scans;
+  }
+
+  /**
+   * Returns the scans of the given MS level with retention time within the given range, sorted by
+   * retention time.
+   *
+   * @param msLevel MS level
+   * @param rtRange retention time range
+   * @return list of scans
+   */
+  public @Nonnull List<MsScan> getScans(int msLevel, @Nonnull Range<Float> rtRange) {
+    Preconditions.checkNotNull(rtRange);
+    final RtSortedScans levelScans = scansByMsLevel.get(msLevel);
+    if (levelScans == null)
+      return Collections.emptyList();
+    return levelScans.getScans(rtRange);
+  }
+
+  /**
+   * Returns the scans of the given MS function, in the order of the raw data file.
+   *
+   * @param msFunction MS function
+   * @return list of scans
+   */
+  public @Nonnull List<MsScan> getScans(@Nonnull String msFunction) {
+    Preconditions.checkNotNull(msFunction);
+    final RtSortedScans functionScans = scansByMsFunction.get(msFunction);
+    if (functionScans == null)
+      return Collections.emptyList();
+    return functionScans.scans;
+  }
+
+  /**
+   * Returns the scans of the given MS function with retention time within the given range, sorted
+   * by retention time.
+   *
+   * @param msFunction MS function
+   * @param rtRange retention time range
+   * @return list of scans
+   */
+  public @Nonnull List<MsScan> getScans(@Nonnull String msFunction,
+      @Nonnull Range<Float> rtRange) {
+    Preconditions.checkNotNull(msFunction);
+    Preconditions.checkNotNull(rtRange);
+    final RtSortedScans functionScans = scansByMsFunction.get(msFunction);
+    if (functionScans == null)
+      return Collections.emptyList();
+    return functionScans.getScans(rtRange);
+  }
+
+  /**
+   * Returns the scans of the given polarity, in the order of the raw data file.
+   *
+   * @param polarity polarity
+   * @return list of scans
+   */
+  public @Nonnull List<MsScan> getScans(@Nonnull PolarityType polarity) {
+    Preconditions.checkNotNull(polarity);
+    final List<MsScan> polarityScans = scansByPolarity.get(polarity);
+    if (polarityScans == null)
+      return Collections.emptyList();
+    return Collections.unmodifiableList(polarityScans);
+  }
+
+  /**
+   * Returns the scan with retention time closest to the given value, or null if no scan has a
+   * retention time.
+   *
+   * @param rt retention time
+   * @return the nearest scan, or null
+   */
+  public @Nullable MsScan getNearestScan(float rt) {
+    return allScans.getNearestScan(rt);
+  }
+
+  /**
+   * Returns the scan of the given MS level with retention time closest to the given value, or null
+   * if no such scan has a retention time.
+   *
+   * @param msLevel MS level
+   * @param rt retention time
+   * @return the nearest scan, or null
+   */
+  public @Nullable MsScan getNearestScan(int msLevel, float rt) {
+    final RtSortedScans levelScans = scansByMsLevel.get(msLevel);
+    if (levelScans == null)
+      return null;
+    return levelScans.getNearestScan(rt);
+  }
+
+  /**
+   * Returns the scans that have an isolation window containing the given m/z value (typically
+   * MS/MS scans of a given precursor), in the order of the raw data file.
+   *
+   * @param mz precursor m/z value
+   * @return list of scans
+   */
+  public @Nonnull List<MsScan> getScansByPrecursorMz(double mz) {
+
+    final List<Integer> positions = new ArrayList<>();
+
+    // Only windows with lower bound in [mz - maxIsolationWidth, mz] can contain the m/z value
+    int i = lowerBound(isolationLowerBounds, mz - maxIsolationWidth);
+    for (; (i < isolationLowerBounds.length) && (isolationLowerBounds[i] <= mz); i++) {
+      if (isolationUpperBounds[i] >= mz)
+        positions.add(isolationScanPositions[i]);
+    }
+    for (int j = 0; j < unboundedIsolations.size(); j++) {
+      if (unboundedIsolations.get(j).contains(mz))
+        positions.add(unboundedIsolationScanPositions.get(j));
+    }
+
+    if (positions.isEmpty())
+      return Collections.emptyList();
+
+    // A scan may have several matching windows
+    Collections.sort(positions);
+    final List<MsScan> result = new ArrayList<>(positions.size());
+    int lastPosition = -1;
+    for (int position : positions) {
+      if (position != lastPosition)
+        result.add(scans.get(position));
+      lastPosition = position;
+    }
+    return result;
+  }
+
+  /**
+   * Index of the first element not smaller than the given value.
+   */
+  private static int lowerBound(double values[], double value) {
+    int low = 0, high = values.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (values[mid] < value)
+        low = mid + 1;
+      else
+        high = mid;
+    }
+    return low;
+  }
+
+  /**
+   * Index of the first element not smaller than the given value.
+   */
+  private static int lowerBound(float values[], float value) {
+    int low = 0, high = values.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (values[mid] < value)
+        low = mid + 1;
+      else
+        high = mid;
+    }
+    return low;
+  }
+
+  /**
+   * A list of scans, together with the scans that have a retention time sorted by retention time.
+   */
+  private static class RtSortedScans {
+
+    private final @Nonnull List<MsScan> scans;
+    private final @Nonnull MsScan sortedScans[];
+    private final @Nonnull float sortedRts[];
+
+    RtSortedScans(@Nonnull List<MsScan> scans) {
+      this.scans = Collections.unmodifiableList(scans);
+
+      final List<MsScan> scansWithRt = new ArrayList<>(scans.size());
+      for (MsScan scan : scans) {
+        if (scan.getRetentionTime() != null)
+          scansWithRt.add(scan);
+      }
+      final MsScan sorted[] = scansWithRt.toArray(new MsScan[scansWithRt.size()]);
+      final float rts[] = new float[sorted.length];
+      for (int i = 0; i < sorted.length; i++)
+        rts[i] = sorted[i].getRetentionTime();
+
+      // The scans are usually already sorted, so only sort if needed
+      boolean isSorted = true;
+      for (int i = 1; (i < rts.length) && isSorted; i++)
+        isSorted = rts[i - 1] <= rts[i];
+      if (!isSorted) {
+        Arrays.sort(sorted, (a, b) -> Float.compare(a.getRetentionTime(), b.getRetentionTime()));
+        for (int i = 0; i < sorted.length; i++)
+          rts[i] = sorted[i].getRetentionTime();
+      }
+
+      this.sortedScans = sorted;
+      this.sortedRts = rts;
+    }
+
+    @Nonnull
+    List<MsScan> getScans(@Nonnull Range<Float> rtRange) {
+      int start = rtRange.hasLowerBound() ? lowerBound(sortedRts, rtRange.lowerEndpoint()) : 0;
+      final List<MsScan> result = new ArrayList<>();
+      for (int i = start; i < sortedRts.length; i++) {
+        if (rtRange.hasUpperBound() && (sortedRts[i] > rtRange.upperEndpoint()))
+          break;
+        if (rtRange.contains(sortedRts[i]))
+          result.add(sortedScans[i]);
+      }
+      return result;
+    }
+
+    @Nullable
+    MsScan getNearestScan(float rt) {
+      if (sortedRts.length == 0)
+        return null;
+      final int i = lowerBound(sortedRts, rt);
+      if (i == 0)
+        return sortedScans[0];
+      if (i == sortedRts.length)
+        return sortedScans[i - 1];
+      return (rt - sortedRts[i - 1] <= sortedRts[i] - rt) ? sortedScans[i - 1] : sortedScans[i];
+    }
+
+  }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.rawdata;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.MSDKMethod;
+
+/**
+ * Push-based pipeline that passes each scan of a {@link ScanStream} through a sequence of
+ * {@link ScanStage}s into a {@link ScanSink}. The scans are processed one at a time, so unlike
+ * running the corresponding methods one after another, no intermediate raw data file is built, and
+ * only the scan in flight needs to be kept in memory.
+ *
+ * For example, to build chromatograms from an mzML file with centroiding and filtering:
+ *
+ * <pre>
+ * ScanPipeline pipeline = new ScanPipeline(new MzMLFileParser(file), chromatogramSink)
+ *     .addStage(centroidingAlgorithm).addStage(filteringAlgorithm);
+ * pipeline.execute();
+ * </pre>
+ *
+ * The result of the pipeline is the number of scans that reached the sink.
+ */
+public class ScanPipeline implements MSDKMethod<Integer> {
+
+  private final @Nonnull ScanStream source;
+  private final @Nonnull ScanSink sink;
+  private final @Nonnull List<ScanStage> stages = new ArrayList<>();
+
+  private volatile boolean canceled = false;
+  private Integer result;
+
+  /**
+   * <p>
+   * Constructor for ScanPipeline.
+   * </p>
+   *
+   * @param source a {@link io.github.msdk.datamodel.rawdata.ScanStream} object.
+   * @param sink a {@link io.github.msdk.datamodel.rawdata.ScanSink} object.
+   */
+  public ScanPipeline(@Nonnull ScanStream source, @Nonnull ScanSink sink) {
+    Preconditions.checkNotNull(source);
+    Preconditions.checkNotNull(sink);
+    this.source = source;
+    this.sink = sink;
+  }
+
+  /**
+   * Appends a stage to the pipeline. The stages are applied in the order in which they were added.
+   *
+   * @param stage a {@link io.github.msdk.datamodel.rawdata.ScanStage} object.
+   * @return this pipeline
+   */
+  public @Nonnull ScanPipeline addStage(@Nonnull ScanStage stage) {
+    Preconditions.checkNotNull(stage);
+    stages.add(stage);
+    return this;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nullable Float getFinishedPercentage() {
+    if (result != null)
+      return 1f;
+    return source.getFinishedPercentage();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nullable Integer execute() throws MSDKException {
+
+    final int acceptedScans[] = {0};
+    source.streamScans(scan -> {
+      if (canceled)
+        return false;
+      MsScan processedScan = scan;
+      for (ScanStage stage : stages) {
+        processedScan = stage.processScan(processedScan);
+        if (processedScan == null)
+          return true;
+      }
+      acceptedScans[0]++;
+      return sink.accept(processedScan);
+    });
+
+    if (canceled)
+      return null;
+
+    sink.finish();
+    result = acceptedScans[0];
+    return result;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nullable Integer getResult() {
+    return result;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void cancel() {
+    this.canceled = true;
+  }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.rawdata;
+
+import javax.annotation.Nonnull;
+
+import io.github.msdk.MSDKException;
+
+/**
+ * Consumer of the scans pushed by a {@link ScanStream}. A sink processes each scan as it arrives
+ * and should not keep a reference to the scan after accept() returns, so that the scans of a
+ * {@link ScanPipeline} can be garbage collected one by one.
+ */
+@FunctionalInterface
+public interface ScanSink {
+
+  /**
+   * Processes the next scan of the stream.
+   *
+   * @param scan a {@link io.github.msdk.datamodel.rawdata.MsScan} object.
+   * @return true to receive further scans, false to stop the stream
+   * @throws io.github.msdk.MSDKException if any.
+   */
+  boolean accept(@Nonnull MsScan scan) throws MSDKException;
+
+  /**
+   * Called once by {@link ScanPipeline} after the last scan of the stream was accepted. The
+   * method is not called if the pipeline was canceled.
+   *
+   * @throws io.github.msdk.MSDKException if any.
+   */
+  default void finish() throws MSDKException {}
+
+}
@@ -0,0 +1,37 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.rawdata;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A processing step of a {@link ScanPipeline}, which transforms one scan into a new scan, for
+ * example by centroiding or filtering the data points.
+ */
+@FunctionalInterface
+public interface ScanStage {
+
+  /**
+   * <p>
+   * processScan.
+   * </p>
+   *
+   * @param scan a {@link io.github.msdk.datamodel.rawdata.MsScan} object.
+   * @return the processed scan, or null to drop the scan from the pipeline
+   */
+  @Nullable
+  MsScan processScan(@Nonnull MsScan scan);
+
+}
@@ -0,0 +1,91 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.rawdata;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+
+import io.github.msdk.MSDKException;
+
+/**
+ * Source of scans that pushes the scans one by one to a {@link ScanSink}, in the order of the
+ * source. Unlike a {@link RawDataFile}, a stream does not need to hold all its scans in memory, for
+ * example a file parser can emit each scan as soon as it has been read.
+ */
+@FunctionalInterface
+public interface ScanStream {
+
+  /**
+   * Pushes the scans of this stream to the given sink, until all scans were pushed or the sink
+   * returns false.
+   *
+   * @param sink a {@link io.github.msdk.datamodel.rawdata.ScanSink} object.
+   * @throws io.github.msdk.MSDKException if any.
+   */
+  void streamScans(@Nonnull ScanSink sink) throws MSDKException;
+
+  /**
+   * Returns the portion of the stream that has been pushed, in the interval 0 to 1.0, or null if
+   * it is not known.
+   *
+   * @return a {@link java.lang.Float} object.
+   */
+  default @Nullable Float getFinishedPercentage() {
+    return null;
+  }
+
+  /**
+   * Creates a stream of the scans of the given raw data file.
+   *
+   * @param rawDataFile a {@link io.github.msdk.datamodel.rawdata.RawDataFile} object.
+   * @return a {@link io.github.msdk.datamodel.rawdata.ScanStream} object.
+   */
+  static @Nonnull ScanStream of(@Nonnull RawDataFile rawDataFile) {
+    Preconditions.checkNotNull(rawDataFile);
+    return of(rawDataFile.getScans());
+  }
+
+  /**
+   * Creates a stream of the given scans.
+   *
+   * @param scans a {@link java.util.List} object.
+   * @return a {@link io.github.msdk.datamodel.rawdata.ScanStream} object.
+   */
+  static @Nonnull ScanStream of(@Nonnull List<MsScan> scans) {
+    Preconditions.checkNotNull(scans);
+    return new ScanStream() {
+
+      private volatile int pushedScans = 0;
+
+      @Override
+      public void streamScans(@Nonnull ScanSink sink) throws MSDKException {
+        for (MsScan scan : scans) {
+          pushedScans++;
+          if (!sink.accept(scan))
+            return;
+        }
+      }
+
+      @Override
+      public Float getFinishedPercentage() {
+        return scans.isEmpty() ? null : (float) pushedScans / scans.size();
+      }
+    };
+  }
+
+}
@@ -13,60 +13,65 @@
 
 package io.github.msdk.util;
 
-import java.lang.reflect.Array;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
 
 /**
  * <p>
  * DataPointSorter class.
  * </p>
  *
+ * Sorts parallel arrays of data points (m/z and intensity values, optionally with retention times)
+ * by one of the arrays. The sorting keys are converted to 64-bit integers that preserve the order
+ * of {@link Double#compare(double, double)}, and sorted together with the original positions of
+ * the data points by a stable LSD radix sort, which takes O(n) time. The arrays are then permuted
+ * in place. The temporary buffers are kept per thread and reused, so sorting does not allocate
+ * memory once the buffers are large enough.
+ *
+ * The sort is stable, data points with equal keys keep their relative order.
  */
 public class DataPointSorter {
 
   public enum SortingProperty {
-    MZ, INTENSITY
+    MZ, INTENSITY, RT
   }
 
   public enum SortingDirection {
     ASCENDING, DESCENDING
   }
 
-  private static class DataPointComparator implements Comparator<Integer> {
+  // Arrays shorter than this are sorted by insertion sort
+  private static final int INSERTION_SORT_THRESHOLD = 64;
 
-    private final double mzBuffer[];
-    private final float intensityBuffer[];
-    private final SortingProperty prop;
-    private final SortingDirection dir;
+  private static final int RADIX_BITS = 8;
+  private static final int RADIX_BUCKETS = 1 << RADIX_BITS;
 
-    DataPointComparator(final double mzBuffer[], final float intensityBuffer[],
-        SortingProperty prop, SortingDirection dir) {
-      this.mzBuffer = mzBuffer;
-      this.intensityBuffer = intensityBuffer;
-      this.prop = prop;
-      this.dir = dir;
-    }
+  private static final ThreadLocal<SortBuffers> buffers =
+      ThreadLocal.withInitial(SortBuffers::new);
 
-    @Override
-    public int compare(Integer i1, Integer i2) {
-      switch (prop) {
-        case INTENSITY:
-          if (dir == SortingDirection.ASCENDING)
-            return Float.compare(intensityBuffer[i1], intensityBuffer[i2]);
-          else
-            return Float.compare(intensityBuffer[i2], intensityBuffer[i1]);
-        case MZ:
-          if (dir == SortingDirection.ASCENDING)
-            return Double.compare(mzBuffer[i1], mzBuffer[i2]);
-          else
-            return Double.compare(mzBuffer[i2], mzBuffer[i1]);
-      }
-      return 0;
-    }
+  /**
+   * Reusable temporary buffers of one thread.
+   */
+  private static class SortBuffers {
+    long keys[] = new long[0];
+    long keysTmp[] = new long[0];
+    int positions[] = new int[0];
+    int positionsTmp[] = new int[0];
+    final int counts[] = new int[RADIX_BUCKETS];
 
+    void ensureCapacity(int size) {
+      if (keys.length >= size)
+        return;
+      final int newSize = Math.max(size, keys.length + (keys.length >> 1));
+      keys = new long[newSize];
+      keysTmp = new long[newSize];
+      positions = new int[newSize];
+      positionsTmp = new int[newSize];
+    }
   }
 
   /**
@@ -80,41 +85,96 @@ public class DataPointSorter {
    */
   public static void sortDataPoints(final double mzBuffer[], final float intensityBuffer[],
       final int size, SortingProperty prop, SortingDirection dir) {
+    sortDataPoints(null, mzBuffer, intensityBuffer, size, prop, dir);
+  }
 
-    // Use Collections.sort to obtain index mapping from old arrays to the
-    // new sorted array
-    final List<Integer> idx = new ArrayList<>(size);
-    for (int i = 0; i < size; i++)
-      idx.add(i);
-    Comparator<Integer> comp = new DataPointComparator(mzBuffer, intensityBuffer, prop, dir);
+  /**
+   * Sort the given data points by the given property. The retention time array is optional and
+   * is permuted together with the m/z and intensity arrays.
+   *
+   * @param rtBuffer an array of float, or null.
+   * @param mzBuffer an array of double.
+   * @param intensityBuffer an array of float.
+   * @param size a int.
+   * @param prop a {@link io.github.msdk.util.DataPointSorter.SortingProperty} object.
+   * @param dir a {@link io.github.msdk.util.DataPointSorter.SortingDirection} object.
+   */
+  public static void sortDataPoints(@Nullable final float rtBuffer[],
+      @Nonnull final double mzBuffer[], @Nonnull final float intensityBuffer[], final int size,
+      @Nonnull SortingProperty prop, @Nonnull SortingDirection dir) {
 
-    Collections.sort(idx, comp);
-    // Remap the values according to the index map idx
-    remapArray(mzBuffer, idx);
-    remapArray(intensityBuffer, idx);
+    Preconditions.checkArgument(mzBuffer.length >= size);
+    Preconditions.checkArgument(intensityBuffer.length >= size);
+    Preconditions.checkArgument((rtBuffer == null) || (rtBuffer.length >= size));
+    Preconditions.checkArgument((prop != SortingProperty.RT) || (rtBuffer != null),
+        "Cannot sort by retention time without retention time values");
 
-  }
+    if (size < 2)
+      return;
 
-  private static void remapArray(Object array, List<Integer> indices) {
+    final SortBuffers sb = buffers.get();
+    sb.ensureCapacity(size);
+    final long keys[] = sb.keys;
+    final boolean descending = (dir == SortingDirection.DESCENDING);
+    for (int i = 0; i < size; i++) {
+      final double key;
+      switch (prop) {
+        case MZ:
+          key = mzBuffer[i];
+          break;
+        case INTENSITY:
+          key = intensityBuffer[i];
+          break;
+        default:
+          key = rtBuffer[i];
+      }
+      keys[i] = toSortableKey(key, descending);
+    }
 
-    // Make a copy of indices, to prevent modifying the list
-    List<Integer> idx = new ArrayList<>(indices);
+    final int positions[] = sortKeys(sb, size);
 
-    for (int i = 0; i < idx.size(); i++) {
-      final int newIndex = idx.get(i);
-      if (newIndex == i)
+    // Permute the arrays in place, following the cycles of the permutation. Position i receives
+    // the data point from positions[i], visited positions are marked by a negative value.
+    for (int start = 0; start < size; start++) {
+      if ((positions[start] < 0) || (positions[start] == start))
         continue;
-
-      Object tmp = Array.get(array, i);
-      Array.set(array, i, Array.get(array, newIndex));
-
-      final int swapIndex = idx.indexOf(i);
-      Array.set(array, newIndex, tmp);
-      idx.set(swapIndex, newIndex);
-      idx.set(i, i);
+      final double mz = mzBuffer[start];
+      final float intensity = intensityBuffer[start];
+      final float rt = (rtBuffer != null) ? rtBuffer[start] : 0f;
+      int target = start;
+      while (true) {
+        final int source = positions[target];
+        positions[target] = -1;
+        if (source == start) {
+          mzBuffer[target] = mz;
+          intensityBuffer[target] = intensity;
+          if (rtBuffer != null)
+            rtBuffer[target] = rt;
+          break;
+        }
+        mzBuffer[target] = mzBuffer[source];
+        intensityBuffer[target] = intensityBuffer[source];
+        if (rtBuffer != null)
+          rtBuffer[target] = rtBuffer[source];
+        target = source;
+      }
     }
   }
 
+  /**
+   * Sort the given data points by RT order
+   *
+   * @param rtBuffer an array of float.
+   * @param mzBuffer an array of double.
+   * @param intensityBuffer an array of float.
+   * @param size a int.
+   */
+  public static void sortDataPoints(final float rtBuffer[], final double mzBuffer[],
+      final float intensityBuffer[], final int size) {
+    sortDataPoints(rtBuffer, mzBuffer, intensityBuffer, size, SortingProperty.RT,
+        SortingDirection.ASCENDING);
+  }
+
   /**
    * Sort the given data points by RT order
    *
@@ -125,23 +185,87 @@ public class DataPointSorter {
    */
   public static void sortDataPoints(final Float rtBuffer[], final double mzBuffer[],
       final float intensityBuffer[], final int size) {
+    final float primitiveRtBuffer[] = new float[size];
+    for (int i = 0; i < size; i++)
+      primitiveRtBuffer[i] = rtBuffer[i];
+    sortDataPoints(primitiveRtBuffer, mzBuffer, intensityBuffer, size);
+    for (int i = 0; i < size; i++)
+      rtBuffer[i] = primitiveRtBuffer[i];
+  }
 
-    // Use Collections.sort to obtain index mapping from old arrays to the
-    // new sorted array
-    final List<Integer> idx = new ArrayList<>(size);
+  /**
+   * Converts the given value to a long, whose signed order is the same as the order of
+   * Double.compare(), or the reverse order if descending is true.
+   */
+  private static long toSortableKey(double value, boolean descending) {
+    long bits = Double.doubleToLongBits(value);
+    // Negative values have their magnitude bits reversed
+    bits ^= (bits >> 63) & Long.MAX_VALUE;
+    return descending ? ~bits : bits;
+  }
+
+  /**
+   * Sorts the first size keys of the given buffers and returns the original positions of the
+   * sorted keys.
+   */
+  private static int[] sortKeys(@Nonnull SortBuffers sb, int size) {
+    long keys[] = sb.keys, keysTmp[] = sb.keysTmp;
+    int positions[] = sb.positions, positionsTmp[] = sb.positionsTmp;
     for (int i = 0; i < size; i++)
-      idx.add(i);
-    Collections.sort(idx, new Comparator<Integer>() {
-      public int compare(Integer i1, Integer i2) {
-        return rtBuffer[i1].compareTo(rtBuffer[i2]);
+      positions[i] = i;
+
+    if (size < INSERTION_SORT_THRESHOLD) {
+      for (int i = 1; i < size; i++) {
+        final long key = keys[i];
+        int j = i - 1;
+        while ((j >= 0) && (keys[j] > key)) {
+          keys[j + 1] = keys[j];
+          positions[j + 1] = positions[j];
+          j--;
+        }
+        keys[j + 1] = key;
+        positions[j + 1] = i;
       }
-    });
+      return positions;
+    }
+
+    final int counts[] = sb.counts;
+    for (int shift = 0; shift < 64; shift += RADIX_BITS) {
+
+      // The highest digit contains the sign bit, which is flipped to order negative keys first
+      final long signFlip = (shift == 64 - RADIX_BITS) ? (RADIX_BUCKETS >> 1) : 0;
+
+      Arrays.fill(counts, 0);
+      for (int i = 0; i < size; i++)
+        counts[(int) (((keys[i] >>> shift) & (RADIX_BUCKETS - 1)) ^ signFlip)]++;
 
-    // Remap the values according to the index map idx
-    remapArray(rtBuffer, idx);
-    remapArray(mzBuffer, idx);
-    remapArray(intensityBuffer, idx);
+      // Skip the digits that are the same for all keys
+      if (counts[(int) (((keys[0] >>> shift) & (RADIX_BUCKETS - 1)) ^ signFlip)] == size)
+        continue;
+
+      int total = 0;
+      for (int b = 0; b < RADIX_BUCKETS; b++) {
+        final int count = counts[b];
+        counts[b] = total;
+        total += count;
+      }
+
+      for (int i = 0; i < size; i++) {
+        final int bucket = (int) (((keys[i] >>> shift) & (RADIX_BUCKETS - 1)) ^ signFlip);
+        final int target = counts[bucket]++;
+        keysTmp[target] = keys[i];
+        positionsTmp[target] = positions[i];
+      }
+
+      long swapKeys[] = keys;
+      keys = keysTmp;
+      keysTmp = swapKeys;
+      int swapPositions[] = positions;
+      positions = positionsTmp;
+      positionsTmp = swapPositions;
+    }
 
+    return positions;
   }
 
 }
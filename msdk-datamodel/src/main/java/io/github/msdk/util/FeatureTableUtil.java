@@ -20,6 +20,7 @@ import javax.annotation.Nonnull;
 import com.google.common.collect.Range;
 
 import io.github.msdk.datamodel.featuretables.FeatureTable;
+import io.github.msdk.datamodel.featuretables.FeatureTableIndex;
 import io.github.msdk.datamodel.featuretables.FeatureTableRow;
 
 /**
@@ -32,11 +33,15 @@ public class FeatureTableUtil {
 
   public static @Nonnull List<FeatureTableRow> getRowsInsideRange(@Nonnull FeatureTable table,
       @Nonnull Range<Float> rtRange, @Nonnull Range<Double> mzRange) {
+    FeatureTableIndex index = table.getFeatureTableIndex();
+    if (index != null)
+      return index.getRowsInsideRange(rtRange, mzRange);
     List<FeatureTableRow> featureTableRows = table.getRows();
     List<FeatureTableRow> result = new ArrayList<>();
     for (FeatureTableRow row : featureTableRows) {
       Float rowRT = row.getRT();
-      if ((rowRT != null) && rtRange.contains(rowRT) && mzRange.contains(row.getMz()))
+      Double rowMz = row.getMz();
+      if ((rowRT != null) && (rowMz != null) && rtRange.contains(rowRT) && mzRange.contains(rowMz))
         result.add(row);
     }
     return result;
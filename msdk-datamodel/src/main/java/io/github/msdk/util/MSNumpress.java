@@ -13,7 +13,7 @@
  * or implied. See the License for the specific language governing permissions and limitations under
  * the License.
  */
-package io.github.msdk.io.mzml2.util;
+package io.github.msdk.util;
 
 /**
  * <p>
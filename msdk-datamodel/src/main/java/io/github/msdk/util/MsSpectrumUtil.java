@@ -13,10 +13,14 @@
 
 package io.github.msdk.util;
 
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.BoundType;
 import com.google.common.collect.Range;
 
 import io.github.msdk.datamodel.msspectra.MsSpectrum;
@@ -201,6 +205,146 @@ public class MsSpectrumUtil {
     return topIndex;
   }
 
+  /**
+   * Returns the index of the highest intensity value within the closed m/z interval [mzMin,
+   * mzMax]. Returns -1 if no data point was found within the interval. Unlike
+   * {@link #getBasePeakIndex(double[], float[], Integer, Range)}, this method does not box the m/z
+   * values, so it can be used in tight loops.
+   *
+   * @param mzValues an array of double.
+   * @param intensityValues an array of float.
+   * @param size a int.
+   * @param mzMin the lower bound of the m/z interval
+   * @param mzMax the upper bound of the m/z interval
+   * @return the index of the base peak, or -1
+   */
+  public static int getBasePeakIndex(@Nonnull double mzValues[], @Nonnull float intensityValues[],
+      int size, double mzMin, double mzMax) {
+
+    // Parameter check
+    Preconditions.checkNotNull(intensityValues);
+    Preconditions.checkNotNull(mzValues);
+    Preconditions.checkPositionIndex(size, mzValues.length);
+    Preconditions.checkPositionIndex(size, intensityValues.length);
+
+    int topIndex = -1;
+    for (int i = 0; i < size; i++) {
+      if ((topIndex == -1 || intensityValues[i] > intensityValues[topIndex])
+          && (mzValues[i] >= mzMin) && (mzValues[i] <= mzMax))
+        topIndex = i;
+    }
+    return topIndex;
+  }
+
+  /**
+   * Calculates the total ion current (=sum of all intensity values) of the data points within the
+   * given m/z range. The m/z values of the spectrum are expected to be sorted, so only the data
+   * points within the range are accessed. The data points are read through the buffer accessors of
+   * MsSpectrum, which are fetched only once.
+   *
+   * @return a {@link java.lang.Float} object.
+   * @param spectrum a {@link io.github.msdk.datamodel.msspectra.MsSpectrum} object.
+   * @param mzRange a {@link com.google.common.collect.Range} object.
+   */
+  public static @Nonnull Float getTIC(@Nonnull MsSpectrum spectrum,
+      @Nonnull Range<Double> mzRange) {
+
+    // Parameter check
+    Preconditions.checkNotNull(spectrum);
+    Preconditions.checkNotNull(mzRange);
+
+    final DoubleBuffer mzBuffer = spectrum.getMzBuffer();
+    final FloatBuffer intensityBuffer = spectrum.getIntensityBuffer();
+    final int endIndex = getEndIndexInRange(mzBuffer, mzRange);
+    float tic = 0f;
+    for (int i = getFirstIndexInRange(mzBuffer, mzRange); i < endIndex; i++)
+      tic += intensityBuffer.get(i);
+    return tic;
+  }
+
+  /**
+   * Returns the highest intensity value of the given spectrum. Returns 0 if the spectrum has no
+   * data points.
+   *
+   * @return a {@link java.lang.Float} object.
+   * @param spectrum a {@link io.github.msdk.datamodel.msspectra.MsSpectrum} object.
+   */
+  public static @Nonnull Float getMaxIntensity(@Nonnull MsSpectrum spectrum) {
+
+    // Parameter check
+    Preconditions.checkNotNull(spectrum);
+
+    final FloatBuffer intensityBuffer = spectrum.getIntensityBuffer();
+    final int topIndex = getBasePeakIndex(intensityBuffer, 0, intensityBuffer.limit());
+    if (topIndex < 0)
+      return 0f;
+    return intensityBuffer.get(topIndex);
+  }
+
+  /**
+   * Returns the highest intensity value within the given m/z range. Returns 0 if no data point was
+   * found within the m/z range.
+   *
+   * @return a {@link java.lang.Float} object.
+   * @param spectrum a {@link io.github.msdk.datamodel.msspectra.MsSpectrum} object.
+   * @param mzRange a {@link com.google.common.collect.Range} object.
+   */
+  public static @Nonnull Float getMaxIntensity(@Nonnull MsSpectrum spectrum,
+      @Nonnull Range<Double> mzRange) {
+
+    // Parameter check
+    Preconditions.checkNotNull(spectrum);
+    Preconditions.checkNotNull(mzRange);
+
+    final DoubleBuffer mzBuffer = spectrum.getMzBuffer();
+    final FloatBuffer intensityBuffer = spectrum.getIntensityBuffer();
+    final int topIndex = getBasePeakIndex(intensityBuffer, getFirstIndexInRange(mzBuffer, mzRange),
+        getEndIndexInRange(mzBuffer, mzRange));
+    if (topIndex < 0)
+      return 0f;
+    return intensityBuffer.get(topIndex);
+  }
+
+  /**
+   * Returns the index of the highest intensity value of the given spectrum. Returns null if the
+   * spectrum has no data points. The intensity values are read through
+   * {@link MsSpectrum#getIntensityBuffer()}, so no copy is made for spectra kept in memory.
+   *
+   * @return a {@link java.lang.Integer} object.
+   * @param spectrum a {@link io.github.msdk.datamodel.msspectra.MsSpectrum} object.
+   */
+  public static @Nullable Integer getBasePeakIndex(@Nonnull MsSpectrum spectrum) {
+
+    // Parameter check
+    Preconditions.checkNotNull(spectrum);
+
+    final FloatBuffer intensityBuffer = spectrum.getIntensityBuffer();
+    final int topIndex = getBasePeakIndex(intensityBuffer, 0, intensityBuffer.limit());
+    return (topIndex < 0) ? null : topIndex;
+  }
+
+  /**
+   * Returns the index of the highest intensity value within the given m/z range. Returns null if no
+   * data point was found within the m/z range. The m/z values of the spectrum are expected to be
+   * sorted, so only the data points within the range are accessed.
+   *
+   * @return a {@link java.lang.Integer} object.
+   * @param spectrum a {@link io.github.msdk.datamodel.msspectra.MsSpectrum} object.
+   * @param mzRange a {@link com.google.common.collect.Range} object.
+   */
+  public static @Nullable Integer getBasePeakIndex(@Nonnull MsSpectrum spectrum,
+      @Nonnull Range<Double> mzRange) {
+
+    // Parameter check
+    Preconditions.checkNotNull(spectrum);
+    Preconditions.checkNotNull(mzRange);
+
+    final DoubleBuffer mzBuffer = spectrum.getMzBuffer();
+    final int topIndex = getBasePeakIndex(spectrum.getIntensityBuffer(),
+        getFirstIndexInRange(mzBuffer, mzRange), getEndIndexInRange(mzBuffer, mzRange));
+    return (topIndex < 0) ? null : topIndex;
+  }
+
   /**
    * <p>
    * normalizeIntensity.
@@ -275,4 +419,66 @@ public class MsSpectrumUtil {
 
   }
 
+  /**
+   * Returns the index of the highest intensity value between fromIndex (inclusive) and toIndex
+   * (exclusive), or -1 if the interval is empty.
+   */
+  private static int getBasePeakIndex(@Nonnull FloatBuffer intensityBuffer, int fromIndex,
+      int toIndex) {
+    int topIndex = -1;
+    float topIntensity = 0f;
+    for (int i = fromIndex; i < toIndex; i++) {
+      final float intensity = intensityBuffer.get(i);
+      if ((topIndex < 0) || (intensity > topIntensity)) {
+        topIndex = i;
+        topIntensity = intensity;
+      }
+    }
+    return topIndex;
+  }
+
+  /**
+   * Binary search for the index of the first data point whose m/z value is not below the lower
+   * bound of the given range.
+   */
+  private static int getFirstIndexInRange(@Nonnull DoubleBuffer mzBuffer,
+      @Nonnull Range<Double> mzRange) {
+    if (!mzRange.hasLowerBound())
+      return 0;
+    final double lowerEndpoint = mzRange.lowerEndpoint();
+    final boolean open = (mzRange.lowerBoundType() == BoundType.OPEN);
+    int low = 0, high = mzBuffer.limit();
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      final double mz = mzBuffer.get(mid);
+      if ((mz < lowerEndpoint) || (open && (mz == lowerEndpoint)))
+        low = mid + 1;
+      else
+        high = mid;
+    }
+    return low;
+  }
+
+  /**
+   * Binary search for the index after the last data point whose m/z value is not above the upper
+   * bound of the given range.
+   */
+  private static int getEndIndexInRange(@Nonnull DoubleBuffer mzBuffer,
+      @Nonnull Range<Double> mzRange) {
+    if (!mzRange.hasUpperBound())
+      return mzBuffer.limit();
+    final double upperEndpoint = mzRange.upperEndpoint();
+    final boolean open = (mzRange.upperBoundType() == BoundType.OPEN);
+    int low = 0, high = mzBuffer.limit();
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      final double mz = mzBuffer.get(mid);
+      if ((mz < upperEndpoint) || ((!open) && (mz == upperEndpoint)))
+        low = mid + 1;
+      else
+        high = mid;
+    }
+    return low;
+  }
+
 }
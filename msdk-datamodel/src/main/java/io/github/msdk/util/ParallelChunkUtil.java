@@ -0,0 +1,108 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+
+import io.github.msdk.MSDKException;
+
+/**
+ * <p>
+ * ParallelChunkUtil class.
+ * </p>
+ *
+ * Processes a range of items, such as the scans of a raw data file, in consecutive chunks that run
+ * concurrently. Each chunk is processed by its own worker object (typically an algorithm instance
+ * that is not thread-safe), which is obtained by calling {@link Supplier#get()} exactly once per
+ * chunk, inside the chunk's task on the worker thread.
+ */
+public class ParallelChunkUtil {
+
+  /** Number of chunks per thread, to balance the load between the threads. */
+  public static final int CHUNKS_PER_THREAD = 4;
+
+  /**
+   * Processes one chunk of items.
+   *
+   * @param <W> type of the worker object
+   */
+  @FunctionalInterface
+  public interface ChunkProcessor<W> {
+
+    /**
+     * Processes the items from the given start index (inclusive) to the given end index
+     * (exclusive).
+     *
+     * @param worker the worker object of this chunk
+     * @param from index of the first item
+     * @param to index after the last item
+     */
+    void processChunk(@Nonnull W worker, int from, int to);
+  }
+
+  /**
+   * Splits the items from 0 to numOfItems into parallelism * {@link #CHUNKS_PER_THREAD} chunks and
+   * processes them concurrently, then waits until all chunks are finished. If no executor is given,
+   * a fork-join pool with the given parallelism level is created and shut down at the end; a
+   * given executor is not shut down.
+   *
+   * @param numOfItems number of items to process
+   * @param workerSupplier called once per chunk, inside the chunk's task, to obtain its worker
+   * @param processor processes one chunk
+   * @param executor the executor to run the chunks in, or null to use a new fork-join pool
+   * @param parallelism the number of threads
+   * @param <W> type of the worker object
+   * @throws io.github.msdk.MSDKException if a chunk failed or the calling thread was interrupted
+   */
+  public static <W> void processInChunks(int numOfItems,
+      @Nonnull Supplier<? extends W> workerSupplier, @Nonnull ChunkProcessor<W> processor,
+      @Nullable ExecutorService executor, int parallelism) throws MSDKException {
+    Preconditions.checkNotNull(workerSupplier);
+    Preconditions.checkNotNull(processor);
+    Preconditions.checkArgument(parallelism >= 1, "Parallelism must be at least 1");
+
+    final ExecutorService pool = (executor != null) ? executor : new ForkJoinPool(parallelism);
+    try {
+      final int numOfChunks = Math.max(1, Math.min(numOfItems, parallelism * CHUNKS_PER_THREAD));
+      final List<Future<?>> futures = new ArrayList<>(numOfChunks);
+      for (int chunk = 0; chunk < numOfChunks; chunk++) {
+        final int from = (int) ((long) numOfItems * chunk / numOfChunks);
+        final int to = (int) ((long) numOfItems * (chunk + 1) / numOfChunks);
+        futures.add(pool.submit(() -> processor.processChunk(workerSupplier.get(), from, to)));
+      }
+      for (Future<?> future : futures)
+        future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MSDKException(e);
+    } catch (ExecutionException e) {
+      throw new MSDKException(e.getCause());
+    } finally {
+      if (executor == null)
+        pool.shutdown();
+    }
+  }
+
+}
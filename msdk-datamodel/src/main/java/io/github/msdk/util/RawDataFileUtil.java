@@ -33,34 +33,20 @@ import io.github.msdk.datamodel.rawdata.RawDataFile;
 public class RawDataFileUtil {
 
   /**
-   * <p>
-   * getScans.
-   * </p>
+   * Returns the scans of the given MS function, using the scan index of the raw data file.
    *
    * @param rawDataFile a {@link io.github.msdk.datamodel.rawdata.RawDataFile} object.
-   * @param msFunction a {@link io.github.msdk.datamodel.rawdata.MsFunction} object.
+   * @param msFunction a {@link java.lang.String} object.
    * @return a {@link java.util.List} object.
    */
   @Nonnull
   static public List<MsScan> getScans(RawDataFile rawDataFile, String msFunction) {
-    ArrayList<MsScan> msScanList = new ArrayList<MsScan>();
-    List<MsScan> scans = rawDataFile.getScans();
-    synchronized (scans) {
-      for (MsScan scan : scans) {
-        String scanMsFunction = scan.getMsFunction();
-        if (scanMsFunction == null)
-          continue;
-        if (scanMsFunction.equals(msFunction))
-          msScanList.add(scan);
-      }
-    }
-    return msScanList;
+    return new ArrayList<MsScan>(rawDataFile.getScanIndex().getScans(msFunction));
   }
 
   /**
-   * <p>
-   * getScans.
-   * </p>
+   * Returns the scans within the given retention time range, sorted by retention time, using the
+   * scan index of the raw data file.
    *
    * @param rawDataFile a {@link io.github.msdk.datamodel.rawdata.RawDataFile} object.
    * @param rtRange a {@link com.google.common.collect.Range} object.
@@ -68,46 +54,22 @@ public class RawDataFileUtil {
    */
   @Nonnull
   static public List<MsScan> getScans(RawDataFile rawDataFile, Range<Float> rtRange) {
-    ArrayList<MsScan> msScanList = new ArrayList<MsScan>();
-    List<MsScan> scans = rawDataFile.getScans();
-    synchronized (scans) {
-      for (MsScan scan : scans) {
-        Float scanRT = scan.getRetentionTime();
-        if (scanRT != null) {
-          if (rtRange.contains(scanRT))
-            msScanList.add(scan);
-        }
-      }
-    }
-    return new ArrayList<MsScan>();
+    return rawDataFile.getScanIndex().getScans(rtRange);
   }
 
   /**
-   * <p>
-   * getScans.
-   * </p>
+   * Returns the scans of the given MS function within the given retention time range, sorted by
+   * retention time, using the scan index of the raw data file.
    *
    * @param rawDataFile a {@link io.github.msdk.datamodel.rawdata.RawDataFile} object.
-   * @param msFunction a {@link io.github.msdk.datamodel.rawdata.MsFunction} object.
+   * @param msFunction a {@link java.lang.String} object.
    * @param rtRange a {@link com.google.common.collect.Range} object.
    * @return a {@link java.util.List} object.
    */
   @Nonnull
   static public List<MsScan> getScans(RawDataFile rawDataFile, String msFunction,
       Range<Float> rtRange) {
-    ArrayList<MsScan> msScanList = new ArrayList<MsScan>();
-    List<MsScan> scans = rawDataFile.getScans();
-    synchronized (scans) {
-      for (MsScan scan : scans) {
-        Float scanRT = scan.getRetentionTime();
-        String scanMsFunction = scan.getMsFunction();
-        if (scanRT == null || scanMsFunction == null)
-          continue;
-        if (scanMsFunction.equals(msFunction) && rtRange.contains(scanRT))
-          msScanList.add(scan);
-      }
-    }
-    return new ArrayList<MsScan>();
+    return rawDataFile.getScanIndex().getScans(msFunction, rtRange);
   }
 
   /**
@@ -0,0 +1,237 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.util.metrics;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Metrics of one execution of a method: wall time, number of processed items, optionally the bytes
+ * allocated by the executing thread, and the timings of the phases of the method.
+ */
+@Immutable
+public class MSDKMethodMetrics {
+
+  private final @Nonnull String methodName;
+  private final @Nonnull String itemUnit;
+  private final @Nonnull String threadName;
+  private final long startTime, wallTimeNanos, items;
+  private final @Nullable Long allocatedBytes;
+  private final @Nonnull List<PhaseMetrics> phases;
+
+  /**
+   * <p>
+   * Constructor for MSDKMethodMetrics.
+   * </p>
+   *
+   * @param methodName name of the method
+   * @param itemUnit name of the processed items, e.g. "scans"
+   * @param threadName name of the thread that executed the method
+   * @param startTime start time in milliseconds since the epoch
+   * @param wallTimeNanos wall time of the execution in nanoseconds
+   * @param items number of processed items
+   * @param allocatedBytes bytes allocated by the executing thread, or null if not measured
+   * @param phases timings of the phases of the method
+   */
+  public MSDKMethodMetrics(@Nonnull String methodName, @Nonnull String itemUnit,
+      @Nonnull String threadName, long startTime, long wallTimeNanos, long items,
+      @Nullable Long allocatedBytes, @Nonnull List<PhaseMetrics> phases) {
+    this.methodName = methodName;
+    this.itemUnit = itemUnit;
+    this.threadName = threadName;
+    this.startTime = startTime;
+    this.wallTimeNanos = wallTimeNanos;
+    this.items = items;
+    this.allocatedBytes = allocatedBytes;
+    this.phases = Collections.unmodifiableList(phases);
+  }
+
+  /**
+   * <p>
+   * getMethodName.
+   * </p>
+   *
+   * @return a {@link java.lang.String} object.
+   */
+  public @Nonnull String getMethodName() {
+    return methodName;
+  }
+
+  /**
+   * <p>
+   * getItemUnit.
+   * </p>
+   *
+   * @return a {@link java.lang.String} object.
+   */
+  public @Nonnull String getItemUnit() {
+    return itemUnit;
+  }
+
+  /**
+   * <p>
+   * getThreadName.
+   * </p>
+   *
+   * @return a {@link java.lang.String} object.
+   */
+  public @Nonnull String getThreadName() {
+    return threadName;
+  }
+
+  /**
+   * <p>
+   * getStartTime.
+   * </p>
+   *
+   * @return start time in milliseconds since the epoch
+   */
+  public long getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * <p>
+   * getWallTimeNanos.
+   * </p>
+   *
+   * @return wall time in nanoseconds
+   */
+  public long getWallTimeNanos() {
+    return wallTimeNanos;
+  }
+
+  /**
+   * <p>
+   * getItems.
+   * </p>
+   *
+   * @return number of processed items
+   */
+  public long getItems() {
+    return items;
+  }
+
+  /**
+   * <p>
+   * getItemsPerSecond.
+   * </p>
+   *
+   * @return processed items per second of wall time
+   */
+  public double getItemsPerSecond() {
+    return itemsPerSecond(items, wallTimeNanos);
+  }
+
+  /**
+   * <p>
+   * getAllocatedBytes.
+   * </p>
+   *
+   * @return bytes allocated by the executing thread, or null if not measured
+   */
+  public @Nullable Long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * <p>
+   * getPhases.
+   * </p>
+   *
+   * @return an unmodifiable {@link java.util.List} of the phase timings
+   */
+  public @Nonnull List<PhaseMetrics> getPhases() {
+    return phases;
+  }
+
+  static double itemsPerSecond(long items, long nanos) {
+    return (nanos > 0) ? items * 1e9 / nanos : 0.0;
+  }
+
+  /**
+   * Accumulated time and number of items of one phase of a method.
+   */
+  @Immutable
+  public static class PhaseMetrics {
+
+    private final @Nonnull String name;
+    private final long timeNanos, items;
+
+    /**
+     * <p>
+     * Constructor for PhaseMetrics.
+     * </p>
+     *
+     * @param name name of the phase
+     * @param timeNanos accumulated time in nanoseconds
+     * @param items number of items processed in the phase
+     */
+    public PhaseMetrics(@Nonnull String name, long timeNanos, long items) {
+      this.name = name;
+      this.timeNanos = timeNanos;
+      this.items = items;
+    }
+
+    /**
+     * <p>
+     * getName.
+     * </p>
+     *
+     * @return a {@link java.lang.String} object.
+     */
+    public @Nonnull String getName() {
+      return name;
+    }
+
+    /**
+     * <p>
+     * getTimeNanos.
+     * </p>
+     *
+     * @return accumulated time in nanoseconds
+     */
+    public long getTimeNanos() {
+      return timeNanos;
+    }
+
+    /**
+     * <p>
+     * getItems.
+     * </p>
+     *
+     * @return number of items processed in the phase
+     */
+    public long getItems() {
+      return items;
+    }
+
+    /**
+     * <p>
+     * getItemsPerSecond.
+     * </p>
+     *
+     * @return items per second of phase time
+     */
+    public double getItemsPerSecond() {
+      return itemsPerSecond(items, timeNanos);
+    }
+
+  }
+
+}
@@ -0,0 +1,313 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.util.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.MSDKMethod;
+
+/**
+ * Records the metrics of one method execution and reports them to the registered
+ * {@link MSDKMetricsListener} when the execution finishes. If no listener is registered,
+ * {@link #start(String, String)} returns a disabled recorder whose methods do nothing, so the
+ * instrumentation costs almost nothing in normal use.
+ *
+ * A method creates a recorder when its execution starts, and measures its phases by
+ * {@link Phase#start()} and {@link Phase#stop()} around the code of each phase. Phase timers are
+ * accumulated, so a phase can be started and stopped many times, e.g. once per scan. The phases
+ * are meant to be used by the thread executing the method. Work done by other threads can be
+ * reported by {@link #addPhaseTime(String, long, long)}. A method should call {@link #finish()} in
+ * a finally block, so that its metrics are also reported if it is canceled or fails.
+ *
+ * The allocated bytes are only those of the thread that called {@link #start(String, String)}.
+ * Allocations by worker threads, e.g. in the parallel modes of the parsing, filtering and
+ * centroiding methods, are not included.
+ *
+ * <pre>
+ * MSDKMetrics metrics = MSDKMetrics.start("MyMethod", "scans");
+ * MSDKMetrics.Phase sortPhase = metrics.phase("sort");
+ * for (MsScan scan : scans) {
+ *   sortPhase.start();
+ *   ...
+ *   sortPhase.stop(numOfDataPoints);
+ *   metrics.addItems(1);
+ * }
+ * metrics.finish();
+ * </pre>
+ */
+public class MSDKMetrics {
+
+  private static final Logger logger = LoggerFactory.getLogger(MSDKMetrics.class);
+
+  private static volatile @Nullable MSDKMetricsListener listener;
+  private static volatile boolean allocationTracking = false;
+
+  private static final MSDKMetrics DISABLED = new MSDKMetrics();
+  private static final Phase DISABLED_PHASE = new Phase("", false);
+
+  private final boolean enabled;
+  private final @Nonnull String methodName, itemUnit;
+  private final long startTime, startNanos, startAllocatedBytes;
+  private final @Nonnull Map<String, Phase> phases = new LinkedHashMap<>();
+  private long items = 0;
+  private boolean finished = false;
+
+  private MSDKMetrics() {
+    this.enabled = false;
+    this.methodName = "";
+    this.itemUnit = "";
+    this.startTime = 0;
+    this.startNanos = 0;
+    this.startAllocatedBytes = -1;
+  }
+
+  private MSDKMetrics(@Nonnull String methodName, @Nonnull String itemUnit) {
+    this.enabled = true;
+    this.methodName = methodName;
+    this.itemUnit = itemUnit;
+    this.startAllocatedBytes = allocationTracking ? getAllocatedBytes() : -1;
+    this.startTime = System.currentTimeMillis();
+    this.startNanos = System.nanoTime();
+  }
+
+  /**
+   * Registers the listener that receives the metrics of all instrumented methods, or disables the
+   * instrumentation if the listener is null.
+   *
+   * @param newListener a {@link io.github.msdk.util.metrics.MSDKMetricsListener} object.
+   */
+  public static void setListener(@Nullable MSDKMetricsListener newListener) {
+    listener = newListener;
+  }
+
+  /**
+   * <p>
+   * getListener.
+   * </p>
+   *
+   * @return the registered listener, or null
+   */
+  public static @Nullable MSDKMetricsListener getListener() {
+    return listener;
+  }
+
+  /**
+   * Enables or disables the measurement of the bytes allocated by the executing thread, using
+   * com.sun.management.ThreadMXBean. On JVMs that do not support it, no allocations are reported.
+   * Only the thread that starts and finishes a recording is measured, not its worker threads.
+   *
+   * @param enabled a boolean.
+   */
+  public static void setAllocationTracking(boolean enabled) {
+    allocationTracking = enabled;
+  }
+
+  /**
+   * Starts recording the metrics of a method execution.
+   *
+   * @param methodName name of the method
+   * @param itemUnit name of the items processed by the method, e.g. "scans"
+   * @return a recorder, which is disabled if no listener is registered
+   */
+  public static @Nonnull MSDKMetrics start(@Nonnull String methodName,
+      @Nonnull String itemUnit) {
+    Preconditions.checkNotNull(methodName);
+    Preconditions.checkNotNull(itemUnit);
+    if (listener == null)
+      return DISABLED;
+    return new MSDKMetrics(methodName, itemUnit);
+  }
+
+  /**
+   * Executes the given method and reports its wall time, for methods that are not instrumented
+   * themselves.
+   *
+   * @param method a {@link io.github.msdk.MSDKMethod} object.
+   * @param <T> Type of the result of the method.
+   * @return the result of the method
+   * @throws io.github.msdk.MSDKException if any.
+   */
+  public static <T> T execute(@Nonnull MSDKMethod<T> method) throws MSDKException {
+    final MSDKMetrics metrics = start(method.getClass().getSimpleName(), "");
+    try {
+      return method.execute();
+    } finally {
+      metrics.finish();
+    }
+  }
+
+  /**
+   * <p>
+   * isEnabled.
+   * </p>
+   *
+   * @return true if the metrics are recorded and reported
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns the timer of the phase with the given name, creating it on first use. The phases are
+   * reported in the order in which they were created.
+   *
+   * @param name name of the phase
+   * @return a {@link io.github.msdk.util.metrics.MSDKMetrics.Phase} object.
+   */
+  public synchronized @Nonnull Phase phase(@Nonnull String name) {
+    if (!enabled)
+      return DISABLED_PHASE;
+    return phases.computeIfAbsent(name, n -> new Phase(n, true));
+  }
+
+  /**
+   * Adds the given time and number of items to the phase with the given name, creating it on first
+   * use. Unlike the methods of {@link Phase}, this method can be called by any thread, so it can
+   * sum up the time that several threads spent in one phase. A phase that is updated by this
+   * method should not be timed by {@link Phase#start()} and {@link Phase#stop()}.
+   *
+   * @param name name of the phase
+   * @param nanos elapsed time in nanoseconds
+   * @param count number of processed items
+   */
+  public synchronized void addPhaseTime(@Nonnull String name, long nanos, long count) {
+    if (!enabled)
+      return;
+    final Phase phase = phase(name);
+    phase.totalNanos += nanos;
+    phase.items += count;
+  }
+
+  /**
+   * Adds to the number of items processed by the method.
+   *
+   * @param count a long.
+   */
+  public synchronized void addItems(long count) {
+    items += count;
+  }
+
+  /**
+   * Finishes the recording and reports the metrics to the listener. Further calls are ignored.
+   */
+  public void finish() {
+    if (!enabled)
+      return;
+
+    final long wallTimeNanos = System.nanoTime() - startNanos;
+    final Long allocatedBytes;
+    if (startAllocatedBytes >= 0) {
+      final long endAllocatedBytes = getAllocatedBytes();
+      allocatedBytes = (endAllocatedBytes >= 0) ? endAllocatedBytes - startAllocatedBytes : null;
+    } else {
+      allocatedBytes = null;
+    }
+
+    final MSDKMethodMetrics metrics;
+    synchronized (this) {
+      if (finished)
+        return;
+      finished = true;
+      final List<MSDKMethodMetrics.PhaseMetrics> phaseMetrics = new ArrayList<>(phases.size());
+      for (Phase phase : phases.values())
+        phaseMetrics.add(new MSDKMethodMetrics.PhaseMetrics(phase.name, phase.totalNanos,
+            phase.items));
+      metrics = new MSDKMethodMetrics(methodName, itemUnit, Thread.currentThread().getName(),
+          startTime, wallTimeNanos, items, allocatedBytes, phaseMetrics);
+    }
+
+    final MSDKMetricsListener currentListener = listener;
+    if (currentListener == null)
+      return;
+    try {
+      currentListener.metricsReported(metrics);
+    } catch (RuntimeException e) {
+      logger.warn("Metrics listener failed: " + e);
+    }
+  }
+
+  private static long getAllocatedBytes() {
+    final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (!(bean instanceof com.sun.management.ThreadMXBean))
+      return -1;
+    final com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+    if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled())
+      return -1;
+    return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Accumulating timer of one phase of a method. A phase is not thread-safe.
+   */
+  public static class Phase {
+
+    private final @Nonnull String name;
+    private final boolean enabled;
+    private boolean running = false;
+    private long startNanos = 0, totalNanos = 0, items = 0;
+
+    private Phase(@Nonnull String name, boolean enabled) {
+      this.name = name;
+      this.enabled = enabled;
+    }
+
+    /**
+     * Starts the timer of the phase.
+     */
+    public void start() {
+      if (enabled) {
+        running = true;
+        startNanos = System.nanoTime();
+      }
+    }
+
+    /**
+     * Stops the timer of the phase and adds the elapsed time to the phase.
+     */
+    public void stop() {
+      if (enabled && running) {
+        totalNanos += System.nanoTime() - startNanos;
+        running = false;
+      }
+    }
+
+    /**
+     * Stops the timer of the phase and adds the given number of processed items to the phase.
+     *
+     * @param count a long.
+     */
+    public void stop(long count) {
+      if (enabled) {
+        stop();
+        items += count;
+      }
+    }
+
+  }
+
+}
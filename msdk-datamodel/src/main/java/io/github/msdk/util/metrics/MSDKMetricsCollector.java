@@ -0,0 +1,186 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.util.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+
+import io.github.msdk.util.metrics.MSDKMethodMetrics.PhaseMetrics;
+
+/**
+ * Default {@link MSDKMetricsListener}, which collects the reported metrics in memory and exports
+ * them as JSON or CSV, e.g. to compare the performance of different releases.
+ *
+ * The JSON output is an array with one object per method execution, with the phases as a nested
+ * array. The CSV output has one line per method execution, with an empty phase column, followed by
+ * one line per phase of that execution.
+ */
+public class MSDKMetricsCollector implements MSDKMetricsListener {
+
+  private static final String CSV_HEADER = "method,phase,thread,startTime,wallTimeMs,itemUnit,"
+      + "items,itemsPerSecond,allocatedBytes";
+
+  private final @Nonnull List<MSDKMethodMetrics> metricsList = new ArrayList<>();
+
+  /** {@inheritDoc} */
+  @Override
+  synchronized public void metricsReported(@Nonnull MSDKMethodMetrics metrics) {
+    metricsList.add(metrics);
+  }
+
+  /**
+   * <p>
+   * getMetrics.
+   * </p>
+   *
+   * @return a copy of the collected metrics, in the order in which they were reported
+   */
+  synchronized public @Nonnull List<MSDKMethodMetrics> getMetrics() {
+    return new ArrayList<>(metricsList);
+  }
+
+  /**
+   * Removes all collected metrics.
+   */
+  synchronized public void clear() {
+    metricsList.clear();
+  }
+
+  /**
+   * Writes the collected metrics as JSON.
+   *
+   * @param writer a {@link java.io.Writer} object.
+   * @throws java.io.IOException if any.
+   */
+  public void writeJson(@Nonnull Writer writer) throws IOException {
+    final List<MSDKMethodMetrics> metricsCopy = getMetrics();
+    writer.write("[");
+    for (int i = 0; i < metricsCopy.size(); i++) {
+      final MSDKMethodMetrics metrics = metricsCopy.get(i);
+      writer.write(i == 0 ? "\n" : ",\n");
+      writer.write("  {\"method\": " + jsonString(metrics.getMethodName()));
+      writer.write(", \"thread\": " + jsonString(metrics.getThreadName()));
+      writer.write(", \"startTime\": " + metrics.getStartTime());
+      writer.write(", \"wallTimeNanos\": " + metrics.getWallTimeNanos());
+      writer.write(", \"itemUnit\": " + jsonString(metrics.getItemUnit()));
+      writer.write(", \"items\": " + metrics.getItems());
+      writer.write(", \"itemsPerSecond\": " + formatDouble(metrics.getItemsPerSecond()));
+      writer.write(", \"allocatedBytes\": "
+          + (metrics.getAllocatedBytes() == null ? "null" : metrics.getAllocatedBytes()));
+      writer.write(", \"phases\": [");
+      final List<PhaseMetrics> phases = metrics.getPhases();
+      for (int j = 0; j < phases.size(); j++) {
+        final PhaseMetrics phase = phases.get(j);
+        writer.write(j == 0 ? "" : ", ");
+        writer.write("{\"name\": " + jsonString(phase.getName()) + ", \"timeNanos\": "
+            + phase.getTimeNanos() + ", \"items\": " + phase.getItems() + ", \"itemsPerSecond\": "
+            + formatDouble(phase.getItemsPerSecond()) + "}");
+      }
+      writer.write("]}");
+    }
+    writer.write(metricsCopy.isEmpty() ? "]\n" : "\n]\n");
+    writer.flush();
+  }
+
+  /**
+   * Writes the collected metrics as CSV.
+   *
+   * @param writer a {@link java.io.Writer} object.
+   * @throws java.io.IOException if any.
+   */
+  public void writeCsv(@Nonnull Writer writer) throws IOException {
+    writer.write(CSV_HEADER + "\n");
+    for (MSDKMethodMetrics metrics : getMetrics()) {
+      final String method = csvString(metrics.getMethodName());
+      final String thread = csvString(metrics.getThreadName());
+      writer.write(method + ",," + thread + "," + metrics.getStartTime() + ","
+          + formatDouble(metrics.getWallTimeNanos() / 1e6) + "," + csvString(metrics.getItemUnit())
+          + "," + metrics.getItems() + "," + formatDouble(metrics.getItemsPerSecond()) + ","
+          + (metrics.getAllocatedBytes() == null ? "" : metrics.getAllocatedBytes()) + "\n");
+      for (PhaseMetrics phase : metrics.getPhases()) {
+        writer.write(method + "," + csvString(phase.getName()) + "," + thread + ","
+            + metrics.getStartTime() + "," + formatDouble(phase.getTimeNanos() / 1e6) + ",,"
+            + phase.getItems() + "," + formatDouble(phase.getItemsPerSecond()) + ",\n");
+      }
+    }
+    writer.flush();
+  }
+
+  /**
+   * Writes the collected metrics to the given file, as CSV if the file name ends with .csv,
+   * otherwise as JSON.
+   *
+   * @param file a {@link java.io.File} object.
+   * @throws java.io.IOException if any.
+   */
+  public void export(@Nonnull File file) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+      if (file.getName().toLowerCase(Locale.ENGLISH).endsWith(".csv"))
+        writeCsv(writer);
+      else
+        writeJson(writer);
+    }
+  }
+
+  private static String formatDouble(double value) {
+    return String.format(Locale.ENGLISH, "%.3f", value);
+  }
+
+  private static String jsonString(@Nonnull String value) {
+    final StringBuilder sb = new StringBuilder(value.length() + 2);
+    sb.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        default:
+          if (c < 0x20)
+            sb.append(String.format("\\u%04x", (int) c));
+          else
+            sb.append(c);
+      }
+    }
+    sb.append('"');
+    return sb.toString();
+  }
+
+  private static String csvString(@Nonnull String value) {
+    if ((value.indexOf(',') < 0) && (value.indexOf('"') < 0) && (value.indexOf('\n') < 0))
+      return value;
+    return "\"" + value.replace("\"", "\"\"") + "\"";
+  }
+
+}
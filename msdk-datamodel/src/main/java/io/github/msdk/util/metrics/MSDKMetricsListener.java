@@ -0,0 +1,33 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.util.metrics;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Receives the metrics of finished method executions. Register a listener with
+ * {@link MSDKMetrics#setListener(MSDKMetricsListener)} to enable the instrumentation of the MSDK
+ * methods. The listener may be called from multiple threads at the same time.
+ */
+@FunctionalInterface
+public interface MSDKMetricsListener {
+
+  /**
+   * Called when an instrumented method has finished.
+   *
+   * @param metrics a {@link io.github.msdk.util.metrics.MSDKMethodMetrics} object.
+   */
+  void metricsReported(@Nonnull MSDKMethodMetrics metrics);
+
+}
@@ -0,0 +1,690 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.util.synthetic;
+
+import java.io.File;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.RandomAccess;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Range;
+
+import io.github.msdk.datamodel.chromatograms.Chromatogram;
+import io.github.msdk.datamodel.featuretables.FeatureTable;
+import io.github.msdk.datamodel.featuretables.Sample;
+import io.github.msdk.datamodel.files.FileType;
+import io.github.msdk.datamodel.impl.ColumnarFeatureTable;
+import io.github.msdk.datamodel.impl.SimpleFeature;
+import io.github.msdk.datamodel.impl.SimpleMsScan;
+import io.github.msdk.datamodel.impl.SimpleSample;
+import io.github.msdk.datamodel.msspectra.MsSpectrumType;
+import io.github.msdk.datamodel.rawdata.ActivationInfo;
+import io.github.msdk.datamodel.rawdata.IsolationInfo;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.PolarityType;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.ScanIndex;
+import io.github.msdk.util.DataPointSorter;
+import io.github.msdk.util.DataPointSorter.SortingDirection;
+import io.github.msdk.util.DataPointSorter.SortingProperty;
+import io.github.msdk.util.tolerances.MzTolerance;
+
+/**
+ * Deterministic generator of synthetic LC-MS runs, for benchmarks and stress tests at sizes that
+ * the bundled test files do not reach.
+ *
+ * The generator places a number of chromatographic peaks at random m/z values and retention times.
+ * Every sample contains the same peaks, but their retention times are shifted by a linear drift
+ * and their heights vary, both chosen randomly per sample. The generated data only depend on the
+ * seed, the parameters and the sample index.
+ *
+ * The scans of the generated raw data files are not stored. Each call of
+ * {@link java.util.List#get(int)} on the scan list computes the scan again, so runs of any size
+ * can be written by a streaming exporter such as MzMLFileExportMethod, for example:
+ *
+ * <pre>
+ * RawDataFile rawFile = new SyntheticLCMSGenerator(1).generateRawDataFile(0);
+ * new MzMLFileExportMethod(rawFile, new File("synthetic.mzML")).execute();
+ * </pre>
+ *
+ * {@link #generateFeatureTable(int)} returns the features of the generated peaks as they appear in
+ * each sample, which can be used as the expected result of feature detection and alignment.
+ */
+public class SyntheticLCMSGenerator {
+
+  private static final double FWHM_TO_SIGMA = 1.0 / (2.0 * Math.sqrt(2.0 * Math.log(2.0)));
+
+  private final long seed;
+  private int numberOfScans = 1000;
+  private int dataPointsPerScan = 10000;
+  private @Nonnull MsSpectrumType spectrumType = MsSpectrumType.PROFILE;
+  private int numberOfPeaks = 1000;
+  private @Nonnull SyntheticPeakShape peakShape = SyntheticPeakShape.GAUSSIAN;
+  private float peakWidth = 10f;
+  private double mzPeakWidth = 0.01;
+  private float scanInterval = 0.5f;
+  private float noiseLevel = 100f;
+  private float rtDrift = 5f;
+  private @Nonnull Range<Double> mzRange = Range.closed(100.0, 1000.0);
+  private @Nonnull Range<Float> peakHeightRange = Range.closed(1E4f, 1E7f);
+
+  /**
+   * <p>
+   * Constructor for SyntheticLCMSGenerator.
+   * </p>
+   *
+   * @param seed seed of the random numbers, the same seed and parameters always generate the same
+   *        data
+   */
+  public SyntheticLCMSGenerator(long seed) {
+    this.seed = seed;
+  }
+
+  /**
+   * <p>
+   * setNumberOfScans.
+   * </p>
+   *
+   * @param numberOfScans number of scans of each raw data file, default 1000
+   */
+  public void setNumberOfScans(int numberOfScans) {
+    Preconditions.checkArgument(numberOfScans > 0);
+    this.numberOfScans = numberOfScans;
+  }
+
+  /**
+   * Sets the number of data points per scan. Profile scans have exactly this number of data points,
+   * evenly spaced over the m/z range. Centroided scans contain one data point per eluting peak,
+   * and noise data points up to this number.
+   *
+   * @param dataPointsPerScan number of data points per scan, default 10000
+   */
+  public void setDataPointsPerScan(int dataPointsPerScan) {
+    Preconditions.checkArgument(dataPointsPerScan > 1);
+    this.dataPointsPerScan = dataPointsPerScan;
+  }
+
+  /**
+   * <p>
+   * setSpectrumType.
+   * </p>
+   *
+   * @param spectrumType PROFILE or CENTROIDED, default PROFILE
+   */
+  public void setSpectrumType(@Nonnull MsSpectrumType spectrumType) {
+    Preconditions.checkArgument(spectrumType != MsSpectrumType.THRESHOLDED,
+        "Only profile and centroided scans can be generated");
+    this.spectrumType = spectrumType;
+  }
+
+  /**
+   * <p>
+   * setNumberOfPeaks.
+   * </p>
+   *
+   * @param numberOfPeaks number of chromatographic peaks, default 1000
+   */
+  public void setNumberOfPeaks(int numberOfPeaks) {
+    Preconditions.checkArgument(numberOfPeaks >= 0);
+    this.numberOfPeaks = numberOfPeaks;
+  }
+
+  /**
+   * <p>
+   * setPeakShape.
+   * </p>
+   *
+   * @param peakShape shape of the chromatographic peaks, default GAUSSIAN
+   */
+  public void setPeakShape(@Nonnull SyntheticPeakShape peakShape) {
+    Preconditions.checkNotNull(peakShape);
+    this.peakShape = peakShape;
+  }
+
+  /**
+   * <p>
+   * setPeakWidth.
+   * </p>
+   *
+   * @param peakWidth full width at half maximum of the chromatographic peaks in seconds, for
+   *        asymmetric shapes the width of the narrower half is used, default 10
+   */
+  public void setPeakWidth(float peakWidth) {
+    Preconditions.checkArgument(peakWidth > 0f);
+    this.peakWidth = peakWidth;
+  }
+
+  /**
+   * Sets the width of the m/z peaks of profile scans. The m/z peaks are never narrower than the
+   * distance between two data points.
+   *
+   * @param mzPeakWidth full width at half maximum of the m/z peaks, default 0.01
+   */
+  public void setMzPeakWidth(double mzPeakWidth) {
+    Preconditions.checkArgument(mzPeakWidth > 0.0);
+    this.mzPeakWidth = mzPeakWidth;
+  }
+
+  /**
+   * <p>
+   * setScanInterval.
+   * </p>
+   *
+   * @param scanInterval retention time between two scans in seconds, default 0.5
+   */
+  public void setScanInterval(float scanInterval) {
+    Preconditions.checkArgument(scanInterval > 0f);
+    this.scanInterval = scanInterval;
+  }
+
+  /**
+   * <p>
+   * setNoiseLevel.
+   * </p>
+   *
+   * @param noiseLevel maximum intensity of the noise, which is uniformly distributed, default 100
+   */
+  public void setNoiseLevel(float noiseLevel) {
+    Preconditions.checkArgument(noiseLevel >= 0f);
+    this.noiseLevel = noiseLevel;
+  }
+
+  /**
+   * <p>
+   * setRtDrift.
+   * </p>
+   *
+   * @param rtDrift maximum shift of the retention time of a peak in any sample, in seconds,
+   *        default 5
+   */
+  public void setRtDrift(float rtDrift) {
+    Preconditions.checkArgument(rtDrift >= 0f);
+    this.rtDrift = rtDrift;
+  }
+
+  /**
+   * <p>
+   * setMzRange.
+   * </p>
+   *
+   * @param mzRange m/z range of the scans, default 100-1000
+   */
+  public void setMzRange(@Nonnull Range<Double> mzRange) {
+    Preconditions.checkArgument(mzRange.hasLowerBound() && mzRange.hasUpperBound());
+    Preconditions.checkArgument(mzRange.lowerEndpoint() < mzRange.upperEndpoint());
+    this.mzRange = mzRange;
+  }
+
+  /**
+   * <p>
+   * setPeakHeightRange.
+   * </p>
+   *
+   * @param peakHeightRange range of the peak heights, which are log-uniformly distributed,
+   *        default 1E4-1E7
+   */
+  public void setPeakHeightRange(@Nonnull Range<Float> peakHeightRange) {
+    Preconditions.checkArgument(peakHeightRange.hasLowerBound() && peakHeightRange.hasUpperBound());
+    Preconditions.checkArgument(peakHeightRange.lowerEndpoint() > 0f);
+    this.peakHeightRange = peakHeightRange;
+  }
+
+  /**
+   * Returns the name of the raw data file and feature table sample of the given sample index.
+   *
+   * @param sampleIndex index of the sample, starting from 0
+   * @return a {@link java.lang.String} object.
+   */
+  public static @Nonnull String getSampleName(int sampleIndex) {
+    return "Synthetic sample " + (sampleIndex + 1);
+  }
+
+  /**
+   * Generates the raw data file of the given sample. The scans are computed when they are
+   * accessed, see the class description.
+   *
+   * @param sampleIndex index of the sample, starting from 0
+   * @return a {@link io.github.msdk.datamodel.rawdata.RawDataFile} object.
+   */
+  public @Nonnull RawDataFile generateRawDataFile(int sampleIndex) {
+    Preconditions.checkArgument(sampleIndex >= 0);
+    return new SyntheticRawDataFile(new Model(this), sampleIndex);
+  }
+
+  /**
+   * Generates a feature table with one row per chromatographic peak and one sample per generated
+   * raw data file. The features have the m/z, retention time, height and area of the peak in the
+   * raw data file of the sample with the same index. Peaks whose apex drifted out of the run in a
+   * sample have no feature in that sample.
+   *
+   * @param numberOfSamples number of samples
+   * @return a {@link io.github.msdk.datamodel.featuretables.FeatureTable} object.
+   */
+  public @Nonnull FeatureTable generateFeatureTable(int numberOfSamples) {
+    Preconditions.checkArgument(numberOfSamples > 0);
+    final Model model = new Model(this);
+
+    final List<Sample> samples = new ArrayList<>(numberOfSamples);
+    final SampleVariation variations[] = new SampleVariation[numberOfSamples];
+    for (int s = 0; s < numberOfSamples; s++) {
+      samples.add(new SimpleSample(getSampleName(s)));
+      variations[s] = new SampleVariation(model, s);
+    }
+
+    final ColumnarFeatureTable featureTable = new ColumnarFeatureTable(samples);
+    final double areaFactor = model.peakShape.getArea(model.rtSigma);
+    for (int p = 0; p < model.peakMz.length; p++) {
+      featureTable.addRow();
+      for (int s = 0; s < numberOfSamples; s++) {
+        final double apexRt = variations[s].getApexRt(model, p);
+        if ((apexRt < 0.0) || (apexRt > model.runLength))
+          continue;
+        final float height = model.peakHeight[p] * variations[s].heightFactors[p];
+        final SimpleFeature feature = new SimpleFeature();
+        feature.setMz(model.peakMz[p]);
+        feature.setRetentionTime((float) apexRt);
+        feature.setHeight(height);
+        feature.setArea((float) (height * areaFactor));
+        featureTable.setFeature(p, s, feature);
+      }
+    }
+    return featureTable;
+  }
+
+  private static long mixSeed(long seed, long a, long b) {
+    long h = seed;
+    h = h * 0x9E3779B97F4A7C15L + a;
+    h = h * 0x9E3779B97F4A7C15L + b;
+    return h ^ (h >>> 31);
+  }
+
+  /**
+   * Snapshot of the parameters and the generated peaks, which later parameter changes do not
+   * affect. The peaks are sorted by their retention time.
+   */
+  private static class Model {
+
+    private final long seed;
+    private final int numberOfScans, dataPointsPerScan;
+    private final MsSpectrumType spectrumType;
+    private final SyntheticPeakShape peakShape;
+    private final double rtSigma, mzSigma;
+    private final float scanInterval, noiseLevel, rtDrift;
+    private final double runLength;
+    private final Range<Double> mzRange;
+
+    private final double peakMz[];
+    private final float peakRt[], peakHeight[];
+
+    Model(@Nonnull SyntheticLCMSGenerator generator) {
+      seed = generator.seed;
+      numberOfScans = generator.numberOfScans;
+      dataPointsPerScan = generator.dataPointsPerScan;
+      spectrumType = generator.spectrumType;
+      peakShape = generator.peakShape;
+      rtSigma = generator.peakWidth * FWHM_TO_SIGMA;
+      mzSigma = generator.mzPeakWidth * FWHM_TO_SIGMA;
+      scanInterval = generator.scanInterval;
+      noiseLevel = generator.noiseLevel;
+      rtDrift = generator.rtDrift;
+      runLength = (double) (numberOfScans - 1) * scanInterval;
+      mzRange = generator.mzRange;
+
+      final Random random = new Random(seed);
+      final int numberOfPeaks = generator.numberOfPeaks;
+      final double mzMin = mzRange.lowerEndpoint(), mzMax = mzRange.upperEndpoint();
+      final double logMinHeight = Math.log(generator.peakHeightRange.lowerEndpoint());
+      final double logMaxHeight = Math.log(generator.peakHeightRange.upperEndpoint());
+      peakMz = new double[numberOfPeaks];
+      peakRt = new float[numberOfPeaks];
+      peakHeight = new float[numberOfPeaks];
+      for (int p = 0; p < numberOfPeaks; p++) {
+        peakMz[p] = mzMin + random.nextDouble() * (mzMax - mzMin);
+        peakRt[p] = (float) (random.nextDouble() * runLength);
+        peakHeight[p] =
+            (float) Math.exp(logMinHeight + random.nextDouble() * (logMaxHeight - logMinHeight));
+      }
+      DataPointSorter.sortDataPoints(peakRt, peakMz, peakHeight, numberOfPeaks,
+          SortingProperty.RT, SortingDirection.ASCENDING);
+    }
+
+    /**
+     * Returns the index of the first peak whose retention time is not smaller than the given one.
+     */
+    int findFirstPeak(double rt) {
+      int low = 0, high = peakRt.length;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        if (peakRt[mid] < rt)
+          low = mid + 1;
+        else
+          high = mid;
+      }
+      return low;
+    }
+
+  }
+
+  /**
+   * Retention time drift and peak height variation of one sample.
+   */
+  private static class SampleVariation {
+
+    private final double rtOffset, rtSlope;
+    private final float heightFactors[];
+
+    SampleVariation(@Nonnull Model model, int sampleIndex) {
+      final Random random = new Random(mixSeed(model.seed, sampleIndex, -1));
+      // The drift changes linearly over the run, by at most rtDrift in total
+      rtOffset = (random.nextDouble() - 0.5) * model.rtDrift;
+      rtSlope = (random.nextDouble() - 0.5) * model.rtDrift;
+      heightFactors = new float[model.peakMz.length];
+      for (int p = 0; p < heightFactors.length; p++)
+        heightFactors[p] = 0.5f + random.nextFloat();
+    }
+
+    double getApexRt(@Nonnull Model model, int peakIndex) {
+      final double rt = model.peakRt[peakIndex];
+      final double relativeRt = (model.runLength > 0) ? rt / model.runLength : 0.0;
+      return rt + rtOffset + rtSlope * relativeRt;
+    }
+
+  }
+
+  /**
+   * Raw data file whose scans are computed on access.
+   */
+  private static class SyntheticRawDataFile implements RawDataFile {
+
+    private final @Nonnull Model model;
+    private final int sampleIndex;
+    private final @Nonnull SampleVariation variation;
+    private final @Nonnull List<MsScan> scans;
+    private volatile @Nullable ScanIndex scanIndex;
+
+    SyntheticRawDataFile(@Nonnull Model model, int sampleIndex) {
+      this.model = model;
+      this.sampleIndex = sampleIndex;
+      this.variation = new SampleVariation(model, sampleIndex);
+      this.scans = new ScanList();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull String getName() {
+      return getSampleName(sampleIndex);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull Optional<File> getOriginalFile() {
+      return Optional.empty();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull FileType getRawDataFileType() {
+      return FileType.UNKNOWN;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull List<String> getMsFunctions() {
+      return Collections.emptyList();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull List<MsScan> getScans() {
+      return scans;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The index is built on the first call. It refers to lightweight scans that only hold the
+     * metadata needed for the lookups and compute their data points on every access, so the index
+     * does not keep the generated data in memory.
+     */
+    @Override
+    public @Nonnull ScanIndex getScanIndex() {
+      ScanIndex index = scanIndex;
+      if (index == null) {
+        final List<MsScan> indexedScans = new ArrayList<>(model.numberOfScans);
+        for (int i = 0; i < model.numberOfScans; i++)
+          indexedScans.add(new IndexedScan(i));
+        index = new ScanIndex(indexedScans);
+        scanIndex = index;
+      }
+      return index;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull List<Chromatogram> getChromatograms() {
+      return Collections.emptyList();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void dispose() {}
+
+    private @Nonnull MsScan generateScan(int scanIndex) {
+      final Random random = new Random(mixSeed(model.seed, sampleIndex, scanIndex));
+      final float rt = scanIndex * model.scanInterval;
+      final int size = model.dataPointsPerScan;
+      final double mzMin = model.mzRange.lowerEndpoint(), mzMax = model.mzRange.upperEndpoint();
+
+      // Peaks that may elute in this scan, considering the drift
+      final int firstPeak = model.findFirstPeak(
+          rt - model.peakShape.getTrailingExtent(model.rtSigma) - model.rtDrift);
+      final int lastPeak = model.findFirstPeak(
+          rt + model.peakShape.getLeadingExtent(model.rtSigma) + model.rtDrift);
+
+      double mzValues[];
+      float intensityValues[];
+      int numOfDataPoints;
+
+      if (model.spectrumType == MsSpectrumType.CENTROIDED) {
+        mzValues = new double[Math.max(size, lastPeak - firstPeak)];
+        intensityValues = new float[mzValues.length];
+        numOfDataPoints = 0;
+        for (int p = firstPeak; p < lastPeak; p++) {
+          final double relativeIntensity = model.peakShape
+              .getRelativeIntensity(rt - variation.getApexRt(model, p), model.rtSigma);
+          if (relativeIntensity == 0.0)
+            continue;
+          mzValues[numOfDataPoints] = model.peakMz[p];
+          final double height =
+              model.peakHeight[p] * variation.heightFactors[p] * relativeIntensity;
+          intensityValues[numOfDataPoints] =
+              (float) (height + random.nextFloat() * model.noiseLevel);
+          numOfDataPoints++;
+        }
+        while (numOfDataPoints < size) {
+          mzValues[numOfDataPoints] = mzMin + random.nextDouble() * (mzMax - mzMin);
+          intensityValues[numOfDataPoints] = random.nextFloat() * model.noiseLevel;
+          numOfDataPoints++;
+        }
+        DataPointSorter.sortDataPoints(mzValues, intensityValues, numOfDataPoints,
+            SortingProperty.MZ, SortingDirection.ASCENDING);
+      } else {
+        mzValues = new double[size];
+        intensityValues = new float[size];
+        numOfDataPoints = size;
+        final double mzStep = (mzMax - mzMin) / (size - 1);
+        for (int i = 0; i < size; i++) {
+          mzValues[i] = mzMin + i * mzStep;
+          intensityValues[i] = random.nextFloat() * model.noiseLevel;
+        }
+        final double mzSigma = Math.max(model.mzSigma, mzStep);
+        for (int p = firstPeak; p < lastPeak; p++) {
+          final double relativeIntensity = model.peakShape
+              .getRelativeIntensity(rt - variation.getApexRt(model, p), model.rtSigma);
+          if (relativeIntensity == 0.0)
+            continue;
+          final double height =
+              model.peakHeight[p] * variation.heightFactors[p] * relativeIntensity;
+          final double mz = model.peakMz[p];
+          final int from = Math.max(0, (int) Math.ceil((mz - 4.0 * mzSigma - mzMin) / mzStep));
+          final int to =
+              Math.min(size - 1, (int) Math.floor((mz + 4.0 * mzSigma - mzMin) / mzStep));
+          for (int i = from; i <= to; i++) {
+            final double mzOffset = mzValues[i] - mz;
+            intensityValues[i] +=
+                (float) (height * Math.exp(-mzOffset * mzOffset / (2.0 * mzSigma * mzSigma)));
+          }
+        }
+      }
+
+      final SimpleMsScan scan = new SimpleMsScan(scanIndex + 1);
+      scan.setRawDataFile(this);
+      scan.setMsLevel(1);
+      scan.setSpectrumType(model.spectrumType);
+      scan.setPolarity(PolarityType.POSITIVE);
+      scan.setRetentionTime(rt);
+      scan.setScanningRange(model.mzRange);
+      scan.setDataPoints(mzValues, intensityValues, numOfDataPoints);
+      return scan;
+    }
+
+    /**
+     * Scan referenced by the scan index. The metadata are derived from the model, the data points
+     * are computed by {@link #generateScan(int)} on every access.
+     */
+    private class IndexedScan implements MsScan {
+
+      private final int scanIndex;
+
+      IndexedScan(int scanIndex) {
+        this.scanIndex = scanIndex;
+      }
+
+      @Override
+      public RawDataFile getRawDataFile() {
+        return SyntheticRawDataFile.this;
+      }
+
+      @Override
+      public Integer getScanNumber() {
+        return scanIndex + 1;
+      }
+
+      @Override
+      public String getScanDefinition() {
+        return generateScan(scanIndex).getScanDefinition();
+      }
+
+      @Override
+      public String getMsFunction() {
+        return null;
+      }
+
+      @Override
+      public Integer getMsLevel() {
+        return 1;
+      }
+
+      @Override
+      public Float getRetentionTime() {
+        return scanIndex * model.scanInterval;
+      }
+
+      @Override
+      public Range<Double> getScanningRange() {
+        return model.mzRange;
+      }
+
+      @Override
+      public PolarityType getPolarity() {
+        return PolarityType.POSITIVE;
+      }
+
+      @Override
+      public ActivationInfo getSourceInducedFragmentation() {
+        return null;
+      }
+
+      @Override
+      public List<IsolationInfo> getIsolations() {
+        return Collections.emptyList();
+      }
+
+      @Override
+      public MsSpectrumType getSpectrumType() {
+        return model.spectrumType;
+      }
+
+      @Override
+      public Integer getNumberOfDataPoints() {
+        return generateScan(scanIndex).getNumberOfDataPoints();
+      }
+
+      @Override
+      public double[] getMzValues(double[] array) {
+        return generateScan(scanIndex).getMzValues(array);
+      }
+
+      @Override
+      public float[] getIntensityValues(float[] array) {
+        return generateScan(scanIndex).getIntensityValues(array);
+      }
+
+      @Override
+      public Float getTIC() {
+        return generateScan(scanIndex).getTIC();
+      }
+
+      @Override
+      public Range<Double> getMzRange() {
+        return generateScan(scanIndex).getMzRange();
+      }
+
+      @Override
+      public MzTolerance getMzTolerance() {
+        return generateScan(scanIndex).getMzTolerance();
+      }
+
+    }
+
+    /**
+     * Read-only list of the scans, which computes each scan when it is accessed.
+     */
+    private class ScanList extends AbstractList<MsScan> implements RandomAccess {
+
+      @Override
+      public MsScan get(int index) {
+        if ((index < 0) || (index >= model.numberOfScans))
+          throw new IndexOutOfBoundsException("Scan index " + index);
+        return generateScan(index);
+      }
+
+      @Override
+      public int size() {
+        return model.numberOfScans;
+      }
+
+    }
+
+  }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.util.synthetic;
+
+/**
+ * Shape of the chromatographic peaks generated by {@link SyntheticLCMSGenerator}. The peaks are
+ * composed of two Gaussian halves, whose widths may differ to simulate tailing or fronting.
+ */
+public enum SyntheticPeakShape {
+
+  /**
+   * Symmetric Gaussian peak.
+   */
+  GAUSSIAN(1.0, 1.0),
+
+  /**
+   * Peak whose trailing half is three times wider than its leading half.
+   */
+  TAILING(1.0, 3.0),
+
+  /**
+   * Peak whose leading half is three times wider than its trailing half.
+   */
+  FRONTING(3.0, 1.0);
+
+  // Peaks are cut off at this many standard deviations from the apex
+  private static final double EXTENT = 4.0;
+
+  private final double leadingWidthFactor, trailingWidthFactor;
+
+  SyntheticPeakShape(double leadingWidthFactor, double trailingWidthFactor) {
+    this.leadingWidthFactor = leadingWidthFactor;
+    this.trailingWidthFactor = trailingWidthFactor;
+  }
+
+  /**
+   * Returns the relative intensity of the peak at the given distance from its apex.
+   *
+   * @param offset distance from the apex, negative before the apex
+   * @param sigma standard deviation of the Gaussian peak of the same width
+   * @return relative intensity between 0 and 1
+   */
+  public double getRelativeIntensity(double offset, double sigma) {
+    final double halfSigma = sigma * ((offset < 0) ? leadingWidthFactor : trailingWidthFactor);
+    if (Math.abs(offset) > EXTENT * halfSigma)
+      return 0.0;
+    return Math.exp(-offset * offset / (2.0 * halfSigma * halfSigma));
+  }
+
+  /**
+   * <p>
+   * getLeadingExtent.
+   * </p>
+   *
+   * @param sigma standard deviation of the Gaussian peak of the same width
+   * @return the distance from the beginning of the peak to its apex
+   */
+  public double getLeadingExtent(double sigma) {
+    return EXTENT * sigma * leadingWidthFactor;
+  }
+
+  /**
+   * <p>
+   * getTrailingExtent.
+   * </p>
+   *
+   * @param sigma standard deviation of the Gaussian peak of the same width
+   * @return the distance from the apex of the peak to its end
+   */
+  public double getTrailingExtent(double sigma) {
+    return EXTENT * sigma * trailingWidthFactor;
+  }
+
+  /**
+   * Returns the area of a peak of height 1.
+   *
+   * @param sigma standard deviation of the Gaussian peak of the same width
+   * @return the area of the peak
+   */
+  public double getArea(double sigma) {
+    return sigma * Math.sqrt(2.0 * Math.PI) * (leadingWidthFactor + trailingWidthFactor) / 2.0;
+  }
+
+}
@@ -25,7 +25,7 @@ import com.google.common.collect.Range;
  */
 public class ConstantDaTolerance implements MzTolerance {
 
-  private final @Nonnull Double mzTolerance;
+  private final double mzTolerance;
 
   /**
    * <p>
@@ -57,7 +57,25 @@ public class ConstantDaTolerance implements MzTolerance {
    * </p>
    */
   public @Nonnull Range<Double> getToleranceRange(final @Nonnull Double mzValue) {
-    return Range.closed(mzValue - mzTolerance, mzValue + mzTolerance);
+    return Range.closed(lowerBound(mzValue), upperBound(mzValue));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double lowerBound(final double mzValue) {
+    return mzValue - mzTolerance;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double upperBound(final double mzValue) {
+    return mzValue + mzTolerance;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean contains(final double center, final double value) {
+    return (value >= center - mzTolerance) && (value <= center + mzTolerance);
   }
 
   /** {@inheritDoc} */
@@ -26,8 +26,8 @@ import com.google.common.collect.Range;
 public class ConstantPpmTolerance implements MzTolerance {
 
   // PPM conversion factor.
-  private static final Double MILLION = 1_000_000.0;
-  private final @Nonnull Double ppmTolerance;
+  private static final double MILLION = 1_000_000.0;
+  private final double ppmTolerance;
 
   /**
    * <p>
@@ -59,8 +59,30 @@ public class ConstantPpmTolerance implements MzTolerance {
    * </p>
    */
   public @Nonnull Range<Double> getToleranceRange(final @Nonnull Double mzValue) {
-    final @Nonnull Double absoluteTolerance = mzValue / MILLION * ppmTolerance;
-    return Range.closed(mzValue - absoluteTolerance, mzValue + absoluteTolerance);
+    return Range.closed(lowerBound(mzValue), upperBound(mzValue));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double lowerBound(final double mzValue) {
+    return mzValue - getAbsoluteTolerance(mzValue);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double upperBound(final double mzValue) {
+    return mzValue + getAbsoluteTolerance(mzValue);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean contains(final double center, final double value) {
+    final double absoluteTolerance = getAbsoluteTolerance(center);
+    return (value >= center - absoluteTolerance) && (value <= center + absoluteTolerance);
+  }
+
+  private double getAbsoluteTolerance(final double mzValue) {
+    return mzValue / MILLION * ppmTolerance;
   }
 
   /** {@inheritDoc} */
@@ -27,11 +27,11 @@ import com.google.common.collect.Range;
 public class MaximumMzTolerance implements MzTolerance {
 
   // PPM conversion factor.
-  private static final Double MILLION = 1000000.0;
+  private static final double MILLION = 1000000.0;
 
   // Tolerance has absolute (in m/z) and relative (in ppm) values
-  private final @Nonnull Double mzTolerance;
-  private final @Nonnull Double ppmTolerance;
+  private final double mzTolerance;
+  private final double ppmTolerance;
 
   /**
    * <p>
@@ -76,9 +76,30 @@ public class MaximumMzTolerance implements MzTolerance {
    * </p>
    */
   public @Nonnull Range<Double> getToleranceRange(final @Nonnull Double mzValue) {
-    final @Nonnull Double absoluteTolerance =
-        Math.max(mzTolerance, mzValue / MILLION * ppmTolerance);
-    return Range.closed(mzValue - absoluteTolerance, mzValue + absoluteTolerance);
+    return Range.closed(lowerBound(mzValue), upperBound(mzValue));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double lowerBound(final double mzValue) {
+    return mzValue - getAbsoluteTolerance(mzValue);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double upperBound(final double mzValue) {
+    return mzValue + getAbsoluteTolerance(mzValue);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean contains(final double center, final double value) {
+    final double absoluteTolerance = getAbsoluteTolerance(center);
+    return (value >= center - absoluteTolerance) && (value <= center + absoluteTolerance);
+  }
+
+  private double getAbsoluteTolerance(final double mzValue) {
+    return Math.max(mzTolerance, mzValue / MILLION * ppmTolerance);
   }
 
   /** {@inheritDoc} */
@@ -34,4 +34,46 @@ public interface MzTolerance {
    * @return a {@link com.google.common.collect.Range} object.
    */
   public @Nonnull Range<Double> getToleranceRange(final @Nonnull Double mzValue);
+
+  /**
+   * <p>
+   * Get the lower bound of the m/z tolerance range for a given m/z. Unlike
+   * {@link #getToleranceRange(Double)}, this method does not allocate any objects in the standard
+   * implementations, so it can be used in tight loops.
+   * </p>
+   *
+   * @param mzValue a double.
+   * @return a double.
+   */
+  default double lowerBound(final double mzValue) {
+    return getToleranceRange(mzValue).lowerEndpoint();
+  }
+
+  /**
+   * <p>
+   * Get the upper bound of the m/z tolerance range for a given m/z, see
+   * {@link #lowerBound(double)}.
+   * </p>
+   *
+   * @param mzValue a double.
+   * @return a double.
+   */
+  default double upperBound(final double mzValue) {
+    return getToleranceRange(mzValue).upperEndpoint();
+  }
+
+  /**
+   * <p>
+   * Check if the given m/z value is inside the m/z tolerance range of the given center m/z.
+   * Equivalent to getToleranceRange(center).contains(value), without allocating any objects.
+   * </p>
+   *
+   * @param center a double.
+   * @param value a double.
+   * @return a boolean.
+   */
+  default boolean contains(final double center, final double value) {
+    return (value >= lowerBound(center)) && (value <= upperBound(center));
+  }
+
 }
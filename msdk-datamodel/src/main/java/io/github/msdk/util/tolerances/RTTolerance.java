@@ -13,7 +13,6 @@
 
 package io.github.msdk.util.tolerances;
 
-import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 
 import com.google.common.collect.Range;
@@ -27,7 +26,7 @@ import com.google.common.collect.Range;
 public class RTTolerance {
 
   // Tolerance can be either absolute (sec) or relative (%).
-  private final @Nonnull Float rtTolerance;
+  private final float rtTolerance;
   private final boolean isAbsolute;
 
   /**
@@ -74,8 +73,48 @@ public class RTTolerance {
    * @return a {@link com.google.common.collect.Range} object.
    */
   public Range<Float> getToleranceRange(final float rtValue) {
-    final float absoluteTolerance = isAbsolute ? rtTolerance : rtValue * rtTolerance;
-    return Range.closed(rtValue - absoluteTolerance, rtValue + absoluteTolerance);
+    return Range.closed(lowerBound(rtValue), upperBound(rtValue));
+  }
+
+  /**
+   * <p>
+   * Get the lower bound of the tolerance range for a given retention time, without allocating any
+   * objects.
+   * </p>
+   *
+   * @param rtValue a float.
+   * @return a float.
+   */
+  public float lowerBound(final float rtValue) {
+    return rtValue - getAbsoluteTolerance(rtValue);
+  }
+
+  /**
+   * <p>
+   * Get the upper bound of the tolerance range for a given retention time, without allocating any
+   * objects.
+   * </p>
+   *
+   * @param rtValue a float.
+   * @return a float.
+   */
+  public float upperBound(final float rtValue) {
+    return rtValue + getAbsoluteTolerance(rtValue);
+  }
+
+  /**
+   * <p>
+   * Check if the given retention time is inside the tolerance range of the given center retention
+   * time. Equivalent to getToleranceRange(center).contains(value), without allocating any objects.
+   * </p>
+   *
+   * @param center a float.
+   * @param value a float.
+   * @return a boolean.
+   */
+  public boolean contains(final float center, final float value) {
+    final float absoluteTolerance = getAbsoluteTolerance(center);
+    return (value >= center - absoluteTolerance) && (value <= center + absoluteTolerance);
   }
 
   /**
@@ -88,7 +127,11 @@ public class RTTolerance {
    * @return a boolean.
    */
   public boolean checkWithinTolerance(final float rt1, final float rt2) {
-    return getToleranceRange(rt1).contains(rt2);
+    return contains(rt1, rt2);
+  }
+
+  private float getAbsoluteTolerance(final float rtValue) {
+    return isAbsolute ? rtTolerance : rtValue * rtTolerance;
   }
 
   /** {@inheritDoc} */
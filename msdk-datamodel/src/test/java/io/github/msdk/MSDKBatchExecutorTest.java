@@ -0,0 +1,226 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for MSDKBatchExecutor and MSDKMethodChain
+ */
+public class MSDKBatchExecutorTest {
+
+  /**
+   * Test method that returns its input plus one after some steps, and records the memory weight
+   * of the running methods.
+   */
+  private static class TestMethod implements MSDKMethod<Integer> {
+
+    private static final int STEPS = 20;
+
+    private final int input;
+    private final long weight;
+    private final AtomicLong runningWeight, maxRunningWeight;
+    private volatile int finishedSteps = 0;
+    private volatile boolean canceled = false;
+    private Integer result;
+
+    TestMethod(int input, long weight, AtomicLong runningWeight, AtomicLong maxRunningWeight) {
+      this.input = input;
+      this.weight = weight;
+      this.runningWeight = runningWeight;
+      this.maxRunningWeight = maxRunningWeight;
+    }
+
+    @Override
+    public Float getFinishedPercentage() {
+      return (float) finishedSteps / STEPS;
+    }
+
+    @Override
+    public Integer execute() throws MSDKException {
+      final long weightNow = runningWeight.addAndGet(weight);
+      maxRunningWeight.accumulateAndGet(weightNow, Math::max);
+      try {
+        for (int i = 0; i < STEPS; i++) {
+          if (canceled)
+            return null;
+          if (input < 0)
+            throw new MSDKException("Negative input");
+          Thread.sleep(1);
+          finishedSteps++;
+        }
+      } catch (InterruptedException e) {
+        throw new MSDKException(e);
+      } finally {
+        runningWeight.addAndGet(-weight);
+      }
+      result = input + 1;
+      return result;
+    }
+
+    @Override
+    public Integer getResult() {
+      return result;
+    }
+
+    @Override
+    public void cancel() {
+      canceled = true;
+    }
+  }
+
+  @Test
+  public void testChains() throws Exception {
+    final AtomicLong runningWeight = new AtomicLong(), maxRunningWeight = new AtomicLong();
+    MSDKBatchExecutor executor = new MSDKBatchExecutor(4, 100);
+
+    List<CompletableFuture<Integer>> futures = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      MSDKMethodChain<Integer> chain =
+          MSDKMethodChain.of(new TestMethod(i, 0, runningWeight, maxRunningWeight))
+              .then(r -> new TestMethod(r, 0, runningWeight, maxRunningWeight))
+              .then(r -> new TestMethod(r * 10, 40, runningWeight, maxRunningWeight));
+      Assert.assertEquals(3, chain.getNumberOfMethods());
+      futures.add(executor.submit(chain, 40));
+    }
+
+    for (int i = 0; i < 20; i++)
+      Assert.assertEquals(new Integer((i + 2) * 10 + 1), futures.get(i).get());
+    Assert.assertEquals(1f, executor.getFinishedPercentage(), 0.0001f);
+
+    // At most two methods with weight 40 fit within the limit of 100
+    Assert.assertTrue(maxRunningWeight.get() <= 80);
+
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testStartOrder() throws Exception {
+    final AtomicLong runningWeight = new AtomicLong(), maxRunningWeight = new AtomicLong();
+    MSDKBatchExecutor executor = new MSDKBatchExecutor(4, 10);
+
+    // Only one method fits within the limit, so the waiting threads compete for each start
+    final List<Integer> startOrder = Collections.synchronizedList(new ArrayList<>());
+    List<CompletableFuture<Integer>> futures = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      final int input = i;
+      MSDKMethodChain<Integer> chain = MSDKMethodChain.of(new TestMethod(i, 0, runningWeight,
+          maxRunningWeight) {
+        @Override
+        public Integer execute() throws MSDKException {
+          startOrder.add(input);
+          return super.execute();
+        }
+      });
+      futures.add(executor.submit(chain, 10));
+    }
+    for (CompletableFuture<Integer> future : futures)
+      future.get();
+
+    for (int i = 0; i < 20; i++)
+      Assert.assertEquals(new Integer(i), startOrder.get(i));
+
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    final AtomicLong runningWeight = new AtomicLong(), maxRunningWeight = new AtomicLong();
+    MSDKBatchExecutor executor = new MSDKBatchExecutor(2, 100);
+    CompletableFuture<Integer> failed =
+        executor.submit(new TestMethod(-1, 10, runningWeight, maxRunningWeight), 10);
+    CompletableFuture<Integer> succeeded =
+        executor.submit(new TestMethod(1, 10, runningWeight, maxRunningWeight), 10);
+    try {
+      failed.get();
+      Assert.fail("Expected an exception");
+    } catch (ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof MSDKException);
+    }
+    Assert.assertEquals(new Integer(2), succeeded.get());
+    executor.shutdown();
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    final AtomicLong runningWeight = new AtomicLong(), maxRunningWeight = new AtomicLong();
+    MSDKBatchExecutor executor = new MSDKBatchExecutor(2, 100);
+    List<TestMethod> methods = new ArrayList<>();
+    List<CompletableFuture<Integer>> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      TestMethod method = new TestMethod(i, 60, runningWeight, maxRunningWeight);
+      methods.add(method);
+      futures.add(executor.submit(method, 60));
+    }
+    Thread.sleep(5);
+    executor.cancel();
+
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(futures.get(i).isCancelled());
+      Assert.assertTrue(methods.get(i).canceled);
+    }
+    Assert.assertEquals(0, runningWeight.get());
+  }
+
+  @Test
+  public void testCancelWaitingTask() throws Exception {
+    final AtomicLong runningWeight = new AtomicLong(), maxRunningWeight = new AtomicLong();
+    MSDKBatchExecutor executor = new MSDKBatchExecutor(2, 10);
+
+    // The first method holds all memory until it is released
+    final CountDownLatch started = new CountDownLatch(1), release = new CountDownLatch(1);
+    CompletableFuture<Integer> first =
+        executor.submit(new TestMethod(0, 10, runningWeight, maxRunningWeight) {
+          @Override
+          public Integer execute() throws MSDKException {
+            started.countDown();
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              throw new MSDKException(e);
+            }
+            return super.execute();
+          }
+        }, 10);
+    Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+    // The second method waits for memory on the other thread and is canceled there
+    TestMethod waitingMethod = new TestMethod(1, 10, runningWeight, maxRunningWeight);
+    CompletableFuture<Integer> second = executor.submit(waitingMethod, 10);
+    Thread.sleep(50);
+    second.cancel(false);
+    release.countDown();
+
+    Assert.assertEquals(new Integer(1), first.get());
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    Assert.assertTrue(second.isCancelled());
+    Assert.assertNull(waitingMethod.getResult());
+  }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.datapointstore;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.msdk.datamodel.datastore.CachingDataPointStore;
+import io.github.msdk.datamodel.datastore.DataPointStore;
+import io.github.msdk.datamodel.datastore.DataPointStoreFactory;
+
+/**
+ * Tests for CachingDataPointStore
+ */
+public class CachingDataPointStoreTest {
+
+  @Test
+  public void testCacheCounters() {
+
+    // Room for two arrays of 1000 doubles
+    CachingDataPointStore store = DataPointStoreFactory
+        .getCachingDataStore(DataPointStoreFactory.getTmpFileDataStore(), 16000);
+
+    int count = 1000;
+    final double mzValues[] = new double[count];
+    for (int i = 0; i < count; i++)
+      mzValues[i] = i;
+
+    Object storageId = store.storeData(mzValues, count);
+    mzValues[0] = -1;
+    Object storageId2 = store.storeData(mzValues, count);
+    mzValues[0] = -2;
+    Object storageId3 = store.storeData(mzValues, count);
+
+    double readMzValues[] = new double[count * 2];
+
+    // First load is a miss, second one a hit
+    store.loadData(storageId, readMzValues);
+    store.loadData(storageId, readMzValues);
+    Assert.assertEquals(0.0, readMzValues[0], 0.0);
+    Assert.assertEquals(1, store.getHitCount());
+    Assert.assertEquals(1, store.getMissCount());
+    Assert.assertEquals(8000, store.getCachedBytes());
+
+    // Loading two more arrays evicts the least recently used one
+    store.loadData(storageId2, readMzValues);
+    store.loadData(storageId3, readMzValues);
+    Assert.assertEquals(-2.0, readMzValues[0], 0.0);
+    Assert.assertEquals(1, store.getEvictionCount());
+    Assert.assertEquals(16000, store.getCachedBytes());
+
+    store.loadData(storageId2, readMzValues);
+    Assert.assertEquals(-1.0, readMzValues[0], 0.0);
+    Assert.assertEquals(2, store.getHitCount());
+    Assert.assertEquals(3, store.getMissCount());
+
+    // Removed data are dropped from the cache
+    store.removeData(storageId2);
+    Assert.assertEquals(8000, store.getCachedBytes());
+
+    store.dispose();
+
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRemoveDataPoints() {
+
+    CachingDataPointStore store = DataPointStoreFactory
+        .getCachingDataStore(DataPointStoreFactory.getMemoryDataStore(), 1000000);
+
+    final double mzValues[] = new double[] {1.0, 2.0, 3.0};
+    Object storageId = store.storeData(mzValues, 3);
+    store.loadData(storageId, mzValues);
+    store.removeData(storageId);
+    store.loadData(storageId, mzValues);
+
+  }
+
+  @Test
+  public void testConcurrentMisses() throws Exception {
+
+    // The underlying store only returns once two loads are running at the same time
+    final DataPointStore memoryStore = DataPointStoreFactory.getMemoryDataStore();
+    final CountDownLatch loadsRunning = new CountDownLatch(2);
+    final DataPointStore slowStore = new DataPointStore() {
+      @Override
+      public @Nonnull Object storeData(@Nonnull Object data, @Nonnull Integer size) {
+        return memoryStore.storeData(data, size);
+      }
+
+      @Override
+      public void loadData(@Nonnull Object id, @Nonnull Object array) {
+        loadsRunning.countDown();
+        try {
+          Assert.assertTrue(loadsRunning.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        memoryStore.loadData(id, array);
+      }
+
+      @Override
+      public void removeData(@Nonnull Object id) {
+        memoryStore.removeData(id);
+      }
+
+      @Override
+      public void dispose() {
+        memoryStore.dispose();
+      }
+    };
+
+    final CachingDataPointStore store = DataPointStoreFactory.getCachingDataStore(slowStore, 16000);
+    final Object storageId = store.storeData(new double[] {1.0, 2.0}, 2);
+    final Object storageId2 = store.storeData(new double[] {3.0, 4.0}, 2);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    Future<double[]> result = executor.submit(() -> {
+      double readMzValues[] = new double[2];
+      store.loadData(storageId, readMzValues);
+      return readMzValues;
+    });
+    Future<double[]> result2 = executor.submit(() -> {
+      double readMzValues[] = new double[2];
+      store.loadData(storageId2, readMzValues);
+      return readMzValues;
+    });
+    Assert.assertArrayEquals(new double[] {1.0, 2.0}, result.get(), 0.0);
+    Assert.assertArrayEquals(new double[] {3.0, 4.0}, result2.get(), 0.0);
+    executor.shutdown();
+
+    Assert.assertEquals(2, store.getMissCount());
+    Assert.assertEquals(32, store.getCachedBytes());
+
+    store.dispose();
+
+  }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.datapointstore;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.msdk.datamodel.datastore.DataPointCompression;
+import io.github.msdk.datamodel.datastore.DataPointStore;
+import io.github.msdk.datamodel.datastore.DataPointStoreFactory;
+
+/**
+ * Tests for CompressedMemoryDataStore
+ */
+public class CompressedMemoryDataStoreTest {
+
+  @Test
+  public void testLossless() {
+
+    DataPointStore store =
+        DataPointStoreFactory.getCompressedMemoryDataStore(DataPointCompression.LOSSLESS);
+
+    int count = 1000;
+    final double mzValues[] = new double[count];
+    final float intensityValues[] = new float[count];
+    for (int i = 0; i < count; i++) {
+      mzValues[i] = 100.0 + i * 0.0123456789;
+      intensityValues[i] = (float) Math.sin(i) * 1000f;
+    }
+
+    Object mzId = store.storeData(mzValues, count);
+    Object intensityId = store.storeData(intensityValues, count);
+    Object emptyId = store.storeData(new double[0], 0);
+
+    double readMzValues[] = new double[count * 2];
+    float readIntensityValues[] = new float[count];
+    store.loadData(mzId, readMzValues);
+    store.loadData(intensityId, readIntensityValues);
+    store.loadData(emptyId, new double[0]);
+
+    for (int i = 0; i < count; i++) {
+      Assert.assertEquals(mzValues[i], readMzValues[i], 0.0);
+      Assert.assertEquals(intensityValues[i], readIntensityValues[i], 0.0f);
+    }
+
+  }
+
+  @Test
+  public void testNearLossless() {
+
+    for (DataPointCompression compression : new DataPointCompression[] {
+        DataPointCompression.NEAR_LOSSLESS, DataPointCompression.NEAR_LOSSLESS_DEFLATE}) {
+
+      DataPointStore store = DataPointStoreFactory.getCompressedMemoryDataStore(compression);
+
+      int count = 1000;
+      final double mzValues[] = new double[count];
+      final float intensityValues[] = new float[count];
+      final float negativeValues[] = new float[count];
+      for (int i = 0; i < count; i++) {
+        mzValues[i] = 100.0 + i * 0.0123456789;
+        intensityValues[i] = (float) Math.abs(Math.sin(i)) * 100000f;
+        negativeValues[i] = -intensityValues[i];
+      }
+
+      Object mzId = store.storeData(mzValues, count);
+      Object intensityId = store.storeData(intensityValues, count);
+      Object negativeId = store.storeData(negativeValues, count);
+
+      double readMzValues[] = new double[count];
+      float readIntensityValues[] = new float[count];
+      store.loadData(mzId, readMzValues);
+      store.loadData(intensityId, readIntensityValues);
+
+      for (int i = 0; i < count; i++) {
+        // Better than 0.01 ppm for m/z values, 0.1% for intensities
+        Assert.assertEquals(mzValues[i], readMzValues[i], mzValues[i] * 1e-8);
+        Assert.assertEquals(intensityValues[i], readIntensityValues[i],
+            intensityValues[i] * 1e-3 + 1e-3);
+      }
+
+      // Negative values cannot be encoded by Numpress and are stored losslessly
+      store.loadData(negativeId, readIntensityValues);
+      for (int i = 0; i < count; i++)
+        Assert.assertEquals(negativeValues[i], readIntensityValues[i], 0.0f);
+
+      store.dispose();
+    }
+
+  }
+
+  @SuppressWarnings("unused")
+  @Test(expected = IllegalArgumentException.class)
+  public void testRemoveDataPoints() {
+
+    DataPointStore store =
+        DataPointStoreFactory.getCompressedMemoryDataStore(DataPointCompression.LOSSLESS);
+
+    int count = 1000;
+    final double mzValues[] = new double[count];
+    for (int i = 0; i < count; i++)
+      mzValues[i] = (double) count / (double) (count - i);
+
+    Object storageId = store.storeData(mzValues, count);
+    store.removeData(storageId);
+    store.loadData(storageId, mzValues);
+
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testDispose() {
+
+    DataPointStore store =
+        DataPointStoreFactory.getCompressedMemoryDataStore(DataPointCompression.NEAR_LOSSLESS);
+
+    final double mzValues[] = new double[] {1.0, 2.0, 3.0};
+    Object storageId = store.storeData(mzValues, 3);
+    store.dispose();
+    store.loadData(storageId, mzValues);
+
+  }
+
+}
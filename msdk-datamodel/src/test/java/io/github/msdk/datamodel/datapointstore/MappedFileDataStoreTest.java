@@ -0,0 +1,159 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.datapointstore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.msdk.datamodel.datastore.DataPointStore;
+import io.github.msdk.datamodel.datastore.DataPointStoreFactory;
+
+/**
+ * Tests for MappedFileDataStore
+ */
+public class MappedFileDataStoreTest {
+
+  @Test
+  public void testStoreReadDataPoints() {
+
+    DataPointStore store = DataPointStoreFactory.getMappedFileDataStore();
+
+    int count = 1000;
+    final double mzValues[] = new double[count];
+    final float intensityValues[] = new float[count];
+    for (int i = 0; i < count; i++) {
+      mzValues[i] = (double) count / (double) (count - i);
+      intensityValues[i] = (float) mzValues[i] * 2;
+    }
+
+    final Object mzId = store.storeData(mzValues, count);
+    final Object intensityId = store.storeData(intensityValues, count);
+    final Object intensityId2 = store.storeData(intensityValues, count);
+    final Object mzId2 = store.storeData(mzValues, count);
+
+    // Retrieve into arrays larger than the stored data
+    for (Object id : new Object[] {mzId, mzId2}) {
+      double readMzValues[] = new double[count * 2];
+      store.loadData(id, readMzValues);
+      for (int i = 0; i < count; i++)
+        Assert.assertEquals(mzValues[i], readMzValues[i], 0.000001);
+    }
+    for (Object id : new Object[] {intensityId, intensityId2}) {
+      float readIntensityValues[] = new float[count * 2];
+      store.loadData(id, readIntensityValues);
+      for (int i = 0; i < count; i++)
+        Assert.assertEquals(intensityValues[i], readIntensityValues[i], 0.00001f);
+    }
+
+    store.dispose();
+
+  }
+
+  @SuppressWarnings("unused")
+  @Test(expected = IllegalArgumentException.class)
+  public void testRemoveDataPoints() {
+
+    DataPointStore store = DataPointStoreFactory.getMappedFileDataStore();
+
+    int count = 1000;
+    final double mzValues[] = new double[count];
+    final float intensityValues[] = new float[count];
+    for (int i = 0; i < count; i++) {
+      mzValues[i] = (double) count / (double) (count - i);
+      intensityValues[i] = (float) mzValues[i] * 2;
+    }
+
+    Object storageId = store.storeData(mzValues, count);
+    Object storageId2 = store.storeData(intensityValues, count);
+
+    store.removeData(storageId);
+
+    store.loadData(storageId, mzValues);
+
+  }
+
+  @SuppressWarnings("unused")
+  @Test(expected = IllegalStateException.class)
+  public void testDispose() {
+
+    DataPointStore store = DataPointStoreFactory.getMappedFileDataStore();
+
+    int count = 1000;
+    final double mzValues[] = new double[count];
+    final float intensityValues[] = new float[count];
+    for (int i = 0; i < count; i++) {
+      mzValues[i] = (double) count / (double) (count - i);
+      intensityValues[i] = (float) mzValues[i] * 2;
+    }
+
+    Object storageId = store.storeData(mzValues, count);
+    Object storageId2 = store.storeData(intensityValues, count);
+
+    store.dispose();
+
+    store.loadData(storageId, mzValues);
+
+  }
+
+  @Test
+  public void testConcurrentReads() throws Exception {
+
+    final int numOfThreads = 16;
+    final int numOfArrays = 200;
+    final int count = 5000;
+    final int numOfRounds = 5;
+
+    final DataPointStore store = DataPointStoreFactory.getMappedFileDataStore();
+    final Object storageIds[] = new Object[numOfArrays];
+    final double mzValues[] = new double[count];
+    for (int j = 0; j < numOfArrays; j++) {
+      for (int i = 0; i < count; i++)
+        mzValues[i] = j + (double) i / count;
+      storageIds[j] = store.storeData(mzValues, count);
+    }
+
+    // All threads read all arrays in a different order, each value must come back intact
+    ExecutorService executor = Executors.newFixedThreadPool(numOfThreads);
+    List<Future<?>> results = new ArrayList<>();
+    for (int t = 0; t < numOfThreads; t++) {
+      final int offset = t;
+      results.add(executor.submit(() -> {
+        double readMzValues[] = new double[count];
+        for (int r = 0; r < numOfRounds; r++) {
+          for (int k = 0; k < numOfArrays; k++) {
+            final int j = (k + offset) % numOfArrays;
+            store.loadData(storageIds[j], readMzValues);
+            for (int i = 0; i < count; i++)
+              Assert.assertEquals(j + (double) i / count, readMzValues[i], 0.0);
+          }
+        }
+      }));
+    }
+    try {
+      for (Future<?> result : results)
+        result.get();
+    } finally {
+      executor.shutdown();
+      store.dispose();
+    }
+
+  }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.datapointstore;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.msdk.MSDKRuntimeException;
+import io.github.msdk.datamodel.datastore.DataPointStore;
+import io.github.msdk.datamodel.datastore.DataPointStoreFactory;
+import io.github.msdk.datamodel.datastore.OffHeapDataStore;
+
+/**
+ * Tests for OffHeapDataStore
+ */
+public class OffHeapDataStoreTest {
+
+  @Test
+  public void testStoreReadDataPoints() {
+
+    DataPointStore store = DataPointStoreFactory.getOffHeapDataStore();
+
+    int count = 1000;
+    final double mzValues[] = new double[count];
+    final float intensityValues[] = new float[count];
+    for (int i = 0; i < count; i++) {
+      mzValues[i] = (double) count / (double) (count - i);
+      intensityValues[i] = (float) mzValues[i] * 2;
+    }
+
+    final Object mzId = store.storeData(mzValues, count);
+    final Object intensityId = store.storeData(intensityValues, count);
+    final Object intensityId2 = store.storeData(intensityValues, count);
+    final Object mzId2 = store.storeData(mzValues, count);
+
+    // Retrieve into arrays larger than the stored data
+    for (Object id : new Object[] {mzId, mzId2}) {
+      double readMzValues[] = new double[count * 2];
+      store.loadData(id, readMzValues);
+      for (int i = 0; i < count; i++)
+        Assert.assertEquals(mzValues[i], readMzValues[i], 0.000001);
+    }
+    for (Object id : new Object[] {intensityId, intensityId2}) {
+      float readIntensityValues[] = new float[count * 2];
+      store.loadData(id, readIntensityValues);
+      for (int i = 0; i < count; i++)
+        Assert.assertEquals(intensityValues[i], readIntensityValues[i], 0.00001f);
+    }
+
+    store.dispose();
+
+  }
+
+  @SuppressWarnings("unused")
+  @Test(expected = IllegalArgumentException.class)
+  public void testRemoveDataPoints() {
+
+    DataPointStore store = DataPointStoreFactory.getOffHeapDataStore();
+
+    int count = 1000;
+    final double mzValues[] = new double[count];
+    final float intensityValues[] = new float[count];
+    for (int i = 0; i < count; i++) {
+      mzValues[i] = (double) count / (double) (count - i);
+      intensityValues[i] = (float) mzValues[i] * 2;
+    }
+
+    Object storageId = store.storeData(mzValues, count);
+    Object storageId2 = store.storeData(intensityValues, count);
+
+    store.removeData(storageId);
+
+    store.loadData(storageId, mzValues);
+
+  }
+
+  @SuppressWarnings("unused")
+  @Test(expected = IllegalStateException.class)
+  public void testDispose() {
+
+    DataPointStore store = DataPointStoreFactory.getOffHeapDataStore();
+
+    int count = 1000;
+    final double mzValues[] = new double[count];
+    final float intensityValues[] = new float[count];
+    for (int i = 0; i < count; i++) {
+      mzValues[i] = (double) count / (double) (count - i);
+      intensityValues[i] = (float) mzValues[i] * 2;
+    }
+
+    Object storageId = store.storeData(mzValues, count);
+    Object storageId2 = store.storeData(intensityValues, count);
+
+    store.dispose();
+
+    store.loadData(storageId, mzValues);
+
+  }
+
+  @Test
+  public void testMemoryUsage() {
+
+    OffHeapDataStore store = DataPointStoreFactory.getOffHeapDataStore();
+
+    int count = 1000;
+    final double mzValues[] = new double[count];
+    final float intensityValues[] = new float[count];
+
+    Assert.assertEquals(0, store.getAllocatedBytes());
+
+    Object storageId = store.storeData(mzValues, count);
+    Object storageId2 = store.storeData(intensityValues, count);
+
+    Assert.assertTrue(store.getAllocatedBytes() > 0);
+    Assert.assertEquals(8 + count * 8 + count * 4, store.getUsedBytes());
+
+    store.removeData(storageId);
+    store.removeData(storageId2);
+    Assert.assertEquals(0, store.getUsedBytes());
+
+    store.dispose();
+    Assert.assertEquals(0, store.getAllocatedBytes());
+
+  }
+
+  @Test(expected = MSDKRuntimeException.class)
+  public void testMemoryLimit() {
+
+    OffHeapDataStore store = DataPointStoreFactory.getOffHeapDataStore(1000000);
+
+    // The first slab already exceeds the limit
+    store.storeData(new double[10], 10);
+
+  }
+
+}
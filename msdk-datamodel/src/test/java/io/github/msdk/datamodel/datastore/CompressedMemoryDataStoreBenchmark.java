@@ -0,0 +1,86 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.datastore;
+
+import java.util.Random;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the memory footprint and the cost of loadData() of the compressed data store with the
+ * plain memory data store, using synthetic profile spectra. Run as a Java application, the
+ * optional argument specifies the number of spectra.
+ */
+public class CompressedMemoryDataStoreBenchmark {
+
+  public static void main(String[] args) {
+
+    final Logger logger = LoggerFactory.getLogger(CompressedMemoryDataStoreBenchmark.class);
+
+    int numberOfSpectra = 500;
+    if (args.length > 0)
+      numberOfSpectra = Integer.valueOf(args[0]);
+
+    // Synthetic profile spectra, 20000 points between 100 and 1000 m/z with Gaussian peaks
+    final int count = 20000;
+    final double mzValues[] = new double[count];
+    final float intensityValues[] = new float[count];
+    final Random random = new Random(1);
+    for (int i = 0; i < count; i++) {
+      mzValues[i] = 100.0 + i * 0.045 + random.nextDouble() * 0.0001;
+      double peak = Math.exp(-Math.pow((i % 50) - 25, 2) / 8.0);
+      intensityValues[i] = (float) (peak * 1e6 * random.nextDouble() + random.nextInt(100));
+    }
+
+    DataPointStore stores[] =
+        {new MemoryDataStore(), new CompressedMemoryDataStore(DataPointCompression.LOSSLESS),
+            new CompressedMemoryDataStore(DataPointCompression.NEAR_LOSSLESS),
+            new CompressedMemoryDataStore(DataPointCompression.NEAR_LOSSLESS_DEFLATE)};
+    String names[] = {"MemoryDataStore", "LOSSLESS", "NEAR_LOSSLESS", "NEAR_LOSSLESS_DEFLATE"};
+
+    final double readMzValues[] = new double[count];
+    final float readIntensityValues[] = new float[count];
+
+    for (int s = 0; s < stores.length; s++) {
+      final DataPointStore store = stores[s];
+      final Object ids[] = new Object[numberOfSpectra * 2];
+
+      long startTime = System.nanoTime();
+      for (int i = 0; i < numberOfSpectra; i++) {
+        ids[2 * i] = store.storeData(mzValues, count);
+        ids[2 * i + 1] = store.storeData(intensityValues, count);
+      }
+      long storeTime = System.nanoTime() - startTime;
+
+      startTime = System.nanoTime();
+      for (int i = 0; i < numberOfSpectra; i++) {
+        store.loadData(ids[2 * i], readMzValues);
+        store.loadData(ids[2 * i + 1], readIntensityValues);
+      }
+      long loadTime = System.nanoTime() - startTime;
+
+      double ratio = (store instanceof CompressedMemoryDataStore)
+          ? ((CompressedMemoryDataStore) store).getCompressionRatio() : 1.0;
+
+      logger.info(names[s] + ": compression ratio " + String.format("%.2f", ratio)
+          + ", storeData " + storeTime / numberOfSpectra / 1000 + " us per spectrum, loadData "
+          + loadTime / numberOfSpectra / 1000 + " us per spectrum");
+
+      store.dispose();
+    }
+
+  }
+
+}
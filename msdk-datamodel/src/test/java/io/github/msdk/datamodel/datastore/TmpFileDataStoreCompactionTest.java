@@ -0,0 +1,83 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.datastore;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the compacting mode of TmpFileDataStore
+ */
+public class TmpFileDataStoreCompactionTest {
+
+  @Test
+  public void testCompaction() throws Exception {
+
+    TmpFileDataStore store = new TmpFileDataStore(0.5);
+
+    final int numOfArrays = 200;
+    final int count = 1000;
+    final Object storageIds[] = new Object[numOfArrays];
+    final double mzValues[] = new double[count];
+
+    for (int j = 0; j < numOfArrays; j++) {
+      for (int i = 0; i < count; i++)
+        mzValues[i] = j * count + i;
+      storageIds[j] = store.storeData(mzValues, count);
+    }
+    final long initialFileSize = store.getFileSize();
+    Assert.assertEquals(numOfArrays * count * 8L, initialFileSize);
+
+    // Remove most of the data to trigger the compaction, while loading and storing other data
+    final double readMzValues[] = new double[count];
+    for (int round = 0; round < 5; round++) {
+      for (int j = round; j < numOfArrays; j += 5) {
+        if (j % 10 != 0) {
+          store.removeData(storageIds[j]);
+          storageIds[j] = null;
+        }
+        for (int k = 0; k < numOfArrays; k += 10) {
+          store.loadData(storageIds[k], readMzValues);
+          Assert.assertEquals(k * count + count - 1, readMzValues[count - 1], 0.000001);
+        }
+      }
+      for (int i = 0; i < count; i++)
+        mzValues[i] = -i;
+      storageIds[round * 10 + 1] = store.storeData(mzValues, count);
+    }
+
+    store.awaitCompaction();
+
+    // Only appending ever grows the file, so a smaller file proves that the compaction replaced it
+    final long compactedFileSize = store.getFileSize();
+    Assert.assertTrue(compactedFileSize < initialFileSize);
+    Assert.assertTrue(compactedFileSize >= 25 * count * 8L);
+
+    for (int j = 0; j < numOfArrays; j++) {
+      if (storageIds[j] == null)
+        continue;
+      store.loadData(storageIds[j], readMzValues);
+      for (int i = 0; i < count; i++) {
+        if (j % 10 == 0)
+          Assert.assertEquals(j * count + i, readMzValues[i], 0.0);
+        else
+          Assert.assertEquals(-i, readMzValues[i], 0.0);
+      }
+    }
+
+    store.dispose();
+
+  }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.featuretables;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Range;
+
+import io.github.msdk.datamodel.impl.SimpleFeature;
+import io.github.msdk.datamodel.impl.SimpleFeatureTable;
+import io.github.msdk.datamodel.impl.SimpleFeatureTableRow;
+import io.github.msdk.datamodel.impl.SimpleSample;
+import io.github.msdk.util.FeatureTableUtil;
+
+/**
+ * Tests for FeatureTableIndex
+ */
+public class FeatureTableIndexTest {
+
+  private static SimpleFeatureTableRow addRow(SimpleFeatureTable table, Sample sample, double mz,
+      float rt) {
+    SimpleFeatureTableRow row = new SimpleFeatureTableRow(table);
+    table.addRow(row);
+    SimpleFeature feature = new SimpleFeature();
+    feature.setMz(mz);
+    feature.setRetentionTime(rt);
+    row.setFeature(sample, feature);
+    return row;
+  }
+
+  @Test
+  public void testRangeQueries() {
+    SimpleFeatureTable table = new SimpleFeatureTable();
+    Sample sample = new SimpleSample("sample");
+    table.setSamples(Collections.singletonList(sample));
+
+    FeatureTableRow row1 = addRow(table, sample, 100.0, 10f);
+    FeatureTableRow row2 = addRow(table, sample, 200.0, 20f);
+    FeatureTableRow row3 = addRow(table, sample, 100.005, 30f);
+    FeatureTableRow row4 = addRow(table, sample, 99.995, 10.5f);
+
+    // An empty row has no m/z and RT
+    SimpleFeatureTableRow emptyRow = new SimpleFeatureTableRow(table);
+    table.addRow(emptyRow);
+
+    FeatureTableIndex index = table.getFeatureTableIndex();
+    Assert.assertEquals(5, index.getNumberOfRows());
+
+    Assert.assertEquals(Collections.singletonList(row1), FeatureTableUtil
+        .getRowsInsideRange(table, Range.closed(9f, 11f), Range.closed(99.999, 100.001)));
+    Assert.assertEquals(Arrays.asList(row1, row3, row4),
+        FeatureTableUtil.getRowsInsideRange(table, Range.all(), Range.closed(99.99, 100.01)));
+    Assert.assertEquals(Arrays.asList(row1, row4), FeatureTableUtil
+        .getRowsInsideRange(table, Range.closed(9f, 11f), Range.closed(99.99, 100.01)));
+    Assert.assertEquals(Collections.singletonList(row2),
+        FeatureTableUtil.getRowsInsideRange(table, Range.all(), Range.atLeast(150.0)));
+    Assert.assertEquals(Collections.singletonList(row4),
+        FeatureTableUtil.getRowsInsideRange(table, Range.all(), Range.lessThan(100.0)));
+    Assert.assertTrue(FeatureTableUtil
+        .getRowsInsideRange(table, Range.all(), Range.open(100.0, 100.005)).isEmpty());
+
+    // Removing rows
+    table.removeRow(row1);
+    Assert.assertEquals(4, index.getNumberOfRows());
+    Assert.assertEquals(Collections.singletonList(row4), FeatureTableUtil
+        .getRowsInsideRange(table, Range.closed(9f, 11f), Range.closed(99.99, 100.01)));
+
+    // Setting a feature moves the row in the index
+    SimpleFeature feature = new SimpleFeature();
+    feature.setMz(300.0);
+    feature.setRetentionTime(50f);
+    emptyRow.setFeature(sample, feature);
+    Assert.assertEquals(Collections.singletonList(emptyRow),
+        FeatureTableUtil.getRowsInsideRange(table, Range.all(), Range.closed(299.0, 301.0)));
+  }
+
+  @Test
+  public void testAgainstLinearScan() {
+    SimpleFeatureTable table = new SimpleFeatureTable();
+    Sample sample = new SimpleSample("sample");
+    table.setSamples(Collections.singletonList(sample));
+
+    Random random = new Random(1);
+    List<FeatureTableRow> rows = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      // Round the values to produce rows with the same m/z
+      double mz = 100.0 + Math.round(random.nextDouble() * 1000.0) / 10.0;
+      float rt = random.nextFloat() * 60f;
+      rows.add(addRow(table, sample, mz, rt));
+    }
+
+    for (int i = 0; i < 200; i++) {
+      double mz = 100.0 + random.nextDouble() * 100.0;
+      float rt = random.nextFloat() * 60f;
+      Range<Double> mzRange = Range.closed(mz - 0.5, mz + 0.5);
+      Range<Float> rtRange = Range.closed(rt - 2f, rt + 2f);
+
+      List<FeatureTableRow> expected = new ArrayList<>();
+      for (FeatureTableRow row : rows) {
+        if (mzRange.contains(row.getMz()) && rtRange.contains(row.getRT()))
+          expected.add(row);
+      }
+      Assert.assertEquals(expected,
+          table.getFeatureTableIndex().getRowsInsideRange(rtRange, mzRange));
+    }
+  }
+
+}
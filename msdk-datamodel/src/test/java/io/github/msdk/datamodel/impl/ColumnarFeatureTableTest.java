@@ -0,0 +1,135 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.impl;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Range;
+
+import io.github.msdk.datamodel.features.Feature;
+import io.github.msdk.datamodel.featuretables.FeatureTableRow;
+import io.github.msdk.datamodel.featuretables.Sample;
+import io.github.msdk.util.FeatureTableUtil;
+
+/**
+ * Tests for ColumnarFeatureTable
+ */
+public class ColumnarFeatureTableTest {
+
+  private static SimpleFeature createFeature(double mz, float rt, Float area) {
+    SimpleFeature feature = new SimpleFeature();
+    feature.setMz(mz);
+    feature.setRetentionTime(rt);
+    feature.setArea(area);
+    return feature;
+  }
+
+  @Test
+  public void testRowsAndFeatures() {
+    Sample sample1 = new SimpleSample("sample1");
+    Sample sample2 = new SimpleSample("sample2");
+    ColumnarFeatureTable table = new ColumnarFeatureTable(Arrays.asList(sample1, sample2));
+
+    FeatureTableRow row1 = table.addRow();
+    FeatureTableRow row2 = table.addRow();
+    table.setFeature(0, sample1, createFeature(100.0, 10f, 1000f));
+    table.setFeature(0, sample2, createFeature(100.2, 12f, null));
+    SimpleFeature feature = createFeature(200.0, 20f, 2000f);
+    feature.setSNRatio(Float.NaN);
+    feature.setScore(0.5f);
+    table.setFeature(1, 1, feature);
+    table.setCharge(1, 2);
+
+    List<FeatureTableRow> rows = table.getRows();
+    Assert.assertEquals(2, rows.size());
+    Assert.assertEquals(row1, rows.get(0));
+    Assert.assertEquals(row2, rows.get(1));
+    Assert.assertSame(table, row1.getFeatureTable());
+
+    // Row values are averaged over the features of the row
+    Assert.assertEquals(100.1, row1.getMz(), 0.000001);
+    Assert.assertEquals(11f, row1.getRT(), 0.000001f);
+    Assert.assertNull(row1.getCharge());
+    Assert.assertEquals(200.0, row2.getMz(), 0.000001);
+    Assert.assertEquals(new Integer(2), row2.getCharge());
+
+    Feature feature1 = row1.getFeature(sample1);
+    Assert.assertEquals(new Double(100.0), feature1.getMz());
+    Assert.assertEquals(new Float(10f), feature1.getRetentionTime());
+    Assert.assertEquals(new Float(1000f), feature1.getArea());
+    Assert.assertNull(feature1.getHeight());
+    Assert.assertNull(feature1.getSNRatio());
+    Assert.assertNull(feature1.getChromatogram());
+    Assert.assertNull(row1.getFeature(1).getArea());
+    Assert.assertNull(row2.getFeature(sample1));
+    Assert.assertTrue(Float.isNaN(row2.getFeature(sample2).getSNRatio()));
+    Assert.assertEquals(new Float(0.5f), row2.getFeature(1).getScore());
+
+    // Column access
+    FloatBuffer areas = table.getAreaColumn(0);
+    Assert.assertEquals(2, areas.remaining());
+    Assert.assertEquals(1000f, areas.get(0), 0f);
+    Assert.assertEquals(100.2, table.getMzColumn(1).get(0), 0.0);
+    table.setFeature(1, 0, createFeature(200.1, 20f, 2000f));
+    Assert.assertEquals(2000f, areas.get(1), 0f);
+    table.removeFeature(1, 0);
+    BitSet presence = table.getPresence(0);
+    Assert.assertTrue(presence.get(0));
+    Assert.assertFalse(presence.get(1));
+    Assert.assertTrue(table.hasFeature(1, 1));
+
+    // Removing a feature
+    table.removeFeature(0, 1);
+    Assert.assertNull(row1.getFeature(sample2));
+    Assert.assertEquals(100.0, row1.getMz(), 0.000001);
+
+    // Replacing a feature updates the row averages
+    table.setFeature(0, sample2, createFeature(100.4, 14f, null));
+    table.setFeature(0, sample1, createFeature(100.2, 12f, null));
+    Assert.assertEquals(100.3, row1.getMz(), 0.000001);
+    Assert.assertEquals(13f, row1.getRT(), 0.000001f);
+    table.removeFeature(0, 0);
+    table.removeFeature(0, 1);
+    table.removeFeature(0, 1);
+    Assert.assertNull(row1.getMz());
+    Assert.assertNull(row1.getRT());
+  }
+
+  @Test
+  public void testIndex() {
+    Sample sample = new SimpleSample("sample");
+    ColumnarFeatureTable table = new ColumnarFeatureTable(Collections.singletonList(sample));
+
+    for (int i = 0; i < 5000; i++) {
+      table.addRow();
+      table.setFeature(i, 0, createFeature(100.0 + i * 0.1, i * 0.01f, null));
+    }
+    Assert.assertEquals(5000, table.getNumberOfRows());
+    Assert.assertEquals(5000, table.getAreaColumn(0).remaining());
+
+    List<FeatureTableRow> rows = FeatureTableUtil.getRowsInsideRange(table,
+        Range.closed(10f, 20f), Range.closed(199.95, 200.25));
+    Assert.assertEquals(3, rows.size());
+    Assert.assertEquals(table.getRows().get(1000), rows.get(0));
+    Assert.assertEquals(200.1, rows.get(1).getMz(), 0.000001);
+  }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Range;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.files.FileType;
+import io.github.msdk.datamodel.msspectra.MsSpectrumType;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.PolarityType;
+
+/**
+ * Tests for ColumnarRawDataFile
+ */
+public class ColumnarRawDataFileTest {
+
+  @Test
+  public void testScans() throws MSDKException {
+
+    ColumnarRawDataFile rawDataFile =
+        new ColumnarRawDataFile("test", Optional.empty(), FileType.MZML);
+
+    SimpleMsScan scan1 = new SimpleMsScan(1, "FullMS");
+    scan1.setRetentionTime(1.5f);
+    scan1.setPolarity(PolarityType.POSITIVE);
+    scan1.setScanningRange(Range.closed(50.0, 500.0));
+    scan1.setDataPoints(new double[] {100.0, 200.0, 300.0}, new float[] {1f, 2f, 3f}, 3);
+
+    SimpleMsScan scan2 = new SimpleMsScan(2, "MS2");
+    scan2.setMsLevel(2);
+    scan2.setSpectrumType(MsSpectrumType.PROFILE);
+    scan2.getIsolations().add(new SimpleIsolationInfo(Range.closed(199.5, 200.5)));
+    scan2.setDataPoints(new double[] {150.0}, new float[] {5f}, 1);
+
+    rawDataFile.addScan(scan1);
+    MsScan addedScan = rawDataFile.addScan(scan2);
+    List<MsScan> scans = rawDataFile.getScans();
+
+    Assert.assertEquals(2, scans.size());
+    Assert.assertEquals(4, rawDataFile.getTotalNumberOfDataPoints());
+    Assert.assertEquals(addedScan, scans.get(1));
+    Assert.assertEquals(2, rawDataFile.getMsFunctions().size());
+
+    // Verify the metadata
+    MsScan view1 = scans.get(0);
+    Assert.assertSame(rawDataFile, view1.getRawDataFile());
+    Assert.assertEquals(new Integer(1), view1.getScanNumber());
+    Assert.assertEquals("FullMS", view1.getMsFunction());
+    Assert.assertEquals(new Integer(1), view1.getMsLevel());
+    Assert.assertEquals(1.5f, view1.getRetentionTime(), 0.0001f);
+    Assert.assertEquals(PolarityType.POSITIVE, view1.getPolarity());
+    Assert.assertEquals(Range.closed(50.0, 500.0), view1.getScanningRange());
+    Assert.assertEquals(MsSpectrumType.CENTROIDED, view1.getSpectrumType());
+    Assert.assertTrue(view1.getIsolations().isEmpty());
+
+    MsScan view2 = scans.get(1);
+    Assert.assertEquals(new Integer(2), view2.getMsLevel());
+    Assert.assertNull(view2.getRetentionTime());
+    Assert.assertNull(view2.getScanningRange());
+    Assert.assertEquals(MsSpectrumType.PROFILE, view2.getSpectrumType());
+    Assert.assertEquals(1, view2.getIsolations().size());
+
+    // Verify the data points
+    Assert.assertEquals(new Integer(3), view1.getNumberOfDataPoints());
+    Assert.assertEquals(Range.closed(100.0, 300.0), view1.getMzRange());
+    Assert.assertEquals(6f, view1.getTIC(), 0.0001f);
+    final double mzBuffer[] = new double[10];
+    Assert.assertSame(mzBuffer, view1.getMzValues(mzBuffer));
+    Assert.assertEquals(300.0, mzBuffer[2], 0.0001);
+    Assert.assertEquals(150.0, view2.getMzValues()[0], 0.0001);
+    Assert.assertEquals(5f, view2.getIntensityValues()[0], 0.0001f);
+
+    // Changes of the original scan are not reflected in the file
+    scan1.setDataPoints(new double[] {400.0}, new float[] {4f}, 1);
+    Assert.assertEquals(new Integer(3), view1.getNumberOfDataPoints());
+  }
+
+  @Test
+  public void testGrowth() throws MSDKException {
+
+    ColumnarRawDataFile rawDataFile =
+        new ColumnarRawDataFile("test", Optional.empty(), FileType.MZML);
+
+    final int numOfScans = 5000, numOfDataPoints = 100;
+    final double mzValues[] = new double[numOfDataPoints];
+    final float intensityValues[] = new float[numOfDataPoints];
+    for (int i = 0; i < numOfScans; i++) {
+      for (int j = 0; j < numOfDataPoints; j++) {
+        mzValues[j] = i + j;
+        intensityValues[j] = i;
+      }
+      SimpleMsScan scan = new SimpleMsScan(i);
+      scan.setRetentionTime((float) i);
+      scan.setDataPoints(mzValues, intensityValues, numOfDataPoints);
+      rawDataFile.addScan(scan);
+    }
+
+    // Scans added after getScans() are not visible in the returned list
+    List<MsScan> scans = rawDataFile.getScans();
+    rawDataFile.addScan(new SimpleMsScan(numOfScans));
+    Assert.assertEquals(numOfScans, scans.size());
+    Assert.assertEquals(numOfScans + 1, rawDataFile.getNumberOfScans());
+
+    for (int i = 0; i < numOfScans; i++) {
+      MsScan scan = scans.get(i);
+      Assert.assertEquals(new Integer(i), scan.getScanNumber());
+      Assert.assertEquals((float) i, scan.getRetentionTime(), 0.0001f);
+      Assert.assertEquals(Range.closed((double) i, (double) i + numOfDataPoints - 1),
+          scan.getMzRange());
+      Assert.assertEquals((float) i, scan.getIntensityValues()[numOfDataPoints - 1], 0.0001f);
+    }
+  }
+
+  @Test
+  public void testConcurrentReads() throws Exception {
+
+    final ColumnarRawDataFile rawDataFile =
+        new ColumnarRawDataFile("test", Optional.empty(), FileType.MZML);
+
+    // Readers check all visible scans while the columns grow several times
+    final int numOfScans = 5000, numOfDataPoints = 100;
+    final AtomicBoolean finished = new AtomicBoolean(false);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<?>> results = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      results.add(executor.submit(() -> {
+        while (!finished.get()) {
+          for (MsScan scan : rawDataFile.getScans()) {
+            final int i = scan.getScanNumber();
+            Assert.assertEquals((float) i, scan.getRetentionTime(), 0.0f);
+            Assert.assertEquals(i + numOfDataPoints - 1, scan.getMz(numOfDataPoints - 1), 0.0);
+            Assert.assertEquals((float) i, scan.getIntensity(0), 0.0f);
+          }
+        }
+      }));
+    }
+
+    final double mzValues[] = new double[numOfDataPoints];
+    final float intensityValues[] = new float[numOfDataPoints];
+    try {
+      for (int i = 0; i < numOfScans; i++) {
+        for (int j = 0; j < numOfDataPoints; j++) {
+          mzValues[j] = i + j;
+          intensityValues[j] = i;
+        }
+        SimpleMsScan scan = new SimpleMsScan(i);
+        scan.setRetentionTime((float) i);
+        scan.setDataPoints(mzValues, intensityValues, numOfDataPoints);
+        rawDataFile.addScan(scan);
+      }
+    } finally {
+      finished.set(true);
+      executor.shutdown();
+    }
+    for (Future<?> result : results)
+      result.get();
+
+    Assert.assertEquals(numOfScans, rawDataFile.getNumberOfScans());
+  }
+
+}
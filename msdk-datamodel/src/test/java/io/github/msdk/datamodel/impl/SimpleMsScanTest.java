@@ -13,6 +13,9 @@
 
 package io.github.msdk.datamodel.impl;
 
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ReadOnlyBufferException;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -32,6 +35,7 @@ import io.github.msdk.datamodel.rawdata.IsolationInfo;
 import io.github.msdk.datamodel.rawdata.MsScanType;
 import io.github.msdk.datamodel.rawdata.PolarityType;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.util.MsSpectrumUtil;
 
 /**
  * Tests for SimpleMsScan
@@ -203,4 +207,45 @@ public class SimpleMsScanTest {
     scan.setRawDataFile(rdf2);
   }
 
+  @Test
+  public void testIndexedAccess() throws MSDKException {
+    SimpleMsScan scan = new SimpleMsScan(1);
+    scan.setDataPoints(new double[] {100.0, 200.0, 300.0, 400.0, 0.0},
+        new float[] {4f, 1f, 8f, 2f, 0f}, 4);
+
+    Assert.assertEquals(300.0, scan.getMz(2), 0.0001);
+    Assert.assertEquals(2f, scan.getIntensity(3), 0.0001f);
+
+    DoubleBuffer mzBuffer = scan.getMzBuffer();
+    FloatBuffer intensityBuffer = scan.getIntensityBuffer();
+    Assert.assertEquals(4, mzBuffer.limit());
+    Assert.assertEquals(4, intensityBuffer.limit());
+    Assert.assertEquals(400.0, mzBuffer.get(3), 0.0001);
+    Assert.assertTrue(mzBuffer.isReadOnly());
+
+    // MsSpectrumUtil overloads
+    Assert.assertEquals(new Integer(2), MsSpectrumUtil.getBasePeakIndex(scan));
+    Assert.assertEquals(8f, MsSpectrumUtil.getMaxIntensity(scan), 0.0001f);
+    Assert.assertEquals(new Integer(3),
+        MsSpectrumUtil.getBasePeakIndex(scan, Range.closed(350.0, 500.0)));
+    Assert.assertEquals(4f, MsSpectrumUtil.getMaxIntensity(scan, Range.atMost(250.0)), 0.0001f);
+    Assert.assertEquals(9f, MsSpectrumUtil.getTIC(scan, Range.closed(200.0, 300.0)), 0.0001f);
+    Assert.assertEquals(1f, MsSpectrumUtil.getTIC(scan, Range.open(100.0, 300.0)), 0.0001f);
+    Assert.assertNull(MsSpectrumUtil.getBasePeakIndex(scan, Range.closed(500.0, 600.0)));
+  }
+
+  @Test(expected = ReadOnlyBufferException.class)
+  public void testBufferIsReadOnly() throws MSDKException {
+    SimpleMsScan scan = new SimpleMsScan(1);
+    scan.setDataPoints(new double[] {100.0}, new float[] {1f}, 1);
+    scan.getIntensityBuffer().put(0, 5f);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testIndexOutOfBounds() throws MSDKException {
+    SimpleMsScan scan = new SimpleMsScan(1);
+    scan.setDataPoints(new double[] {100.0, 200.0}, new float[] {1f, 2f}, 1);
+    scan.getMz(1);
+  }
+
 }
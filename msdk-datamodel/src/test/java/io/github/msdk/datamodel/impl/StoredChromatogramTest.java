@@ -0,0 +1,70 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Range;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.datastore.DataPointStore;
+import io.github.msdk.datamodel.datastore.DataPointStoreFactory;
+
+/**
+ * Tests for StoredChromatogram
+ */
+public class StoredChromatogramTest {
+
+  @Test
+  public void testDataPoints() throws MSDKException {
+
+    DataPointStore store = DataPointStoreFactory.getTmpFileDataStore();
+    StoredChromatogram chromatogram = new StoredChromatogram(store);
+
+    // Set data points
+    final float rtValues[] = {1.0f, 2.0f, 3.0f};
+    final double mzValues[] = {100.1, 100.2, 100.3};
+    final float intensityValues[] = {10.0f, 20.0f, 30.0f};
+    chromatogram.setDataPoints(rtValues, mzValues, intensityValues, 3);
+
+    // Verify data points
+    Assert.assertEquals(new Integer(3), chromatogram.getNumberOfDataPoints());
+    Assert.assertEquals(Range.closed(1.0f, 3.0f), chromatogram.getRtRange());
+    Assert.assertEquals(100.2, chromatogram.getMzValues()[1], 0.0001);
+    Assert.assertEquals(30.0f, chromatogram.getIntensityValues()[2], 0.0001f);
+
+    // Verify the data are loaded into the provided array
+    final float rtBuffer[] = new float[10];
+    Assert.assertSame(rtBuffer, chromatogram.getRetentionTimes(rtBuffer));
+    Assert.assertEquals(2.0f, rtBuffer[1], 0.0001f);
+
+    // Append a data point
+    chromatogram.addDataPoint(4.0f, 100.4, 40.0f);
+    Assert.assertEquals(new Integer(4), chromatogram.getNumberOfDataPoints());
+    Assert.assertEquals(Range.closed(1.0f, 4.0f), chromatogram.getRtRange());
+    Assert.assertEquals(100.4, chromatogram.getMzValues()[3], 0.0001);
+    Assert.assertEquals(40.0f, chromatogram.getIntensityValues()[3], 0.0001f);
+
+    // Verify the indexed accessors
+    Assert.assertEquals(3.0f, chromatogram.getRetentionTime(2), 0.0001f);
+    Assert.assertEquals(100.4, chromatogram.getMz(3), 0.0001);
+    Assert.assertEquals(20.0f, chromatogram.getIntensity(1), 0.0001f);
+    Assert.assertEquals(4, chromatogram.getRetentionTimeBuffer().limit());
+    Assert.assertEquals(40.0f, chromatogram.getIntensityBuffer().get(3), 0.0001f);
+
+    store.dispose();
+  }
+
+}
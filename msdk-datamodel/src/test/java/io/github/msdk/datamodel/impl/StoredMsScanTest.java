@@ -0,0 +1,99 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Range;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.datastore.CachingDataPointStore;
+import io.github.msdk.datamodel.datastore.DataPointStore;
+import io.github.msdk.datamodel.datastore.DataPointStoreFactory;
+import io.github.msdk.util.MsSpectrumUtil;
+
+/**
+ * Tests for StoredMsScan
+ */
+public class StoredMsScanTest {
+
+  @Test
+  public void testDataPoints() throws MSDKException {
+
+    DataPointStore store = DataPointStoreFactory.getTmpFileDataStore();
+    StoredMsScan msScan = new StoredMsScan(store, 1);
+
+    // Verify empty scan
+    Assert.assertEquals(new Integer(0), msScan.getNumberOfDataPoints());
+    Assert.assertEquals(0, msScan.getMzValues().length);
+
+    // Set data points
+    final double mzValues[] = {100.0, 200.0, 300.0, 400.0};
+    final float intensityValues[] = {1.0f, 2.0f, 3.0f, 4.0f};
+    msScan.setDataPoints(mzValues, intensityValues, 3);
+
+    // Verify data points
+    Assert.assertEquals(new Integer(3), msScan.getNumberOfDataPoints());
+    Assert.assertEquals(Range.closed(100.0, 300.0), msScan.getMzRange());
+    Assert.assertEquals(6.0f, msScan.getTIC(), 0.0001f);
+
+    // Verify the data are loaded into the provided array
+    final double mzBuffer[] = new double[10];
+    Assert.assertSame(mzBuffer, msScan.getMzValues(mzBuffer));
+    Assert.assertEquals(300.0, mzBuffer[2], 0.0001);
+    final float intensityBuffer[] = msScan.getIntensityValues(new float[1]);
+    Assert.assertEquals(3, intensityBuffer.length);
+    Assert.assertEquals(2.0f, intensityBuffer[1], 0.0001f);
+
+    // Replace data points
+    msScan.setDataPoints(new double[] {50.0}, new float[] {5.0f}, 1);
+    Assert.assertEquals(new Integer(1), msScan.getNumberOfDataPoints());
+    Assert.assertEquals(50.0, msScan.getMzValues()[0], 0.0001);
+    Assert.assertEquals(5.0f, msScan.getTIC(), 0.0001f);
+
+    store.dispose();
+  }
+
+  @Test
+  public void testSpectrumUtilLoads() throws MSDKException {
+
+    // Count the loads from the store, hits and misses together
+    CachingDataPointStore store =
+        DataPointStoreFactory.getCachingDataStore(DataPointStoreFactory.getMemoryDataStore(), 1);
+    StoredMsScan msScan = new StoredMsScan(store, 1);
+
+    final int size = 1000;
+    final double mzValues[] = new double[size];
+    final float intensityValues[] = new float[size];
+    for (int i = 0; i < size; i++) {
+      mzValues[i] = 100.0 + i;
+      intensityValues[i] = i % 100;
+    }
+    msScan.setDataPoints(mzValues, intensityValues, size);
+
+    // Each array is loaded only once per call, regardless of the number of data points
+    Assert.assertEquals(4950f, MsSpectrumUtil.getTIC(msScan, Range.closedOpen(100.0, 200.0)),
+        0.0001f);
+    Assert.assertEquals(2, store.getHitCount() + store.getMissCount());
+    Assert.assertEquals(new Integer(299), MsSpectrumUtil.getBasePeakIndex(msScan,
+        Range.closed(300.0, 450.0)));
+    Assert.assertEquals(4, store.getHitCount() + store.getMissCount());
+    Assert.assertEquals(99f, MsSpectrumUtil.getMaxIntensity(msScan), 0.0001f);
+    Assert.assertEquals(5, store.getHitCount() + store.getMissCount());
+
+    store.dispose();
+  }
+
+}
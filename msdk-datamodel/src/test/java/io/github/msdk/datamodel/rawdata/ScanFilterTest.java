@@ -0,0 +1,125 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.rawdata;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Range;
+
+import io.github.msdk.datamodel.impl.SimpleIsolationInfo;
+import io.github.msdk.datamodel.impl.SimpleMsScan;
+
+/**
+ * Tests for ScanFilter
+ */
+public class ScanFilterTest {
+
+  private static List<MsScan> createScans() {
+    final List<MsScan> scans = new ArrayList<>();
+
+    // MS1 scans every second, each followed by an MS2 scan of a different precursor
+    for (int i = 0; i < 100; i++) {
+      SimpleMsScan ms1Scan = new SimpleMsScan(2 * i + 1, "MS1");
+      ms1Scan.setRetentionTime((float) i);
+      ms1Scan.setPolarity(PolarityType.POSITIVE);
+      scans.add(ms1Scan);
+
+      SimpleMsScan ms2Scan = new SimpleMsScan(2 * i + 2, "MS2");
+      ms2Scan.setMsLevel(2);
+      ms2Scan.setRetentionTime(i + 0.5f);
+      ms2Scan.setPolarity(i < 50 ? PolarityType.POSITIVE : PolarityType.NEGATIVE);
+      final double precursorMz = 100.0 + i * 10.0;
+      if (i % 2 == 0) {
+        ms2Scan.getIsolations().add(new SimpleIsolationInfo(
+            Range.closed(precursorMz - 1.0, precursorMz + 1.0), null, precursorMz, null, null));
+      } else {
+        // Isolation window without precursor m/z
+        ms2Scan.getIsolations()
+            .add(new SimpleIsolationInfo(Range.closed(precursorMz - 1.0, precursorMz + 1.0)));
+      }
+      scans.add(ms2Scan);
+    }
+
+    return scans;
+  }
+
+  private static List<MsScan> filter(List<MsScan> scans, ScanFilter filter) {
+    final List<MsScan> result = new ArrayList<>();
+    for (MsScan scan : scans) {
+      if (filter.test(scan))
+        result.add(scan);
+    }
+    return result;
+  }
+
+  @Test
+  public void testAcceptAll() {
+    final List<MsScan> scans = createScans();
+    final ScanFilter filter = new ScanFilter(null, null, null, null, null);
+    Assert.assertEquals(200, filter(scans, filter).size());
+    Assert.assertTrue(filter.acceptsRetentionTime(null));
+    Assert.assertTrue(filter.acceptsPolarity(PolarityType.UNKNOWN));
+  }
+
+  @Test
+  public void testMs1InRtRange() {
+    final ScanFilter filter =
+        new ScanFilter(Range.singleton(1), Range.closed(10f, 19.9f), null, null, null);
+    final List<MsScan> result = filter(createScans(), filter);
+    Assert.assertEquals(10, result.size());
+    for (MsScan scan : result) {
+      Assert.assertEquals(Integer.valueOf(1), scan.getMsLevel());
+      Assert.assertTrue(scan.getRetentionTime() >= 10f);
+      Assert.assertTrue(scan.getRetentionTime() <= 19.9f);
+    }
+
+    // Unknown values do not match
+    Assert.assertFalse(filter.acceptsRetentionTime(null));
+    Assert.assertFalse(filter.acceptsMsLevel(null));
+  }
+
+  @Test
+  public void testPrecursorMzRange() {
+    final ScanFilter filter =
+        new ScanFilter(Range.singleton(2), null, null, null, Range.closed(195.0, 305.0));
+    final List<MsScan> result = filter(createScans(), filter);
+
+    // Precursors 200 to 300, half of them given only by the isolation window
+    Assert.assertEquals(11, result.size());
+    Assert.assertEquals(Integer.valueOf(22), result.get(0).getScanNumber());
+    Assert.assertEquals(Integer.valueOf(42), result.get(10).getScanNumber());
+
+    // MS1 scans have no precursor
+    final ScanFilter precursorFilter =
+        new ScanFilter(null, null, null, null, Range.closed(195.0, 305.0));
+    Assert.assertEquals(11, filter(createScans(), precursorFilter).size());
+  }
+
+  @Test
+  public void testPolarityAndScanNumber() {
+    final ScanFilter filter =
+        new ScanFilter(null, null, PolarityType.NEGATIVE, Range.closed(150, 160), null);
+    final List<MsScan> result = filter(createScans(), filter);
+    Assert.assertEquals(6, result.size());
+    for (MsScan scan : result)
+      Assert.assertEquals(PolarityType.NEGATIVE, scan.getPolarity());
+    Assert.assertFalse(filter.acceptsScanNumber(null));
+    Assert.assertFalse(filter.acceptsPolarity(PolarityType.UNKNOWN));
+  }
+
+}
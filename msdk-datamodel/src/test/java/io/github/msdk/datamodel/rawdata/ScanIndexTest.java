@@ -0,0 +1,121 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.rawdata;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Range;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.files.FileType;
+import io.github.msdk.datamodel.impl.SimpleIsolationInfo;
+import io.github.msdk.datamodel.impl.SimpleMsScan;
+import io.github.msdk.datamodel.impl.SimpleRawDataFile;
+import io.github.msdk.util.RawDataFileUtil;
+
+/**
+ * Tests for ScanIndex
+ */
+public class ScanIndexTest {
+
+  private static SimpleRawDataFile createRawDataFile() {
+    SimpleRawDataFile rawDataFile =
+        new SimpleRawDataFile("test", Optional.empty(), FileType.UNKNOWN);
+
+    // MS1 scans every second, each followed by an MS2 scan of a different precursor
+    for (int i = 0; i < 100; i++) {
+      SimpleMsScan ms1Scan = new SimpleMsScan(2 * i + 1, "MS1");
+      ms1Scan.setRetentionTime((float) i);
+      ms1Scan.setPolarity(PolarityType.POSITIVE);
+      rawDataFile.addScan(ms1Scan);
+
+      SimpleMsScan ms2Scan = new SimpleMsScan(2 * i + 2, "MS2");
+      ms2Scan.setMsLevel(2);
+      ms2Scan.setRetentionTime(i + 0.5f);
+      ms2Scan.setPolarity(PolarityType.NEGATIVE);
+      final double precursorMz = 100.0 + i * 10.0;
+      ms2Scan.getIsolations()
+          .add(new SimpleIsolationInfo(Range.closed(precursorMz - 1.0, precursorMz + 1.0)));
+      rawDataFile.addScan(ms2Scan);
+    }
+
+    return rawDataFile;
+  }
+
+  @Test
+  public void testRtLookup() throws MSDKException {
+    ScanIndex index = createRawDataFile().getScanIndex();
+
+    List<MsScan> scans = index.getScans(Range.closed(10f, 12f));
+    Assert.assertEquals(5, scans.size());
+    Assert.assertEquals(new Integer(21), scans.get(0).getScanNumber());
+    Assert.assertEquals(new Integer(25), scans.get(4).getScanNumber());
+
+    Assert.assertEquals(3, index.getScans(1, Range.closed(10f, 12f)).size());
+    Assert.assertEquals(2, index.getScans("MS2", Range.open(10f, 12f)).size());
+    Assert.assertEquals(0, index.getScans(Range.closed(200f, 300f)).size());
+    Assert.assertEquals(200, index.getScans(Range.<Float>all()).size());
+
+    Assert.assertEquals(new Integer(21), index.getNearestScan(10.2f).getScanNumber());
+    Assert.assertEquals(new Integer(22), index.getNearestScan(10.4f).getScanNumber());
+    Assert.assertEquals(new Integer(1), index.getNearestScan(-5f).getScanNumber());
+    Assert.assertEquals(new Integer(200), index.getNearestScan(500f).getScanNumber());
+    Assert.assertEquals(new Integer(23), index.getNearestScan(1, 10.6f).getScanNumber());
+    Assert.assertNull(index.getNearestScan(3, 10f));
+  }
+
+  @Test
+  public void testMsLevelAndPolarity() throws MSDKException {
+    ScanIndex index = createRawDataFile().getScanIndex();
+
+    Assert.assertEquals(100, index.getScans(1).size());
+    Assert.assertEquals(100, index.getScans(2).size());
+    Assert.assertEquals(0, index.getScans(3).size());
+    Assert.assertEquals(100, index.getScans(PolarityType.NEGATIVE).size());
+    Assert.assertEquals(0, index.getScans(PolarityType.UNKNOWN).size());
+    Assert.assertEquals(100, index.getScans("MS1").size());
+  }
+
+  @Test
+  public void testPrecursorLookup() throws MSDKException {
+    ScanIndex index = createRawDataFile().getScanIndex();
+
+    List<MsScan> scans = index.getScansByPrecursorMz(150.5);
+    Assert.assertEquals(1, scans.size());
+    Assert.assertEquals(new Integer(12), scans.get(0).getScanNumber());
+    Assert.assertEquals(0, index.getScansByPrecursorMz(155.0).size());
+    Assert.assertEquals(0, index.getScansByPrecursorMz(50.0).size());
+  }
+
+  @Test
+  public void testInvalidation() throws MSDKException {
+    SimpleRawDataFile rawDataFile = createRawDataFile();
+    ScanIndex index = rawDataFile.getScanIndex();
+    Assert.assertSame(index, rawDataFile.getScanIndex());
+
+    SimpleMsScan newScan = new SimpleMsScan(201);
+    newScan.setRetentionTime(10.2f);
+    rawDataFile.addScan(newScan);
+    Assert.assertNotSame(index, rawDataFile.getScanIndex());
+    Assert.assertEquals(6, RawDataFileUtil.getScans(rawDataFile, Range.closed(10f, 12f)).size());
+
+    rawDataFile.removeScan(newScan);
+    Assert.assertEquals(5, RawDataFileUtil.getScans(rawDataFile, Range.closed(10f, 12f)).size());
+  }
+
+}
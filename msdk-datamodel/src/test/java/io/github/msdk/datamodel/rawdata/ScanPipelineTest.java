@@ -0,0 +1,101 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.rawdata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.files.FileType;
+import io.github.msdk.datamodel.impl.SimpleMsScan;
+import io.github.msdk.datamodel.impl.SimpleRawDataFile;
+
+/**
+ * Tests for ScanPipeline
+ */
+public class ScanPipelineTest {
+
+  private static SimpleRawDataFile createRawDataFile() {
+    SimpleRawDataFile rawDataFile =
+        new SimpleRawDataFile("test", Optional.empty(), FileType.UNKNOWN);
+    for (int i = 0; i < 10; i++) {
+      SimpleMsScan scan = new SimpleMsScan(i + 1);
+      scan.setMsLevel((i % 2) + 1);
+      scan.setDataPoints(new double[] {100.0, 200.0}, new float[] {i, 2 * i}, 2);
+      rawDataFile.addScan(scan);
+    }
+    return rawDataFile;
+  }
+
+  @Test
+  public void testStagesAndSink() throws MSDKException {
+    final List<MsScan> received = new ArrayList<>();
+    final boolean finished[] = {false};
+    ScanSink sink = new ScanSink() {
+      @Override
+      public boolean accept(MsScan scan) {
+        received.add(scan);
+        return true;
+      }
+
+      @Override
+      public void finish() {
+        finished[0] = true;
+      }
+    };
+
+    // Drop the MS2 scans, then keep only the first data point
+    ScanPipeline pipeline = new ScanPipeline(ScanStream.of(createRawDataFile()), sink)
+        .addStage(scan -> scan.getMsLevel() == 1 ? scan : null).addStage(scan -> {
+          SimpleMsScan newScan = new SimpleMsScan(scan.getScanNumber());
+          newScan.setDataPoints(scan.getMzValues(), scan.getIntensityValues(), 1);
+          return newScan;
+        });
+
+    Assert.assertEquals(new Integer(5), pipeline.execute());
+    Assert.assertEquals(new Integer(5), pipeline.getResult());
+    Assert.assertEquals(1.0, pipeline.getFinishedPercentage(), 0.0001);
+    Assert.assertTrue(finished[0]);
+    Assert.assertEquals(5, received.size());
+    for (int i = 0; i < 5; i++) {
+      Assert.assertEquals(new Integer(2 * i + 1), received.get(i).getScanNumber());
+      Assert.assertEquals(new Integer(1), received.get(i).getNumberOfDataPoints());
+    }
+  }
+
+  @Test
+  public void testStopAndCancel() throws MSDKException {
+    final List<MsScan> received = new ArrayList<>();
+
+    // The sink stops the stream after 3 scans
+    ScanPipeline pipeline = new ScanPipeline(ScanStream.of(createRawDataFile()), scan -> {
+      received.add(scan);
+      return received.size() < 3;
+    });
+    Assert.assertEquals(new Integer(3), pipeline.execute());
+    Assert.assertEquals(3, received.size());
+
+    // A canceled pipeline does not deliver any scans
+    received.clear();
+    pipeline = new ScanPipeline(ScanStream.of(createRawDataFile()), scan -> received.add(scan));
+    pipeline.cancel();
+    Assert.assertNull(pipeline.execute());
+    Assert.assertTrue(received.isEmpty());
+  }
+
+}
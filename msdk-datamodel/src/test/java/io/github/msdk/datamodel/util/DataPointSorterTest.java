@@ -13,6 +13,11 @@
 
 package io.github.msdk.datamodel.util;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -73,4 +78,63 @@ public class DataPointSorterTest {
     }
   }
 
+  @Test
+  public void testAgainstStableReference() {
+    Random random = new Random(1);
+    for (int size : new int[] {10, 63, 64, 1000, 20000}) {
+      double mzBuffer[] = new double[size];
+      float intensityBuffer[] = new float[size];
+      float rtBuffer[] = new float[size];
+      for (int i = 0; i < size; i++) {
+        mzBuffer[i] = 100.0 + random.nextDouble() * 1000.0;
+        // Few distinct values, negative values and zeros to check stability and sign handling
+        intensityBuffer[i] = random.nextInt(20) - 5;
+        if (i % 97 == 0)
+          intensityBuffer[i] = -0f;
+        rtBuffer[i] = i;
+      }
+
+      for (SortingDirection dir : SortingDirection.values()) {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+          expected.add(i);
+        final float keys[] = intensityBuffer.clone();
+        if (dir == SortingDirection.ASCENDING)
+          Collections.sort(expected, (i1, i2) -> Float.compare(keys[i1], keys[i2]));
+        else
+          Collections.sort(expected, (i1, i2) -> Float.compare(keys[i2], keys[i1]));
+
+        double sortedMz[] = mzBuffer.clone();
+        float sortedIntensity[] = intensityBuffer.clone();
+        float sortedRt[] = rtBuffer.clone();
+        DataPointSorter.sortDataPoints(sortedRt, sortedMz, sortedIntensity, size,
+            SortingProperty.INTENSITY, dir);
+
+        for (int i = 0; i < size; i++) {
+          final int original = expected.get(i);
+          Assert.assertEquals(original, (int) sortedRt[i]);
+          Assert.assertEquals(mzBuffer[original], sortedMz[i], 0.0);
+          Assert.assertEquals(Float.floatToIntBits(intensityBuffer[original]),
+              Float.floatToIntBits(sortedIntensity[i]));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testRtSort() {
+    float rtBuffer[] = {3f, 1f, 2f, 0f};
+    double mzBuffer[] = {300.0, 100.0, 200.0, 0.0};
+    float intensityBuffer[] = {30f, 10f, 20f, 0f};
+    DataPointSorter.sortDataPoints(rtBuffer, mzBuffer, intensityBuffer, 3);
+    Assert.assertArrayEquals(new float[] {1f, 2f, 3f, 0f}, rtBuffer, 0f);
+    Assert.assertArrayEquals(new double[] {100.0, 200.0, 300.0, 0.0}, mzBuffer, 0.0);
+    Assert.assertArrayEquals(new float[] {10f, 20f, 30f, 0f}, intensityBuffer, 0f);
+
+    Float boxedRtBuffer[] = {2f, 1f};
+    DataPointSorter.sortDataPoints(boxedRtBuffer, mzBuffer, intensityBuffer, 2);
+    Assert.assertArrayEquals(new Float[] {1f, 2f}, boxedRtBuffer);
+    Assert.assertArrayEquals(new double[] {200.0, 100.0, 300.0, 0.0}, mzBuffer, 0.0);
+  }
+
 }
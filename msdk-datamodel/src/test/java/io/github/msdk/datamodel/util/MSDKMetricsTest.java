@@ -0,0 +1,168 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.util;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.MSDKMethod;
+import io.github.msdk.util.metrics.MSDKMethodMetrics;
+import io.github.msdk.util.metrics.MSDKMetrics;
+import io.github.msdk.util.metrics.MSDKMetricsCollector;
+
+/**
+ * Tests for MSDKMetrics and MSDKMetricsCollector
+ */
+public class MSDKMetricsTest {
+
+  @After
+  public void resetListener() {
+    MSDKMetrics.setListener(null);
+    MSDKMetrics.setAllocationTracking(false);
+  }
+
+  @Test
+  public void testDisabled() {
+    MSDKMetrics metrics = MSDKMetrics.start("Test", "scans");
+    Assert.assertFalse(metrics.isEnabled());
+    MSDKMetrics.Phase phase = metrics.phase("phase");
+    phase.start();
+    phase.stop(10);
+    metrics.finish();
+  }
+
+  @Test
+  public void testCollector() throws Exception {
+    MSDKMetricsCollector collector = new MSDKMetricsCollector();
+    MSDKMetrics.setListener(collector);
+    MSDKMetrics.setAllocationTracking(true);
+
+    MSDKMetrics metrics = MSDKMetrics.start("Test, \"quoted\"", "scans");
+    Assert.assertTrue(metrics.isEnabled());
+    MSDKMetrics.Phase sortPhase = metrics.phase("sort");
+    MSDKMetrics.Phase connectPhase = metrics.phase("connect");
+    Assert.assertSame(sortPhase, metrics.phase("sort"));
+    long sum = 0;
+    for (int i = 0; i < 100; i++) {
+      sortPhase.start();
+      double values[] = new double[1000];
+      for (int j = 0; j < values.length; j++)
+        values[j] = Math.sqrt(j + i);
+      sortPhase.stop(values.length);
+      connectPhase.start();
+      for (double value : values)
+        sum += (long) value;
+      connectPhase.stop();
+      metrics.addItems(1);
+    }
+    Assert.assertTrue(sum > 0);
+    metrics.finish();
+    metrics.finish();
+
+    List<MSDKMethodMetrics> reported = collector.getMetrics();
+    Assert.assertEquals(1, reported.size());
+    MSDKMethodMetrics methodMetrics = reported.get(0);
+    Assert.assertEquals("scans", methodMetrics.getItemUnit());
+    Assert.assertEquals(100, methodMetrics.getItems());
+    Assert.assertTrue(methodMetrics.getWallTimeNanos() > 0);
+    Assert.assertTrue(methodMetrics.getItemsPerSecond() > 0);
+    Assert.assertEquals(2, methodMetrics.getPhases().size());
+    Assert.assertEquals("sort", methodMetrics.getPhases().get(0).getName());
+    Assert.assertEquals(100000, methodMetrics.getPhases().get(0).getItems());
+    Assert.assertTrue(methodMetrics.getPhases().get(0).getTimeNanos() <= methodMetrics
+        .getWallTimeNanos());
+
+    // 100 arrays of 1000 doubles were allocated
+    if (methodMetrics.getAllocatedBytes() != null)
+      Assert.assertTrue(methodMetrics.getAllocatedBytes() >= 800000);
+
+    StringWriter json = new StringWriter();
+    collector.writeJson(json);
+    Assert.assertTrue(json.toString().contains("\"method\": \"Test, \\\"quoted\\\"\""));
+    Assert.assertTrue(json.toString().contains("\"name\": \"connect\""));
+
+    StringWriter csv = new StringWriter();
+    collector.writeCsv(csv);
+    String lines[] = csv.toString().split("\n");
+    Assert.assertEquals(4, lines.length);
+    Assert.assertTrue(lines[0].startsWith("method,phase,"));
+    Assert.assertTrue(lines[2].startsWith("\"Test, \"\"quoted\"\"\",sort,"));
+  }
+
+  @Test
+  public void testWorkerThreads() throws Exception {
+    MSDKMetricsCollector collector = new MSDKMetricsCollector();
+    MSDKMetrics.setListener(collector);
+
+    // Several threads add to the same phase
+    final MSDKMetrics metrics = MSDKMetrics.start("Test", "spectra");
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    for (int t = 0; t < 4; t++) {
+      executor.execute(() -> {
+        for (int i = 0; i < 100; i++)
+          metrics.addPhaseTime("decode", 1000, 2);
+      });
+    }
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    metrics.finish();
+
+    MSDKMethodMetrics.PhaseMetrics phase = collector.getMetrics().get(0).getPhases().get(0);
+    Assert.assertEquals("decode", phase.getName());
+    Assert.assertEquals(800, phase.getItems());
+    Assert.assertEquals(400000, phase.getTimeNanos());
+  }
+
+  @Test
+  public void testFailedMethod() {
+    MSDKMetricsCollector collector = new MSDKMetricsCollector();
+    MSDKMetrics.setListener(collector);
+
+    // The metrics are reported even if the method fails
+    try {
+      MSDKMetrics.execute(new MSDKMethod<Integer>() {
+        @Override
+        public Integer execute() throws MSDKException {
+          throw new MSDKException("Failed method");
+        }
+
+        @Override
+        public Float getFinishedPercentage() {
+          return null;
+        }
+
+        @Override
+        public Integer getResult() {
+          return null;
+        }
+
+        @Override
+        public void cancel() {}
+      });
+      Assert.fail("Exception expected");
+    } catch (MSDKException e) {
+      Assert.assertEquals("Failed method", e.getMessage());
+    }
+    Assert.assertEquals(1, collector.getMetrics().size());
+  }
+
+}
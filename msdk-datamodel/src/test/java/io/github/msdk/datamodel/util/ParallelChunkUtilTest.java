@@ -0,0 +1,78 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.util;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.util.ParallelChunkUtil;
+
+/**
+ * Tests for ParallelChunkUtil
+ */
+public class ParallelChunkUtilTest {
+
+  @Test
+  public void testChunks() throws MSDKException {
+    final int numOfItems = 1000, parallelism = 3;
+    final int processed[] = new int[numOfItems];
+    final AtomicInteger workers = new AtomicInteger();
+    final Set<Thread> supplierThreads = Collections.synchronizedSet(new HashSet<>());
+
+    // Each chunk gets its own worker, created on the thread that processes the chunk
+    ParallelChunkUtil.processInChunks(numOfItems, () -> {
+      supplierThreads.add(Thread.currentThread());
+      return workers.incrementAndGet();
+    }, (worker, from, to) -> {
+      for (int i = from; i < to; i++)
+        processed[i] += worker;
+    }, null, parallelism);
+
+    Assert.assertEquals(parallelism * ParallelChunkUtil.CHUNKS_PER_THREAD, workers.get());
+    Assert.assertFalse(supplierThreads.contains(Thread.currentThread()));
+    final Set<Integer> usedWorkers = new HashSet<>();
+    for (int i = 0; i < numOfItems; i++) {
+      Assert.assertTrue(processed[i] > 0);
+      usedWorkers.add(processed[i]);
+    }
+    Assert.assertEquals(workers.get(), usedWorkers.size());
+  }
+
+  @Test
+  public void testFailure() throws MSDKException {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      ParallelChunkUtil.processInChunks(10, () -> "worker", (worker, from, to) -> {
+        if (from == 0)
+          throw new IllegalStateException("Failed chunk");
+      }, executor, 2);
+      Assert.fail("Exception expected");
+    } catch (MSDKException e) {
+      Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    // The given executor is not shut down
+    Assert.assertFalse(executor.isShutdown());
+    executor.shutdown();
+  }
+
+}
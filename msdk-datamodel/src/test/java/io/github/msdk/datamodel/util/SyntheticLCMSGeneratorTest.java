@@ -0,0 +1,141 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.util;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Range;
+
+import io.github.msdk.datamodel.featuretables.FeatureTable;
+import io.github.msdk.datamodel.featuretables.FeatureTableRow;
+import io.github.msdk.datamodel.features.Feature;
+import io.github.msdk.datamodel.msspectra.MsSpectrumType;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.ScanIndex;
+import io.github.msdk.util.RawDataFileUtil;
+import io.github.msdk.util.synthetic.SyntheticLCMSGenerator;
+import io.github.msdk.util.synthetic.SyntheticPeakShape;
+
+/**
+ * Tests for SyntheticLCMSGenerator
+ */
+public class SyntheticLCMSGeneratorTest {
+
+  private static SyntheticLCMSGenerator createProfileGenerator() {
+    SyntheticLCMSGenerator generator = new SyntheticLCMSGenerator(1);
+    generator.setNumberOfScans(200);
+    generator.setDataPointsPerScan(5000);
+    generator.setNumberOfPeaks(50);
+    generator.setPeakShape(SyntheticPeakShape.TAILING);
+    return generator;
+  }
+
+  @Test
+  public void testProfileScans() {
+    SyntheticLCMSGenerator generator = createProfileGenerator();
+
+    RawDataFile rawFile = generator.generateRawDataFile(0);
+    List<MsScan> scans = rawFile.getScans();
+    Assert.assertEquals(200, scans.size());
+    MsScan scan = scans.get(10);
+    Assert.assertEquals(new Integer(11), scan.getScanNumber());
+    Assert.assertEquals(5.0f, scan.getRetentionTime(), 0.0001f);
+    Assert.assertEquals(MsSpectrumType.PROFILE, scan.getSpectrumType());
+    Assert.assertEquals(new Integer(5000), scan.getNumberOfDataPoints());
+    Assert.assertEquals(100.0, scan.getMzValues()[0], 0.0);
+    Assert.assertEquals(1000.0, scan.getMzValues()[4999], 0.000001);
+
+    // Scans are generated again on each access, with the same data
+    RawDataFile sameRawFile = createProfileGenerator().generateRawDataFile(0);
+    Assert.assertNotSame(scan, scans.get(10));
+    Assert.assertArrayEquals(scan.getIntensityValues(),
+        sameRawFile.getScans().get(10).getIntensityValues(), 0f);
+
+    // Other samples differ
+    Assert.assertFalse(scan.getIntensityValues()[0] == generator.generateRawDataFile(1).getScans()
+        .get(10).getIntensityValues()[0]);
+  }
+
+  @Test
+  public void testFeatureTable() {
+    SyntheticLCMSGenerator generator = new SyntheticLCMSGenerator(2);
+    generator.setNumberOfScans(600);
+    generator.setDataPointsPerScan(100);
+    generator.setSpectrumType(MsSpectrumType.CENTROIDED);
+    generator.setNumberOfPeaks(200);
+    generator.setNoiseLevel(0f);
+    generator.setRtDrift(10f);
+
+    FeatureTable featureTable = generator.generateFeatureTable(3);
+    Assert.assertEquals(3, featureTable.getSamples().size());
+    Assert.assertEquals(SyntheticLCMSGenerator.getSampleName(2),
+        featureTable.getSamples().get(2).getName());
+    List<FeatureTableRow> rows = featureTable.getRows();
+    Assert.assertEquals(200, rows.size());
+
+    // Drift between samples is limited by the RT drift
+    for (FeatureTableRow row : rows) {
+      Feature feature0 = row.getFeature(0), feature1 = row.getFeature(1);
+      if ((feature0 == null) || (feature1 == null))
+        continue;
+      Assert.assertEquals(feature0.getMz(), feature1.getMz());
+      Assert.assertEquals(feature0.getRetentionTime(), feature1.getRetentionTime(), 20f);
+    }
+
+    // The scan closest to the apex of a feature contains its data point
+    RawDataFile rawFile = generator.generateRawDataFile(1);
+    Feature feature = rows.get(100).getFeature(1);
+    Assert.assertNotNull(feature);
+    MsScan scan = rawFile.getScans().get(Math.round(feature.getRetentionTime() / 0.5f));
+    Assert.assertTrue(scan.getNumberOfDataPoints() >= 100);
+    double mzValues[] = scan.getMzValues();
+    float intensityValues[] = scan.getIntensityValues();
+    int index = -1;
+    for (int i = 0; i < scan.getNumberOfDataPoints(); i++) {
+      if (i > 0)
+        Assert.assertTrue(mzValues[i] >= mzValues[i - 1]);
+      if (mzValues[i] == feature.getMz())
+        index = i;
+    }
+    Assert.assertTrue(index >= 0);
+    Assert.assertTrue(intensityValues[index] <= feature.getHeight());
+    Assert.assertTrue(intensityValues[index] > 0.9f * feature.getHeight());
+  }
+
+  @Test
+  public void testScanIndex() {
+    RawDataFile rawFile = createProfileGenerator().generateRawDataFile(0);
+
+    // The index is built once and its scans match the generated ones
+    ScanIndex scanIndex = rawFile.getScanIndex();
+    Assert.assertSame(scanIndex, rawFile.getScanIndex());
+    List<MsScan> scans = RawDataFileUtil.getScans(rawFile, Range.closed(5.0f, 6.0f));
+    Assert.assertEquals(3, scans.size());
+    MsScan indexedScan = scans.get(0);
+    MsScan scan = rawFile.getScans().get(10);
+    Assert.assertEquals(scan.getScanNumber(), indexedScan.getScanNumber());
+    Assert.assertEquals(scan.getRetentionTime(), indexedScan.getRetentionTime());
+    Assert.assertEquals(scan.getMsLevel(), indexedScan.getMsLevel());
+    Assert.assertEquals(scan.getPolarity(), indexedScan.getPolarity());
+    Assert.assertEquals(scan.getScanningRange(), indexedScan.getScanningRange());
+    Assert.assertSame(rawFile, indexedScan.getRawDataFile());
+    Assert.assertArrayEquals(scan.getIntensityValues(), indexedScan.getIntensityValues(), 0f);
+    Assert.assertEquals(200, scanIndex.getScans(1).size());
+  }
+
+}
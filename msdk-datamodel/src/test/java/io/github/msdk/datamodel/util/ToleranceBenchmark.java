@@ -0,0 +1,98 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.msdk.util.tolerances.ConstantPpmTolerance;
+import io.github.msdk.util.tolerances.MzTolerance;
+import io.github.msdk.util.tolerances.RTTolerance;
+
+/**
+ * Compares the time and the memory allocated by tolerance checks using getToleranceRange() with
+ * the primitive contains() methods. The allocated bytes are measured per thread, which requires a
+ * JVM that supports com.sun.management.ThreadMXBean. Run as a Java application, the optional
+ * argument specifies the number of checks.
+ */
+public class ToleranceBenchmark {
+
+  public static void main(String[] args) {
+
+    final Logger logger = LoggerFactory.getLogger(ToleranceBenchmark.class);
+
+    int numberOfChecks = 10000000;
+    if (args.length > 0)
+      numberOfChecks = Integer.valueOf(args[0]);
+
+    final int count = 10000;
+    final double mzValues[] = new double[count];
+    final float rtValues[] = new float[count];
+    final Random random = new Random(1);
+    for (int i = 0; i < count; i++) {
+      mzValues[i] = 100.0 + random.nextDouble() * 900.0;
+      rtValues[i] = random.nextFloat() * 3600f;
+    }
+
+    final MzTolerance mzTolerance = new ConstantPpmTolerance(10.0);
+    final RTTolerance rtTolerance = new RTTolerance(5f, true);
+
+    for (int round = 0; round < 3; round++) {
+      long startBytes = getAllocatedBytes();
+      long startTime = System.nanoTime();
+      int matches = 0;
+      for (int i = 0; i < numberOfChecks; i++) {
+        final int a = i % count, b = (i * 31) % count;
+        if (mzTolerance.getToleranceRange(mzValues[a]).contains(mzValues[b])
+            && rtTolerance.getToleranceRange(rtValues[a]).contains(rtValues[b]))
+          matches++;
+      }
+      long rangeTime = System.nanoTime() - startTime;
+      long rangeBytes = getAllocatedBytes() - startBytes;
+
+      startBytes = getAllocatedBytes();
+      startTime = System.nanoTime();
+      int primitiveMatches = 0;
+      for (int i = 0; i < numberOfChecks; i++) {
+        final int a = i % count, b = (i * 31) % count;
+        if (mzTolerance.contains(mzValues[a], mzValues[b])
+            && rtTolerance.contains(rtValues[a], rtValues[b]))
+          primitiveMatches++;
+      }
+      long primitiveTime = System.nanoTime() - startTime;
+      long primitiveBytes = getAllocatedBytes() - startBytes;
+
+      if (matches != primitiveMatches)
+        throw new IllegalStateException("Results differ: " + matches + " vs " + primitiveMatches);
+
+      logger.info("getToleranceRange(): " + rangeTime / 1000000 + " ms, " + rangeBytes / 1024
+          + " kB allocated; contains(): " + primitiveTime / 1000000 + " ms, "
+          + primitiveBytes / 1024 + " kB allocated");
+    }
+
+  }
+
+  private static long getAllocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (!(bean instanceof com.sun.management.ThreadMXBean))
+      return 0;
+    return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(
+        Thread.currentThread().getId());
+  }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.datamodel.util;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Range;
+
+import io.github.msdk.util.tolerances.ConstantDaTolerance;
+import io.github.msdk.util.tolerances.ConstantPpmTolerance;
+import io.github.msdk.util.tolerances.MaximumMzTolerance;
+import io.github.msdk.util.tolerances.MzTolerance;
+import io.github.msdk.util.tolerances.RTTolerance;
+
+/**
+ * Tests for the primitive interval methods of the m/z and RT tolerances
+ */
+public class ToleranceTest {
+
+  @Test
+  public void testMzTolerances() {
+    MzTolerance tolerances[] = {new ConstantDaTolerance(0.005), new ConstantPpmTolerance(10.0),
+        new MaximumMzTolerance(0.002, 5.0), new MaximumMzTolerance(0.002, 20.0)};
+    Random random = new Random(1);
+    for (MzTolerance tolerance : tolerances) {
+      for (int i = 0; i < 10000; i++) {
+        double center = 50.0 + random.nextDouble() * 1500.0;
+        double value = center + (random.nextDouble() - 0.5) * 0.1;
+        Range<Double> range = tolerance.getToleranceRange(center);
+        Assert.assertEquals(range.lowerEndpoint(), tolerance.lowerBound(center), 0.0);
+        Assert.assertEquals(range.upperEndpoint(), tolerance.upperBound(center), 0.0);
+        Assert.assertEquals(range.contains(value), tolerance.contains(center, value));
+        Assert.assertTrue(tolerance.contains(center, tolerance.lowerBound(center)));
+        Assert.assertTrue(tolerance.contains(center, tolerance.upperBound(center)));
+      }
+    }
+  }
+
+  @Test
+  public void testMaximumMzTolerance() {
+    MzTolerance tolerance = new MaximumMzTolerance(0.01, 10.0);
+    // 0.01 Da is larger than 10 ppm below 1000 m/z
+    Assert.assertEquals(99.99, tolerance.lowerBound(100.0), 0.0000001);
+    Assert.assertEquals(2000.02, tolerance.upperBound(2000.0), 0.0000001);
+  }
+
+  @Test
+  public void testRTTolerances() {
+    RTTolerance tolerances[] = {new RTTolerance(2f, true), new RTTolerance(0.05f, false)};
+    Random random = new Random(1);
+    for (RTTolerance tolerance : tolerances) {
+      for (int i = 0; i < 10000; i++) {
+        float center = random.nextFloat() * 3600f;
+        float value = center + (random.nextFloat() - 0.5f) * 10f;
+        Range<Float> range = tolerance.getToleranceRange(center);
+        Assert.assertEquals(range.lowerEndpoint(), tolerance.lowerBound(center), 0f);
+        Assert.assertEquals(range.upperEndpoint(), tolerance.upperBound(center), 0f);
+        Assert.assertEquals(range.contains(value), tolerance.contains(center, value));
+        Assert.assertEquals(range.contains(value), tolerance.checkWithinTolerance(center, value));
+      }
+    }
+  }
+
+}
@@ -27,6 +27,7 @@ import io.github.msdk.MSDKMethod;
 import io.github.msdk.datamodel.chromatograms.Chromatogram;
 import io.github.msdk.datamodel.rawdata.MsScan;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.util.metrics.MSDKMetrics;
 import io.github.msdk.util.tolerances.MzTolerance;
 
 /**
@@ -124,26 +125,33 @@ public class ChromatogramBuilderMethod implements MSDKMethod<List<Chromatogram>>
       prevRT = s.getRetentionTime();
     }
 
-    HighestDataPointConnector massConnector =
-        new HighestDataPointConnector(noiseLevel, minimumTimeSpan, minimumHeight);
-
-    for (MsScan scan : inputScans) {
-
-      if (canceled)
-        return null;
-
-      MzTolerance mzTolerance = scan.getMzTolerance();
-      if (mzTolerance == null && this.mzTolerance != null) {
-        mzTolerance = this.mzTolerance;
-      } else {
-        throw new MSDKException("Unable to find a m/z tolerance for scan" + scan.getScanNumber());
+    final MSDKMetrics metrics = MSDKMetrics.start(getClass().getSimpleName(), "scans");
+    try {
+      HighestDataPointConnector massConnector =
+          new HighestDataPointConnector(noiseLevel, minimumTimeSpan, minimumHeight, metrics);
+
+      for (MsScan scan : inputScans) {
+
+        if (canceled)
+          return null;
+
+        MzTolerance mzTolerance = scan.getMzTolerance();
+        if (mzTolerance == null && this.mzTolerance != null) {
+          mzTolerance = this.mzTolerance;
+        } else {
+          throw new MSDKException(
+              "Unable to find a m/z tolerance for scan" + scan.getScanNumber());
+        }
+        massConnector.addScan(scan, mzTolerance);
+        processedScans++;
       }
-      massConnector.addScan(inputFile, scan, mzTolerance);
-      processedScans++;
-    }
 
-    result = new ArrayList<>();
-    massConnector.finishChromatograms(inputFile, result);
+      result = new ArrayList<>();
+      massConnector.finishChromatograms(result);
+    } finally {
+      metrics.addItems(processedScans);
+      metrics.finish();
+    }
 
     logger.info("Finished chromatogram builder on file " + inputFile.getName());
 
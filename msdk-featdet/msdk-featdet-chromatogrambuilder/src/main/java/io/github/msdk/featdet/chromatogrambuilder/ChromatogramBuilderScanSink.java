@@ -0,0 +1,114 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.featdet.chromatogrambuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.chromatograms.Chromatogram;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.ScanSink;
+import io.github.msdk.util.metrics.MSDKMetrics;
+import io.github.msdk.util.tolerances.MzTolerance;
+
+/**
+ * Scan sink that builds chromatograms from the scans of a
+ * {@link io.github.msdk.datamodel.rawdata.ScanPipeline}, using the same algorithm as
+ * {@link ChromatogramBuilderMethod}. The data points of each scan are connected to the
+ * chromatograms when the scan arrives, so no scan is kept after accept() returns. The scans must
+ * arrive in the order of increasing retention time. The reported metrics cover the time from the
+ * creation of the sink to the end of the stream; they are not reported if finish() is not called,
+ * e.g. because the stream was canceled.
+ */
+public class ChromatogramBuilderScanSink implements ScanSink {
+
+  private final @Nonnull MzTolerance mzTolerance;
+  private final @Nonnull HighestDataPointConnector massConnector;
+  private final @Nonnull MSDKMetrics metrics;
+
+  private Float prevRT = null;
+  private List<Chromatogram> result;
+
+  /**
+   * <p>
+   * Constructor for ChromatogramBuilderScanSink. The given MzTolerance is used for every scan that
+   * does not provide its own MzTolerance.
+   * </p>
+   *
+   * @param noiseLevel a double.
+   * @param minimumTimeSpan a double.
+   * @param minimumHeight a double.
+   * @param mzTolerance an object that implements the MZTolerance interface.
+   */
+  public ChromatogramBuilderScanSink(double noiseLevel, double minimumTimeSpan,
+      double minimumHeight, @Nonnull MzTolerance mzTolerance) {
+    Preconditions.checkNotNull(mzTolerance);
+    this.mzTolerance = mzTolerance;
+    this.metrics = MSDKMetrics.start(getClass().getSimpleName(), "scans");
+    this.massConnector =
+        new HighestDataPointConnector(noiseLevel, minimumTimeSpan, minimumHeight, metrics);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean accept(@Nonnull MsScan scan) throws MSDKException {
+
+    // Check if the scans are properly ordered by RT
+    final Float rt = scan.getRetentionTime();
+    if (rt != null) {
+      if ((prevRT != null) && (prevRT.compareTo(rt) > 0)) {
+        final String msg = "Retention time of scan #" + scan.getScanNumber()
+            + " is smaller then the retention time of the previous scan."
+            + " Please make sure you only use scans with increasing retention times.";
+        throw new MSDKException(msg);
+      }
+      prevRT = rt;
+    }
+
+    MzTolerance scanMzTolerance = scan.getMzTolerance();
+    if (scanMzTolerance == null)
+      scanMzTolerance = this.mzTolerance;
+    massConnector.addScan(scan, scanMzTolerance);
+    metrics.addItems(1);
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void finish() throws MSDKException {
+    try {
+      final List<Chromatogram> chromatograms = new ArrayList<>();
+      massConnector.finishChromatograms(chromatograms);
+      result = chromatograms;
+    } finally {
+      metrics.finish();
+    }
+  }
+
+  /**
+   * Returns the chromatograms built from the scans, or null if the stream has not finished yet.
+   *
+   * @return a {@link java.util.List} object.
+   */
+  public @Nullable List<Chromatogram> getResult() {
+    return result;
+  }
+
+}
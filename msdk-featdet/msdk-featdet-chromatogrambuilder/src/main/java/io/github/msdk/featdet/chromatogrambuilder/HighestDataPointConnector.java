@@ -24,15 +24,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Range;
 
 import io.github.msdk.datamodel.chromatograms.Chromatogram;
 import io.github.msdk.datamodel.impl.SimpleChromatogram;
 import io.github.msdk.datamodel.rawdata.MsScan;
-import io.github.msdk.datamodel.rawdata.RawDataFile;
 import io.github.msdk.util.DataPointSorter;
 import io.github.msdk.util.DataPointSorter.SortingDirection;
 import io.github.msdk.util.DataPointSorter.SortingProperty;
+import io.github.msdk.util.metrics.MSDKMetrics;
 import io.github.msdk.util.tolerances.MzTolerance;
 
 class HighestDataPointConnector {
@@ -44,13 +43,16 @@ class HighestDataPointConnector {
 
   private final Set<BuildingChromatogram> buildingChromatograms, connectedChromatograms;
 
+  // Phase timers, which do nothing unless metrics are enabled
+  private final @Nonnull MSDKMetrics.Phase loadPhase, sortPhase, connectPhase, finishPhase;
+
   // Data structures
   private float rtBuffer[] = new float[10000];
   private double mzBuffer[] = new double[10000];
   private float intensityBuffer[] = new float[10000];
 
   HighestDataPointConnector(@Nonnull Double noiseLevel, double minimumTimeSpan,
-      double minimumHeight) {
+      double minimumHeight, @Nonnull MSDKMetrics metrics) {
 
     this.noiseLevel = noiseLevel;
     this.minimumHeight = minimumHeight;
@@ -62,18 +64,27 @@ class HighestDataPointConnector {
     buildingChromatograms = new LinkedHashSet<BuildingChromatogram>();
     connectedChromatograms = new LinkedHashSet<BuildingChromatogram>();
 
+    loadPhase = metrics.phase("load");
+    sortPhase = metrics.phase("sort");
+    connectPhase = metrics.phase("connect");
+    finishPhase = metrics.phase("finish");
   }
 
-  void addScan(RawDataFile dataFile, MsScan scan, MzTolerance mzTolerance) {
+  void addScan(MsScan scan, MzTolerance mzTolerance) {
 
-    // Load data points
-    mzBuffer = scan.getMzValues();
-    intensityBuffer = scan.getIntensityValues();
+    // Load data points into the reusable buffers, which are sorted in place
+    loadPhase.start();
+    mzBuffer = scan.getMzValues(mzBuffer);
+    intensityBuffer = scan.getIntensityValues(intensityBuffer);
     int numOfDataPoints = scan.getNumberOfDataPoints();
+    loadPhase.stop(numOfDataPoints);
 
     // Sort m/z peaks by descending intensity
+    sortPhase.start();
     DataPointSorter.sortDataPoints(mzBuffer, intensityBuffer, numOfDataPoints,
         SortingProperty.INTENSITY, SortingDirection.DESCENDING);
+    sortPhase.stop(numOfDataPoints);
+    connectPhase.start();
 
     // A set of already connected chromatograms in each iteration
     connectedChromatograms.clear();
@@ -89,9 +100,7 @@ class HighestDataPointConnector {
 
       for (BuildingChromatogram testChrom : buildingChromatograms) {
 
-        Range<Double> toleranceRange = mzTolerance.getToleranceRange(testChrom.getLastMz());
-
-        if (toleranceRange.contains(mzBuffer[i])) {
+        if (mzTolerance.contains(testChrom.getLastMz(), mzBuffer[i])) {
           if ((bestChromatogram == null)
               || (testChrom.getLastIntensity() > bestChromatogram.getLastIntensity())) {
             bestChromatogram = testChrom;
@@ -154,12 +163,13 @@ class HighestDataPointConnector {
     buildingChromatograms.clear();
     buildingChromatograms.addAll(connectedChromatograms);
 
+    connectPhase.stop(numOfDataPoints);
   }
 
-  void finishChromatograms(@Nonnull RawDataFile inputFile,
-      List<Chromatogram> finalList) {
+  void finishChromatograms(List<Chromatogram> finalList) {
 
     logger.debug("Finishing " + buildingChromatograms.size() + " chromatograms");
+    finishPhase.start();
 
     // Iterate through current chromatograms and remove those which do not
     // contain any committed segment or long-enough building segment
@@ -212,6 +222,7 @@ class HighestDataPointConnector {
 
     }
 
+    finishPhase.stop(finalList.size());
   }
 
 }
@@ -0,0 +1,98 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.featdet.chromatogrambuilder;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.chromatograms.Chromatogram;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.io.mzml2.MzMLFileParser;
+import io.github.msdk.util.tolerances.ConstantPpmTolerance;
+import io.github.msdk.util.tolerances.MzTolerance;
+
+public class ChromatogramBuilderScanSinkTest {
+
+  private static final String TEST_DATA_PATH = "src/test/resources/";
+
+  private static final double noiseLevel = 0;
+  private static final double minimumTimeSpan = 6; // 6s
+  private static final double minimumHeight = 1E4;
+  private static final MzTolerance mzTolerance = new ConstantPpmTolerance(5.0);
+
+  @Test
+  public void testStreamedOrbitrap() throws MSDKException {
+
+    File inputFile = new File(TEST_DATA_PATH + "orbitrap_300-600mz.mzML");
+    Assert.assertTrue("Cannot read test data", inputFile.canRead());
+
+    // Build the chromatograms from the fully parsed file
+    RawDataFile rawFile = new MzMLFileParser(inputFile).execute();
+    Assert.assertNotNull(rawFile);
+    ChromatogramBuilderMethod chromBuilder = new ChromatogramBuilderMethod(rawFile, noiseLevel,
+        minimumTimeSpan, minimumHeight, mzTolerance);
+    List<Chromatogram> expectedChromatograms = chromBuilder.execute();
+    Assert.assertTrue(expectedChromatograms.size() > 10);
+    rawFile.dispose();
+
+    // Build the chromatograms while the file is parsed
+    ChromatogramBuilderScanSink sink =
+        new ChromatogramBuilderScanSink(noiseLevel, minimumTimeSpan, minimumHeight, mzTolerance);
+    MzMLFileParser parser = new MzMLFileParser(inputFile);
+    parser.streamScans(sink);
+    Assert.assertNull(sink.getResult());
+    sink.finish();
+
+    // The streamed scans are not kept in the raw data file
+    RawDataFile streamedFile = parser.getResult();
+    Assert.assertNotNull(streamedFile);
+    Assert.assertTrue(streamedFile.getScans().isEmpty());
+
+    List<Chromatogram> chromatograms = sink.getResult();
+    Assert.assertNotNull(chromatograms);
+    Assert.assertEquals(expectedChromatograms.size(), chromatograms.size());
+    for (int i = 0; i < chromatograms.size(); i++) {
+      Chromatogram expected = expectedChromatograms.get(i);
+      Chromatogram chromatogram = chromatograms.get(i);
+      Assert.assertEquals(expected.getMz(), chromatogram.getMz(), 0.0);
+      Assert.assertEquals(expected.getNumberOfDataPoints(), chromatogram.getNumberOfDataPoints());
+      Assert.assertArrayEquals(expected.getRetentionTimes(), chromatogram.getRetentionTimes(), 0f);
+      Assert.assertArrayEquals(expected.getIntensityValues(), chromatogram.getIntensityValues(),
+          0f);
+    }
+    streamedFile.dispose();
+  }
+
+  @Test
+  public void testStopStream() throws MSDKException {
+
+    File inputFile = new File(TEST_DATA_PATH + "orbitrap_300-600mz.mzML");
+    Assert.assertTrue("Cannot read test data", inputFile.canRead());
+
+    // A sink that returns false stops the parsing
+    final int acceptedScans[] = {0};
+    MzMLFileParser parser = new MzMLFileParser(inputFile);
+    parser.streamScans(scan -> {
+      acceptedScans[0]++;
+      return acceptedScans[0] < 5;
+    });
+    Assert.assertEquals(5, acceptedScans[0]);
+    Assert.assertTrue(parser.getFinishedPercentage() < 1f);
+  }
+
+}
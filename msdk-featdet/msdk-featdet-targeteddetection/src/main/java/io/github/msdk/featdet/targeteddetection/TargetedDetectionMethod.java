@@ -53,8 +53,8 @@ public class TargetedDetectionMethod implements MSDKMethod<List<Chromatogram>> {
   private int processedScans = 0, totalScans = 0;
 
   // Data structures
-  private @Nonnull double mzBuffer[];
-  private @Nonnull float intensityBuffer[];
+  private @Nonnull double mzBuffer[] = new double[10000];
+  private @Nonnull float intensityBuffer[] = new float[10000];
   private int numOfDataPoints;
 
   /**
@@ -115,8 +115,8 @@ public class TargetedDetectionMethod implements MSDKMethod<List<Chromatogram>> {
     for (MsScan msScan : msScans) {
 
       // Load data points
-      mzBuffer = msScan.getMzValues();
-      intensityBuffer = msScan.getIntensityValues();
+      mzBuffer = msScan.getMzValues(mzBuffer);
+      intensityBuffer = msScan.getIntensityValues(intensityBuffer);
       numOfDataPoints = msScan.getNumberOfDataPoints();
 
       Float chromatographyInfo = msScan.getRetentionTime();
@@ -126,14 +126,15 @@ public class TargetedDetectionMethod implements MSDKMethod<List<Chromatogram>> {
       for (IonAnnotation ionAnnotation : ionAnnotations) {
         Double ionMz = ionAnnotation.getExpectedMz();
         if (ionMz != null) {
-          Range<Double> mzRange = mzTolerance.getToleranceRange(ionMz);
+          final double mzMin = mzTolerance.lowerBound(ionMz);
+          final double mzMax = mzTolerance.upperBound(ionMz);
 
-          // Get highest data point which has a m/z within the mzRange
+          // Get highest data point which has a m/z within the tolerance
           Double mz = 0d;
           Float intensity = 0f;
-          Integer index =
-              MsSpectrumUtil.getBasePeakIndex(mzBuffer, intensityBuffer, numOfDataPoints, mzRange);
-          if (index != null) {
+          int index = MsSpectrumUtil.getBasePeakIndex(mzBuffer, intensityBuffer, numOfDataPoints,
+              mzMin, mzMax);
+          if (index >= 0) {
             mz = mzBuffer[index];
             intensity = intensityBuffer[index];
           }
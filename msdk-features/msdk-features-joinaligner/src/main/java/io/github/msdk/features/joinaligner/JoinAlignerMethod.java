@@ -104,6 +104,10 @@ public class JoinAlignerMethod implements MSDKMethod<FeatureTable> {
       // Calculate scores for all possible alignments of this row
       for (FeatureTableRow row : featureTable.getRows()) {
 
+        // Checked first, so that the rows without candidates are not processed after canceling
+        if (canceled)
+          return null;
+
         final Double mz = row.getMz();
         if (mz == null)
           continue;
@@ -123,6 +127,12 @@ public class JoinAlignerMethod implements MSDKMethod<FeatureTable> {
         // RT limits
         List<FeatureTableRow> candidateRows =
             FeatureTableUtil.getRowsInsideRange(result, rtRange, mzRange);
+        if (candidateRows.isEmpty())
+          continue;
+
+        // Widths of the tolerance windows, used to normalize the scores
+        final double mzLength = mzTolerance.upperBound(mz) - mzTolerance.lowerBound(mz);
+        final double rtLength = rtTolerance.upperBound(rt) - rtTolerance.lowerBound(rt);
 
         // Calculate scores and store them
         for (FeatureTableRow candidateRow : candidateRows) {
@@ -134,8 +144,6 @@ public class JoinAlignerMethod implements MSDKMethod<FeatureTable> {
             continue;
 
           // Calculate score
-          double mzLength = mzRange.upperEndpoint() - mzRange.lowerEndpoint();
-          double rtLength = rtRange.upperEndpoint() - rtRange.lowerEndpoint();
           RowVsRowScore score = new RowVsRowScore(row, (SimpleFeatureTableRow) candidateRow, mzLength / 2.0, mzWeight,
               rtLength / 2.0, rtWeight);
 
@@ -145,9 +153,6 @@ public class JoinAlignerMethod implements MSDKMethod<FeatureTable> {
         }
 
         // processedFeatures++;
-
-        if (canceled)
-          return null;
       }
 
       // Create a table of mappings for best scores
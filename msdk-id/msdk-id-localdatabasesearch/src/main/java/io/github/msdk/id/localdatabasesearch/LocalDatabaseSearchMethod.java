@@ -19,8 +19,6 @@ import java.util.List;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import com.google.common.collect.Range;
-
 import io.github.msdk.MSDKException;
 import io.github.msdk.MSDKMethod;
 import io.github.msdk.datamodel.featuretables.FeatureTable;
@@ -79,8 +77,8 @@ public class LocalDatabaseSearchMethod implements MSDKMethod<Void> {
         continue;
 
       // Row values
-      Range<Double> mzRange = mzTolerance.getToleranceRange(mz);
-      Range<Float> rtRange = rtTolerance.getToleranceRange(rt);
+      final double mzMin = mzTolerance.lowerBound(mz), mzMax = mzTolerance.upperBound(mz);
+      final float rtMin = rtTolerance.lowerBound(rt), rtMax = rtTolerance.upperBound(rt);
       List<SimpleIonAnnotation> rowIonAnnotations = null;
 
       // Empty rowIonAnnotations
@@ -98,8 +96,8 @@ public class LocalDatabaseSearchMethod implements MSDKMethod<Void> {
 
         // Convert from seconds to minutes
         float ionRtSec = ionRT / 60.0f;
-        final boolean mzMatch = mzRange.contains(ionMz);
-        final boolean rtMatch = rtRange.contains(ionRtSec);
+        final boolean mzMatch = (ionMz >= mzMin) && (ionMz <= mzMax);
+        final boolean rtMatch = (ionRtSec >= rtMin) && (ionRtSec <= rtMax);
 
         // If match, add the ion annotation to the list
         if (mzMatch && rtMatch) {
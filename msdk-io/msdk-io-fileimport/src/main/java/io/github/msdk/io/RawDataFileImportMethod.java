@@ -19,11 +19,17 @@ import java.io.IOException;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import io.github.msdk.MSDKException;
 import io.github.msdk.MSDKMethod;
 import io.github.msdk.datamodel.files.FileType;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
 import io.github.msdk.io.filetypedetection.FileTypeDetectionMethod;
+import io.github.msdk.io.msdkcache.MsdkCacheFileExportMethod;
+import io.github.msdk.io.msdkcache.MsdkCacheFileImportMethod;
+import io.github.msdk.io.msdkcache.MsdkCacheFormat;
 import io.github.msdk.io.mzdata.MzDataFileImportMethod;
 import io.github.msdk.io.mzml.MzMLFileImportMethod;
 import io.github.msdk.io.mzxml.MzXMLFileImportMethod;
@@ -35,10 +41,17 @@ import io.github.msdk.io.netcdf.NetCDFFileImportMethod;
  * This class detects the type of the given data file using the FileTypeDetectionAlgorithm and then
  * imports the raw data by performing the right import algorithm.
  *
+ * If the cache is enabled, the parsed data are stored in an .msdkcache file next to the source
+ * file and the next import of the same (unchanged) file memory-maps the cache instead of parsing
+ * the source again.
+ *
  */
 public class RawDataFileImportMethod implements MSDKMethod<RawDataFile> {
 
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
   private final @Nonnull File sourceFile;
+  private final boolean useCache;
 
   private RawDataFile result;
   private boolean canceled = false;
@@ -50,16 +63,41 @@ public class RawDataFileImportMethod implements MSDKMethod<RawDataFile> {
    * </p>
    *
    * @param sourceFile a {@link java.io.File} object.
-   * @param dataStore a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
    */
   public RawDataFileImportMethod(@Nonnull File sourceFile) {
+    this(sourceFile, false);
+  }
+
+  /**
+   * <p>
+   * Constructor for RawDataFileImportMethod.
+   * </p>
+   *
+   * @param sourceFile a {@link java.io.File} object.
+   * @param useCache if true, the data are read from (and written to) an .msdkcache file next to
+   *        the source file
+   */
+  public RawDataFileImportMethod(@Nonnull File sourceFile, boolean useCache) {
     this.sourceFile = sourceFile;
+    this.useCache = useCache && sourceFile.isFile();
   }
 
   /** {@inheritDoc} */
   @Override
   public RawDataFile execute() throws MSDKException {
 
+    final File cacheFile = MsdkCacheFormat.getCacheFile(sourceFile);
+    if (useCache && MsdkCacheFormat.isCacheValid(cacheFile, sourceFile)) {
+      parser = new MsdkCacheFileImportMethod(cacheFile);
+      try {
+        result = parser.execute();
+        return result;
+      } catch (MSDKException e) {
+        logger.warn("Could not open cache file " + cacheFile + ", parsing " + sourceFile, e);
+        parser = null;
+      }
+    }
+
     FileType fileType;
     try {
       fileType = FileTypeDetectionMethod.detectDataFileType(sourceFile);
@@ -97,6 +135,15 @@ public class RawDataFileImportMethod implements MSDKMethod<RawDataFile> {
     }
 
     result = parser.execute();
+
+    if (useCache && (result != null) && !canceled) {
+      try {
+        new MsdkCacheFileExportMethod(result, cacheFile, sourceFile).execute();
+      } catch (MSDKException e) {
+        logger.warn("Could not write cache file " + cacheFile, e);
+      }
+    }
+
     return result;
 
   }
@@ -0,0 +1,102 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.io;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.github.msdk.MSDKBatchExecutor;
+import io.github.msdk.MSDKException;
+import io.github.msdk.MSDKMethodChain;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.io.mzml.MzMLFileExportMethod;
+
+/**
+ * Runs import and export chains of the bundled mzML test files in a MSDKBatchExecutor.
+ */
+public class RawDataFileBatchImportTest {
+
+  private static final String TEST_DATA_PATH = "../msdk-io-mzml/src/test/resources/";
+
+  private static final String TEST_FILES[] = {"5peptideFT.mzML", "MzMLFile_7_compressed.mzML",
+      "RawCentriodCidWithMsLevelInRefParamGroup.mzML", "SRM.mzML", "tiny.pwiz.idx.mzML"};
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testBatchImport() throws Exception {
+
+    MSDKBatchExecutor executor = new MSDKBatchExecutor(4, 3);
+    List<File> exportedFiles = new ArrayList<>();
+    List<CompletableFuture<RawDataFile>> imports = new ArrayList<>();
+    List<CompletableFuture<Void>> exports = new ArrayList<>();
+
+    for (String fileName : TEST_FILES) {
+      File inputFile = new File(TEST_DATA_PATH + fileName);
+      Assert.assertTrue("Cannot read test data", inputFile.canRead());
+
+      // Plain import
+      imports.add(executor.submit(new RawDataFileImportMethod(inputFile), 1));
+
+      // Import followed by export, weighted by the file size in MB
+      File exportedFile = folder.newFile(fileName);
+      exportedFiles.add(exportedFile);
+      MSDKMethodChain<Void> chain = MSDKMethodChain.of(new RawDataFileImportMethod(inputFile))
+          .then(rawDataFile -> new MzMLFileExportMethod(rawDataFile, exportedFile));
+      exports.add(executor.submit(chain, 1 + inputFile.length() / 1000000));
+    }
+
+    CompletableFuture.allOf(exports.toArray(new CompletableFuture<?>[0])).get();
+    Assert.assertEquals(1f, executor.getFinishedPercentage(), 0.0001f);
+
+    // The results must match a sequential import
+    for (int i = 0; i < TEST_FILES.length; i++) {
+      RawDataFile expected =
+          new RawDataFileImportMethod(new File(TEST_DATA_PATH + TEST_FILES[i])).execute();
+      RawDataFile actual = imports.get(i).get();
+      Assert.assertEquals(expected.getScans().size(), actual.getScans().size());
+      Assert.assertEquals(expected.getChromatograms().size(), actual.getChromatograms().size());
+
+      RawDataFile exported = new RawDataFileImportMethod(exportedFiles.get(i)).execute();
+      Assert.assertEquals(expected.getScans().size(), exported.getScans().size());
+    }
+
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testCancel() throws MSDKException, InterruptedException {
+    MSDKBatchExecutor executor = new MSDKBatchExecutor(2, 1);
+    List<CompletableFuture<RawDataFile>> imports = new ArrayList<>();
+    for (int i = 0; i < 20; i++)
+      imports.add(
+          executor.submit(new RawDataFileImportMethod(new File(TEST_DATA_PATH + "SRM.mzML")), 1));
+    executor.cancel();
+    for (CompletableFuture<RawDataFile> future : imports)
+      Assert.assertTrue(future.isCancelled());
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.io;
+
+import java.io.File;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.files.FileType;
+import io.github.msdk.datamodel.impl.SimpleMsScan;
+import io.github.msdk.datamodel.impl.SimpleRawDataFile;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.io.msdkcache.MsdkCacheFormat;
+import io.github.msdk.io.mzml.MzMLFileExportMethod;
+
+/**
+ * Compares the cold import of an mzML file (parsing and writing the .msdkcache file) with the warm
+ * import that memory-maps the cache. The scans of the input file are replicated with shifted
+ * retention times to obtain a larger file. Run as a Java application, the optional arguments
+ * specify the scale factor and the input file.
+ */
+public class RawDataFileCacheBenchmark {
+
+  public static void main(String[] args) throws Exception {
+
+    final Logger logger = LoggerFactory.getLogger(RawDataFileCacheBenchmark.class);
+
+    int scaleFactor = 20;
+    if (args.length > 0)
+      scaleFactor = Integer.valueOf(args[0]);
+    File inputFile = new File(
+        "../../msdk-featdet/msdk-featdet-chromatogrambuilder/src/test/resources/orbitrap_300-600mz.mzML");
+    if (args.length > 1)
+      inputFile = new File(args[1]);
+
+    // Create the scaled-up file
+    final RawDataFile original = new RawDataFileImportMethod(inputFile).execute();
+    final SimpleRawDataFile scaled =
+        new SimpleRawDataFile("scaled", Optional.empty(), FileType.MZML);
+    float rtShift = 0f;
+    for (MsScan scan : original.getScans()) {
+      if (scan.getRetentionTime() != null)
+        rtShift = Math.max(rtShift, scan.getRetentionTime());
+    }
+    int scanNumber = 1;
+    for (int i = 0; i < scaleFactor; i++) {
+      for (MsScan scan : original.getScans()) {
+        SimpleMsScan copy = new SimpleMsScan(scanNumber++, scan.getMsFunction());
+        copy.setMsLevel(scan.getMsLevel());
+        copy.setPolarity(scan.getPolarity());
+        copy.setMsScanType(scan.getMsScanType());
+        copy.setSpectrumType(scan.getSpectrumType());
+        copy.setScanningRange(scan.getScanningRange());
+        if (scan.getRetentionTime() != null)
+          copy.setRetentionTime(scan.getRetentionTime() + i * rtShift);
+        copy.getIsolations().addAll(scan.getIsolations());
+        copy.setDataPoints(scan.getMzValues(), scan.getIntensityValues(),
+            scan.getNumberOfDataPoints());
+        scaled.addScan(copy);
+      }
+    }
+
+    final File scaledFile = File.createTempFile("msdkcache-benchmark", ".mzML");
+    scaledFile.deleteOnExit();
+    final File cacheFile = MsdkCacheFormat.getCacheFile(scaledFile);
+    cacheFile.deleteOnExit();
+    new MzMLFileExportMethod(scaled, scaledFile).execute();
+    logger.info("Scaled file " + scaledFile + ": " + scaled.getScans().size() + " scans, "
+        + scaledFile.length() / 1024 / 1024 + " MB");
+
+    // Cold import: parse the mzML file and write the cache
+    long startTime = System.nanoTime();
+    RawDataFile coldFile = new RawDataFileImportMethod(scaledFile, true).execute();
+    long coldOpenTime = System.nanoTime() - startTime;
+    startTime = System.nanoTime();
+    double coldSum = sweep(coldFile);
+    long coldSweepTime = System.nanoTime() - startTime;
+    coldFile.dispose();
+
+    if (!MsdkCacheFormat.isCacheValid(cacheFile, scaledFile))
+      throw new MSDKException("Cache file " + cacheFile + " was not written");
+
+    // Warm import: memory-map the cache
+    startTime = System.nanoTime();
+    RawDataFile warmFile = new RawDataFileImportMethod(scaledFile, true).execute();
+    long warmOpenTime = System.nanoTime() - startTime;
+    startTime = System.nanoTime();
+    double warmSum = sweep(warmFile);
+    long warmSweepTime = System.nanoTime() - startTime;
+
+    logger.info("Cold import " + coldOpenTime / 1000000 + " ms, data sweep "
+        + coldSweepTime / 1000000 + " ms (checksum " + coldSum + ")");
+    logger.info("Warm import " + warmOpenTime / 1000000 + " ms, data sweep "
+        + warmSweepTime / 1000000 + " ms (checksum " + warmSum + ")");
+    logger.info("Cache file size " + cacheFile.length() / 1024 / 1024 + " MB");
+
+  }
+
+  /**
+   * Reads all data points of the file, so the cost of lazy loading is included in the comparison.
+   */
+  private static double sweep(RawDataFile rawDataFile) {
+    double sum = 0;
+    for (MsScan scan : rawDataFile.getScans()) {
+      final int size = scan.getNumberOfDataPoints();
+      for (int i = 0; i < size; i++)
+        sum += scan.getMz(i) * scan.getIntensity(i);
+    }
+    return sum;
+  }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.io.msdkcache;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Range;
+
+import io.github.msdk.datamodel.chromatograms.Chromatogram;
+import io.github.msdk.datamodel.chromatograms.ChromatogramType;
+import io.github.msdk.datamodel.ionannotations.IonAnnotation;
+import io.github.msdk.datamodel.rawdata.IsolationInfo;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.SeparationType;
+
+/**
+ * Chromatogram implementation that reads its data points from a memory-mapped .msdkcache file.
+ * The optional m/z values are followed by the retention times and the intensity values in the
+ * mapped segment.
+ */
+class MsdkCacheChromatogram implements Chromatogram {
+
+  private final @Nonnull MsdkCacheRawDataFile dataFile;
+  private final @Nonnull ByteBuffer segment;
+  private final int numOfDataPoints;
+  private final int mzOffset, rtOffset, intensityOffset;
+  private final boolean hasMzValues;
+
+  private final @Nullable Integer chromatogramNumber;
+  private final @Nonnull ChromatogramType chromatogramType;
+  private final @Nonnull SeparationType separationType;
+  private final @Nullable Double mz;
+  private final @Nonnull List<IsolationInfo> isolations;
+
+  MsdkCacheChromatogram(@Nonnull MsdkCacheRawDataFile dataFile, @Nonnull ByteBuffer segment,
+      int offset, int numOfDataPoints, boolean hasMzValues, @Nullable Integer chromatogramNumber,
+      @Nonnull ChromatogramType chromatogramType, @Nonnull SeparationType separationType,
+      @Nullable Double mz, @Nonnull List<IsolationInfo> isolations) {
+    this.dataFile = dataFile;
+    this.segment = segment;
+    this.numOfDataPoints = numOfDataPoints;
+    this.hasMzValues = hasMzValues;
+    this.mzOffset = offset;
+    this.rtOffset = hasMzValues ? offset + numOfDataPoints * 8 : offset;
+    this.intensityOffset = rtOffset + numOfDataPoints * 4;
+    this.chromatogramNumber = chromatogramNumber;
+    this.chromatogramType = chromatogramType;
+    this.separationType = separationType;
+    this.mz = mz;
+    this.isolations = isolations;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public RawDataFile getRawDataFile() {
+    return dataFile;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Integer getChromatogramNumber() {
+    return chromatogramNumber;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public ChromatogramType getChromatogramType() {
+    return chromatogramType;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Integer getNumberOfDataPoints() {
+    return numOfDataPoints;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public float[] getRetentionTimes(float[] array) {
+    if ((array == null) || (array.length < numOfDataPoints))
+      array = new float[numOfDataPoints];
+    getRetentionTimeBuffer().get(array, 0, numOfDataPoints);
+    return array;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public float[] getIntensityValues(float[] array) {
+    if ((array == null) || (array.length < numOfDataPoints))
+      array = new float[numOfDataPoints];
+    getIntensityBuffer().get(array, 0, numOfDataPoints);
+    return array;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double[] getMzValues(double[] array) {
+    if (!hasMzValues)
+      return null;
+    if ((array == null) || (array.length < numOfDataPoints))
+      array = new double[numOfDataPoints];
+    getMzBuffer().get(array, 0, numOfDataPoints);
+    return array;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public float getRetentionTime(int index) {
+    Preconditions.checkElementIndex(index, numOfDataPoints);
+    return segment.getFloat(rtOffset + index * 4);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public float getIntensity(int index) {
+    Preconditions.checkElementIndex(index, numOfDataPoints);
+    return segment.getFloat(intensityOffset + index * 4);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double getMz(int index) {
+    if (!hasMzValues)
+      throw new IllegalStateException("This chromatogram has no m/z values");
+    Preconditions.checkElementIndex(index, numOfDataPoints);
+    return segment.getDouble(mzOffset + index * 8);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull FloatBuffer getRetentionTimeBuffer() {
+    return getView(rtOffset, numOfDataPoints * 4).asFloatBuffer().asReadOnlyBuffer();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull FloatBuffer getIntensityBuffer() {
+    return getView(intensityOffset, numOfDataPoints * 4).asFloatBuffer().asReadOnlyBuffer();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nullable DoubleBuffer getMzBuffer() {
+    if (!hasMzValues)
+      return null;
+    return getView(mzOffset, numOfDataPoints * 8).asDoubleBuffer().asReadOnlyBuffer();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Double getMz() {
+    return mz;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public List<IsolationInfo> getIsolations() {
+    return isolations;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public SeparationType getSeparationType() {
+    return separationType;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public IonAnnotation getIonAnnotation() {
+    return null;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Range<Float> getRtRange() {
+    if (numOfDataPoints == 0)
+      return null;
+    return Range.closed(getRetentionTime(0), getRetentionTime(numOfDataPoints - 1));
+  }
+
+  private @Nonnull ByteBuffer getView(int viewOffset, int length) {
+    final ByteBuffer view = segment.duplicate();
+    view.limit(viewOffset + length).position(viewOffset);
+    return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+}
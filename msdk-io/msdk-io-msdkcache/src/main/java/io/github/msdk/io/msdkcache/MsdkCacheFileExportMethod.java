@@ -0,0 +1,440 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.io.msdkcache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Range;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.MSDKMethod;
+import io.github.msdk.datamodel.chromatograms.Chromatogram;
+import io.github.msdk.datamodel.rawdata.ActivationInfo;
+import io.github.msdk.datamodel.rawdata.IsolationInfo;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+
+/**
+ * This class writes a RawDataFile into the .msdkcache binary format (see
+ * {@link MsdkCacheFormat}). The size and modification time of the source file are stored in the
+ * cache, so that the cache can be validated before it is used instead of the source file.
+ *
+ * The following attributes are not stored: m/z tolerance of scans and ion annotation of
+ * chromatograms.
+ *
+ * The data are first written into a uniquely named temporary file in the target directory, which
+ * is atomically renamed to the target file when complete, so concurrent exports to the same
+ * target never see each other's partial files.
+ */
+public class MsdkCacheFileExportMethod implements MSDKMethod<Void> {
+
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final @Nonnull RawDataFile rawDataFile;
+  private final @Nonnull File target;
+  private final @Nullable File sourceFile;
+  private final int segmentSize;
+
+  private boolean canceled = false;
+
+  private long totalScans = 0, totalChromatograms = 0, writtenScans, writtenChromatograms;
+
+  private FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+  private long position;
+
+  /**
+   * <p>
+   * Constructor for MsdkCacheFileExportMethod. The original file of the raw data file is used as
+   * the source file for validation.
+   * </p>
+   *
+   * @param rawDataFile a {@link io.github.msdk.datamodel.rawdata.RawDataFile} object.
+   * @param target a {@link java.io.File} object.
+   */
+  public MsdkCacheFileExportMethod(@Nonnull RawDataFile rawDataFile, @Nonnull File target) {
+    this(rawDataFile, target, getOriginalFile(rawDataFile));
+  }
+
+  /**
+   * <p>
+   * Constructor for MsdkCacheFileExportMethod.
+   * </p>
+   *
+   * @param rawDataFile a {@link io.github.msdk.datamodel.rawdata.RawDataFile} object.
+   * @param target a {@link java.io.File} object.
+   * @param sourceFile the file the raw data were imported from, or null
+   */
+  public MsdkCacheFileExportMethod(@Nonnull RawDataFile rawDataFile, @Nonnull File target,
+      @Nullable File sourceFile) {
+    this(rawDataFile, target, sourceFile, MsdkCacheFormat.DEFAULT_SEGMENT_SIZE);
+  }
+
+  MsdkCacheFileExportMethod(@Nonnull RawDataFile rawDataFile, @Nonnull File target,
+      @Nullable File sourceFile, int segmentSize) {
+    this.rawDataFile = rawDataFile;
+    this.target = target;
+    this.sourceFile = sourceFile;
+    this.segmentSize = segmentSize;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Void execute() throws MSDKException {
+
+    logger.info("Started export of " + rawDataFile.getName() + " to " + target);
+
+    final List<MsScan> scans = rawDataFile.getScans();
+    final List<Chromatogram> chromatograms = rawDataFile.getChromatograms();
+    totalScans = scans.size();
+    totalChromatograms = chromatograms.size();
+
+    final long scanPositions[] = new long[scans.size()];
+    final long chromatogramPositions[] = new long[chromatograms.size()];
+    final boolean chromatogramHasMz[] = new boolean[chromatograms.size()];
+
+    final File tmpFile;
+    try {
+      tmpFile = Files.createTempFile(getTargetDirectory().toPath(), target.getName(), ".tmp")
+          .toFile();
+    } catch (IOException e) {
+      throw new MSDKException(e);
+    }
+
+    try (RandomAccessFile raf = new RandomAccessFile(tmpFile, "rw")) {
+
+      raf.setLength(0);
+      channel = raf.getChannel();
+
+      // The header is written at the end
+      position = MsdkCacheFormat.HEADER_SIZE;
+      channel.position(position);
+
+      // Data section
+      final long dataOffset = position;
+      double mzBuffer[] = new double[10000];
+      float intensityBuffer[] = new float[10000];
+
+      for (int i = 0; i < scans.size(); i++) {
+        if (canceled)
+          break;
+        final MsScan scan = scans.get(i);
+        final int size = scan.getNumberOfDataPoints();
+        mzBuffer = scan.getMzValues(mzBuffer);
+        intensityBuffer = scan.getIntensityValues(intensityBuffer);
+        scanPositions[i] = startBlock(size * 12L);
+        writeDoubles(mzBuffer, size);
+        writeFloats(intensityBuffer, size);
+        writtenScans++;
+      }
+
+      float rtBuffer[] = new float[10000];
+      for (int i = 0; i < chromatograms.size(); i++) {
+        if (canceled)
+          break;
+        final Chromatogram chromatogram = chromatograms.get(i);
+        final int size = chromatogram.getNumberOfDataPoints();
+        final double mzValues[] = chromatogram.getMzValues(mzBuffer);
+        if (mzValues != null)
+          mzBuffer = mzValues;
+        rtBuffer = chromatogram.getRetentionTimes(rtBuffer);
+        intensityBuffer = chromatogram.getIntensityValues(intensityBuffer);
+        chromatogramHasMz[i] = (mzValues != null);
+        chromatogramPositions[i] = startBlock(size * ((mzValues != null) ? 16L : 8L));
+        if (mzValues != null)
+          writeDoubles(mzValues, size);
+        writeFloats(rtBuffer, size);
+        writeFloats(intensityBuffer, size);
+        writtenChromatograms++;
+      }
+
+      if (canceled) {
+        raf.close();
+        tmpFile.delete();
+        return null;
+      }
+
+      // Metadata section
+      final long metadataOffset = startBlock(0);
+      writeString(rawDataFile.getName());
+      writeString(rawDataFile.getRawDataFileType().name());
+      final File originalFile = getOriginalFile(rawDataFile);
+      writeString((originalFile != null) ? originalFile.getPath() : null);
+
+      ensureRemaining(4);
+      buffer.putInt(scans.size());
+      for (int i = 0; i < scans.size(); i++)
+        writeScanMetadata(scans.get(i), scanPositions[i]);
+
+      ensureRemaining(4);
+      buffer.putInt(chromatograms.size());
+      for (int i = 0; i < chromatograms.size(); i++)
+        writeChromatogramMetadata(chromatograms.get(i), chromatogramPositions[i],
+            chromatogramHasMz[i]);
+
+      flush();
+      final long metadataLength = position - metadataOffset;
+
+      // Header
+      final ByteBuffer header =
+          ByteBuffer.allocate(MsdkCacheFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      header.putLong(MsdkCacheFormat.MAGIC_POSITION, MsdkCacheFormat.MAGIC);
+      header.putInt(MsdkCacheFormat.VERSION_POSITION, MsdkCacheFormat.VERSION);
+      header.putInt(MsdkCacheFormat.SEGMENT_SIZE_POSITION, segmentSize);
+      header.putLong(MsdkCacheFormat.SOURCE_SIZE_POSITION,
+          (sourceFile != null) ? sourceFile.length() : 0);
+      header.putLong(MsdkCacheFormat.SOURCE_MODIFIED_POSITION,
+          (sourceFile != null) ? sourceFile.lastModified() : 0);
+      header.putLong(MsdkCacheFormat.DATA_OFFSET_POSITION, dataOffset);
+      header.putLong(MsdkCacheFormat.METADATA_OFFSET_POSITION, metadataOffset);
+      header.putLong(MsdkCacheFormat.METADATA_LENGTH_POSITION, metadataLength);
+      while (header.hasRemaining())
+        channel.write(header, header.position());
+
+    } catch (IOException e) {
+      tmpFile.delete();
+      throw new MSDKException(e);
+    } catch (RuntimeException e) {
+      tmpFile.delete();
+      throw e;
+    } finally {
+      channel = null;
+    }
+
+    try {
+      Files.move(tmpFile.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      tmpFile.delete();
+      throw new MSDKException(e);
+    }
+
+    logger.info("Finished export of " + rawDataFile.getName() + " to " + target);
+
+    return null;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Float getFinishedPercentage() {
+    return (totalScans + totalChromatograms) == 0 ? null
+        : (float) (writtenScans + writtenChromatograms) / (totalScans + totalChromatograms);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nullable
+  public Void getResult() {
+    return null;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void cancel() {
+    this.canceled = true;
+  }
+
+  private @Nonnull File getTargetDirectory() {
+    final File directory = target.getAbsoluteFile().getParentFile();
+    return (directory != null) ? directory : new File(".");
+  }
+
+  private static @Nullable File getOriginalFile(@Nonnull RawDataFile rawDataFile) {
+    final Optional<File> originalFile = rawDataFile.getOriginalFile();
+    if ((originalFile == null) || !originalFile.isPresent())
+      return null;
+    return originalFile.get();
+  }
+
+  private void writeScanMetadata(@Nonnull MsScan scan, long dataPosition) throws IOException {
+    ensureRemaining(64);
+    buffer.putLong(dataPosition);
+    buffer.putInt(scan.getNumberOfDataPoints());
+    buffer.putInt(scan.getScanNumber());
+    buffer.putInt(scan.getMsLevel());
+    final Float rt = scan.getRetentionTime();
+    buffer.putFloat((rt == null) ? Float.NaN : rt);
+    buffer.putFloat(scan.getTIC());
+    buffer.put(MsdkCacheFormat.encodeEnum(MsdkCacheFormat.POLARITY_CODES, scan.getPolarity()));
+    buffer.put(
+        MsdkCacheFormat.encodeEnum(MsdkCacheFormat.MS_SCAN_TYPE_CODES, scan.getMsScanType()));
+    buffer.put(
+        MsdkCacheFormat.encodeEnum(MsdkCacheFormat.SPECTRUM_TYPE_CODES, scan.getSpectrumType()));
+    writeRange(scan.getScanningRange());
+    writeString(scan.getMsFunction());
+    writeString(scan.getScanDefinition());
+    writeActivationInfo(scan.getSourceInducedFragmentation());
+    writeIsolations(scan.getIsolations());
+  }
+
+  private void writeChromatogramMetadata(@Nonnull Chromatogram chromatogram, long dataPosition,
+      boolean hasMz) throws IOException {
+    ensureRemaining(32);
+    buffer.putLong(dataPosition);
+    buffer.putInt(chromatogram.getNumberOfDataPoints());
+    final Integer chromatogramNumber = chromatogram.getChromatogramNumber();
+    buffer.putInt((chromatogramNumber == null) ? Integer.MIN_VALUE : chromatogramNumber);
+    buffer.put(
+        MsdkCacheFormat.encodeEnum(MsdkCacheFormat.CHROMATOGRAM_TYPE_CODES,
+            chromatogram.getChromatogramType()));
+    buffer.put(
+        MsdkCacheFormat.encodeEnum(MsdkCacheFormat.SEPARATION_TYPE_CODES,
+            chromatogram.getSeparationType()));
+    buffer.put((byte) (hasMz ? 1 : 0));
+    final Double mz = chromatogram.getMz();
+    buffer.putDouble((mz == null) ? Double.NaN : mz);
+    writeIsolations(chromatogram.getIsolations());
+  }
+
+  private void writeIsolations(@Nonnull List<IsolationInfo> isolations) throws IOException {
+    ensureRemaining(4);
+    buffer.putInt(isolations.size());
+    for (IsolationInfo isolation : isolations) {
+      writeRange(isolation.getIsolationMzRange());
+      ensureRemaining(16);
+      final Float ionInjectTime = isolation.getIonInjectTime();
+      buffer.putFloat((ionInjectTime == null) ? Float.NaN : ionInjectTime);
+      final Double precursorMz = isolation.getPrecursorMz();
+      buffer.putDouble((precursorMz == null) ? Double.NaN : precursorMz);
+      final Integer precursorCharge = isolation.getPrecursorCharge();
+      buffer.putInt((precursorCharge == null) ? Integer.MIN_VALUE : precursorCharge);
+      writeActivationInfo(isolation.getActivationInfo());
+    }
+  }
+
+  private void writeActivationInfo(@Nullable ActivationInfo activationInfo) throws IOException {
+    ensureRemaining(10);
+    if (activationInfo == null) {
+      buffer.put((byte) 0);
+      return;
+    }
+    buffer.put((byte) 1);
+    buffer.put(
+        MsdkCacheFormat.encodeEnum(MsdkCacheFormat.ACTIVATION_TYPE_CODES,
+            activationInfo.getActivationType()));
+    final Double energy = activationInfo.getActivationEnergy();
+    buffer.putDouble((energy == null) ? Double.NaN : energy);
+  }
+
+  /**
+   * Ranges are stored as closed ranges, null is stored as NaN. Unbounded ends are stored as
+   * infinity.
+   */
+  private void writeRange(@Nullable Range<Double> range) throws IOException {
+    ensureRemaining(16);
+    if (range == null) {
+      buffer.putDouble(Double.NaN);
+      buffer.putDouble(Double.NaN);
+      return;
+    }
+    buffer.putDouble(range.hasLowerBound() ? range.lowerEndpoint() : Double.NEGATIVE_INFINITY);
+    buffer.putDouble(range.hasUpperBound() ? range.upperEndpoint() : Double.POSITIVE_INFINITY);
+  }
+
+  private void writeString(@Nullable String value) throws IOException {
+    if (value == null) {
+      ensureRemaining(4);
+      buffer.putInt(-1);
+      return;
+    }
+    final byte bytes[] = value.getBytes(StandardCharsets.UTF_8);
+    ensureRemaining(4);
+    buffer.putInt(bytes.length);
+    int written = 0;
+    while (written < bytes.length) {
+      ensureRemaining(1);
+      final int chunk = Math.min(buffer.remaining(), bytes.length - written);
+      buffer.put(bytes, written, chunk);
+      written += chunk;
+    }
+  }
+
+  /**
+   * Aligns the current position to 8 bytes and makes sure a block of the given length does not
+   * cross a segment boundary. Returns the position of the block.
+   */
+  private long startBlock(long blockLength) throws IOException {
+    if (blockLength > segmentSize)
+      throw new IOException("Data block of " + blockLength
+          + " bytes exceeds the segment size of " + segmentSize + " bytes");
+    long padding = (8 - ((position + buffer.position()) & 7)) & 7;
+    final long start = position + buffer.position() + padding;
+    final long segmentEnd = (start / segmentSize + 1) * segmentSize;
+    if (start + blockLength > segmentEnd) {
+      // Skip to the next segment, leaving a hole in the file
+      flush();
+      position = segmentEnd;
+      channel.position(position);
+      return position;
+    }
+    for (long i = 0; i < padding; i++) {
+      ensureRemaining(1);
+      buffer.put((byte) 0);
+    }
+    return position + buffer.position();
+  }
+
+  private void writeDoubles(double values[], int size) throws IOException {
+    int written = 0;
+    while (written < size) {
+      ensureRemaining(8);
+      final int chunk = Math.min(buffer.remaining() / 8, size - written);
+      buffer.asDoubleBuffer().put(values, written, chunk);
+      buffer.position(buffer.position() + chunk * 8);
+      written += chunk;
+    }
+  }
+
+  private void writeFloats(float values[], int size) throws IOException {
+    int written = 0;
+    while (written < size) {
+      ensureRemaining(4);
+      final int chunk = Math.min(buffer.remaining() / 4, size - written);
+      buffer.asFloatBuffer().put(values, written, chunk);
+      buffer.position(buffer.position() + chunk * 4);
+      written += chunk;
+    }
+  }
+
+  private void ensureRemaining(int numOfBytes) throws IOException {
+    if (buffer.remaining() < numOfBytes)
+      flush();
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining())
+      position += channel.write(buffer);
+    buffer.clear();
+  }
+
+}
@@ -0,0 +1,296 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.io.msdkcache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Range;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.MSDKMethod;
+import io.github.msdk.datamodel.chromatograms.ChromatogramType;
+import io.github.msdk.datamodel.files.FileType;
+import io.github.msdk.datamodel.impl.SimpleActivationInfo;
+import io.github.msdk.datamodel.impl.SimpleIsolationInfo;
+import io.github.msdk.datamodel.msspectra.MsSpectrumType;
+import io.github.msdk.datamodel.rawdata.ActivationInfo;
+import io.github.msdk.datamodel.rawdata.ActivationType;
+import io.github.msdk.datamodel.rawdata.IsolationInfo;
+import io.github.msdk.datamodel.rawdata.MsScanType;
+import io.github.msdk.datamodel.rawdata.PolarityType;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.SeparationType;
+
+/**
+ * This class opens an .msdkcache file (see {@link MsdkCacheFormat}). The data section of the file
+ * is memory-mapped, so only the scan and chromatogram metadata are read into memory and no data
+ * points are copied until they are requested.
+ */
+public class MsdkCacheFileImportMethod implements MSDKMethod<RawDataFile> {
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final @Nonnull File cacheFile;
+
+  private MsdkCacheRawDataFile newRawFile;
+  private boolean canceled = false;
+  private long totalObjects = 0, parsedObjects = 0;
+
+  /**
+   * <p>
+   * Constructor for MsdkCacheFileImportMethod.
+   * </p>
+   *
+   * @param cacheFile a {@link java.io.File} object.
+   */
+  public MsdkCacheFileImportMethod(@Nonnull File cacheFile) {
+    this.cacheFile = cacheFile;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public RawDataFile execute() throws MSDKException {
+
+    logger.info("Started opening cache file " + cacheFile);
+
+    try (RandomAccessFile raf = new RandomAccessFile(cacheFile, "r");
+        FileChannel channel = raf.getChannel()) {
+
+      // Read the header
+      final long fileSize = channel.size();
+      if (fileSize < MsdkCacheFormat.HEADER_SIZE)
+        throw new MSDKException("File " + cacheFile + " is not a valid cache file");
+      final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+          MsdkCacheFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      if ((header.getLong(MsdkCacheFormat.MAGIC_POSITION) != MsdkCacheFormat.MAGIC)
+          || (header.getInt(MsdkCacheFormat.VERSION_POSITION) != MsdkCacheFormat.VERSION))
+        throw new MSDKException("File " + cacheFile + " is not a valid cache file");
+      final int segmentSize = header.getInt(MsdkCacheFormat.SEGMENT_SIZE_POSITION);
+      final long metadataOffset = header.getLong(MsdkCacheFormat.METADATA_OFFSET_POSITION);
+      final long metadataLength = header.getLong(MsdkCacheFormat.METADATA_LENGTH_POSITION);
+      if ((segmentSize <= 0) || (metadataOffset + metadataLength > fileSize)
+          || (metadataLength > Integer.MAX_VALUE))
+        throw new MSDKException("Cache file " + cacheFile + " is corrupted");
+
+      // Map the data section in segments
+      final int numOfSegments = (int) ((metadataOffset + segmentSize - 1) / segmentSize);
+      final ByteBuffer segments[] = new ByteBuffer[numOfSegments];
+      for (int i = 0; i < numOfSegments; i++) {
+        final long start = (long) i * segmentSize;
+        final long length = Math.min(segmentSize, metadataOffset - start);
+        segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length)
+            .order(ByteOrder.LITTLE_ENDIAN);
+      }
+
+      // Parse the metadata
+      final ByteBuffer metadata = channel
+          .map(FileChannel.MapMode.READ_ONLY, metadataOffset, metadataLength)
+          .order(ByteOrder.LITTLE_ENDIAN);
+
+      final String name = readString(metadata);
+      final String fileTypeName = readString(metadata);
+      final String originalFilePath = readString(metadata);
+      FileType fileType;
+      try {
+        fileType = FileType.valueOf(fileTypeName);
+      } catch (IllegalArgumentException | NullPointerException e) {
+        fileType = FileType.UNKNOWN;
+      }
+      newRawFile = new MsdkCacheRawDataFile(name,
+          Optional.ofNullable((originalFilePath != null) ? new File(originalFilePath) : null),
+          fileType);
+
+      final int numOfScans = metadata.getInt();
+      totalObjects = numOfScans;
+      for (int i = 0; i < numOfScans; i++) {
+        if (canceled)
+          return null;
+        final long storedPosition = metadata.getLong();
+        final int numOfDataPoints = metadata.getInt();
+        final long dataPosition = getDataPosition(storedPosition, numOfDataPoints);
+        final int scanNumber = metadata.getInt();
+        final int msLevel = metadata.getInt();
+        final float rt = metadata.getFloat();
+        final float tic = metadata.getFloat();
+        final PolarityType polarity =
+            MsdkCacheFormat.decodeEnum(MsdkCacheFormat.POLARITY_CODES, metadata.get(),
+                PolarityType.UNKNOWN);
+        final MsScanType msScanType =
+            MsdkCacheFormat.decodeEnum(MsdkCacheFormat.MS_SCAN_TYPE_CODES, metadata.get(),
+                MsScanType.UNKNOWN);
+        final MsSpectrumType spectrumType =
+            MsdkCacheFormat.decodeEnum(MsdkCacheFormat.SPECTRUM_TYPE_CODES, metadata.get(),
+                MsSpectrumType.CENTROIDED);
+        final Range<Double> scanningRange = readRange(metadata);
+        final String msFunction = readString(metadata);
+        final String scanDefinition = readString(metadata);
+        final ActivationInfo sourceInducedFragmentation = readActivationInfo(metadata);
+        final List<IsolationInfo> isolations = readIsolations(metadata);
+
+        final int segmentIndex = getSegmentIndex(dataPosition, numOfDataPoints * 12L,
+            segmentSize, segments.length);
+        newRawFile.addScan(new MsdkCacheMsScan(newRawFile, segments[segmentIndex],
+            (int) (dataPosition - (long) segmentIndex * segmentSize), numOfDataPoints, scanNumber,
+            msLevel, Float.isNaN(rt) ? null : rt, tic, polarity, msScanType, spectrumType,
+            scanningRange, msFunction, scanDefinition, sourceInducedFragmentation, isolations));
+        parsedObjects++;
+      }
+
+      final int numOfChromatograms = metadata.getInt();
+      totalObjects += numOfChromatograms;
+      for (int i = 0; i < numOfChromatograms; i++) {
+        if (canceled)
+          return null;
+        final long storedPosition = metadata.getLong();
+        final int numOfDataPoints = metadata.getInt();
+        final long dataPosition = getDataPosition(storedPosition, numOfDataPoints);
+        final int chromatogramNumber = metadata.getInt();
+        final ChromatogramType chromatogramType =
+            MsdkCacheFormat.decodeEnum(MsdkCacheFormat.CHROMATOGRAM_TYPE_CODES, metadata.get(),
+                ChromatogramType.UNKNOWN);
+        final SeparationType separationType =
+            MsdkCacheFormat.decodeEnum(MsdkCacheFormat.SEPARATION_TYPE_CODES, metadata.get(),
+                SeparationType.UNKNOWN);
+        final boolean hasMzValues = metadata.get() != 0;
+        final double mz = metadata.getDouble();
+        final List<IsolationInfo> isolations = readIsolations(metadata);
+
+        final int segmentIndex = getSegmentIndex(dataPosition,
+            numOfDataPoints * (hasMzValues ? 16L : 8L), segmentSize, segments.length);
+        newRawFile.addChromatogram(new MsdkCacheChromatogram(newRawFile, segments[segmentIndex],
+            (int) (dataPosition - (long) segmentIndex * segmentSize), numOfDataPoints,
+            hasMzValues, (chromatogramNumber == Integer.MIN_VALUE) ? null : chromatogramNumber,
+            chromatogramType, separationType,
+            Double.isNaN(mz) ? null : mz, isolations));
+        parsedObjects++;
+      }
+
+    } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+      throw new MSDKException(e);
+    }
+
+    logger.info("Finished opening cache file " + cacheFile);
+
+    return newRawFile;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Float getFinishedPercentage() {
+    return totalObjects == 0 ? null : (float) parsedObjects / totalObjects;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nullable
+  public RawDataFile getResult() {
+    return newRawFile;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void cancel() {
+    this.canceled = true;
+  }
+
+  /**
+   * Empty blocks may be positioned right at the end of the data section, so they are all pointed
+   * to the beginning of the first segment instead.
+   */
+  private static long getDataPosition(long dataPosition, int numOfDataPoints) {
+    if (numOfDataPoints < 0)
+      throw new IllegalArgumentException("Invalid number of data points " + numOfDataPoints);
+    return (numOfDataPoints == 0) ? 0 : dataPosition;
+  }
+
+  private static int getSegmentIndex(long dataPosition, long blockLength, int segmentSize,
+      int numOfSegments) {
+    final long segmentIndex = dataPosition / segmentSize;
+    if ((dataPosition < 0) || (segmentIndex >= numOfSegments)
+        || (dataPosition + blockLength > (segmentIndex + 1) * segmentSize))
+      throw new IllegalArgumentException("Invalid data position " + dataPosition);
+    return (int) segmentIndex;
+  }
+
+  private static @Nonnull List<IsolationInfo> readIsolations(@Nonnull ByteBuffer metadata) {
+    final int numOfIsolations = metadata.getInt();
+    if (numOfIsolations == 0)
+      return Collections.emptyList();
+    final List<IsolationInfo> isolations = new ArrayList<>(numOfIsolations);
+    for (int i = 0; i < numOfIsolations; i++) {
+      final Range<Double> isolationRange = readRange(metadata);
+      final float ionInjectTime = metadata.getFloat();
+      final double precursorMz = metadata.getDouble();
+      final int precursorCharge = metadata.getInt();
+      final ActivationInfo activationInfo = readActivationInfo(metadata);
+      isolations.add(new SimpleIsolationInfo(
+          (isolationRange != null) ? isolationRange : Range.all(),
+          Float.isNaN(ionInjectTime) ? null : ionInjectTime,
+          Double.isNaN(precursorMz) ? null : precursorMz,
+          (precursorCharge == Integer.MIN_VALUE) ? null : precursorCharge, activationInfo));
+    }
+    return Collections.unmodifiableList(isolations);
+  }
+
+  private static @Nullable ActivationInfo readActivationInfo(@Nonnull ByteBuffer metadata) {
+    if (metadata.get() == 0)
+      return null;
+    final ActivationType activationType =
+        MsdkCacheFormat.decodeEnum(MsdkCacheFormat.ACTIVATION_TYPE_CODES, metadata.get(),
+            ActivationType.UNKNOWN);
+    final double energy = metadata.getDouble();
+    return new SimpleActivationInfo(Double.isNaN(energy) ? null : energy, activationType);
+  }
+
+  private static @Nullable Range<Double> readRange(@Nonnull ByteBuffer metadata) {
+    final double lower = metadata.getDouble();
+    final double upper = metadata.getDouble();
+    if (Double.isNaN(lower) || Double.isNaN(upper))
+      return null;
+    if (Double.isInfinite(lower) && Double.isInfinite(upper))
+      return Range.all();
+    if (Double.isInfinite(lower))
+      return Range.atMost(upper);
+    if (Double.isInfinite(upper))
+      return Range.atLeast(lower);
+    return Range.closed(lower, upper);
+  }
+
+  private static @Nullable String readString(@Nonnull ByteBuffer metadata) {
+    final int length = metadata.getInt();
+    if (length < 0)
+      return null;
+    final byte bytes[] = new byte[length];
+    metadata.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.io.msdkcache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import io.github.msdk.datamodel.chromatograms.ChromatogramType;
+import io.github.msdk.datamodel.msspectra.MsSpectrumType;
+import io.github.msdk.datamodel.rawdata.ActivationType;
+import io.github.msdk.datamodel.rawdata.MsScanType;
+import io.github.msdk.datamodel.rawdata.PolarityType;
+import io.github.msdk.datamodel.rawdata.SeparationType;
+
+/**
+ * Constants and helper methods of the .msdkcache binary format. An .msdkcache file is a sidecar
+ * of a raw data file, holding all its scans and chromatograms in a form that can be opened without
+ * parsing.
+ *
+ * All values are stored in little-endian byte order. The file consists of
+ * <ul>
+ * <li>a fixed-size header, holding the size and modification time of the source file and the
+ * positions of the other sections</li>
+ * <li>the data section, holding the data point arrays. The m/z values of each scan are followed by
+ * its intensity values, and each block starts at a position aligned to 8 bytes. No block crosses a
+ * segment boundary (a multiple of the segment size stored in the header), so that the data section
+ * can be memory-mapped in segments.</li>
+ * <li>the metadata section, holding the scan and chromatogram attributes, including the isolation
+ * info, and the positions of their data blocks</li>
+ * </ul>
+ *
+ * The header is written last, so an incompletely written file is never considered valid.
+ *
+ * Enum values are stored as explicit one-byte codes (see {@link #encodeEnum(Enum[], Enum)}), so
+ * that the files do not depend on the declaration order of the enums. Code 0 is reserved for null
+ * and values unknown to this version of the format, and is read back as the UNKNOWN value of the
+ * enum (centroided for spectrum types, which have no UNKNOWN value).
+ */
+public final class MsdkCacheFormat {
+
+  /** File name extension of the cache files */
+  public static final String FILE_EXTENSION = ".msdkcache";
+
+  static final long MAGIC = 0x484341434b44534dL; // "MSDKCACH" in little-endian byte order
+  static final int VERSION = 2;
+  static final int HEADER_SIZE = 64;
+
+  /** Default segment size (1 GB) */
+  static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+  // Header field positions
+  static final int MAGIC_POSITION = 0;
+  static final int VERSION_POSITION = 8;
+  static final int SEGMENT_SIZE_POSITION = 12;
+  static final int SOURCE_SIZE_POSITION = 16;
+  static final int SOURCE_MODIFIED_POSITION = 24;
+  static final int DATA_OFFSET_POSITION = 32;
+  static final int METADATA_OFFSET_POSITION = 40;
+  static final int METADATA_LENGTH_POSITION = 48;
+
+  // Stored enum codes. The code of a value is its index in the array plus 1. New values may only
+  // be appended to the end of an array.
+  static final byte NULL_CODE = 0;
+  static final PolarityType POLARITY_CODES[] =
+      {PolarityType.POSITIVE, PolarityType.NEGATIVE, PolarityType.UNKNOWN};
+  static final MsScanType MS_SCAN_TYPE_CODES[] = {MsScanType.FULLMS, MsScanType.MSMS,
+      MsScanType.SIM, MsScanType.MRM_SRM, MsScanType.DIA, MsScanType.UNKNOWN};
+  static final MsSpectrumType SPECTRUM_TYPE_CODES[] =
+      {MsSpectrumType.PROFILE, MsSpectrumType.THRESHOLDED, MsSpectrumType.CENTROIDED};
+  static final ChromatogramType CHROMATOGRAM_TYPE_CODES[] = {ChromatogramType.TIC,
+      ChromatogramType.BPC, ChromatogramType.XIC, ChromatogramType.SIC, ChromatogramType.MRM_SRM,
+      ChromatogramType.UNKNOWN};
+  static final SeparationType SEPARATION_TYPE_CODES[] = {SeparationType.GC, SeparationType.GCxGC,
+      SeparationType.LC, SeparationType.LCxLC, SeparationType.CE, SeparationType.IMS,
+      SeparationType.UNKNOWN, SeparationType.UNKNOWN_2D};
+  static final ActivationType ACTIVATION_TYPE_CODES[] =
+      {ActivationType.CID, ActivationType.HCD, ActivationType.ECD, ActivationType.ETD,
+          ActivationType.ETHCD, ActivationType.UVPD, ActivationType.UNKNOWN};
+
+  private MsdkCacheFormat() {}
+
+  /**
+   * Returns the stored code of the given enum value, or {@link #NULL_CODE} if the value is null or
+   * not listed in the given codes.
+   */
+  static <T extends Enum<T>> byte encodeEnum(@Nonnull T codes[], @Nullable T value) {
+    if (value == null)
+      return NULL_CODE;
+    for (int i = 0; i < codes.length; i++) {
+      if (codes[i] == value)
+        return (byte) (i + 1);
+    }
+    return NULL_CODE;
+  }
+
+  /**
+   * Returns the enum value of the given stored code, or the given default value for
+   * {@link #NULL_CODE}.
+   */
+  static @Nonnull <T extends Enum<T>> T decodeEnum(@Nonnull T codes[], byte code,
+      @Nonnull T defaultValue) {
+    if (code == NULL_CODE)
+      return defaultValue;
+    if ((code < 0) || (code > codes.length))
+      throw new IllegalArgumentException("Invalid enum code " + code);
+    return codes[code - 1];
+  }
+
+  /**
+   * Returns the location of the cache file for the given raw data file, which is the name of the
+   * source file followed by the .msdkcache extension, in the same directory.
+   *
+   * @param sourceFile a {@link java.io.File} object.
+   * @return a {@link java.io.File} object.
+   */
+  public static @Nonnull File getCacheFile(@Nonnull File sourceFile) {
+    return new File(sourceFile.getPath() + FILE_EXTENSION);
+  }
+
+  /**
+   * Checks whether the given cache file is complete and was created from the current version of
+   * the source file, i.e. whether the size and the modification time of the source file match the
+   * values stored in the cache.
+   *
+   * @param cacheFile a {@link java.io.File} object.
+   * @param sourceFile a {@link java.io.File} object.
+   * @return true if the cache file can be used instead of parsing the source file
+   */
+  public static boolean isCacheValid(@Nonnull File cacheFile, @Nonnull File sourceFile) {
+
+    if (!cacheFile.isFile() || !sourceFile.exists())
+      return false;
+
+    try (RandomAccessFile raf = new RandomAccessFile(cacheFile, "r");
+        FileChannel channel = raf.getChannel()) {
+
+      if (channel.size() < HEADER_SIZE)
+        return false;
+
+      final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) {
+        if (channel.read(header, header.position()) < 0)
+          return false;
+      }
+
+      if ((header.getLong(MAGIC_POSITION) != MAGIC)
+          || (header.getInt(VERSION_POSITION) != VERSION))
+        return false;
+
+      final long metadataEnd =
+          header.getLong(METADATA_OFFSET_POSITION) + header.getLong(METADATA_LENGTH_POSITION);
+      if (metadataEnd > channel.size())
+        return false;
+
+      return (header.getLong(SOURCE_SIZE_POSITION) == sourceFile.length())
+          && (header.getLong(SOURCE_MODIFIED_POSITION) == sourceFile.lastModified());
+
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.io.msdkcache;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Range;
+
+import io.github.msdk.datamodel.msspectra.MsSpectrumType;
+import io.github.msdk.datamodel.rawdata.ActivationInfo;
+import io.github.msdk.datamodel.rawdata.IsolationInfo;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.MsScanType;
+import io.github.msdk.datamodel.rawdata.PolarityType;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.util.tolerances.MzTolerance;
+
+/**
+ * MsScan implementation that reads its data points from a memory-mapped .msdkcache file. The m/z
+ * values are followed by the intensity values in the mapped segment.
+ */
+class MsdkCacheMsScan implements MsScan {
+
+  private final @Nonnull MsdkCacheRawDataFile dataFile;
+  private final @Nonnull ByteBuffer segment;
+  private final int offset;
+  private final int numOfDataPoints;
+
+  private final int scanNumber;
+  private final int msLevel;
+  private final @Nullable Float rt;
+  private final float tic;
+  private final @Nonnull PolarityType polarity;
+  private final @Nonnull MsScanType msScanType;
+  private final @Nonnull MsSpectrumType spectrumType;
+  private final @Nullable Range<Double> scanningRange;
+  private final @Nullable String msFunction;
+  private final @Nullable String scanDefinition;
+  private final @Nullable ActivationInfo sourceInducedFragmentation;
+  private final @Nonnull List<IsolationInfo> isolations;
+
+  MsdkCacheMsScan(@Nonnull MsdkCacheRawDataFile dataFile, @Nonnull ByteBuffer segment, int offset,
+      int numOfDataPoints, int scanNumber, int msLevel, @Nullable Float rt, float tic,
+      @Nonnull PolarityType polarity, @Nonnull MsScanType msScanType,
+      @Nonnull MsSpectrumType spectrumType, @Nullable Range<Double> scanningRange,
+      @Nullable String msFunction, @Nullable String scanDefinition,
+      @Nullable ActivationInfo sourceInducedFragmentation,
+      @Nonnull List<IsolationInfo> isolations) {
+    this.dataFile = dataFile;
+    this.segment = segment;
+    this.offset = offset;
+    this.numOfDataPoints = numOfDataPoints;
+    this.scanNumber = scanNumber;
+    this.msLevel = msLevel;
+    this.rt = rt;
+    this.tic = tic;
+    this.polarity = polarity;
+    this.msScanType = msScanType;
+    this.spectrumType = spectrumType;
+    this.scanningRange = scanningRange;
+    this.msFunction = msFunction;
+    this.scanDefinition = scanDefinition;
+    this.sourceInducedFragmentation = sourceInducedFragmentation;
+    this.isolations = isolations;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public RawDataFile getRawDataFile() {
+    return dataFile;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Integer getScanNumber() {
+    return scanNumber;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String getScanDefinition() {
+    return scanDefinition;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String getMsFunction() {
+    return msFunction;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Integer getMsLevel() {
+    return msLevel;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public MsScanType getMsScanType() {
+    return msScanType;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Float getRetentionTime() {
+    return rt;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Range<Double> getScanningRange() {
+    return scanningRange;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public PolarityType getPolarity() {
+    return polarity;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public ActivationInfo getSourceInducedFragmentation() {
+    return sourceInducedFragmentation;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public List<IsolationInfo> getIsolations() {
+    return isolations;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public MsSpectrumType getSpectrumType() {
+    return spectrumType;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Integer getNumberOfDataPoints() {
+    return numOfDataPoints;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double[] getMzValues(double[] array) {
+    if ((array == null) || (array.length < numOfDataPoints))
+      array = new double[numOfDataPoints];
+    getMzBuffer().get(array, 0, numOfDataPoints);
+    return array;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public float[] getIntensityValues(float[] array) {
+    if ((array == null) || (array.length < numOfDataPoints))
+      array = new float[numOfDataPoints];
+    getIntensityBuffer().get(array, 0, numOfDataPoints);
+    return array;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double getMz(int index) {
+    Preconditions.checkElementIndex(index, numOfDataPoints);
+    return segment.getDouble(offset + index * 8);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public float getIntensity(int index) {
+    Preconditions.checkElementIndex(index, numOfDataPoints);
+    return segment.getFloat(offset + numOfDataPoints * 8 + index * 4);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull DoubleBuffer getMzBuffer() {
+    final ByteBuffer view = segment.duplicate();
+    view.limit(offset + numOfDataPoints * 8).position(offset);
+    return view.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().asReadOnlyBuffer();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull FloatBuffer getIntensityBuffer() {
+    final int intensityOffset = offset + numOfDataPoints * 8;
+    final ByteBuffer view = segment.duplicate();
+    view.limit(intensityOffset + numOfDataPoints * 4).position(intensityOffset);
+    return view.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().asReadOnlyBuffer();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Float getTIC() {
+    return tic;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Range<Double> getMzRange() {
+    if (numOfDataPoints == 0)
+      return null;
+    return Range.closed(getMz(0), getMz(numOfDataPoints - 1));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public MzTolerance getMzTolerance() {
+    return null;
+  }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.io.msdkcache;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import io.github.msdk.datamodel.chromatograms.Chromatogram;
+import io.github.msdk.datamodel.files.FileType;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.ScanIndex;
+
+/**
+ * Read-only RawDataFile opened from an .msdkcache file. The data points of the scans and
+ * chromatograms stay in the memory-mapped cache file.
+ */
+class MsdkCacheRawDataFile implements RawDataFile {
+
+  private final @Nonnull String name;
+  private final @Nonnull Optional<File> originalFile;
+  private final @Nonnull FileType fileType;
+  private final @Nonnull List<MsScan> scans = new ArrayList<>();
+  private final @Nonnull List<Chromatogram> chromatograms = new ArrayList<>();
+  private final @Nonnull List<String> msFunctions = new ArrayList<>();
+  private @Nullable ScanIndex scanIndex;
+
+  MsdkCacheRawDataFile(@Nonnull String name, @Nonnull Optional<File> originalFile,
+      @Nonnull FileType fileType) {
+    this.name = name;
+    this.originalFile = originalFile;
+    this.fileType = fileType;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nonnull
+  public String getName() {
+    return name;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nonnull
+  public Optional<File> getOriginalFile() {
+    return originalFile;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nonnull
+  public String getOriginalFilename() {
+    if (originalFile.isPresent())
+      return originalFile.get().getName();
+    return "Unknown";
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nonnull
+  public FileType getRawDataFileType() {
+    return fileType;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nonnull
+  public List<String> getMsFunctions() {
+    return Collections.unmodifiableList(msFunctions);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nonnull
+  public List<MsScan> getScans() {
+    return Collections.unmodifiableList(scans);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nonnull
+  synchronized public ScanIndex getScanIndex() {
+    if (scanIndex == null)
+      scanIndex = new ScanIndex(scans);
+    return scanIndex;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @Nonnull
+  public List<Chromatogram> getChromatograms() {
+    return Collections.unmodifiableList(chromatograms);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void dispose() {
+    // The mapped cache file is released when this object is garbage collected
+  }
+
+  void addScan(@Nonnull MsScan scan) {
+    scans.add(scan);
+    final String msFunction = scan.getMsFunction();
+    if ((msFunction != null) && !msFunctions.contains(msFunction))
+      msFunctions.add(msFunction);
+  }
+
+  void addChromatogram(@Nonnull Chromatogram chromatogram) {
+    chromatograms.add(chromatogram);
+  }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.io.msdkcache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Range;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.chromatograms.Chromatogram;
+import io.github.msdk.datamodel.chromatograms.ChromatogramType;
+import io.github.msdk.datamodel.files.FileType;
+import io.github.msdk.datamodel.impl.SimpleActivationInfo;
+import io.github.msdk.datamodel.impl.SimpleChromatogram;
+import io.github.msdk.datamodel.impl.SimpleIsolationInfo;
+import io.github.msdk.datamodel.impl.SimpleMsScan;
+import io.github.msdk.datamodel.impl.SimpleRawDataFile;
+import io.github.msdk.datamodel.msspectra.MsSpectrumType;
+import io.github.msdk.datamodel.rawdata.ActivationType;
+import io.github.msdk.datamodel.rawdata.IsolationInfo;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.PolarityType;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.SeparationType;
+
+/**
+ * Tests for MsdkCacheFileExportMethod and MsdkCacheFileImportMethod
+ */
+public class MsdkCacheFileExportMethodTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRoundTrip() throws IOException, MSDKException {
+
+    File sourceFile = folder.newFile("test.mzML");
+    Files.write(sourceFile.toPath(), new byte[] {1, 2, 3});
+    SimpleRawDataFile rawDataFile =
+        new SimpleRawDataFile("test", Optional.of(sourceFile), FileType.MZML);
+
+    // 100 scans of 100 data points do not fit in a 4 kB segment
+    for (int i = 0; i < 100; i++) {
+      SimpleMsScan scan = new SimpleMsScan(i + 1, (i % 2 == 0) ? "FullMS" : "MS2");
+      scan.setRetentionTime(i * 0.5f);
+      scan.setPolarity(PolarityType.POSITIVE);
+      scan.setScanningRange(Range.closed(50.0, 1000.0));
+      double mzValues[] = new double[100];
+      float intensityValues[] = new float[100];
+      for (int j = 0; j < 100; j++) {
+        mzValues[j] = 100.0 + j + i * 0.001;
+        intensityValues[j] = i * 100 + j;
+      }
+      scan.setDataPoints(mzValues, intensityValues, 100);
+      if (i % 2 == 1) {
+        scan.setMsLevel(2);
+        scan.getIsolations().add(new SimpleIsolationInfo(Range.closed(199.5, 200.5), 10f, 200.0,
+            2, new SimpleActivationInfo(35.0, ActivationType.CID)));
+      }
+      rawDataFile.addScan(scan);
+    }
+
+    // An empty scan without retention time
+    SimpleMsScan emptyScan = new SimpleMsScan(101);
+    emptyScan.setSpectrumType(MsSpectrumType.PROFILE);
+    rawDataFile.addScan(emptyScan);
+
+    SimpleChromatogram chromatogram = new SimpleChromatogram();
+    chromatogram.setChromatogramNumber(1);
+    chromatogram.setChromatogramType(ChromatogramType.XIC);
+    chromatogram.setSeparationType(SeparationType.LC);
+    chromatogram.setMz(150.0);
+    chromatogram.setDataPoints(new float[] {1f, 2f, 3f}, new double[] {150.0, 150.1, 150.2},
+        new float[] {10f, 20f, 30f}, 3);
+    rawDataFile.addChromatogram(chromatogram);
+
+    File cacheFile = MsdkCacheFormat.getCacheFile(sourceFile);
+    MsdkCacheFileExportMethod exporter =
+        new MsdkCacheFileExportMethod(rawDataFile, cacheFile, sourceFile, 4096);
+    exporter.execute();
+    Assert.assertEquals(1.0, exporter.getFinishedPercentage(), 0.0001);
+    Assert.assertTrue(MsdkCacheFormat.isCacheValid(cacheFile, sourceFile));
+
+    // The temporary file was renamed to the cache file
+    Assert.assertEquals(2, folder.getRoot().listFiles().length);
+
+    MsdkCacheFileImportMethod importer = new MsdkCacheFileImportMethod(cacheFile);
+    RawDataFile cachedFile = importer.execute();
+    Assert.assertNotNull(cachedFile);
+    Assert.assertEquals(1.0, importer.getFinishedPercentage(), 0.0001);
+
+    Assert.assertEquals("test", cachedFile.getName());
+    Assert.assertEquals(FileType.MZML, cachedFile.getRawDataFileType());
+    Assert.assertEquals(sourceFile, cachedFile.getOriginalFile().get());
+    Assert.assertEquals(2, cachedFile.getMsFunctions().size());
+
+    List<MsScan> scans = cachedFile.getScans();
+    Assert.assertEquals(101, scans.size());
+    for (int i = 0; i < 100; i++) {
+      MsScan original = rawDataFile.getScans().get(i);
+      MsScan cached = scans.get(i);
+      Assert.assertSame(cachedFile, cached.getRawDataFile());
+      Assert.assertEquals(original.getScanNumber(), cached.getScanNumber());
+      Assert.assertEquals(original.getMsFunction(), cached.getMsFunction());
+      Assert.assertEquals(original.getMsLevel(), cached.getMsLevel());
+      Assert.assertEquals(original.getRetentionTime(), cached.getRetentionTime());
+      Assert.assertEquals(original.getScanningRange(), cached.getScanningRange());
+      Assert.assertEquals(original.getTIC(), cached.getTIC());
+      Assert.assertArrayEquals(original.getMzValues(), cached.getMzValues(), 0.0);
+      Assert.assertArrayEquals(original.getIntensityValues(), cached.getIntensityValues(), 0f);
+      Assert.assertEquals(original.getMz(99), cached.getMzBuffer().get(99), 0.0);
+      Assert.assertEquals(original.getIntensity(99), cached.getIntensity(99), 0f);
+      Assert.assertEquals(original.getIsolations().size(), cached.getIsolations().size());
+    }
+
+    IsolationInfo isolation = scans.get(1).getIsolations().get(0);
+    Assert.assertEquals(Range.closed(199.5, 200.5), isolation.getIsolationMzRange());
+    Assert.assertEquals(new Float(10f), isolation.getIonInjectTime());
+    Assert.assertEquals(new Double(200.0), isolation.getPrecursorMz());
+    Assert.assertEquals(new Integer(2), isolation.getPrecursorCharge());
+    Assert.assertEquals(ActivationType.CID, isolation.getActivationInfo().getActivationType());
+    Assert.assertEquals(new Double(35.0), isolation.getActivationInfo().getActivationEnergy());
+
+    MsScan cachedEmptyScan = scans.get(100);
+    Assert.assertEquals(new Integer(0), cachedEmptyScan.getNumberOfDataPoints());
+    Assert.assertNull(cachedEmptyScan.getRetentionTime());
+    Assert.assertNull(cachedEmptyScan.getScanningRange());
+    Assert.assertEquals(MsSpectrumType.PROFILE, cachedEmptyScan.getSpectrumType());
+    Assert.assertEquals(0, cachedEmptyScan.getMzValues().length);
+
+    Assert.assertEquals(1, cachedFile.getChromatograms().size());
+    Chromatogram cachedChromatogram = cachedFile.getChromatograms().get(0);
+    Assert.assertEquals(ChromatogramType.XIC, cachedChromatogram.getChromatogramType());
+    Assert.assertEquals(SeparationType.LC, cachedChromatogram.getSeparationType());
+    Assert.assertEquals(new Double(150.0), cachedChromatogram.getMz());
+    Assert.assertArrayEquals(new float[] {1f, 2f, 3f}, cachedChromatogram.getRetentionTimes(),
+        0f);
+    Assert.assertArrayEquals(new double[] {150.0, 150.1, 150.2},
+        cachedChromatogram.getMzValues(), 0.0);
+    Assert.assertArrayEquals(new float[] {10f, 20f, 30f},
+        cachedChromatogram.getIntensityValues(), 0f);
+
+    Assert.assertEquals(3, cachedFile.getScanIndex().getScans(Range.closed(0f, 1f)).size());
+  }
+
+  @Test
+  public void testCacheValidity() throws IOException, MSDKException {
+
+    File sourceFile = folder.newFile("valid.mzML");
+    Files.write(sourceFile.toPath(), new byte[] {1, 2, 3});
+    File cacheFile = MsdkCacheFormat.getCacheFile(sourceFile);
+    Assert.assertFalse(MsdkCacheFormat.isCacheValid(cacheFile, sourceFile));
+
+    SimpleRawDataFile rawDataFile =
+        new SimpleRawDataFile("valid", Optional.of(sourceFile), FileType.MZML);
+    new MsdkCacheFileExportMethod(rawDataFile, cacheFile).execute();
+    Assert.assertTrue(MsdkCacheFormat.isCacheValid(cacheFile, sourceFile));
+    Assert.assertEquals(0, new MsdkCacheFileImportMethod(cacheFile).execute().getScans().size());
+
+    // Touching the source file invalidates the cache
+    Assert.assertTrue(sourceFile.setLastModified(sourceFile.lastModified() - 10000));
+    Assert.assertFalse(MsdkCacheFormat.isCacheValid(cacheFile, sourceFile));
+
+    // So does a different size
+    new MsdkCacheFileExportMethod(rawDataFile, cacheFile).execute();
+    Assert.assertTrue(MsdkCacheFormat.isCacheValid(cacheFile, sourceFile));
+    final long lastModified = sourceFile.lastModified();
+    Files.write(sourceFile.toPath(), new byte[] {1, 2, 3, 4});
+    Assert.assertTrue(sourceFile.setLastModified(lastModified));
+    Assert.assertFalse(MsdkCacheFormat.isCacheValid(cacheFile, sourceFile));
+  }
+
+  @Test
+  public void testMissingTypes() throws IOException, MSDKException {
+
+    File sourceFile = folder.newFile("types.mzML");
+    SimpleRawDataFile rawDataFile =
+        new SimpleRawDataFile("types", Optional.of(sourceFile), FileType.MZML);
+
+    // A chromatogram without number, chromatogram type and separation type
+    SimpleChromatogram chromatogram = new SimpleChromatogram();
+    chromatogram.setDataPoints(new float[] {1f, 2f}, null, new float[] {10f, 20f}, 2);
+    rawDataFile.addChromatogram(chromatogram);
+
+    File cacheFile = MsdkCacheFormat.getCacheFile(sourceFile);
+    new MsdkCacheFileExportMethod(rawDataFile, cacheFile).execute();
+    Chromatogram cachedChromatogram =
+        new MsdkCacheFileImportMethod(cacheFile).execute().getChromatograms().get(0);
+    Assert.assertEquals(ChromatogramType.UNKNOWN, cachedChromatogram.getChromatogramType());
+    Assert.assertEquals(SeparationType.UNKNOWN, cachedChromatogram.getSeparationType());
+    Assert.assertNull(cachedChromatogram.getChromatogramNumber());
+    Assert.assertArrayEquals(new float[] {10f, 20f}, cachedChromatogram.getIntensityValues(), 0f);
+  }
+
+  @Test
+  public void testEnumCodes() {
+    Assert.assertEquals(MsdkCacheFormat.NULL_CODE,
+        MsdkCacheFormat.encodeEnum(MsdkCacheFormat.POLARITY_CODES, null));
+    for (SeparationType separationType : SeparationType.values()) {
+      byte code =
+          MsdkCacheFormat.encodeEnum(MsdkCacheFormat.SEPARATION_TYPE_CODES, separationType);
+      Assert.assertEquals(separationType, MsdkCacheFormat.decodeEnum(
+          MsdkCacheFormat.SEPARATION_TYPE_CODES, code, SeparationType.UNKNOWN));
+    }
+  }
+
+  @Test(expected = MSDKException.class)
+  public void testInvalidFile() throws IOException, MSDKException {
+    File cacheFile = folder.newFile("invalid.msdkcache");
+    Files.write(cacheFile.toPath(), new byte[100]);
+    new MsdkCacheFileImportMethod(cacheFile).execute();
+  }
+
+}
@@ -26,6 +26,7 @@ import org.slf4j.LoggerFactory;
 
 import io.github.msdk.MSDKException;
 import io.github.msdk.MSDKMethod;
+import io.github.msdk.datamodel.datastore.DataPointStore;
 import io.github.msdk.datamodel.files.FileType;
 import io.github.msdk.datamodel.impl.SimpleRawDataFile;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
@@ -40,6 +41,7 @@ public class MzDataFileImportMethod implements MSDKMethod<RawDataFile> {
   private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
   private final @Nonnull File sourceFile;
+  private final @Nullable DataPointStore dataStore;
 
   private MzDataSaxHandler saxHandler;
 
@@ -52,10 +54,23 @@ public class MzDataFileImportMethod implements MSDKMethod<RawDataFile> {
    * </p>
    *
    * @param sourceFile a {@link java.io.File} object.
-   * @param dataStore a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
    */
   public MzDataFileImportMethod(@Nonnull File sourceFile) {
+    this(sourceFile, null);
+  }
+
+  /**
+   * <p>
+   * Constructor for MzDataFileImportMethod. If a DataPointStore is provided, the data points of
+   * the imported scans are kept in the store instead of the heap.
+   * </p>
+   *
+   * @param sourceFile a {@link java.io.File} object.
+   * @param dataStore a {@link io.github.msdk.datamodel.datastore.DataPointStore} object, or null.
+   */
+  public MzDataFileImportMethod(@Nonnull File sourceFile, @Nullable DataPointStore dataStore) {
     this.sourceFile = sourceFile;
+    this.dataStore = dataStore;
   }
 
   /** {@inheritDoc} */
@@ -67,7 +82,7 @@ public class MzDataFileImportMethod implements MSDKMethod<RawDataFile> {
     String fileName = sourceFile.getName();
     newRawFile = new SimpleRawDataFile(fileName, Optional.of(sourceFile), FileType.MZDATA);
 
-    saxHandler = new MzDataSaxHandler(newRawFile);
+    saxHandler = new MzDataSaxHandler(newRawFile, dataStore);
     SAXParserFactory factory = SAXParserFactory.newInstance();
 
     try {
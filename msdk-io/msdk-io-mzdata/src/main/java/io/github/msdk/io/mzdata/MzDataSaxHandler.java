@@ -16,6 +16,8 @@ package io.github.msdk.io.mzdata;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
+import javax.annotation.Nullable;
+
 import org.apache.commons.codec.binary.Base64;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -23,9 +25,11 @@ import org.xml.sax.helpers.DefaultHandler;
 
 import com.google.common.collect.Range;
 
+import io.github.msdk.datamodel.datastore.DataPointStore;
 import io.github.msdk.datamodel.impl.SimpleIsolationInfo;
 import io.github.msdk.datamodel.impl.SimpleMsScan;
 import io.github.msdk.datamodel.impl.SimpleRawDataFile;
+import io.github.msdk.datamodel.impl.StoredMsScan;
 import io.github.msdk.datamodel.msspectra.MsSpectrumType;
 import io.github.msdk.datamodel.rawdata.IsolationInfo;
 import io.github.msdk.datamodel.rawdata.PolarityType;
@@ -34,6 +38,7 @@ import io.github.msdk.spectra.spectrumtypedetection.SpectrumTypeDetectionAlgorit
 class MzDataSaxHandler extends DefaultHandler {
 
   private SimpleRawDataFile newRawFile;
+  private final @Nullable DataPointStore dataStore;
 
   private boolean canceled = false;
   private long totalScans = 0, parsedScans;
@@ -62,10 +67,22 @@ class MzDataSaxHandler extends DefaultHandler {
    * </p>
    *
    * @param newRawFile a {@link io.github.msdk.datamodel.rawdata.RawDataFile} object.
-   * @param dataStore a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
    */
   public MzDataSaxHandler(SimpleRawDataFile newRawFile) {
+    this(newRawFile, null);
+  }
+
+  /**
+   * <p>
+   * Constructor for MzDataSaxHandler.
+   * </p>
+   *
+   * @param newRawFile a {@link io.github.msdk.datamodel.rawdata.RawDataFile} object.
+   * @param dataStore a {@link io.github.msdk.datamodel.datastore.DataPointStore} object, or null.
+   */
+  public MzDataSaxHandler(SimpleRawDataFile newRawFile, @Nullable DataPointStore dataStore) {
     this.newRawFile = newRawFile;
+    this.dataStore = dataStore;
     charBuffer = new StringBuilder();
   }
 
@@ -203,7 +220,8 @@ class MzDataSaxHandler extends DefaultHandler {
       MsSpectrumType spectrumType =
           SpectrumTypeDetectionAlgorithm.detectSpectrumType(mzBuffer, intensityBuffer, peaksCount);
 
-      SimpleMsScan newScan = new SimpleMsScan(scanNumber);
+      SimpleMsScan newScan = (dataStore != null) ? new StoredMsScan(dataStore, scanNumber)
+          : new SimpleMsScan(scanNumber);
 
       newScan.setMsLevel(msLevel);
       newScan.setDataPoints(mzBuffer, intensityBuffer, peaksCount);
@@ -36,6 +36,7 @@ import io.github.msdk.datamodel.rawdata.MsScan;
 import io.github.msdk.datamodel.rawdata.MsScanType;
 import io.github.msdk.datamodel.rawdata.PolarityType;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.ScanFilter;
 import io.github.msdk.datamodel.rawdata.SeparationType;
 import io.github.msdk.spectra.spectrumtypedetection.SpectrumTypeDetectionAlgorithm;
 import io.github.msdk.util.MsSpectrumUtil;
@@ -55,6 +56,8 @@ public class MzMLFileImportMethod implements MSDKMethod<RawDataFile> {
 
   private boolean canceled = false;
 
+  private @Nullable ScanFilter scanFilter;
+
   private RawDataFile newRawFile;
   private long totalScans = 0, totalChromatograms = 0, parsedScans, parsedChromatograms;
 
@@ -69,6 +72,17 @@ public class MzMLFileImportMethod implements MSDKMethod<RawDataFile> {
     this.sourceFile = sourceFile;
   }
 
+  /**
+   * Sets a filter of the scans. The filter is tested on the metadata of each spectrum, before its
+   * data points are decoded.
+   *
+   * @param scanFilter a {@link io.github.msdk.datamodel.rawdata.ScanFilter} object, or null to
+   *        accept all scans
+   */
+  public void setScanFilter(@Nullable ScanFilter scanFilter) {
+    this.scanFilter = scanFilter;
+  }
+
   /** {@inheritDoc} */
   @Override
   public RawDataFile execute() throws MSDKException {
@@ -129,15 +143,29 @@ public class MzMLFileImportMethod implements MSDKMethod<RawDataFile> {
           continue;
         }
 
-        // Get the scan definition
-        String scanDefinition = converter.extractScanDefinition(spectrum);
-
         // Get the MS function
         Integer msLevel = converter.extractMsLevel(spectrum);
 
         // Store the chromatography data
         Float rt = converter.extractChromatographyData(spectrum);
 
+        // Get the polarity
+        PolarityType polarity = converter.extractPolarity(spectrum);
+
+        // Get the in-source fragmentation
+        List<IsolationInfo> isolations = converter.extractIsolations(spectrum);
+
+        // Skip the scans rejected by the scan filter before decoding the data points
+        if ((scanFilter != null) && !(scanFilter.acceptsScanNumber(scanNumber)
+            && scanFilter.acceptsMsLevel(msLevel) && scanFilter.acceptsRetentionTime(rt)
+            && scanFilter.acceptsPolarity(polarity) && scanFilter.acceptsIsolations(isolations))) {
+          parsedScans++;
+          continue;
+        }
+
+        // Get the scan definition
+        String scanDefinition = converter.extractScanDefinition(spectrum);
+
         // Extract the scan data points, so we can check the m/z range
         // and detect the spectrum type (profile/centroid)
         mzValues = MzMLConverter.extractMzValues(spectrum, mzValues);
@@ -160,15 +188,9 @@ public class MzMLFileImportMethod implements MSDKMethod<RawDataFile> {
         // Get the MS scan type
         MsScanType scanType = converter.extractScanType(spectrum);
 
-        // Get the polarity
-        PolarityType polarity = converter.extractPolarity(spectrum);
-
         // Get the in-source fragmentation
         ActivationInfo sourceFragmentation = converter.extractSourceFragmentation(spectrum);
 
-        // Get the in-source fragmentation
-        List<IsolationInfo> isolations = converter.extractIsolations(spectrum);
-
         // Create a new MsScan instance
         MzMLMsScan scan = new MzMLMsScan(newRawFile, spectrumId, spectrumType, "", msLevel,
             rt, scanType, mzRange, scanningRange, scanNumber, scanDefinition, tic, polarity,
@@ -27,6 +27,7 @@ import io.github.msdk.datamodel.chromatograms.Chromatogram;
 import io.github.msdk.datamodel.files.FileType;
 import io.github.msdk.datamodel.rawdata.MsScan;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.ScanIndex;
 import uk.ac.ebi.jmzml.xml.io.MzMLUnmarshaller;
 
 class MzMLRawDataFile implements RawDataFile {
@@ -41,6 +42,9 @@ class MzMLRawDataFile implements RawDataFile {
 
   private @Nonnull String name;
 
+  // The scan list is only appended to, so the index is rebuilt when its size changes
+  private @Nullable ScanIndex scanIndex;
+
   /**
    * <p>
    * Constructor for MzMLRawDataFile.
@@ -102,6 +106,18 @@ class MzMLRawDataFile implements RawDataFile {
     return ImmutableList.copyOf(msScans);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * The index is built on the first call and kept until more scans are added to this file.
+   */
+  @Override
+  synchronized public @Nonnull ScanIndex getScanIndex() {
+    if ((scanIndex == null) || (scanIndex.getScans().size() != msScans.size()))
+      scanIndex = new ScanIndex(getScans());
+    return scanIndex;
+  }
+
   /** {@inheritDoc} */
   @Override
   @Nonnull
@@ -26,6 +26,7 @@ import io.github.msdk.datamodel.rawdata.MsScan;
 import io.github.msdk.datamodel.rawdata.PolarityType;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
 import io.github.msdk.util.MsSpectrumUtil;
+import io.github.msdk.util.synthetic.SyntheticLCMSGenerator;
 
 public class MzMLFileExportMethodTest {
 
@@ -101,4 +102,44 @@ public class MzMLFileExportMethodTest {
 
   }
 
+  @Test
+  public void testSyntheticRun() throws MSDKException, IOException {
+
+    // Generate a centroided run, the scans are computed during the export
+    SyntheticLCMSGenerator generator = new SyntheticLCMSGenerator(7);
+    generator.setNumberOfScans(500);
+    generator.setDataPointsPerScan(1000);
+    generator.setSpectrumType(MsSpectrumType.CENTROIDED);
+    generator.setNumberOfPeaks(300);
+    RawDataFile rawFile = generator.generateRawDataFile(0);
+
+    // Export the file to a new mzML
+    File tempFile = File.createTempFile("msdk", ".mzML");
+    MzMLFileExportMethod exporter = new MzMLFileExportMethod(rawFile, tempFile);
+    exporter.execute();
+    Assert.assertEquals(1.0, exporter.getFinishedPercentage(), 0.0001);
+
+    // Import the new mzML
+    MzMLFileImportMethod importer = new MzMLFileImportMethod(tempFile);
+    RawDataFile newMzMLFile = importer.execute();
+    Assert.assertNotNull(newMzMLFile);
+    List<MsScan> scans = newMzMLFile.getScans();
+    Assert.assertEquals(500, scans.size());
+
+    // Compare with the generated scan
+    MsScan expectedScan = rawFile.getScans().get(250);
+    MsScan scan = scans.get(250);
+    Assert.assertEquals(new Integer(251), scan.getScanNumber());
+    Assert.assertEquals(MsSpectrumType.CENTROIDED, scan.getSpectrumType());
+    Assert.assertEquals(expectedScan.getRetentionTime(), scan.getRetentionTime(), 0.01f);
+    Assert.assertEquals(expectedScan.getNumberOfDataPoints(), scan.getNumberOfDataPoints());
+    Assert.assertArrayEquals(expectedScan.getMzValues(), scan.getMzValues(), 0.000001);
+    Assert.assertArrayEquals(expectedScan.getIntensityValues(), scan.getIntensityValues(), 0.01f);
+
+    // Cleanup
+    newMzMLFile.dispose();
+    tempFile.delete();
+
+  }
+
 }
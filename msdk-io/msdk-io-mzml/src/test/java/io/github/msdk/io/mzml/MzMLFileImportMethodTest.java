@@ -24,6 +24,8 @@ import java.util.List;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.collect.Range;
+
 import io.github.msdk.MSDKException;
 import io.github.msdk.datamodel.chromatograms.Chromatogram;
 import io.github.msdk.datamodel.chromatograms.ChromatogramType;
@@ -33,6 +35,7 @@ import io.github.msdk.datamodel.rawdata.IsolationInfo;
 import io.github.msdk.datamodel.rawdata.MsScan;
 import io.github.msdk.datamodel.rawdata.PolarityType;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.ScanFilter;
 import io.github.msdk.util.MsSpectrumUtil;
 
 public class MzMLFileImportMethodTest {
@@ -318,6 +321,30 @@ public class MzMLFileImportMethodTest {
     rawFile.dispose();
   }
 
+  @Test
+  public void testScanFilter() throws MSDKException {
+
+    // Positive MS1 scans within an RT window
+    final File inputFile = getResourcePath("mzML_with_UV.mzML").toFile();
+    MzMLFileImportMethod importer = new MzMLFileImportMethod(inputFile);
+    importer.setScanFilter(new ScanFilter(Range.singleton(1), Range.closed(1128f, 1136f),
+        PolarityType.POSITIVE, null, null));
+    RawDataFile rawFile = importer.execute();
+    Assert.assertNotNull(rawFile);
+    Assert.assertEquals(1.0, importer.getFinishedPercentage(), 0.0001);
+
+    List<MsScan> scans = rawFile.getScans();
+    Assert.assertEquals(8, scans.size());
+    Assert.assertEquals(new Integer(2104), scans.get(0).getScanNumber());
+    Assert.assertEquals(new Integer(2118), scans.get(7).getScanNumber());
+    for (MsScan scan : scans) {
+      Assert.assertEquals(new Integer(1), scan.getMsLevel());
+      Assert.assertEquals(PolarityType.POSITIVE, scan.getPolarity());
+      Assert.assertTrue(Range.closed(1128f, 1136f).contains(scan.getRetentionTime()));
+    }
+
+    rawFile.dispose();
+  }
 
   @Test
   public void testEmptyScan() throws MSDKException {
@@ -45,7 +45,6 @@ import io.github.msdk.io.mzml2.data.MzMLIsolationWindow;
 import io.github.msdk.io.mzml2.data.MzMLPrecursorElement;
 import io.github.msdk.io.mzml2.data.MzMLProduct;
 import io.github.msdk.io.mzml2.data.MzMLRawDataFile;
-import io.github.msdk.io.mzml2.util.MzMLPeaksDecoder;
 import it.unimi.dsi.io.ByteBufferInputStream;
 
 class MzMLChromatogram implements Chromatogram {
@@ -356,11 +355,15 @@ class MzMLChromatogram implements Chromatogram {
     return numOfDataPoints;
   }
 
-  /** {@inheritDoc} */
+  /**
+   * {@inheritDoc}
+   *
+   * The decoded values are kept in the decoded array cache of the raw data file, so repeated calls
+   * do not decode the data again.
+   */
   @Override
   @Nonnull
   public float[] getRetentionTimes(@Nullable float array[]) {
-    float[] rtValues = null;
     if (getRtBinaryDataInfo().getArrayLength() != numOfDataPoints) {
       logger.warn(
           "Retention time binary data array contains a different array length from the default array length of the scan (#"
@@ -368,15 +371,19 @@ class MzMLChromatogram implements Chromatogram {
     }
 
     try {
-      rtValues = MzMLPeaksDecoder.decodeToFloat(mappedByteBufferInputStream, getRtBinaryDataInfo());
+      return dataFile.getDecodedArrayCache().getFloatValues(mappedByteBufferInputStream,
+          getRtBinaryDataInfo(), array);
     } catch (Exception e) {
       throw (new MSDKRuntimeException(e));
     }
-
-    return rtValues;
   }
 
-  /** {@inheritDoc} */
+  /**
+   * {@inheritDoc}
+   *
+   * The decoded values are kept in the decoded array cache of the raw data file, so repeated calls
+   * do not decode the data again.
+   */
   @Override
   @Nonnull
   public float[] getIntensityValues(@Nullable float[] array) {
@@ -387,14 +394,11 @@ class MzMLChromatogram implements Chromatogram {
     }
 
     try {
-      array =
-          MzMLPeaksDecoder.decodeToFloat(mappedByteBufferInputStream, getIntensityBinaryDataInfo());
+      return dataFile.getDecodedArrayCache().getFloatValues(mappedByteBufferInputStream,
+          getIntensityBinaryDataInfo(), array);
     } catch (Exception e) {
       throw (new MSDKRuntimeException(e));
     }
-
-    return array;
-
   }
 
   /** {@inheritDoc} */
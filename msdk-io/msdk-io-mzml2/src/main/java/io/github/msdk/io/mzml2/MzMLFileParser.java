@@ -13,11 +13,15 @@
 
 package io.github.msdk.io.mzml2;
 
+import com.google.common.base.Preconditions;
 import io.github.msdk.MSDKException;
 import io.github.msdk.MSDKMethod;
 import io.github.msdk.datamodel.chromatograms.Chromatogram;
 import io.github.msdk.datamodel.rawdata.MsScan;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.ScanFilter;
+import io.github.msdk.datamodel.rawdata.ScanSink;
+import io.github.msdk.datamodel.rawdata.ScanStream;
 import io.github.msdk.io.mzml2.data.MzMLBinaryDataInfo;
 import io.github.msdk.io.mzml2.data.MzMLCVParam;
 import io.github.msdk.io.mzml2.data.MzMLCompressionType;
@@ -30,17 +34,28 @@ import io.github.msdk.io.mzml2.data.MzMLProduct;
 import io.github.msdk.io.mzml2.data.MzMLRawDataFile;
 import io.github.msdk.io.mzml2.data.MzMLReferenceableParamGroup;
 import io.github.msdk.io.mzml2.util.MzMLFileMemoryMapper;
+import io.github.msdk.io.mzml2.util.MzMLIndex;
 import io.github.msdk.io.mzml2.util.TagTracker;
+import io.github.msdk.util.metrics.MSDKMetrics;
 import it.unimi.dsi.io.ByteBufferInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javolution.text.CharArray;
 import javolution.xml.internal.stream.XMLStreamReaderImpl;
 import javolution.xml.stream.XMLStreamConstants;
@@ -54,15 +69,32 @@ import org.slf4j.LoggerFactory;
  * MzMLFileParser class.
  * </p>
  *
+ * Besides building a raw data file by execute(), the parser can push the spectra to a
+ * {@link io.github.msdk.datamodel.rawdata.ScanSink} as they are parsed, see
+ * {@link #streamScans(ScanSink)}.
+ *
+ * By default, the file is parsed sequentially. In parallel mode, see {@link #setParallelism(int)}
+ * and {@link #setExecutor(ExecutorService)}, execute() works in three phases. First, the offsets
+ * of the spectrum and chromatogram elements are taken from the index of the file or, if the file
+ * has no valid index, found by a byte-level scan of the file. Then, consecutive chunks of the
+ * elements are parsed concurrently and, optionally, the data arrays of the spectra are decoded,
+ * see {@link #setDecodeArrays(boolean)}. Finally, the parsed elements are added to the raw data
+ * file in the order of the file. Streaming by {@link #streamScans(ScanSink)} is always sequential.
  */
-public class MzMLFileParser implements MSDKMethod<RawDataFile> {
+public class MzMLFileParser implements MSDKMethod<RawDataFile>, ScanStream {
   private final @Nonnull File mzMLFile;
   private final ArrayList<MzMLReferenceableParamGroup> referenceableParamGroupList;
   private MzMLRawDataFile newRawFile;
   private volatile boolean canceled;
+  private int parallelism = 1;
+  private @Nullable ExecutorService executor;
+  private boolean decodeArrays = false;
+  private @Nullable ScanFilter scanFilter;
+  private final AtomicInteger parsedElements = new AtomicInteger();
+  private volatile int totalElements = 0;
   private Float progress;
   private int lastLoggedProgress;
-  private TagTracker tracker;
+  private ScanSink scanSink;
   Logger logger;
 
   final static String ATTR_ACCESSION = "accession";
@@ -71,12 +103,14 @@ public class MzMLFileParser implements MSDKMethod<RawDataFile> {
 
   final static String TAG_SPECTRUM = "spectrum";
   final static String TAG_SPECTRUM_LIST = "spectrumList";
+  final static String TAG_RUN = "run";
   final static String TAG_REF_PARAM_GROUP = "referenceableParamGroup";
   final static String TAG_REF_PARAM_GROUP_REF = "referenceableParamGroupRef";
   final static String TAG_REF_PARAM_GROUP_LIST = "referenceableParamGroupList";
   final static String TAG_CV_PARAM = "cvParam";
   final static String TAG_BINARY = "binary";
   final static String TAG_BINARY_DATA_ARRAY = "binaryDataArray";
+  final static String TAG_BINARY_DATA_ARRAY_LIST = "binaryDataArrayList";
   final static String TAG_PRECURSOR = "precursor";
   final static String TAG_PRECURSOR_LIST = "precursorList";
   final static String TAG_ISOLATION_WINDOW = "isolationWindow";
@@ -90,6 +124,16 @@ public class MzMLFileParser implements MSDKMethod<RawDataFile> {
   final static String CV_ACCESSION_RT_ARRAY = "MS:1000595";
   final static String CV_ACCESSION_INTENSITY_ARRAY = "MS:1000515";
 
+  // Number of chunks per thread in parallel mode, to balance the load between the threads
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  // Size of the blocks read when the file is scanned for the starts of the elements
+  private static final int SCAN_BLOCK_SIZE = 1024 * 1024;
+  private static final byte[] SCAN_SPECTRUM =
+      ("<" + TAG_SPECTRUM).getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] SCAN_CHROMATOGRAM =
+      ("<" + TAG_CHROMATOGRAM).getBytes(StandardCharsets.US_ASCII);
+
 
   /**
    * <p>
@@ -127,7 +171,52 @@ public class MzMLFileParser implements MSDKMethod<RawDataFile> {
     this.progress = 0f;
     this.lastLoggedProgress = 0;
     this.logger = LoggerFactory.getLogger(this.getClass());
-    this.tracker = new TagTracker();
+  }
+
+  /**
+   * Sets the number of threads used by execute(). The threads run in a fork-join pool, which is
+   * created by execute() and shut down when it finishes.
+   *
+   * @param parallelism the number of threads, 1 means sequential parsing
+   */
+  public void setParallelism(int parallelism) {
+    Preconditions.checkArgument(parallelism >= 1, "Parallelism must be at least 1");
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Sets the executor used by execute() for parallel parsing. The executor is not shut down by the
+   * parser.
+   *
+   * @param executor a {@link java.util.concurrent.ExecutorService} object, or null to use the
+   *        parallelism level set by {@link #setParallelism(int)}
+   */
+  public void setExecutor(@Nullable ExecutorService executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Sets whether the data arrays of the spectra are decoded by the threads in parallel mode. The
+   * decoded arrays are kept in the decoded array cache of the raw data file, within its size limit,
+   * so this pays off if the cache is large enough for the arrays that will be read.
+   *
+   * @param decodeArrays a boolean.
+   */
+  public void setDecodeArrays(boolean decodeArrays) {
+    this.decodeArrays = decodeArrays;
+  }
+
+  /**
+   * Sets a filter of the spectra. The scan number is tested as soon as the spectrum element starts,
+   * before the spectrum is created. The other criteria are tested when the metadata of the spectrum
+   * are complete, before its binary data arrays are parsed. The elements of rejected spectra are
+   * skipped.
+   *
+   * @param scanFilter a {@link io.github.msdk.datamodel.rawdata.ScanFilter} object, or null to
+   *        accept all spectra
+   */
+  public void setScanFilter(@Nullable ScanFilter scanFilter) {
+    this.scanFilter = scanFilter;
   }
 
   /**
@@ -141,38 +230,192 @@ public class MzMLFileParser implements MSDKMethod<RawDataFile> {
   @Override
   public MzMLRawDataFile execute() throws MSDKException {
 
-    try {
-      logger.info("Began parsing file: " + mzMLFile.getAbsolutePath());
-      ByteBufferInputStream is = MzMLFileMemoryMapper.mapToMemory(mzMLFile);
+    logger.info("Began parsing file: " + mzMLFile.getAbsolutePath());
+
+    // The spectra are decoded lazily. The time spent in MzMLPeaksDecoder, e.g. by the sink in
+    // streaming mode or by the worker threads with setDecodeArrays(true), is reported as the
+    // decode phase, which therefore overlaps with the sink and parse phases.
+    final MSDKMetrics metrics = MSDKMetrics.start(getClass().getSimpleName(), "spectra");
+    final MSDKMetrics.Phase parsePhase = metrics.phase("parse");
+    metrics.phase("decode");
+    final MSDKMetrics.Phase sinkPhase = metrics.phase("sink");
+    parsePhase.start();
 
-      List<MsScan> spectrumList = new ArrayList<>();
-      List<Chromatogram> chromatogramsList = new ArrayList<>();
+    List<MsScan> spectrumList = new ArrayList<>();
+    List<Chromatogram> chromatogramsList = new ArrayList<>();
 
-      // TODO populate the list
-      List<String> msFunctionsList = new ArrayList<>();
+    // TODO populate the list
+    List<String> msFunctionsList = new ArrayList<>();
 
-      // Create the MzMLRawDataFile object
-      final MzMLRawDataFile newRawFile =
-          new MzMLRawDataFile(mzMLFile, msFunctionsList, spectrumList, chromatogramsList);
-      this.newRawFile = newRawFile;
+    // Create the MzMLRawDataFile object
+    final MzMLRawDataFile newRawFile =
+        new MzMLRawDataFile(mzMLFile, msFunctionsList, spectrumList, chromatogramsList);
+    this.newRawFile = newRawFile;
+    newRawFile.getDecodedArrayCache().setMetrics(metrics);
 
-      // It's ok to directly create this particular reader, this class is `public final`
-      // and we precisely want that fast UFT-8 reader implementation
-      final XMLStreamReaderImpl xmlStreamReader = new XMLStreamReaderImpl();
-      xmlStreamReader.setInput(is, "UTF-8");
+    try {
+      ByteBufferInputStream is = MzMLFileMemoryMapper.mapToMemory(mzMLFile);
 
       Vars vars = new Vars();
+      vars.spectrumList = spectrumList;
+      vars.chromatogramsList = chromatogramsList;
+      vars.metrics = metrics;
+      vars.parsePhase = parsePhase;
+      vars.sinkPhase = sinkPhase;
       lastLoggedProgress = 0;
 
-      int eventType;
-      try {
-        do {
-          // check if parsing has been cancelled?
-          if (canceled)
-            return null;
+      if ((scanSink == null) && ((parallelism > 1) || (executor != null))) {
+        if (!parseInParallel(is, vars))
+          return null;
+      } else if (!parse(is, 0, vars))
+        return null;
 
-          eventType = xmlStreamReader.next();
+      progress = 1f;
+      logger.info("Parsing Complete");
+    } catch (IOException | XMLStreamException e) {
+      throw (new MSDKException(e));
+    } finally {
+      newRawFile.getDecodedArrayCache().setMetrics(null);
+      parsePhase.stop();
+      metrics.finish();
+    }
+
+    progress = 1f;
+    return newRawFile;
+  }
+
+  /**
+   * Parses the header of the file, up to the start of the run, so the referenceable param groups
+   * are known before single spectra or chromatograms are parsed by
+   * {@link #parseSpectrum(ByteBufferInputStream, long)} and
+   * {@link #parseChromatogram(ByteBufferInputStream, long)}.
+   *
+   * @param is the mapped mzML file
+   * @param rawFile the raw data file the parsed elements belong to
+   * @throws io.github.msdk.MSDKException if any.
+   */
+  void parseHeader(@Nonnull ByteBufferInputStream is, @Nonnull MzMLRawDataFile rawFile)
+      throws MSDKException {
+    this.newRawFile = rawFile;
+    referenceableParamGroupList.clear();
+    Vars vars = new Vars();
+    vars.headerOnly = true;
+    try {
+      parse(is, 0, vars);
+    } catch (XMLStreamException e) {
+      throw (new MSDKException(e));
+    }
+  }
+
+  /**
+   * Parses the whole file sequentially into the given lists. The parsed spectra and chromatograms
+   * belong to the given raw data file, but they are not added to it.
+   *
+   * @param is the mapped mzML file
+   * @param rawFile the raw data file the parsed elements belong to
+   * @param spectrumList list to add the spectra to
+   * @param chromatogramsList list to add the chromatograms to
+   * @return false if the parsing was canceled
+   * @throws io.github.msdk.MSDKException if any.
+   */
+  boolean parseWholeFile(@Nonnull ByteBufferInputStream is, @Nonnull MzMLRawDataFile rawFile,
+      @Nonnull List<MsScan> spectrumList, @Nonnull List<Chromatogram> chromatogramsList)
+      throws MSDKException {
+    this.newRawFile = rawFile;
+    referenceableParamGroupList.clear();
+    Vars vars = new Vars();
+    vars.spectrumList = spectrumList;
+    vars.chromatogramsList = chromatogramsList;
+    try {
+      return parse(is, 0, vars);
+    } catch (XMLStreamException e) {
+      throw (new MSDKException(e));
+    }
+  }
+
+  /**
+   * Parses the single spectrum element which starts at the given offset of the file, see
+   * {@link #parseHeader(ByteBufferInputStream, MzMLRawDataFile)}.
+   *
+   * @param is the mapped mzML file
+   * @param offset offset of the spectrum element
+   * @return the spectrum, or null if it has no m/z or intensity data array
+   * @throws io.github.msdk.MSDKException if any.
+   */
+  @Nullable
+  MzMLSpectrum parseSpectrum(@Nonnull ByteBufferInputStream is, long offset)
+      throws MSDKException {
+    final Vars vars = parseElement(is, offset, TAG_SPECTRUM_LIST, null);
+    return vars.spectrumList.isEmpty() ? null : (MzMLSpectrum) vars.spectrumList.get(0);
+  }
+
+  /**
+   * Parses the single chromatogram element which starts at the given offset of the file, see
+   * {@link #parseHeader(ByteBufferInputStream, MzMLRawDataFile)}.
+   *
+   * @param is the mapped mzML file
+   * @param offset offset of the chromatogram element
+   * @return the chromatogram, or null if it has no retention time or intensity data array
+   * @throws io.github.msdk.MSDKException if any.
+   */
+  @Nullable
+  MzMLChromatogram parseChromatogram(@Nonnull ByteBufferInputStream is, long offset)
+      throws MSDKException {
+    final Vars vars = parseElement(is, offset, TAG_CHROMATOGRAM_LIST, null);
+    return vars.chromatogramsList.isEmpty() ? null
+        : (MzMLChromatogram) vars.chromatogramsList.get(0);
+  }
 
+  /**
+   * Parses the single spectrum or chromatogram element which starts at the given offset of the
+   * file, as if it was inside the given list. The given counter, if any, is incremented when the
+   * element is parsed.
+   */
+  private @Nonnull Vars parseElement(@Nonnull ByteBufferInputStream is, long offset,
+      @Nonnull String listTag, @Nullable AtomicInteger parsedElements) throws MSDKException {
+    Vars vars = new Vars();
+    vars.tracker.enter(new CharArray(listTag));
+    vars.singleElement = true;
+    vars.positionOffset = offset;
+    vars.parsedElements = parsedElements;
+    try {
+      parse(is, offset, vars);
+    } catch (XMLStreamException | RuntimeException e) {
+      throw (new MSDKException(e));
+    }
+    return vars;
+  }
+
+  /**
+   * Parses the XML starting at the given offset of the file.
+   *
+   * @return false if the parsing was canceled or stopped by the scan sink
+   */
+  private boolean parse(@Nonnull ByteBufferInputStream is, long offset, @Nonnull Vars vars)
+      throws XMLStreamException, MSDKException {
+
+    final TagTracker tracker = vars.tracker;
+
+    // The spectra read their binary data from the given stream, so the XML is read from a copy
+    // with its own position. Otherwise decoding a spectrum in a scan sink would move the parser.
+    final ByteBufferInputStream xmlInput = is.copy();
+    xmlInput.position(offset);
+
+    // It's ok to directly create this particular reader, this class is `public final`
+    // and we precisely want that fast UFT-8 reader implementation
+    final XMLStreamReaderImpl xmlStreamReader = new XMLStreamReaderImpl();
+    xmlStreamReader.setInput(xmlInput, "UTF-8");
+
+    int eventType;
+    try {
+      do {
+        // check if parsing has been cancelled?
+        if (canceled)
+          return false;
+
+        eventType = xmlStreamReader.next();
+
+        if (!vars.singleElement && !vars.headerOnly) {
           progress = ((float) xmlStreamReader.getLocation().getCharacterOffset() / is.length());
 
           // Log progress after every 10% completion
@@ -180,385 +423,689 @@ public class MzMLFileParser implements MSDKMethod<RawDataFile> {
             lastLoggedProgress = (int) (progress * 10) * 10;
             logger.debug("Parsing in progress... " + lastLoggedProgress + "% completed");
           }
+        }
+
+        switch (eventType) {
+          case XMLStreamConstants.START_ELEMENT:
+            // opening tag
+            final CharArray openingTagName = xmlStreamReader.getLocalName();
+
+            tracker.enter(openingTagName);
 
-          switch (eventType) {
-            case XMLStreamConstants.START_ELEMENT:
-              // opening tag
-              final CharArray openingTagName = xmlStreamReader.getLocalName();
+            // The header ends where the run starts
+            if (vars.headerOnly && openingTagName.contentEquals(TAG_RUN))
+              return true;
 
-              tracker.enter(openingTagName);
+            // The elements of a spectrum rejected by the scan filter are skipped
+            if (vars.skipSpectrum && tracker.inside(TAG_SPECTRUM))
+              break;
+
+            if (tracker.inside(TAG_REF_PARAM_GROUP_LIST)) {
 
-              if (tracker.inside(TAG_REF_PARAM_GROUP_LIST)) {
+              if (openingTagName.contentEquals(TAG_REF_PARAM_GROUP)) {
+                final CharArray id = getRequiredAttribute(xmlStreamReader, "id");
+                vars.referenceableParamGroup = new MzMLReferenceableParamGroup(id.toString());
 
-                if (openingTagName.contentEquals(TAG_REF_PARAM_GROUP)) {
-                  final CharArray id = getRequiredAttribute(xmlStreamReader, "id");
-                  vars.referenceableParamGroup = new MzMLReferenceableParamGroup(id.toString());
+              } else if (openingTagName.contentEquals(TAG_CV_PARAM)) {
+                MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
+                vars.referenceableParamGroup.addCVParam(cvParam);
 
-                } else if (openingTagName.contentEquals(TAG_CV_PARAM)) {
+              }
+              continue;
+            }
+
+            if (tracker.inside(TAG_SPECTRUM_LIST)) {
+              if (openingTagName.contentEquals(TAG_SPECTRUM)) {
+                String id = getRequiredAttribute(xmlStreamReader, "id").toString();
+                Integer index = getRequiredAttribute(xmlStreamReader, "index").toInt();
+                vars.defaultArrayLength =
+                    getRequiredAttribute(xmlStreamReader, "defaultArrayLength").toInt();
+                Integer scanNumber = getScanNumber(id).orElse(index + 1);
+                if ((scanFilter != null) && !scanFilter.acceptsScanNumber(scanNumber)) {
+                  vars.skipSpectrum = true;
+                  vars.spectrum = null;
+                  break;
+                }
+                vars.spectrum =
+                    new MzMLSpectrum(newRawFile, is, id, scanNumber, vars.defaultArrayLength);
+
+              } else if (openingTagName.contentEquals(TAG_BINARY_DATA_ARRAY_LIST)) {
+                // The metadata of the spectrum precede its binary data arrays
+                if ((scanFilter != null) && (vars.spectrum != null)
+                    && !scanFilter.test(vars.spectrum)) {
+                  vars.skipSpectrum = true;
+                  break;
+                }
+
+              } else if (openingTagName.contentEquals(TAG_BINARY_DATA_ARRAY)) {
+                vars.skipBinaryDataArray = false;
+                int encodedLength =
+                    getRequiredAttribute(xmlStreamReader, "encodedLength").toInt();
+                final CharArray arrayLength =
+                    xmlStreamReader.getAttributeValue(null, "arrayLength");
+                if (arrayLength != null) {
+                  vars.binaryDataInfo =
+                      new MzMLBinaryDataInfo(encodedLength, arrayLength.toInt());
+                } else {
+                  vars.binaryDataInfo =
+                      new MzMLBinaryDataInfo(encodedLength, vars.defaultArrayLength);
+                }
+
+
+              } else if (openingTagName.contentEquals(TAG_CV_PARAM)) {
+                if (!tracker.inside(TAG_BINARY_DATA_ARRAY) && vars.spectrum != null) {
                   MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
-                  vars.referenceableParamGroup.addCVParam(cvParam);
+                  vars.spectrum.getCVParams().add(cvParam);
+                }
+
 
+              } else if (openingTagName.contentEquals(TAG_BINARY)) {
+                if (vars.spectrum != null && !vars.skipBinaryDataArray) {
+                  int bomOffset = xmlStreamReader.getLocation().getBomLength();
+                  // TODO Fetch long value from getCharacterOffset()
+                  vars.binaryDataInfo.setPosition(
+                      xmlStreamReader.getLocation().getCharacterOffset() + bomOffset
+                          + vars.positionOffset);
                 }
-                continue;
-              }
 
-              if (tracker.inside(TAG_SPECTRUM_LIST)) {
-                if (openingTagName.contentEquals(TAG_SPECTRUM)) {
-                  String id = getRequiredAttribute(xmlStreamReader, "id").toString();
-                  Integer index = getRequiredAttribute(xmlStreamReader, "index").toInt();
-                  vars.defaultArrayLength =
-                      getRequiredAttribute(xmlStreamReader, "defaultArrayLength").toInt();
-                  Integer scanNumber = getScanNumber(id).orElse(index + 1);
-                  vars.spectrum =
-                      new MzMLSpectrum(newRawFile, is, id, scanNumber, vars.defaultArrayLength);
-
-
-                } else if (openingTagName.contentEquals(TAG_BINARY_DATA_ARRAY)) {
-                  vars.skipBinaryDataArray = false;
-                  int encodedLength =
-                      getRequiredAttribute(xmlStreamReader, "encodedLength").toInt();
-                  final CharArray arrayLength =
-                      xmlStreamReader.getAttributeValue(null, "arrayLength");
-                  if (arrayLength != null) {
-                    vars.binaryDataInfo =
-                        new MzMLBinaryDataInfo(encodedLength, arrayLength.toInt());
-                  } else {
-                    vars.binaryDataInfo =
-                        new MzMLBinaryDataInfo(encodedLength, vars.defaultArrayLength);
+
+              } else if (openingTagName.contentEquals(TAG_REF_PARAM_GROUP_REF)) {
+                String refValue = getRequiredAttribute(xmlStreamReader, "ref").toString();
+                for (MzMLReferenceableParamGroup ref : referenceableParamGroupList) {
+                  if (ref.getParamGroupName().equals(refValue)) {
+                    vars.spectrum.getCVParams().addAll(ref.getCVParams());
+                    break;
                   }
+                }
+
+              }
+
+              if (tracker.inside(TAG_SPECTRUM) && tracker.inside(TAG_BINARY_DATA_ARRAY)
+                  && openingTagName.contentEquals(TAG_CV_PARAM) && vars.binaryDataInfo != null
+                  && !vars.skipBinaryDataArray) {
+                String accession = getRequiredAttribute(xmlStreamReader, "accession").toString();
+                if (vars.binaryDataInfo.isBitLengthAccession(accession)) {
+                  vars.binaryDataInfo.setBitLength(accession);
+                } else if (vars.binaryDataInfo.isCompressionTypeAccession(accession)) {
+                  manageCompression(vars.binaryDataInfo, accession);
+                } else if (vars.binaryDataInfo.isArrayTypeAccession(accession)) {
+                  vars.binaryDataInfo.setArrayType(accession);
+                } else {
+                  vars.skipBinaryDataArray = true;
+                }
+
+              }
 
+              if (tracker.inside(TAG_PRECURSOR_LIST)) {
 
-                } else if (openingTagName.contentEquals(TAG_CV_PARAM)) {
-                  if (!tracker.inside(TAG_BINARY_DATA_ARRAY) && vars.spectrum != null) {
+                if (openingTagName.contentEquals(TAG_PRECURSOR)) {
+                  final CharArray spectrumRef =
+                      xmlStreamReader.getAttributeValue(null, "spectrumRef");
+                  String spectrumRefString = spectrumRef == null ? null : spectrumRef.toString();
+                  vars.precursor = new MzMLPrecursorElement(spectrumRefString);
+
+                } else if (openingTagName.contentEquals(TAG_ISOLATION_WINDOW)) {
+                  vars.isolationWindow = new MzMLIsolationWindow();
+
+                } else if (openingTagName.contentEquals(TAG_SELECTED_ION_LIST)) {
+                  vars.selectedIonList = new MzMLPrecursorSelectedIonList();
+
+                } else if (openingTagName.contentEquals(TAG_ACTIVATION)) {
+                  vars.activation = new MzMLPrecursorActivation();
+
+                } else if (tracker.inside(TAG_ISOLATION_WINDOW)) {
+                  if (openingTagName.contentEquals(TAG_CV_PARAM)) {
                     MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
-                    vars.spectrum.getCVParams().add(cvParam);
+                    vars.isolationWindow.addCVParam(cvParam);
                   }
 
+                } else if (tracker.inside(TAG_SELECTED_ION_LIST)) {
+                  if (openingTagName.contentEquals(TAG_SELECTED_ION)) {
+                    vars.selectedIon = new MzMLPrecursorSelectedIon();
+                  } else if (openingTagName.contentEquals(TAG_CV_PARAM)) {
+                    MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
+                    vars.selectedIon.addCVParam(cvParam);
+                  }
 
-                } else if (openingTagName.contentEquals(TAG_BINARY)) {
-                  if (vars.spectrum != null && !vars.skipBinaryDataArray) {
-                    int bomOffset = xmlStreamReader.getLocation().getBomLength();
-                    // TODO Fetch long value from getCharacterOffset()
-                    vars.binaryDataInfo.setPosition(
-                        xmlStreamReader.getLocation().getCharacterOffset() + bomOffset);
+                } else if (tracker.inside(TAG_ACTIVATION)) {
+                  if (openingTagName.contentEquals(TAG_CV_PARAM)) {
+                    MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
+                    vars.activation.addCVParam(cvParam);
                   }
+                }
+              }
 
 
-                } else if (openingTagName.contentEquals(TAG_REF_PARAM_GROUP_REF)) {
-                  String refValue = getRequiredAttribute(xmlStreamReader, "ref").toString();
-                  for (MzMLReferenceableParamGroup ref : referenceableParamGroupList) {
-                    if (ref.getParamGroupName().equals(refValue)) {
-                      vars.spectrum.getCVParams().addAll(ref.getCVParams());
-                      break;
-                    }
-                  }
+            } else if (tracker.inside(TAG_CHROMATOGRAM_LIST)) {
+              if (openingTagName.contentEquals(TAG_CHROMATOGRAM)) {
+                String chromatogramId = getRequiredAttribute(xmlStreamReader, "id").toString();
+                Integer chromatogramNumber =
+                    getRequiredAttribute(xmlStreamReader, "index").toInt() + 1;
+                vars.defaultArrayLength =
+                    getRequiredAttribute(xmlStreamReader, "defaultArrayLength").toInt();
+                vars.chromatogram = new MzMLChromatogram(newRawFile, is, chromatogramId,
+                    chromatogramNumber, vars.defaultArrayLength);
 
+              } else if (openingTagName.contentEquals(TAG_CV_PARAM)) {
+                if (!tracker.inside(TAG_BINARY_DATA_ARRAY) && !tracker.inside(TAG_PRECURSOR)
+                    && !tracker.inside(TAG_PRODUCT) && vars.chromatogram != null) {
+                  MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
+                  vars.chromatogram.getCVParams().add(cvParam);
                 }
 
-                if (tracker.inside(TAG_SPECTRUM) && tracker.inside(TAG_BINARY_DATA_ARRAY)
-                    && openingTagName.contentEquals(TAG_CV_PARAM) && vars.binaryDataInfo != null
-                    && !vars.skipBinaryDataArray) {
-                  String accession = getRequiredAttribute(xmlStreamReader, "accession").toString();
-                  if (vars.binaryDataInfo.isBitLengthAccession(accession)) {
-                    vars.binaryDataInfo.setBitLength(accession);
-                  } else if (vars.binaryDataInfo.isCompressionTypeAccession(accession)) {
-                    manageCompression(vars.binaryDataInfo, accession);
-                  } else if (vars.binaryDataInfo.isArrayTypeAccession(accession)) {
-                    vars.binaryDataInfo.setArrayType(accession);
-                  } else {
-                    vars.skipBinaryDataArray = true;
-                  }
-
+              } else if (openingTagName.contentEquals(TAG_BINARY_DATA_ARRAY)) {
+                vars.skipBinaryDataArray = false;
+                int encodedLength =
+                    getRequiredAttribute(xmlStreamReader, "encodedLength").toInt();
+                final CharArray arrayLength =
+                    xmlStreamReader.getAttributeValue(null, "arrayLength");
+                if (arrayLength != null) {
+                  vars.binaryDataInfo =
+                      new MzMLBinaryDataInfo(encodedLength, arrayLength.toInt());
+                } else {
+                  vars.binaryDataInfo =
+                      new MzMLBinaryDataInfo(encodedLength, vars.defaultArrayLength);
                 }
 
-                if (tracker.inside(TAG_PRECURSOR_LIST)) {
+              } else if (openingTagName.contentEquals(TAG_BINARY)) {
+                if (vars.chromatogram != null && !vars.skipBinaryDataArray) {
+                  int bomOffset = xmlStreamReader.getLocation().getBomLength();
+                  // TODO Fetch long value from getCharacterOffset()
+                  vars.binaryDataInfo.setPosition(
+                      xmlStreamReader.getLocation().getCharacterOffset() + bomOffset
+                          + vars.positionOffset);
+                }
 
-                  if (openingTagName.contentEquals(TAG_PRECURSOR)) {
-                    final CharArray spectrumRef =
-                        xmlStreamReader.getAttributeValue(null, "spectrumRef");
-                    String spectrumRefString = spectrumRef == null ? null : spectrumRef.toString();
-                    vars.precursor = new MzMLPrecursorElement(spectrumRefString);
+              } else if (openingTagName.contentEquals(TAG_REF_PARAM_GROUP_REF)) {
+                String refValue = xmlStreamReader.getAttributeValue(null, "ref").toString();
+                for (MzMLReferenceableParamGroup ref : referenceableParamGroupList) {
+                  if (ref.getParamGroupName().equals(refValue)) {
+                    vars.chromatogram.getCVParams().addAll(ref.getCVParams());
+                    break;
+                  }
+                }
 
-                  } else if (openingTagName.contentEquals(TAG_ISOLATION_WINDOW)) {
-                    vars.isolationWindow = new MzMLIsolationWindow();
+              }
 
-                  } else if (openingTagName.contentEquals(TAG_SELECTED_ION_LIST)) {
-                    vars.selectedIonList = new MzMLPrecursorSelectedIonList();
+              if (tracker.inside(TAG_CHROMATOGRAM) && tracker.inside(TAG_BINARY_DATA_ARRAY)
+                  && openingTagName.contentEquals(TAG_CV_PARAM) && vars.binaryDataInfo != null
+                  && !vars.skipBinaryDataArray) {
+                String accession = getRequiredAttribute(xmlStreamReader, "accession").toString();
+                if (vars.binaryDataInfo.isBitLengthAccession(accession)) {
+                  vars.binaryDataInfo.setBitLength(accession);
+                } else if (vars.binaryDataInfo.isCompressionTypeAccession(accession)) {
+                  manageCompression(vars.binaryDataInfo, accession);
+                } else if (vars.binaryDataInfo.isArrayTypeAccession(accession)) {
+                  vars.binaryDataInfo.setArrayType(accession);
+                } else {
+                  vars.skipBinaryDataArray = true;
+                }
 
-                  } else if (openingTagName.contentEquals(TAG_ACTIVATION)) {
-                    vars.activation = new MzMLPrecursorActivation();
+              }
 
-                  } else if (tracker.inside(TAG_ISOLATION_WINDOW)) {
-                    if (openingTagName.contentEquals(TAG_CV_PARAM)) {
-                      MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
-                      vars.isolationWindow.addCVParam(cvParam);
-                    }
+              if (openingTagName.contentEquals(TAG_PRECURSOR)) {
+                final CharArray spectrumRef =
+                    xmlStreamReader.getAttributeValue(null, "spectrumRef");
+                String spectrumRefString = spectrumRef == null ? null : spectrumRef.toString();
+                vars.precursor = new MzMLPrecursorElement(spectrumRefString);
 
-                  } else if (tracker.inside(TAG_SELECTED_ION_LIST)) {
-                    if (openingTagName.contentEquals(TAG_SELECTED_ION)) {
-                      vars.selectedIon = new MzMLPrecursorSelectedIon();
-                    } else if (openingTagName.contentEquals(TAG_CV_PARAM)) {
-                      MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
-                      vars.selectedIon.addCVParam(cvParam);
-                    }
+              } else if (openingTagName.contentEquals(TAG_PRODUCT)) {
+                vars.product = new MzMLProduct();
 
-                  } else if (tracker.inside(TAG_ACTIVATION)) {
-                    if (openingTagName.contentEquals(TAG_CV_PARAM)) {
-                      MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
-                      vars.activation.addCVParam(cvParam);
-                    }
-                  }
-                }
+              } else if (tracker.inside(TAG_PRECURSOR)) {
+                if (openingTagName.contentEquals(TAG_ISOLATION_WINDOW)) {
+                  vars.isolationWindow = new MzMLIsolationWindow();
 
+                } else if (openingTagName.contentEquals(TAG_SELECTED_ION_LIST)) {
+                  vars.selectedIonList = new MzMLPrecursorSelectedIonList();
 
-              } else if (tracker.inside(TAG_CHROMATOGRAM_LIST)) {
-                if (openingTagName.contentEquals(TAG_CHROMATOGRAM)) {
-                  String chromatogramId = getRequiredAttribute(xmlStreamReader, "id").toString();
-                  Integer chromatogramNumber =
-                      getRequiredAttribute(xmlStreamReader, "index").toInt() + 1;
-                  vars.defaultArrayLength =
-                      getRequiredAttribute(xmlStreamReader, "defaultArrayLength").toInt();
-                  vars.chromatogram = new MzMLChromatogram(newRawFile, is, chromatogramId,
-                      chromatogramNumber, vars.defaultArrayLength);
+                } else if (openingTagName.contentEquals(TAG_ACTIVATION)) {
+                  vars.activation = new MzMLPrecursorActivation();
 
-                } else if (openingTagName.contentEquals(TAG_CV_PARAM)) {
-                  if (!tracker.inside(TAG_BINARY_DATA_ARRAY) && !tracker.inside(TAG_PRECURSOR)
-                      && !tracker.inside(TAG_PRODUCT) && vars.chromatogram != null) {
+                } else if (tracker.inside(TAG_ISOLATION_WINDOW)) {
+                  if (openingTagName.contentEquals(TAG_CV_PARAM)) {
                     MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
-                    vars.chromatogram.getCVParams().add(cvParam);
+                    vars.isolationWindow.addCVParam(cvParam);
                   }
 
-                } else if (openingTagName.contentEquals(TAG_BINARY_DATA_ARRAY)) {
-                  vars.skipBinaryDataArray = false;
-                  int encodedLength =
-                      getRequiredAttribute(xmlStreamReader, "encodedLength").toInt();
-                  final CharArray arrayLength =
-                      xmlStreamReader.getAttributeValue(null, "arrayLength");
-                  if (arrayLength != null) {
-                    vars.binaryDataInfo =
-                        new MzMLBinaryDataInfo(encodedLength, arrayLength.toInt());
-                  } else {
-                    vars.binaryDataInfo =
-                        new MzMLBinaryDataInfo(encodedLength, vars.defaultArrayLength);
-                  }
-
-                } else if (openingTagName.contentEquals(TAG_BINARY)) {
-                  if (vars.chromatogram != null && !vars.skipBinaryDataArray) {
-                    int bomOffset = xmlStreamReader.getLocation().getBomLength();
-                    // TODO Fetch long value from getCharacterOffset()
-                    vars.binaryDataInfo.setPosition(
-                        xmlStreamReader.getLocation().getCharacterOffset() + bomOffset);
+                } else if (tracker.inside(TAG_SELECTED_ION_LIST)) {
+                  if (openingTagName.contentEquals(TAG_SELECTED_ION)) {
+                    vars.selectedIon = new MzMLPrecursorSelectedIon();
+                  } else if (openingTagName.contentEquals(TAG_CV_PARAM)) {
+                    MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
+                    vars.selectedIon.addCVParam(cvParam);
                   }
 
-                } else if (openingTagName.contentEquals(TAG_REF_PARAM_GROUP_REF)) {
-                  String refValue = xmlStreamReader.getAttributeValue(null, "ref").toString();
-                  for (MzMLReferenceableParamGroup ref : referenceableParamGroupList) {
-                    if (ref.getParamGroupName().equals(refValue)) {
-                      vars.chromatogram.getCVParams().addAll(ref.getCVParams());
-                      break;
-                    }
+                } else if (tracker.inside(TAG_ACTIVATION)) {
+                  if (openingTagName.contentEquals(TAG_CV_PARAM)) {
+                    MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
+                    vars.activation.addCVParam(cvParam);
                   }
-
                 }
+              } else if (tracker.inside(TAG_PRODUCT)) {
+                if (openingTagName.contentEquals(TAG_ISOLATION_WINDOW)) {
+                  vars.isolationWindow = new MzMLIsolationWindow();
+
+                } else if (tracker.inside(TAG_ISOLATION_WINDOW)) {
+                  if (openingTagName.contentEquals(TAG_CV_PARAM)) {
+                    MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
+                    vars.isolationWindow.addCVParam(cvParam);
 
-                if (tracker.inside(TAG_CHROMATOGRAM) && tracker.inside(TAG_BINARY_DATA_ARRAY)
-                    && openingTagName.contentEquals(TAG_CV_PARAM) && vars.binaryDataInfo != null
-                    && !vars.skipBinaryDataArray) {
-                  String accession = getRequiredAttribute(xmlStreamReader, "accession").toString();
-                  if (vars.binaryDataInfo.isBitLengthAccession(accession)) {
-                    vars.binaryDataInfo.setBitLength(accession);
-                  } else if (vars.binaryDataInfo.isCompressionTypeAccession(accession)) {
-                    manageCompression(vars.binaryDataInfo, accession);
-                  } else if (vars.binaryDataInfo.isArrayTypeAccession(accession)) {
-                    vars.binaryDataInfo.setArrayType(accession);
-                  } else {
-                    vars.skipBinaryDataArray = true;
                   }
 
                 }
+              }
 
-                if (openingTagName.contentEquals(TAG_PRECURSOR)) {
-                  final CharArray spectrumRef =
-                      xmlStreamReader.getAttributeValue(null, "spectrumRef");
-                  String spectrumRefString = spectrumRef == null ? null : spectrumRef.toString();
-                  vars.precursor = new MzMLPrecursorElement(spectrumRefString);
+            }
 
-                } else if (openingTagName.contentEquals(TAG_PRODUCT)) {
-                  vars.product = new MzMLProduct();
+            break;
 
-                } else if (tracker.inside(TAG_PRECURSOR)) {
-                  if (openingTagName.contentEquals(TAG_ISOLATION_WINDOW)) {
-                    vars.isolationWindow = new MzMLIsolationWindow();
+          case XMLStreamConstants.END_ELEMENT:
+            // closing tag
+            final CharArray closingTagName = xmlStreamReader.getLocalName();
 
-                  } else if (openingTagName.contentEquals(TAG_SELECTED_ION_LIST)) {
-                    vars.selectedIonList = new MzMLPrecursorSelectedIonList();
+            tracker.exit(closingTagName);
 
-                  } else if (openingTagName.contentEquals(TAG_ACTIVATION)) {
-                    vars.activation = new MzMLPrecursorActivation();
+            if (vars.skipSpectrum && tracker.inside(TAG_SPECTRUM))
+              break;
 
-                  } else if (tracker.inside(TAG_ISOLATION_WINDOW)) {
-                    if (openingTagName.contentEquals(TAG_CV_PARAM)) {
-                      MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
-                      vars.isolationWindow.addCVParam(cvParam);
-                    }
+            CharArray s = closingTagName;
+            if (s.equals(TAG_SPECTRUM_LIST)) {
+            } else if (s.equals(TAG_REF_PARAM_GROUP)) {
+              referenceableParamGroupList.add(vars.referenceableParamGroup);
+
+            } else if (s.equals(TAG_REF_PARAM_GROUP_LIST)) {
+            } else if (s.equals(TAG_PRECURSOR_LIST)) {
+            } else if (s.equals(TAG_ISOLATION_WINDOW)) {
+              if (tracker.inside(TAG_PRECURSOR)) {
+                vars.precursor.setIsolationWindow(vars.isolationWindow);
+              } else if (tracker.inside(TAG_PRODUCT) && tracker.inside(TAG_CHROMATOGRAM)) {
+                vars.product.setIsolationWindow(vars.isolationWindow);
+              }
 
-                  } else if (tracker.inside(TAG_SELECTED_ION_LIST)) {
-                    if (openingTagName.contentEquals(TAG_SELECTED_ION)) {
-                      vars.selectedIon = new MzMLPrecursorSelectedIon();
-                    } else if (openingTagName.contentEquals(TAG_CV_PARAM)) {
-                      MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
-                      vars.selectedIon.addCVParam(cvParam);
+            } else if (s.equals(TAG_SELECTED_ION_LIST)) {
+              vars.precursor.setSelectedIonList(vars.selectedIonList);
+
+            } else if (s.equals(TAG_ACTIVATION)) {
+              vars.precursor.setActivation(vars.activation);
+
+            } else if (s.equals(TAG_SELECTED_ION)) {
+              vars.selectedIonList.addSelectedIon(vars.selectedIon);
+
+            } else if (s.equals(TAG_PRECURSOR)) {
+              if (tracker.inside(TAG_SPECTRUM))
+                vars.spectrum.getPrecursorList().addPrecursor(vars.precursor);
+              else if (tracker.inside(TAG_CHROMATOGRAM))
+                vars.chromatogram.setPrecursor(vars.precursor);
+
+            } else if (s.equals(TAG_PRODUCT)) {
+              if (tracker.inside(TAG_CHROMATOGRAM))
+                vars.chromatogram.setProdcut(vars.product);
+            }
+
+            if (tracker.inside(TAG_SPECTRUM_LIST)) {
+              switch (closingTagName.toString()) {
+                case TAG_BINARY_DATA_ARRAY:
+                  if (!vars.skipBinaryDataArray) {
+                    if (CV_ACCESSION_MZ_ARRAY
+                        .equals(vars.binaryDataInfo.getArrayType().getValue())) {
+                      vars.spectrum.setMzBinaryDataInfo(vars.binaryDataInfo);
                     }
-
-                  } else if (tracker.inside(TAG_ACTIVATION)) {
-                    if (openingTagName.contentEquals(TAG_CV_PARAM)) {
-                      MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
-                      vars.activation.addCVParam(cvParam);
+                    if (CV_ACCESSION_INTENSITY_ARRAY
+                        .equals(vars.binaryDataInfo.getArrayType().getValue())) {
+                      vars.spectrum.setIntensityBinaryDataInfo(vars.binaryDataInfo);
+                    }
+                  }
+                  break;
+
+                case TAG_SPECTRUM:
+                  if (vars.skipSpectrum) {
+                    // Rejected by the scan filter
+                    vars.skipSpectrum = false;
+                  } else if (vars.spectrum.getMzBinaryDataInfo() != null
+                      && vars.spectrum.getIntensityBinaryDataInfo() != null) {
+                    if (vars.metrics != null)
+                      vars.metrics.addItems(1);
+                    if (scanSink == null) {
+                      vars.spectrumList.add(vars.spectrum);
+                    } else {
+                      vars.parsePhase.stop();
+                      vars.sinkPhase.start();
+                      final boolean continueStream = scanSink.accept(vars.spectrum);
+                      vars.sinkPhase.stop(1);
+                      vars.parsePhase.start();
+                      if (!continueStream)
+                        return false;
                     }
+                  } else {
+                    // logger.warn("Didn't find m/z or intensity data array for spectrum scan (#"
+                    // + vars.spectrum.getScanNumber() + "). Skipping scan.");
                   }
-                } else if (tracker.inside(TAG_PRODUCT)) {
-                  if (openingTagName.contentEquals(TAG_ISOLATION_WINDOW)) {
-                    vars.isolationWindow = new MzMLIsolationWindow();
+                  break;
+
+                default:
+                  // we don't care about other tags
+                  break;
+              }
 
-                  } else if (tracker.inside(TAG_ISOLATION_WINDOW)) {
-                    if (openingTagName.contentEquals(TAG_CV_PARAM)) {
-                      MzMLCVParam cvParam = createMzMLCVParam(xmlStreamReader);
-                      vars.isolationWindow.addCVParam(cvParam);
+            }
 
+            if (tracker.inside(TAG_CHROMATOGRAM_LIST)) {
+              switch (closingTagName.toString()) {
+                case TAG_BINARY_DATA_ARRAY:
+                  if (!vars.skipBinaryDataArray) {
+                    if (CV_ACCESSION_RT_ARRAY
+                        .equals(vars.binaryDataInfo.getArrayType().getValue())) {
+                      vars.chromatogram.setRtBinaryDataInfo(vars.binaryDataInfo);
+                    }
+                    if (CV_ACCESSION_INTENSITY_ARRAY
+                        .equals(vars.binaryDataInfo.getArrayType().getValue())) {
+                      vars.chromatogram.setIntensityBinaryDataInfo(vars.binaryDataInfo);
                     }
-
                   }
-                }
+                  break;
+
+                case TAG_CHROMATOGRAM:
+                  if (vars.chromatogram.getRtBinaryDataInfo() != null
+                      && vars.chromatogram.getIntensityBinaryDataInfo() != null)
+                    vars.chromatogramsList.add(vars.chromatogram);
+                  else {
+                    // logger.warn("Didn't find rt or intensity data array for spectrum scan (#"
+                    // + vars.spectrum.getScanNumber() + "). Skipping scan.");
+                  }
+                  break;
 
+                default:
+                  // we don't care about other tags
+                  break;
               }
 
-              break;
+            }
 
-            case XMLStreamConstants.END_ELEMENT:
-              // closing tag
-              final CharArray closingTagName = xmlStreamReader.getLocalName();
+            // A single element is complete when its closing tag is reached
+            if (vars.singleElement && (closingTagName.equals(TAG_SPECTRUM)
+                || closingTagName.equals(TAG_CHROMATOGRAM))) {
+              if (vars.parsedElements != null)
+                vars.parsedElements.incrementAndGet();
+              return true;
+            }
 
-              tracker.exit(closingTagName);
+            break;
 
-              CharArray s = closingTagName;
-              if (s.equals(TAG_SPECTRUM_LIST)) {
-              } else if (s.equals(TAG_REF_PARAM_GROUP)) {
-                referenceableParamGroupList.add(vars.referenceableParamGroup);
+          case XMLStreamConstants.CHARACTERS:
+            break;
+        }
 
-              } else if (s.equals(TAG_REF_PARAM_GROUP_LIST)) {
-              } else if (s.equals(TAG_PRECURSOR_LIST)) {
-              } else if (s.equals(TAG_ISOLATION_WINDOW)) {
-                if (tracker.inside(TAG_PRECURSOR)) {
-                  vars.precursor.setIsolationWindow(vars.isolationWindow);
-                } else if (tracker.inside(TAG_PRODUCT) && tracker.inside(TAG_CHROMATOGRAM)) {
-                  vars.product.setIsolationWindow(vars.isolationWindow);
-                }
+      } while (eventType != XMLStreamConstants.END_DOCUMENT);
 
-              } else if (s.equals(TAG_SELECTED_ION_LIST)) {
-                vars.precursor.setSelectedIonList(vars.selectedIonList);
+    } finally {
+      xmlStreamReader.close();
+    }
+    return true;
+  }
 
-              } else if (s.equals(TAG_ACTIVATION)) {
-                vars.precursor.setActivation(vars.activation);
+  /**
+   * Parses the header of the file, finds the offsets of the spectra and chromatograms and parses
+   * chunks of them concurrently. The parsed elements are added to the lists of the given context in
+   * the order of the file.
+   *
+   * @return false if the parsing was canceled
+   */
+  private boolean parseInParallel(@Nonnull ByteBufferInputStream is, @Nonnull Vars vars)
+      throws XMLStreamException, MSDKException {
 
-              } else if (s.equals(TAG_SELECTED_ION)) {
-                vars.selectedIonList.addSelectedIon(vars.selectedIon);
+    // The referenceable param groups must be known before any element is parsed
+    final Vars headerVars = new Vars();
+    headerVars.headerOnly = true;
+    if (!parse(is, 0, headerVars))
+      return false;
 
-              } else if (s.equals(TAG_PRECURSOR)) {
-                if (tracker.inside(TAG_SPECTRUM))
-                  vars.spectrum.getPrecursorList().addPrecursor(vars.precursor);
-                else if (tracker.inside(TAG_CHROMATOGRAM))
-                  vars.chromatogram.setPrecursor(vars.precursor);
+    final MSDKMetrics.Phase indexPhase = vars.metrics.phase("index");
+    final ExecutorService pool = (executor != null) ? executor : new ForkJoinPool(parallelism);
+    try {
+      vars.parsePhase.stop();
+      indexPhase.start();
+      long spectrumOffsets[] = null, chromatogramOffsets[] = null;
+      final MzMLIndex index = readIndex(is);
+      if ((index != null)
+          && !(index.getSpectrumIds().isEmpty() && index.getChromatogramIds().isEmpty())) {
+        spectrumOffsets = getIndexOffsets(is, index.getSpectrumIds(), index::getSpectrumOffset,
+            TAG_SPECTRUM);
+        chromatogramOffsets = getIndexOffsets(is, index.getChromatogramIds(),
+            index::getChromatogramOffset, TAG_CHROMATOGRAM);
+      }
+      if ((spectrumOffsets == null) || (chromatogramOffsets == null)) {
+        final long offsets[][] = scanElementOffsets(is, pool);
+        spectrumOffsets = offsets[0];
+        chromatogramOffsets = offsets[1];
+      }
+      indexPhase.stop(spectrumOffsets.length + chromatogramOffsets.length);
+      vars.parsePhase.start();
+
+      if (canceled)
+        return false;
+
+      parsedElements.set(0);
+      totalElements = spectrumOffsets.length + chromatogramOffsets.length;
+      final List<Future<Vars>> spectrumChunks =
+          submitChunks(is, pool, spectrumOffsets, TAG_SPECTRUM_LIST);
+      final List<Future<Vars>> chromatogramChunks =
+          submitChunks(is, pool, chromatogramOffsets, TAG_CHROMATOGRAM_LIST);
+
+      // Merge the chunks in the order of the file
+      for (Future<Vars> chunk : spectrumChunks)
+        vars.spectrumList.addAll(chunk.get().spectrumList);
+      for (Future<Vars> chunk : chromatogramChunks)
+        vars.chromatogramsList.addAll(chunk.get().chromatogramsList);
+    } catch (InterruptedException e) {
+      canceled = true;
+      Thread.currentThread().interrupt();
+      throw new MSDKException(e);
+    } catch (ExecutionException e) {
+      canceled = true;
+      throw new MSDKException(e.getCause());
+    } finally {
+      totalElements = 0;
+      if (executor == null)
+        pool.shutdown();
+    }
 
-              } else if (s.equals(TAG_PRODUCT)) {
-                if (tracker.inside(TAG_CHROMATOGRAM))
-                  vars.chromatogram.setProdcut(vars.product);
-              }
+    if (canceled)
+      return false;
 
-              if (tracker.inside(TAG_SPECTRUM_LIST)) {
-                switch (closingTagName.toString()) {
-                  case TAG_BINARY_DATA_ARRAY:
-                    if (!vars.skipBinaryDataArray) {
-                      if (CV_ACCESSION_MZ_ARRAY
-                          .equals(vars.binaryDataInfo.getArrayType().getValue())) {
-                        vars.spectrum.setMzBinaryDataInfo(vars.binaryDataInfo);
-                      }
-                      if (CV_ACCESSION_INTENSITY_ARRAY
-                          .equals(vars.binaryDataInfo.getArrayType().getValue())) {
-                        vars.spectrum.setIntensityBinaryDataInfo(vars.binaryDataInfo);
-                      }
-                    }
-                    break;
+    vars.metrics.addItems(vars.spectrumList.size());
+    return true;
+  }
 
-                  case TAG_SPECTRUM:
-                    if (vars.spectrum.getMzBinaryDataInfo() != null
-                        && vars.spectrum.getIntensityBinaryDataInfo() != null)
-                      spectrumList.add(vars.spectrum);
-                    else {
-                      // logger.warn("Didn't find m/z or intensity data array for spectrum scan (#"
-                      // + vars.spectrum.getScanNumber() + "). Skipping scan.");
-                    }
-                    break;
+  private @Nullable MzMLIndex readIndex(@Nonnull ByteBufferInputStream is) {
+    try {
+      return MzMLIndex.read(is);
+    } catch (MSDKException e) {
+      logger.warn("Cannot use the index of " + mzMLFile + ": " + e.getMessage());
+      return null;
+    }
+  }
 
-                  default:
-                    // we don't care about other tags
-                    break;
-                }
+  /**
+   * Returns the sorted offsets of the given indexed elements, or null if any of them does not
+   * point to an element with the given tag name.
+   */
+  private @Nullable long[] getIndexOffsets(@Nonnull ByteBufferInputStream is,
+      @Nonnull List<String> ids, @Nonnull Function<String, Long> offsetLookup,
+      @Nonnull String tagName) {
+    final long offsets[] = new long[ids.size()];
+    for (int i = 0; i < offsets.length; i++) {
+      final Long offset = offsetLookup.apply(ids.get(i));
+      if ((offset == null) || !MzMLIndex.isElementAt(is, offset, tagName)) {
+        logger.warn("Index offsets of " + mzMLFile + " do not point to the indexed elements");
+        return null;
+      }
+      offsets[i] = offset;
+    }
+    Arrays.sort(offsets);
+    for (int i = 1; i < offsets.length; i++) {
+      if (offsets[i] == offsets[i - 1]) {
+        logger.warn("Index of " + mzMLFile + " contains duplicate offsets");
+        return null;
+      }
+    }
+    return offsets;
+  }
 
-              }
+  /**
+   * Scans the bytes of the file for the start tags of the spectrum and chromatogram elements. The
+   * file is split into consecutive ranges, which are scanned concurrently.
+   *
+   * @return the sorted offsets of the spectra and of the chromatograms
+   */
+  private @Nonnull long[][] scanElementOffsets(@Nonnull ByteBufferInputStream is,
+      @Nonnull ExecutorService pool) throws InterruptedException, ExecutionException {
+    final long length = is.length();
+    final int numOfChunks =
+        (int) Math.max(1, Math.min(parallelism * CHUNKS_PER_THREAD, length / SCAN_BLOCK_SIZE));
+    final List<Future<long[][]>> futures = new ArrayList<>(numOfChunks);
+    for (int chunk = 0; chunk < numOfChunks; chunk++) {
+      final long from = length * chunk / numOfChunks;
+      final long to = length * (chunk + 1) / numOfChunks;
+      futures.add(pool.submit(() -> scanElementOffsets(is, from, to)));
+    }
 
-              if (tracker.inside(TAG_CHROMATOGRAM_LIST)) {
-                switch (closingTagName.toString()) {
-                  case TAG_BINARY_DATA_ARRAY:
-                    if (!vars.skipBinaryDataArray) {
-                      if (CV_ACCESSION_RT_ARRAY
-                          .equals(vars.binaryDataInfo.getArrayType().getValue())) {
-                        vars.chromatogram.setRtBinaryDataInfo(vars.binaryDataInfo);
-                      }
-                      if (CV_ACCESSION_INTENSITY_ARRAY
-                          .equals(vars.binaryDataInfo.getArrayType().getValue())) {
-                        vars.chromatogram.setIntensityBinaryDataInfo(vars.binaryDataInfo);
-                      }
-                    }
-                    break;
+    final List<long[]> spectrumOffsets = new ArrayList<>(), chromatogramOffsets = new ArrayList<>();
+    for (Future<long[][]> future : futures) {
+      spectrumOffsets.add(future.get()[0]);
+      chromatogramOffsets.add(future.get()[1]);
+    }
+    return new long[][] {concat(spectrumOffsets), concat(chromatogramOffsets)};
+  }
 
-                  case TAG_CHROMATOGRAM:
-                    if (vars.chromatogram.getRtBinaryDataInfo() != null
-                        && vars.chromatogram.getIntensityBinaryDataInfo() != null)
-                      chromatogramsList.add(vars.chromatogram);
-                    else {
-                      // logger.warn("Didn't find rt or intensity data array for spectrum scan (#"
-                      // + vars.spectrum.getScanNumber() + "). Skipping scan.");
-                    }
-                    break;
+  /**
+   * Scans the given range of the file for the start tags of the spectrum and chromatogram
+   * elements. A start tag is the tag name preceded by '<' and followed by a whitespace, the same
+   * test as in {@link MzMLIndex#isElementAt(ByteBufferInputStream, long, String)}.
+   */
+  private @Nonnull long[][] scanElementOffsets(@Nonnull ByteBufferInputStream is, long from,
+      long to) {
+    final ByteBufferInputStream in = is.copy();
+    final int maxTagLength = SCAN_CHROMATOGRAM.length + 1;
+    final byte block[] = new byte[SCAN_BLOCK_SIZE + maxTagLength];
+    long spectrumOffsets[] = new long[16], chromatogramOffsets[] = new long[16];
+    int numOfSpectra = 0, numOfChromatograms = 0;
+
+    // Consecutive blocks overlap by the tag length, so tags crossing a block end are found
+    for (long position = from; position < to; position += SCAN_BLOCK_SIZE) {
+      if (canceled)
+        break;
+      final int scanLength = (int) Math.min(SCAN_BLOCK_SIZE, to - position);
+      final int readLength = (int) Math.min(scanLength + maxTagLength, in.length() - position);
+      in.position(position);
+      int numRead = 0;
+      while (numRead < readLength) {
+        final int n = in.read(block, numRead, readLength - numRead);
+        if (n < 0)
+          break;
+        numRead += n;
+      }
 
-                  default:
-                    // we don't care about other tags
-                    break;
-                }
+      for (int i = 0; i < scanLength; i++) {
+        if (block[i] != '<')
+          continue;
+        if (isTagAt(block, i, numRead, SCAN_SPECTRUM)) {
+          if (numOfSpectra == spectrumOffsets.length)
+            spectrumOffsets = Arrays.copyOf(spectrumOffsets, numOfSpectra * 2);
+          spectrumOffsets[numOfSpectra++] = position + i;
+        } else if (isTagAt(block, i, numRead, SCAN_CHROMATOGRAM)) {
+          if (numOfChromatograms == chromatogramOffsets.length)
+            chromatogramOffsets = Arrays.copyOf(chromatogramOffsets, numOfChromatograms * 2);
+          chromatogramOffsets[numOfChromatograms++] = position + i;
+        }
+      }
+    }
 
-              }
+    return new long[][] {Arrays.copyOf(spectrumOffsets, numOfSpectra),
+        Arrays.copyOf(chromatogramOffsets, numOfChromatograms)};
+  }
 
-              break;
+  private static boolean isTagAt(@Nonnull byte block[], int start, int end, @Nonnull byte tag[]) {
+    if (start + tag.length >= end)
+      return false;
+    for (int i = 1; i < tag.length; i++) {
+      if (block[start + i] != tag[i])
+        return false;
+    }
+    final byte next = block[start + tag.length];
+    return (next == ' ') || (next == '\t') || (next == '\n') || (next == '\r');
+  }
 
-            case XMLStreamConstants.CHARACTERS:
-              break;
-          }
+  private static @Nonnull long[] concat(@Nonnull List<long[]> arrays) {
+    final long result[] = new long[arrays.stream().mapToInt(array -> array.length).sum()];
+    int position = 0;
+    for (long array[] : arrays) {
+      System.arraycopy(array, 0, result, position, array.length);
+      position += array.length;
+    }
+    return result;
+  }
 
-        } while (eventType != XMLStreamConstants.END_DOCUMENT);
+  /**
+   * Splits the given element offsets into consecutive chunks and submits a parsing task for each
+   * chunk.
+   */
+  private @Nonnull List<Future<Vars>> submitChunks(@Nonnull ByteBufferInputStream is,
+      @Nonnull ExecutorService pool, @Nonnull long offsets[], @Nonnull String listTag) {
+    final int numOfChunks = Math.min(offsets.length, parallelism * CHUNKS_PER_THREAD);
+    final List<Future<Vars>> futures = new ArrayList<>(numOfChunks);
+    for (int chunk = 0; chunk < numOfChunks; chunk++) {
+      final int from = (int) ((long) offsets.length * chunk / numOfChunks);
+      final int to = (int) ((long) offsets.length * (chunk + 1) / numOfChunks);
+      futures.add(pool.submit(() -> parseChunk(is, offsets, from, to, listTag)));
+    }
+    return futures;
+  }
 
-      } finally {
-        if (xmlStreamReader != null) {
-          xmlStreamReader.close();
-        }
+  /**
+   * Parses the elements at the given range of offsets. Each element is parsed separately, because
+   * the XML reader does not accept sibling elements without their parent.
+   */
+  private @Nonnull Vars parseChunk(@Nonnull ByteBufferInputStream is, @Nonnull long offsets[],
+      int from, int to, @Nonnull String listTag) throws MSDKException {
+    final Vars vars = new Vars();
+    for (int i = from; i < to; i++) {
+      if (canceled)
+        return vars;
+      final Vars elementVars = parseElement(is, offsets[i], listTag, parsedElements);
+      vars.spectrumList.addAll(elementVars.spectrumList);
+      vars.chromatogramsList.addAll(elementVars.chromatogramsList);
+    }
+
+    // The decoded arrays are kept in the decoded array cache of the raw data file
+    if (decodeArrays) {
+      for (MsScan spectrum : vars.spectrumList) {
+        if (canceled)
+          break;
+        spectrum.getMzValues();
+        spectrum.getIntensityValues();
       }
-      progress = 1f;
-      logger.info("Parsing Complete");
-    } catch (IOException | XMLStreamException e) {
-      throw (new MSDKException(e));
     }
+    return vars;
+  }
 
-    progress = 1f;
-    return newRawFile;
+  /**
+   * Parses the file and pushes each spectrum to the given sink as soon as it has been parsed,
+   * instead of adding it to the raw data file. The spectra are not kept by the parser, so the
+   * memory use does not grow with the number of spectra. The raw data file returned by
+   * {@link #getResult()} contains only the chromatograms. Parsing stops if the sink returns false.
+   *
+   * @param sink a {@link io.github.msdk.datamodel.rawdata.ScanSink} object.
+   * @throws io.github.msdk.MSDKException if any.
+   */
+  @Override
+  public void streamScans(@Nonnull ScanSink sink) throws MSDKException {
+    this.scanSink = sink;
+    try {
+      execute();
+    } finally {
+      this.scanSink = null;
+    }
   }
 
   private MzMLCVParam createMzMLCVParam(XMLStreamReader xmlStreamReader) {
@@ -661,6 +1208,9 @@ public class MzMLFileParser implements MSDKMethod<RawDataFile> {
   /** {@inheritDoc} */
   @Override
   public Float getFinishedPercentage() {
+    final int total = totalElements;
+    if (total > 0)
+      return (float) parsedElements.get() / total;
     return progress;
   }
 
@@ -678,8 +1228,19 @@ public class MzMLFileParser implements MSDKMethod<RawDataFile> {
 
   private static class Vars {
 
+    TagTracker tracker;
+    List<MsScan> spectrumList;
+    List<Chromatogram> chromatogramsList;
+    MSDKMetrics metrics;
+    MSDKMetrics.Phase parsePhase;
+    MSDKMetrics.Phase sinkPhase;
+    long positionOffset;
+    boolean singleElement;
+    AtomicInteger parsedElements;
+    boolean headerOnly;
     int defaultArrayLength;
     boolean skipBinaryDataArray;
+    boolean skipSpectrum;
     MzMLSpectrum spectrum;
     MzMLChromatogram chromatogram;
     MzMLBinaryDataInfo binaryDataInfo;
@@ -692,8 +1253,19 @@ public class MzMLFileParser implements MSDKMethod<RawDataFile> {
     MzMLPrecursorActivation activation;
 
     Vars() {
+      tracker = new TagTracker();
+      spectrumList = new ArrayList<>();
+      chromatogramsList = new ArrayList<>();
+      metrics = null;
+      parsePhase = null;
+      sinkPhase = null;
+      positionOffset = 0;
+      singleElement = false;
+      parsedElements = null;
+      headerOnly = false;
       defaultArrayLength = 0;
       skipBinaryDataArray = false;
+      skipSpectrum = false;
       spectrum = null;
       chromatogram = null;
       binaryDataInfo = null;
@@ -0,0 +1,337 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+
+package io.github.msdk.io.mzml2;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.chromatograms.Chromatogram;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.io.mzml2.data.MzMLRawDataFile;
+import io.github.msdk.io.mzml2.util.MzMLFileMemoryMapper;
+import io.github.msdk.io.mzml2.util.MzMLIndex;
+import it.unimi.dsi.io.ByteBufferInputStream;
+
+/**
+ * Random access to the spectra and chromatograms of an mzML file.
+ *
+ * If the file is an indexed mzML file, only its header and index are read when it is opened, and
+ * each spectrum or chromatogram is parsed on demand from the offset given by the index. Otherwise,
+ * or if the index turns out to be corrupt, the whole file is parsed once by
+ * {@link MzMLFileParser} and the elements are looked up in the result.
+ *
+ * The spectra and chromatograms which have been resolved belong to the raw data file returned by
+ * {@link #getRawDataFile()}, and are added to its scan and chromatogram lists in the order in which
+ * they were resolved. The raw data file is the same for the whole lifetime of the reader: if the
+ * reader switches to the whole file, the elements resolved before are kept, and all other elements
+ * are appended in the order of the file.
+ */
+public class MzMLRandomAccessReader {
+
+  private static final String TAG_SPECTRUM = "spectrum";
+  private static final String TAG_CHROMATOGRAM = "chromatogram";
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final @Nonnull File mzMLFile;
+  private final @Nonnull ByteBufferInputStream is;
+  // Separate stream for reading the index, the spectra decode their data from the main stream
+  private final @Nonnull ByteBufferInputStream indexInput;
+  private final @Nonnull MzMLFileParser parser;
+
+  private final @Nonnull MzMLRawDataFile rawFile;
+  private @Nullable MzMLIndex index;
+
+  // Scan and chromatogram lists of the raw data file in the indexed mode
+  private final @Nonnull List<MsScan> resolvedSpectra = new ArrayList<>();
+  private final @Nonnull List<Chromatogram> resolvedChromatograms = new ArrayList<>();
+
+  private final @Nonnull Map<String, MzMLSpectrum> spectra = new HashMap<>();
+  private final @Nonnull Map<String, MzMLChromatogram> chromatograms = new HashMap<>();
+  private @Nullable Map<Integer, String> scanNumberIds;
+
+  /**
+   * <p>
+   * Constructor for MzMLRandomAccessReader. Reads the index of the file, or the whole file if it is
+   * not indexed.
+   * </p>
+   *
+   * @param mzMLFile a {@link java.io.File} object.
+   * @throws io.github.msdk.MSDKException if any.
+   */
+  public MzMLRandomAccessReader(@Nonnull File mzMLFile) throws MSDKException {
+    this.mzMLFile = mzMLFile;
+    this.parser = new MzMLFileParser(mzMLFile);
+    try {
+      this.is = MzMLFileMemoryMapper.mapToMemory(mzMLFile);
+    } catch (IOException e) {
+      throw new MSDKException(e);
+    }
+    this.indexInput = is.copy();
+    this.rawFile =
+        new MzMLRawDataFile(mzMLFile, new ArrayList<>(), resolvedSpectra, resolvedChromatograms);
+
+    try {
+      index = MzMLIndex.read(indexInput);
+      if ((index != null) && !checkIndex(index))
+        throw new MSDKException("Index offsets do not point to the indexed elements");
+    } catch (MSDKException e) {
+      logger.warn("Cannot use the index of " + mzMLFile + ": " + e.getMessage());
+      index = null;
+    }
+
+    if (index != null) {
+      logger.debug("Using the index of " + mzMLFile + " with " + index.getSpectrumIds().size()
+          + " spectra");
+      parser.parseHeader(is, rawFile);
+    } else {
+      parseWholeFile();
+    }
+  }
+
+  /**
+   * Returns true if the spectra and chromatograms are parsed on demand using the index of the
+   * file, false if the whole file was parsed.
+   *
+   * @return a boolean.
+   */
+  synchronized public boolean isIndexed() {
+    return index != null;
+  }
+
+  /**
+   * <p>
+   * getRawDataFile.
+   * </p>
+   *
+   * @return the raw data file the resolved spectra and chromatograms belong to
+   */
+  synchronized public @Nonnull MzMLRawDataFile getRawDataFile() {
+    return rawFile;
+  }
+
+  /**
+   * <p>
+   * getSpectrumIds.
+   * </p>
+   *
+   * @return the ids of all spectra, in the order of the file
+   */
+  synchronized public @Nonnull List<String> getSpectrumIds() {
+    if (index != null)
+      return index.getSpectrumIds();
+    final List<String> ids = new ArrayList<>();
+    for (MsScan scan : rawFile.getScans())
+      ids.add(((MzMLSpectrum) scan).getId());
+    return Collections.unmodifiableList(ids);
+  }
+
+  /**
+   * <p>
+   * getChromatogramIds.
+   * </p>
+   *
+   * @return the ids of all chromatograms, in the order of the file
+   */
+  synchronized public @Nonnull List<String> getChromatogramIds() {
+    if (index != null)
+      return index.getChromatogramIds();
+    final List<String> ids = new ArrayList<>();
+    for (Chromatogram chromatogram : rawFile.getChromatograms())
+      ids.add(((MzMLChromatogram) chromatogram).getId());
+    return Collections.unmodifiableList(ids);
+  }
+
+  /**
+   * Returns the spectrum with the given id.
+   *
+   * @param id id of the spectrum
+   * @return the spectrum, or null if there is no spectrum with m/z and intensity data with this id
+   * @throws io.github.msdk.MSDKException if any.
+   */
+  synchronized public @Nullable MzMLSpectrum getSpectrum(@Nonnull String id)
+      throws MSDKException {
+    MzMLSpectrum spectrum = spectra.get(id);
+    if ((spectrum != null) || (index == null))
+      return spectrum;
+
+    final Long offset = index.getSpectrumOffset(id);
+    if (offset == null)
+      return null;
+
+    try {
+      if (!MzMLIndex.isElementAt(indexInput, offset, TAG_SPECTRUM))
+        throw new MSDKException("No spectrum element at offset " + offset);
+      spectrum = parser.parseSpectrum(is, offset);
+      if ((spectrum != null) && !id.equals(spectrum.getId()))
+        throw new MSDKException("Spectrum at offset " + offset + " is " + spectrum.getId());
+    } catch (MSDKException e) {
+      fallBackToWholeFile("spectrum " + id, e);
+      return spectra.get(id);
+    }
+
+    if (spectrum != null) {
+      spectra.put(id, spectrum);
+      resolvedSpectra.add(spectrum);
+    }
+    return spectrum;
+  }
+
+  /**
+   * Returns the spectrum with the given scan number. If the id of a spectrum does not contain the
+   * scan number, its index + 1 is used, the same way as by {@link MzMLFileParser}.
+   *
+   * @param scanNumber scan number of the spectrum
+   * @return the spectrum, or null if there is no spectrum with m/z and intensity data with this
+   *         scan number
+   * @throws io.github.msdk.MSDKException if any.
+   */
+  synchronized public @Nullable MzMLSpectrum getSpectrumByScanNumber(int scanNumber)
+      throws MSDKException {
+    if (scanNumberIds == null) {
+      final Map<Integer, String> ids = new HashMap<>();
+      if (index != null) {
+        final List<String> spectrumIds = index.getSpectrumIds();
+        for (int i = 0; i < spectrumIds.size(); i++) {
+          final String id = spectrumIds.get(i);
+          ids.putIfAbsent(parser.getScanNumber(id).orElse(i + 1), id);
+        }
+      } else {
+        for (MzMLSpectrum spectrum : spectra.values())
+          ids.putIfAbsent(spectrum.getScanNumber(), spectrum.getId());
+      }
+      scanNumberIds = ids;
+    }
+
+    final String id = scanNumberIds.get(scanNumber);
+    return id == null ? null : getSpectrum(id);
+  }
+
+  /**
+   * Returns the chromatogram with the given id.
+   *
+   * @param id id of the chromatogram
+   * @return the chromatogram, or null if there is no chromatogram with retention time and
+   *         intensity data with this id
+   * @throws io.github.msdk.MSDKException if any.
+   */
+  synchronized public @Nullable Chromatogram getChromatogram(@Nonnull String id)
+      throws MSDKException {
+    MzMLChromatogram chromatogram = chromatograms.get(id);
+    if ((chromatogram != null) || (index == null))
+      return chromatogram;
+
+    final Long offset = index.getChromatogramOffset(id);
+    if (offset == null)
+      return null;
+
+    try {
+      if (!MzMLIndex.isElementAt(indexInput, offset, TAG_CHROMATOGRAM))
+        throw new MSDKException("No chromatogram element at offset " + offset);
+      chromatogram = parser.parseChromatogram(is, offset);
+      if ((chromatogram != null) && !id.equals(chromatogram.getId()))
+        throw new MSDKException(
+            "Chromatogram at offset " + offset + " is " + chromatogram.getId());
+    } catch (MSDKException e) {
+      fallBackToWholeFile("chromatogram " + id, e);
+      return chromatograms.get(id);
+    }
+
+    if (chromatogram != null) {
+      chromatograms.put(id, chromatogram);
+      resolvedChromatograms.add(chromatogram);
+    }
+    return chromatogram;
+  }
+
+  /**
+   * Checks the offsets of the first and last spectrum and chromatogram, which catches most broken
+   * indexes, e.g. of files whose line endings were converted. The other offsets are checked when
+   * they are used.
+   */
+  private boolean checkIndex(@Nonnull MzMLIndex index) {
+    final List<String> spectrumIds = index.getSpectrumIds();
+    final List<String> chromatogramIds = index.getChromatogramIds();
+    if (spectrumIds.isEmpty() && chromatogramIds.isEmpty())
+      return false;
+    if (!spectrumIds.isEmpty()) {
+      if (!MzMLIndex.isElementAt(indexInput, index.getSpectrumOffset(spectrumIds.get(0)),
+          TAG_SPECTRUM))
+        return false;
+      if (!MzMLIndex.isElementAt(indexInput,
+          index.getSpectrumOffset(spectrumIds.get(spectrumIds.size() - 1)), TAG_SPECTRUM))
+        return false;
+    }
+    if (!chromatogramIds.isEmpty()) {
+      if (!MzMLIndex.isElementAt(indexInput, index.getChromatogramOffset(chromatogramIds.get(0)),
+          TAG_CHROMATOGRAM))
+        return false;
+      if (!MzMLIndex.isElementAt(indexInput,
+          index.getChromatogramOffset(chromatogramIds.get(chromatogramIds.size() - 1)),
+          TAG_CHROMATOGRAM))
+        return false;
+    }
+    return true;
+  }
+
+  private void fallBackToWholeFile(@Nonnull String element, @Nonnull MSDKException e)
+      throws MSDKException {
+    logger.warn("Invalid index entry of " + element + " in " + mzMLFile
+        + ", reading the whole file: " + e.getMessage());
+    index = null;
+    scanNumberIds = null;
+    parseWholeFile();
+  }
+
+  private void parseWholeFile() throws MSDKException {
+    final List<MsScan> parsedSpectra = new ArrayList<>();
+    final List<Chromatogram> parsedChromatograms = new ArrayList<>();
+    if (!parser.parseWholeFile(is, rawFile, parsedSpectra, parsedChromatograms))
+      throw new MSDKException("Parsing of " + mzMLFile + " was canceled");
+
+    // The elements resolved before remain valid, the parsed copies of them are dropped
+    final Set<String> resolvedSpectrumIds = new HashSet<>(spectra.keySet());
+    for (MsScan scan : parsedSpectra) {
+      final MzMLSpectrum spectrum = (MzMLSpectrum) scan;
+      if (resolvedSpectrumIds.contains(spectrum.getId()))
+        continue;
+      spectra.putIfAbsent(spectrum.getId(), spectrum);
+      resolvedSpectra.add(spectrum);
+    }
+    final Set<String> resolvedChromatogramIds = new HashSet<>(chromatograms.keySet());
+    for (Chromatogram chromatogram : parsedChromatograms) {
+      final MzMLChromatogram mzMLChromatogram = (MzMLChromatogram) chromatogram;
+      if (resolvedChromatogramIds.contains(mzMLChromatogram.getId()))
+        continue;
+      chromatograms.putIfAbsent(mzMLChromatogram.getId(), mzMLChromatogram);
+      resolvedChromatograms.add(mzMLChromatogram);
+    }
+  }
+
+}
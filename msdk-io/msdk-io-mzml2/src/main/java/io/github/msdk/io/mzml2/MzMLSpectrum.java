@@ -13,6 +13,8 @@
 
 package io.github.msdk.io.mzml2;
 
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -43,7 +45,6 @@ import io.github.msdk.io.mzml2.data.MzMLIsolationWindow;
 import io.github.msdk.io.mzml2.data.MzMLPrecursorElement;
 import io.github.msdk.io.mzml2.data.MzMLPrecursorList;
 import io.github.msdk.io.mzml2.data.MzMLRawDataFile;
-import io.github.msdk.io.mzml2.util.MzMLPeaksDecoder;
 import io.github.msdk.spectra.spectrumtypedetection.SpectrumTypeDetectionAlgorithm;
 import io.github.msdk.util.MsSpectrumUtil;
 import io.github.msdk.util.tolerances.MzTolerance;
@@ -195,10 +196,14 @@ public class MzMLSpectrum implements MsScan {
     return getMzBinaryDataInfo().getArrayLength();
   }
 
-  /** {@inheritDoc} */
+  /**
+   * {@inheritDoc}
+   *
+   * The decoded values are kept in the decoded array cache of the raw data file, so repeated calls
+   * do not decode the data again.
+   */
   @Override
   public double[] getMzValues(double array[]) {
-    double[] mzValues = null;
     if (getMzBinaryDataInfo().getArrayLength() != numOfDataPoints) {
       logger.warn(
           "m/z binary data array contains a different array length from the default array length of the scan (#"
@@ -206,19 +211,21 @@ public class MzMLSpectrum implements MsScan {
     }
 
     try {
-      mzValues =
-          MzMLPeaksDecoder.decodeToDouble(mappedByteBufferInputStream, getMzBinaryDataInfo());
+      return dataFile.getDecodedArrayCache().getDoubleValues(mappedByteBufferInputStream,
+          getMzBinaryDataInfo(), array);
     } catch (Exception e) {
       throw (new MSDKRuntimeException(e));
     }
-
-    return mzValues;
   }
 
-  /** {@inheritDoc} */
+  /**
+   * {@inheritDoc}
+   *
+   * The decoded values are kept in the decoded array cache of the raw data file, so repeated calls
+   * do not decode the data again.
+   */
   @Override
   public float[] getIntensityValues(float array[]) {
-    float[] intensityValues = null;
     if (getIntensityBinaryDataInfo().getArrayLength() != numOfDataPoints) {
       logger.warn(
           "Intensity binary data array contains a different array length from the default array length of the scan (#"
@@ -226,13 +233,65 @@ public class MzMLSpectrum implements MsScan {
     }
 
     try {
-      intensityValues =
-          MzMLPeaksDecoder.decodeToFloat(mappedByteBufferInputStream, getIntensityBinaryDataInfo());
+      return dataFile.getDecodedArrayCache().getFloatValues(mappedByteBufferInputStream,
+          getIntensityBinaryDataInfo(), array);
+    } catch (Exception e) {
+      throw (new MSDKRuntimeException(e));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The value is read from the decoded array cache of the raw data file, so accessing all data
+   * points of the spectrum one by one decodes the array only once, as long as it fits into the
+   * cache.
+   */
+  @Override
+  public double getMz(int index) {
+    return getMzBuffer().get(index);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The value is read from the decoded array cache of the raw data file, so accessing all data
+   * points of the spectrum one by one decodes the array only once, as long as it fits into the
+   * cache.
+   */
+  @Override
+  public float getIntensity(int index) {
+    return getIntensityBuffer().get(index);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The buffer is a view of the array kept in the decoded array cache of the raw data file.
+   */
+  @Override
+  public DoubleBuffer getMzBuffer() {
+    try {
+      return dataFile.getDecodedArrayCache().getDoubleBuffer(mappedByteBufferInputStream,
+          getMzBinaryDataInfo());
     } catch (Exception e) {
       throw (new MSDKRuntimeException(e));
     }
+  }
 
-    return intensityValues;
+  /**
+   * {@inheritDoc}
+   *
+   * The buffer is a view of the array kept in the decoded array cache of the raw data file.
+   */
+  @Override
+  public FloatBuffer getIntensityBuffer() {
+    try {
+      return dataFile.getDecodedArrayCache().getFloatBuffer(mappedByteBufferInputStream,
+          getIntensityBinaryDataInfo());
+    } catch (Exception e) {
+      throw (new MSDKRuntimeException(e));
+    }
   }
 
   /** {@inheritDoc} */
@@ -321,7 +380,7 @@ public class MzMLSpectrum implements MsScan {
   @Override
   public Integer getMsLevel() {
     Integer msLevel = 1;
-    String value = getCVValue(MzMLCV.cvMSLevel).get();
+    String value = getCVValue(MzMLCV.cvMSLevel).orElse(null);
     if (!Strings.isNullOrEmpty(value))
       msLevel = Integer.parseInt(value);
     return msLevel;
@@ -416,8 +475,11 @@ public class MzMLSpectrum implements MsScan {
                 - Double.valueOf(isolationWindowLower.get()),
             Double.valueOf(isolationWindowTarget.get())
                 + Double.valueOf(isolationWindowLower.get()));
+        // The charge state is optional
+        Integer charge =
+            precursorCharge.isPresent() ? Integer.valueOf(precursorCharge.get()) : null;
         IsolationInfo isolation = new SimpleIsolationInfo(isolationRange, null,
-            Double.valueOf(precursorMz.get()), Integer.valueOf(precursorCharge.get()), null);
+            Double.valueOf(precursorMz.get()), charge, null);
         isolations.add(isolation);
 
       }
@@ -18,6 +18,7 @@ import java.util.List;
 import java.util.Optional;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.google.common.collect.ImmutableList;
 
@@ -25,6 +26,8 @@ import io.github.msdk.datamodel.chromatograms.Chromatogram;
 import io.github.msdk.datamodel.files.FileType;
 import io.github.msdk.datamodel.rawdata.MsScan;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.ScanIndex;
+import io.github.msdk.io.mzml2.util.MzMLDecodedArrayCache;
 
 public class MzMLRawDataFile implements RawDataFile {
 
@@ -35,9 +38,13 @@ public class MzMLRawDataFile implements RawDataFile {
   private final @Nonnull List<String> msFunctions;
   private final @Nonnull List<MsScan> msScans;
   private final @Nonnull List<Chromatogram> chromatograms;
+  private final @Nonnull MzMLDecodedArrayCache decodedArrayCache;
 
   private @Nonnull String name;
 
+  // The scan list is only appended to, so the index is rebuilt when its size changes
+  private @Nullable ScanIndex scanIndex;
+
   /**
    * <p>
    * Constructor for MzMLRawDataFile.
@@ -56,6 +63,8 @@ public class MzMLRawDataFile implements RawDataFile {
     this.msFunctions = msFunctions;
     this.msScans = msScans;
     this.chromatograms = chromatograms;
+    this.decodedArrayCache =
+        new MzMLDecodedArrayCache(MzMLDecodedArrayCache.DEFAULT_MAX_CACHE_BYTES);
   }
 
   /** {@inheritDoc} */
@@ -95,6 +104,18 @@ public class MzMLRawDataFile implements RawDataFile {
     return ImmutableList.copyOf(msScans);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * The index is built on the first call and kept until more scans are added to this file.
+   */
+  @Override
+  synchronized public @Nonnull ScanIndex getScanIndex() {
+    if ((scanIndex == null) || (scanIndex.getScans().size() != msScans.size()))
+      scanIndex = new ScanIndex(getScans());
+    return scanIndex;
+  }
+
   /** {@inheritDoc} */
   @SuppressWarnings("null")
   @Override
@@ -103,9 +124,22 @@ public class MzMLRawDataFile implements RawDataFile {
     return ImmutableList.copyOf(chromatograms);
   }
 
+  /**
+   * Returns the cache of the decoded data points of the spectra of this file. Its size limit can
+   * be changed by {@link MzMLDecodedArrayCache#setMaxCacheBytes(long)}.
+   *
+   * @return a {@link io.github.msdk.io.mzml2.util.MzMLDecodedArrayCache} object.
+   */
+  @Nonnull
+  public MzMLDecodedArrayCache getDecodedArrayCache() {
+    return decodedArrayCache;
+  }
+
   /** {@inheritDoc} */
   @Override
-  public void dispose() {}
+  public void dispose() {
+    decodedArrayCache.clear();
+  }
 
 
 }
@@ -0,0 +1,397 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.io.mzml2.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.io.mzml2.data.MzMLBinaryDataInfo;
+import io.github.msdk.util.metrics.MSDKMetrics;
+import it.unimi.dsi.io.ByteBufferInputStream;
+
+/**
+ * Cache of the decoded binary data arrays of one mzML file, so that repeated reads of the data
+ * points of a spectrum do not need to run the Base64, zlib and MS-Numpress decoding again.
+ *
+ * The size of the cache is limited by the total number of bytes of the decoded arrays, and the
+ * least recently used arrays are evicted first. The arrays are softly referenced, so the garbage
+ * collector may also clear them when the memory is low. The numbers of decodes, cache hits and
+ * evictions are counted, so the cache size can be tuned for a particular workload.
+ *
+ * The returned values are always copied, either into the array given by the caller, if it is large
+ * enough, or into a new array, so the callers may modify them. The methods of this class are
+ * thread-safe. The decoding itself runs outside of the lock, on a private copy of the input stream,
+ * so several threads can decode the arrays of one file concurrently. If two threads request the
+ * same array that is not cached yet, both decode it.
+ *
+ * While metrics are set by {@link #setMetrics(MSDKMetrics)}, the time spent in
+ * {@link MzMLPeaksDecoder} is added to their "decode" phase, summed over all decoding threads.
+ */
+public class MzMLDecodedArrayCache {
+
+  /**
+   * Default size limit of the cache, in bytes.
+   */
+  public static final long DEFAULT_MAX_CACHE_BYTES = 64L * 1024 * 1024;
+
+  private long maxCacheBytes;
+
+  // Access-ordered map, the first entry is the least recently used one
+  private final LinkedHashMap<MzMLBinaryDataInfo, CacheEntry> cache =
+      new LinkedHashMap<>(16, 0.75f, true);
+  private final ReferenceQueue<Object> clearedArrays = new ReferenceQueue<>();
+
+  private long cachedBytes = 0;
+  private long decodeCount = 0, hitCount = 0, evictionCount = 0;
+  private volatile @Nullable MSDKMetrics metrics;
+
+  /**
+   * <p>
+   * Constructor for MzMLDecodedArrayCache.
+   * </p>
+   *
+   * @param maxCacheBytes size limit of the cache in bytes, 0 disables the caching
+   */
+  public MzMLDecodedArrayCache(long maxCacheBytes) {
+    Preconditions.checkArgument(maxCacheBytes >= 0, "Cache size must not be negative");
+    this.maxCacheBytes = maxCacheBytes;
+  }
+
+  /**
+   * Returns the values of the given binary data array as doubles.
+   *
+   * @param is the mapped mzML file
+   * @param binaryDataInfo the binary data array
+   * @param array an array to copy the values into, used if it is large enough
+   * @return the given array or a new array, which contains the values
+   * @throws io.github.msdk.MSDKException if the data cannot be decoded
+   */
+  public @Nonnull double[] getDoubleValues(@Nonnull ByteBufferInputStream is,
+      @Nonnull MzMLBinaryDataInfo binaryDataInfo, @Nullable double array[])
+      throws MSDKException {
+
+    // Arrays that do not fit into the cache are decoded directly into the given array
+    if (!isCacheable(binaryDataInfo, Double.SIZE / 8)) {
+      return decodeDoubles(is, binaryDataInfo, array);
+    }
+
+    // The cached arrays are never modified, so they can be copied outside of the lock
+    final double values[] = getDecodedDoubles(is, binaryDataInfo);
+    if ((array == null) || (array.length < values.length))
+      array = new double[values.length];
+    System.arraycopy(values, 0, array, 0, values.length);
+    return array;
+  }
+
+  /**
+   * Returns a read-only view of the values of the given binary data array as doubles. The view is
+   * backed by the cached array, so no copy is made. Arrays that do not fit into the cache are
+   * decoded on every call.
+   *
+   * @param is the mapped mzML file
+   * @param binaryDataInfo the binary data array
+   * @return read-only buffer of the values
+   * @throws io.github.msdk.MSDKException if the data cannot be decoded
+   */
+  public @Nonnull DoubleBuffer getDoubleBuffer(@Nonnull ByteBufferInputStream is,
+      @Nonnull MzMLBinaryDataInfo binaryDataInfo) throws MSDKException {
+    return DoubleBuffer.wrap(getDecodedDoubles(is, binaryDataInfo)).asReadOnlyBuffer();
+  }
+
+  /**
+   * Returns the values of the given binary data array as floats.
+   *
+   * @param is the mapped mzML file
+   * @param binaryDataInfo the binary data array
+   * @param array an array to copy the values into, used if it is large enough
+   * @return the given array or a new array, which contains the values
+   * @throws io.github.msdk.MSDKException if the data cannot be decoded
+   */
+  public @Nonnull float[] getFloatValues(@Nonnull ByteBufferInputStream is,
+      @Nonnull MzMLBinaryDataInfo binaryDataInfo, @Nullable float array[]) throws MSDKException {
+
+    // Arrays that do not fit into the cache are decoded directly into the given array
+    if (!isCacheable(binaryDataInfo, Float.SIZE / 8)) {
+      return decodeFloats(is, binaryDataInfo, array);
+    }
+
+    // The cached arrays are never modified, so they can be copied outside of the lock
+    final float values[] = getDecodedFloats(is, binaryDataInfo);
+    if ((array == null) || (array.length < values.length))
+      array = new float[values.length];
+    System.arraycopy(values, 0, array, 0, values.length);
+    return array;
+  }
+
+  /**
+   * Returns a read-only view of the values of the given binary data array as floats. The view is
+   * backed by the cached array, so no copy is made. Arrays that do not fit into the cache are
+   * decoded on every call.
+   *
+   * @param is the mapped mzML file
+   * @param binaryDataInfo the binary data array
+   * @return read-only buffer of the values
+   * @throws io.github.msdk.MSDKException if the data cannot be decoded
+   */
+  public @Nonnull FloatBuffer getFloatBuffer(@Nonnull ByteBufferInputStream is,
+      @Nonnull MzMLBinaryDataInfo binaryDataInfo) throws MSDKException {
+    return FloatBuffer.wrap(getDecodedFloats(is, binaryDataInfo)).asReadOnlyBuffer();
+  }
+
+  /**
+   * Changes the size limit of the cache. Arrays are evicted immediately, if the cache is larger
+   * than the new limit.
+   *
+   * @param maxCacheBytes size limit of the cache in bytes, 0 disables the caching
+   */
+  synchronized public void setMaxCacheBytes(long maxCacheBytes) {
+    Preconditions.checkArgument(maxCacheBytes >= 0, "Cache size must not be negative");
+    this.maxCacheBytes = maxCacheBytes;
+    evict();
+  }
+
+  /**
+   * <p>
+   * getMaxCacheBytes.
+   * </p>
+   *
+   * @return size limit of the cache in bytes
+   */
+  synchronized public long getMaxCacheBytes() {
+    return maxCacheBytes;
+  }
+
+  /**
+   * Returns the number of binary data arrays that were decoded, because they were not found in the
+   * cache.
+   *
+   * @return number of decodes
+   */
+  synchronized public long getDecodeCount() {
+    return decodeCount;
+  }
+
+  /**
+   * Returns the number of requests that were served from the cache.
+   *
+   * @return number of cache hits
+   */
+  synchronized public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of arrays that were evicted from the cache to stay within its size limit, or
+   * cleared by the garbage collector.
+   *
+   * @return number of evictions
+   */
+  synchronized public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Returns the total size of the arrays currently held in the cache.
+   *
+   * @return cached data size in bytes
+   */
+  synchronized public long getCachedBytes() {
+    removeClearedArrays();
+    return cachedBytes;
+  }
+
+  /**
+   * Sets the metrics whose "decode" phase records the time of the decoding, or stops the recording
+   * if the metrics are null.
+   *
+   * @param metrics a {@link io.github.msdk.util.metrics.MSDKMetrics} object.
+   */
+  public void setMetrics(@Nullable MSDKMetrics metrics) {
+    this.metrics = ((metrics != null) && metrics.isEnabled()) ? metrics : null;
+  }
+
+  /**
+   * Removes all arrays from the cache. The counters are not reset.
+   */
+  synchronized public void clear() {
+    cache.clear();
+    cachedBytes = 0;
+    while (clearedArrays.poll() != null) {
+      // Drop the references cleared before the cache was emptied
+    }
+  }
+
+  synchronized private boolean isCacheable(@Nonnull MzMLBinaryDataInfo binaryDataInfo,
+      int valueSize) {
+    final long numOfBytes = (long) binaryDataInfo.getArrayLength() * valueSize;
+    return (maxCacheBytes > 0) && (numOfBytes <= maxCacheBytes);
+  }
+
+  /**
+   * Returns the cached array, or decodes it and puts it into the cache. The returned array is
+   * shared and must not be modified.
+   */
+  private @Nonnull double[] getDecodedDoubles(@Nonnull ByteBufferInputStream is,
+      @Nonnull MzMLBinaryDataInfo binaryDataInfo) throws MSDKException {
+
+    synchronized (this) {
+      final Object cachedValues = getCachedValues(binaryDataInfo);
+      if (cachedValues instanceof double[]) {
+        hitCount++;
+        return (double[]) cachedValues;
+      }
+    }
+
+    final double values[] = decodeDoubles(is, binaryDataInfo, null);
+    synchronized (this) {
+      putCachedValues(binaryDataInfo, values, (long) values.length * (Double.SIZE / 8));
+    }
+    return values;
+  }
+
+  /**
+   * Returns the cached array, or decodes it and puts it into the cache. The returned array is
+   * shared and must not be modified.
+   */
+  private @Nonnull float[] getDecodedFloats(@Nonnull ByteBufferInputStream is,
+      @Nonnull MzMLBinaryDataInfo binaryDataInfo) throws MSDKException {
+
+    synchronized (this) {
+      final Object cachedValues = getCachedValues(binaryDataInfo);
+      if (cachedValues instanceof float[]) {
+        hitCount++;
+        return (float[]) cachedValues;
+      }
+    }
+
+    final float values[] = decodeFloats(is, binaryDataInfo, null);
+    synchronized (this) {
+      putCachedValues(binaryDataInfo, values, (long) values.length * (Float.SIZE / 8));
+    }
+    return values;
+  }
+
+  private @Nonnull double[] decodeDoubles(@Nonnull ByteBufferInputStream is,
+      @Nonnull MzMLBinaryDataInfo binaryDataInfo, @Nullable double array[]) throws MSDKException {
+    final MSDKMetrics currentMetrics = metrics;
+    final long startNanos = (currentMetrics != null) ? System.nanoTime() : 0;
+    final double values[];
+    try {
+      values = MzMLPeaksDecoder.decodeToDouble(is.copy(), binaryDataInfo, array);
+    } catch (Exception e) {
+      throw new MSDKException(e);
+    }
+    decoded(currentMetrics, startNanos);
+    return values;
+  }
+
+  private @Nonnull float[] decodeFloats(@Nonnull ByteBufferInputStream is,
+      @Nonnull MzMLBinaryDataInfo binaryDataInfo, @Nullable float array[]) throws MSDKException {
+    final MSDKMetrics currentMetrics = metrics;
+    final long startNanos = (currentMetrics != null) ? System.nanoTime() : 0;
+    final float values[];
+    try {
+      values = MzMLPeaksDecoder.decodeToFloat(is.copy(), binaryDataInfo, array);
+    } catch (Exception e) {
+      throw new MSDKException(e);
+    }
+    decoded(currentMetrics, startNanos);
+    return values;
+  }
+
+  private void decoded(@Nullable MSDKMetrics currentMetrics, long startNanos) {
+    if (currentMetrics != null)
+      currentMetrics.addPhaseTime("decode", System.nanoTime() - startNanos, 1);
+    synchronized (this) {
+      decodeCount++;
+    }
+  }
+
+  private @Nullable Object getCachedValues(@Nonnull MzMLBinaryDataInfo binaryDataInfo) {
+    removeClearedArrays();
+    final CacheEntry entry = cache.get(binaryDataInfo);
+    if (entry == null)
+      return null;
+    return entry.get();
+  }
+
+  private void putCachedValues(@Nonnull MzMLBinaryDataInfo binaryDataInfo, @Nonnull Object values,
+      long numOfBytes) {
+    if ((maxCacheBytes == 0) || (numOfBytes > maxCacheBytes))
+      return;
+    final CacheEntry entry = new CacheEntry(binaryDataInfo, values, numOfBytes, clearedArrays);
+    final CacheEntry previous = cache.put(binaryDataInfo, entry);
+    if (previous != null)
+      cachedBytes -= previous.numOfBytes;
+    cachedBytes += numOfBytes;
+    evict();
+  }
+
+  private void evict() {
+    final Iterator<Map.Entry<MzMLBinaryDataInfo, CacheEntry>> iterator =
+        cache.entrySet().iterator();
+    while ((cachedBytes > maxCacheBytes) && iterator.hasNext()) {
+      final CacheEntry evicted = iterator.next().getValue();
+      iterator.remove();
+      cachedBytes -= evicted.numOfBytes;
+      evictionCount++;
+    }
+  }
+
+  /**
+   * Removes the entries whose arrays were cleared by the garbage collector.
+   */
+  private void removeClearedArrays() {
+    Reference<?> cleared;
+    while ((cleared = clearedArrays.poll()) != null) {
+      final CacheEntry entry = (CacheEntry) cleared;
+      // The entry may have been replaced or evicted in the meantime. Unlike get(), remove(key,
+      // value) does not move the entry to the end of the access order.
+      if (cache.remove(entry.binaryDataInfo, entry)) {
+        cachedBytes -= entry.numOfBytes;
+        evictionCount++;
+      }
+    }
+  }
+
+  /**
+   * Softly referenced decoded array.
+   */
+  private static class CacheEntry extends SoftReference<Object> {
+
+    private final @Nonnull MzMLBinaryDataInfo binaryDataInfo;
+    private final long numOfBytes;
+
+    CacheEntry(@Nonnull MzMLBinaryDataInfo binaryDataInfo, @Nonnull Object values,
+        long numOfBytes, @Nonnull ReferenceQueue<Object> queue) {
+      super(values, queue);
+      this.binaryDataInfo = binaryDataInfo;
+      this.numOfBytes = numOfBytes;
+    }
+
+  }
+
+}
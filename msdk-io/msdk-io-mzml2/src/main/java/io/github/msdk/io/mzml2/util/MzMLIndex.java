@@ -0,0 +1,220 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+
+package io.github.msdk.io.mzml2.util;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import io.github.msdk.MSDKException;
+import it.unimi.dsi.io.ByteBufferInputStream;
+
+/**
+ * The index of an indexed mzML file, i.e. the byte offsets of its spectrum and chromatogram
+ * elements, as given by the <code>&lt;indexList&gt;</code> element at the end of the file.
+ *
+ * The index is located through the <code>&lt;indexListOffset&gt;</code> element, so reading it
+ * only touches the end of the file. The methods which read from the file change the position of
+ * the given stream.
+ */
+public class MzMLIndex {
+
+  /**
+   * Number of bytes at the end of the file which are searched for the index list offset.
+   */
+  private static final int FOOTER_LENGTH = 4096;
+
+  private static final Pattern INDEX_LIST_OFFSET_PATTERN =
+      Pattern.compile("<indexListOffset>\\s*([0-9]+)\\s*</indexListOffset>");
+  private static final Pattern COMMENT_PATTERN = Pattern.compile("<!--.*?-->", Pattern.DOTALL);
+  private static final Pattern INDEX_PATTERN =
+      Pattern.compile("<index\\s[^>]*name=\"([^\"]*)\"[^>]*>(.*?)</index>", Pattern.DOTALL);
+  private static final Pattern OFFSET_PATTERN =
+      Pattern.compile("<offset\\s[^>]*idRef=\"([^\"]*)\"[^>]*>\\s*([0-9]+)\\s*</offset>");
+
+  private final @Nonnull Map<String, Long> spectrumOffsets;
+  private final @Nonnull Map<String, Long> chromatogramOffsets;
+
+  private MzMLIndex(@Nonnull Map<String, Long> spectrumOffsets,
+      @Nonnull Map<String, Long> chromatogramOffsets) {
+    this.spectrumOffsets = spectrumOffsets;
+    this.chromatogramOffsets = chromatogramOffsets;
+  }
+
+  /**
+   * Reads the index of the given mzML file.
+   *
+   * @param is the mapped mzML file
+   * @return the index, or null if the file is not an indexed mzML file
+   * @throws io.github.msdk.MSDKException if the file has an index, but it cannot be read
+   */
+  public static @Nullable MzMLIndex read(@Nonnull ByteBufferInputStream is) throws MSDKException {
+
+    final long fileLength = is.length();
+    final int footerLength = (int) Math.min(FOOTER_LENGTH, fileLength);
+    // One character per byte, so the positions in the footer are byte offsets
+    final String footer =
+        readString(is, fileLength - footerLength, footerLength, StandardCharsets.ISO_8859_1);
+    final Matcher offsetMatcher = INDEX_LIST_OFFSET_PATTERN.matcher(footer);
+    if (!offsetMatcher.find())
+      return null;
+
+    final long indexListOffset;
+    try {
+      indexListOffset = Long.parseLong(offsetMatcher.group(1));
+    } catch (NumberFormatException e) {
+      throw new MSDKException("Invalid index list offset " + offsetMatcher.group(1));
+    }
+    final long indexListEnd = fileLength - footerLength + offsetMatcher.start();
+    if ((indexListOffset < 0) || (indexListOffset >= indexListEnd))
+      throw new MSDKException("Index list offset " + indexListOffset + " is out of the file");
+    if (indexListEnd - indexListOffset > Integer.MAX_VALUE)
+      throw new MSDKException("Index list at offset " + indexListOffset + " is too large");
+
+    String indexList = readString(is, indexListOffset, (int) (indexListEnd - indexListOffset),
+        StandardCharsets.UTF_8);
+    if (!indexList.startsWith("<indexList"))
+      throw new MSDKException("Index list offset " + indexListOffset
+          + " does not point to an indexList element");
+    indexList = COMMENT_PATTERN.matcher(indexList).replaceAll("");
+
+    final Map<String, Long> spectrumOffsets = new LinkedHashMap<>();
+    final Map<String, Long> chromatogramOffsets = new LinkedHashMap<>();
+    final Matcher indexMatcher = INDEX_PATTERN.matcher(indexList);
+    while (indexMatcher.find()) {
+      final Map<String, Long> offsets;
+      switch (indexMatcher.group(1)) {
+        case "spectrum":
+          offsets = spectrumOffsets;
+          break;
+        case "chromatogram":
+          offsets = chromatogramOffsets;
+          break;
+        default:
+          continue;
+      }
+      final Matcher entryMatcher = OFFSET_PATTERN.matcher(indexMatcher.group(2));
+      while (entryMatcher.find()) {
+        final String id = unescapeXml(entryMatcher.group(1));
+        final long offset;
+        try {
+          offset = Long.parseLong(entryMatcher.group(2));
+        } catch (NumberFormatException e) {
+          throw new MSDKException("Invalid offset " + entryMatcher.group(2) + " of " + id);
+        }
+        if ((offset < 0) || (offset >= indexListOffset))
+          throw new MSDKException("Offset " + offset + " of " + id + " is out of the run");
+        offsets.put(id, offset);
+      }
+    }
+
+    return new MzMLIndex(spectrumOffsets, chromatogramOffsets);
+  }
+
+  /**
+   * Checks whether an element with the given tag name starts at the given offset of the file.
+   *
+   * @param is the mapped mzML file
+   * @param offset offset of the element
+   * @param tagName tag name of the element
+   * @return true if the element starts at the offset
+   */
+  public static boolean isElementAt(@Nonnull ByteBufferInputStream is, long offset,
+      @Nonnull String tagName) {
+    final int length = tagName.length() + 2;
+    if ((offset < 0) || (offset + length > is.length()))
+      return false;
+    final String start = readString(is, offset, length, StandardCharsets.ISO_8859_1);
+    return start.startsWith("<" + tagName)
+        && Character.isWhitespace(start.charAt(length - 1));
+  }
+
+  /**
+   * <p>
+   * getSpectrumIds.
+   * </p>
+   *
+   * @return the ids of the indexed spectra, in the order of the file
+   */
+  public @Nonnull List<String> getSpectrumIds() {
+    return Collections.unmodifiableList(new ArrayList<>(spectrumOffsets.keySet()));
+  }
+
+  /**
+   * <p>
+   * getChromatogramIds.
+   * </p>
+   *
+   * @return the ids of the indexed chromatograms, in the order of the file
+   */
+  public @Nonnull List<String> getChromatogramIds() {
+    return Collections.unmodifiableList(new ArrayList<>(chromatogramOffsets.keySet()));
+  }
+
+  /**
+   * <p>
+   * getSpectrumOffset.
+   * </p>
+   *
+   * @param id id of the spectrum
+   * @return the offset of the spectrum element, or null if the spectrum is not indexed
+   */
+  public @Nullable Long getSpectrumOffset(@Nonnull String id) {
+    return spectrumOffsets.get(id);
+  }
+
+  /**
+   * <p>
+   * getChromatogramOffset.
+   * </p>
+   *
+   * @param id id of the chromatogram
+   * @return the offset of the chromatogram element, or null if the chromatogram is not indexed
+   */
+  public @Nullable Long getChromatogramOffset(@Nonnull String id) {
+    return chromatogramOffsets.get(id);
+  }
+
+  private static @Nonnull String readString(@Nonnull ByteBufferInputStream is, long position,
+      int length, @Nonnull Charset charset) {
+    final byte bytes[] = new byte[length];
+    is.position(position);
+    int numRead = 0;
+    while (numRead < length) {
+      final int n = is.read(bytes, numRead, length - numRead);
+      if (n <= 0)
+        break;
+      numRead += n;
+    }
+    return new String(bytes, 0, numRead, charset);
+  }
+
+  private static @Nonnull String unescapeXml(@Nonnull String value) {
+    if (value.indexOf('&') < 0)
+      return value;
+    return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+        .replace("&apos;", "'").replace("&amp;", "&");
+  }
+
+}
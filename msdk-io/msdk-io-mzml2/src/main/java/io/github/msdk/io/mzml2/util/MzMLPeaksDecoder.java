@@ -11,20 +11,26 @@
  * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
  */
 
+
 package io.github.msdk.io.mzml2.util;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.Base64;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
 import java.util.zip.DataFormatException;
-import java.util.zip.InflaterInputStream;
-
-import org.apache.commons.io.IOUtils;
+import java.util.zip.Inflater;
 
-import com.google.common.io.LittleEndianDataInputStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import io.github.msdk.MSDKException;
 import io.github.msdk.io.mzml2.data.MzMLBinaryDataInfo;
+import io.github.msdk.io.mzml2.data.MzMLBitLength;
+import io.github.msdk.io.mzml2.data.MzMLCompressionType;
+import io.github.msdk.util.MSNumpress;
 import it.unimi.dsi.io.ByteBufferInputStream;
 
 /**
@@ -32,9 +38,47 @@ import it.unimi.dsi.io.ByteBufferInputStream;
  * MzMLIntensityPeaksDecoder class.
  * </p>
  *
+ * The binary data arrays are decoded block-wise: the Base64 encoded bytes are read from the mapped
+ * file in small blocks and decoded as they are read, inflated into byte arrays kept per thread, and
+ * the values are then converted in bulk. Apart from the result array, decoding does not allocate
+ * memory once the buffers of the thread have grown to the size of the largest array.
  */
 public class MzMLPeaksDecoder {
 
+  private static final byte BASE64_VALUES[] = new byte[256];
+
+  static {
+    Arrays.fill(BASE64_VALUES, (byte) -1);
+    final String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+    for (int i = 0; i < alphabet.length(); i++)
+      BASE64_VALUES[alphabet.charAt(i)] = (byte) i;
+  }
+
+  // Size of the blocks of encoded bytes read from the mapped file, small enough to stay in the cache
+  private static final int ENCODED_BLOCK_SIZE = 8 * 1024;
+
+  /**
+   * Buffers and the inflater of one thread, reused for all arrays decoded by that thread.
+   *
+   * The inflater is never ended, because it is used until the thread terminates. Its native zlib
+   * memory is only released when the inflater is garbage collected after its thread has
+   * terminated, so decoding on many short-lived threads keeps that memory until the next
+   * collection.
+   */
+  private static final class DecodeBuffers {
+    private final Inflater inflater = new Inflater();
+    private final byte encoded[] = new byte[ENCODED_BLOCK_SIZE];
+    private byte decoded[] = new byte[0];
+    private byte inflated[] = new byte[0];
+
+    // The plain binary data, either decoded or inflated, and its length
+    private byte plain[];
+    private int plainLength;
+  }
+
+  private static final ThreadLocal<DecodeBuffers> decodeBuffers =
+      ThreadLocal.withInitial(DecodeBuffers::new);
+
   /**
    * Converts a base64 encoded mz or intensity string used in mzML files to an array of floats. If
    * the original precision was 64 bit, you still get floats as output.
@@ -49,121 +93,81 @@ public class MzMLPeaksDecoder {
    */
   public static float[] decodeToFloat(ByteBufferInputStream mappedByteBufferInputStream,
       MzMLBinaryDataInfo binaryDataInfo) throws DataFormatException, IOException, MSDKException {
+    return decodeToFloat(mappedByteBufferInputStream, binaryDataInfo, null);
+  }
+
+  /**
+   * Converts a base64 encoded mz or intensity string used in mzML files to an array of floats. If
+   * the original precision was 64 bit, you still get floats as output. The values are stored in
+   * the given array, if it is large enough.
+   *
+   * @param mappedByteBufferInputStream  decoded from a base64 encoded string<br>
+   *        E.g. like: eNoNxltIkwEYBuAOREZFhrCudGFbbraTU+Zmue...
+   * @param binaryDataInfo  meta-info about the compressed data
+   * @param array an array to store the values into, or null
+   * @throws java.util.zip.DataFormatException if any.
+   * @throws java.io.IOException if any.
+   * @return the given array or a new float array, containing the decoded values
+   * @throws io.github.msdk.MSDKException if any.
+   */
+  public static float[] decodeToFloat(ByteBufferInputStream mappedByteBufferInputStream,
+      MzMLBinaryDataInfo binaryDataInfo, @Nullable float array[])
+      throws DataFormatException, IOException, MSDKException {
 
     int lengthIn = binaryDataInfo.getEncodedLength();
     int numPoints = binaryDataInfo.getArrayLength();
 
-    InputStream encodedIs = new ByteBufferInputStreamAdapter(mappedByteBufferInputStream,
-        binaryDataInfo.getPosition(), lengthIn);
-    InputStream is = Base64.getDecoder().wrap(encodedIs);
-
     // for some reason there sometimes might be zero length <peaks> tags
     // (ms2 usually)
     // in this case we just return an empty result
     if (lengthIn == 0) {
-      return new float[0];
+      return array != null ? array : new float[0];
     }
 
-    InflaterInputStream iis = null;
-    LittleEndianDataInputStream dis = null;
-    byte[] bytes = null;
-
-    float[] data = new float[numPoints];
-
-    // first check for zlib compression, inflation must be done before
-    // NumPress
-    if (binaryDataInfo.getCompressionType() != null) {
-      switch (binaryDataInfo.getCompressionType()) {
-        case ZLIB:
-        case NUMPRESS_LINPRED_ZLIB:
-        case NUMPRESS_POSINT_ZLIB:
-        case NUMPRESS_SHLOGF_ZLIB:
-          iis = new InflaterInputStream(is);
-          dis = new LittleEndianDataInputStream(iis);
-          break;
-        default:
-          dis = new LittleEndianDataInputStream(is);
-          break;
-      }
-
-      // Now we can check for NumPress
-      int numDecodedDoubles;
-      switch (binaryDataInfo.getCompressionType()) {
-        case NUMPRESS_LINPRED:
-        case NUMPRESS_LINPRED_ZLIB:
-          bytes = IOUtils.toByteArray(dis);
-          numDecodedDoubles = MSNumpress.decodeLinear(bytes, bytes.length, data);
-          if (numDecodedDoubles < 0) {
-            throw new MSDKException("MSNumpress linear decoder failed");
-          }
-          return data;
-        case NUMPRESS_POSINT:
-        case NUMPRESS_POSINT_ZLIB:
-          bytes = IOUtils.toByteArray(dis);
-          numDecodedDoubles = MSNumpress.decodePic(bytes, bytes.length, data);
-          if (numDecodedDoubles < 0) {
-            throw new MSDKException("MSNumpress positive integer decoder failed");
-          }
-          return data;
-        case NUMPRESS_SHLOGF:
-        case NUMPRESS_SHLOGF_ZLIB:
-          bytes = IOUtils.toByteArray(dis);
-          numDecodedDoubles = MSNumpress.decodeSlof(bytes, bytes.length, data);
-          if (numDecodedDoubles < 0) {
-            throw new MSDKException("MSNumpress short logged float decoder failed");
-          }
-          return data;
-        default:
-          break;
-      }
-    } else {
-      dis = new LittleEndianDataInputStream(is);
-    }
-
-    Integer precision;
-    switch (binaryDataInfo.getBitLength()) {
-      case THIRTY_TWO_BIT_FLOAT:
-      case THIRTY_TWO_BIT_INTEGER:
-        precision = 32;
-        break;
-      case SIXTY_FOUR_BIT_FLOAT:
-      case SIXTY_FOUR_BIT_INTEGER:
-        precision = 64;
-        break;
-      default:
-        dis.close();
-        throw new IllegalArgumentException(
-            "Precision MUST be specified and be either 32-bit or 64-bit, "
-                + "if MS-NUMPRESS compression was not used");
-    }
+    float[] data = (array != null && array.length >= numPoints) ? array : new float[numPoints];
 
-    switch (precision) {
-      case (32): {
-        int asInt;
+    final MzMLCompressionType compressionType = getCompressionType(binaryDataInfo);
+    final DecodeBuffers buffers =
+        decodePlainData(mappedByteBufferInputStream, binaryDataInfo, compressionType);
 
-        for (int i = 0; i < numPoints; i++) {
-          asInt = dis.readInt();
-          data[i] = Float.intBitsToFloat(asInt);
+    // Now we can check for NumPress
+    int numDecodedDoubles;
+    switch (compressionType) {
+      case NUMPRESS_LINPRED:
+      case NUMPRESS_LINPRED_ZLIB:
+        numDecodedDoubles = MSNumpress.decodeLinear(buffers.plain, buffers.plainLength, data);
+        if (numDecodedDoubles < 0) {
+          throw new MSDKException("MSNumpress linear decoder failed");
         }
-        break;
-      }
-      case (64): {
-        long asLong;
-
-        for (int i = 0; i < numPoints; i++) {
-          asLong = dis.readLong();
-          data[i] = (float) Double.longBitsToDouble(asLong);
+        return data;
+      case NUMPRESS_POSINT:
+      case NUMPRESS_POSINT_ZLIB:
+        numDecodedDoubles = MSNumpress.decodePic(buffers.plain, buffers.plainLength, data);
+        if (numDecodedDoubles < 0) {
+          throw new MSDKException("MSNumpress positive integer decoder failed");
         }
+        return data;
+      case NUMPRESS_SHLOGF:
+      case NUMPRESS_SHLOGF_ZLIB:
+        numDecodedDoubles = MSNumpress.decodeSlof(buffers.plain, buffers.plainLength, data);
+        if (numDecodedDoubles < 0) {
+          throw new MSDKException("MSNumpress short logged float decoder failed");
+        }
+        return data;
+      default:
         break;
-      }
-      default: {
-        dis.close();
-        throw new IllegalArgumentException(
-            "Precision can only be 32/64 bits, other values are not valid.");
+    }
+
+    final ByteBuffer plainBuffer = getPlainBuffer(buffers, binaryDataInfo);
+    if (getPrecision(binaryDataInfo) == 32) {
+      plainBuffer.asFloatBuffer().get(data, 0, numPoints);
+    } else {
+      final DoubleBuffer doubleBuffer = plainBuffer.asDoubleBuffer();
+      for (int i = 0; i < numPoints; i++) {
+        data[i] = (float) doubleBuffer.get(i);
       }
     }
 
-    dis.close();
     return data;
   }
 
@@ -181,118 +185,215 @@ public class MzMLPeaksDecoder {
    */
   public static double[] decodeToDouble(ByteBufferInputStream mappedByteBufferInputStream,
       MzMLBinaryDataInfo binaryDataInfo) throws DataFormatException, IOException, MSDKException {
+    return decodeToDouble(mappedByteBufferInputStream, binaryDataInfo, null);
+  }
+
+  /**
+   * Converts a base64 encoded mz or intensity string used in mzML files to an array of doubles. If
+   * the original precision was 32 bit, you still get doubles as output. The values are stored in
+   * the given array, if it is large enough.
+   *
+   * @param mappedByteBufferInputStream  decoded from a base64 encoded string<br>
+   *        E.g. like: eNoNxltIkwEYBuAOREZFhrCudGFbbraTU+Zmue...
+   * @param binaryDataInfo  meta-info about encoded data
+   * @param array an array to store the values into, or null
+   * @throws java.util.zip.DataFormatException if any.
+   * @throws java.io.IOException if any.
+   * @return the given array or a new double array, containing the decoded values
+   * @throws io.github.msdk.MSDKException if any.
+   */
+  public static double[] decodeToDouble(ByteBufferInputStream mappedByteBufferInputStream,
+      MzMLBinaryDataInfo binaryDataInfo, @Nullable double array[])
+      throws DataFormatException, IOException, MSDKException {
 
     int lengthIn = binaryDataInfo.getEncodedLength();
     int numPoints = binaryDataInfo.getArrayLength();
 
-    InputStream encodedIs = new ByteBufferInputStreamAdapter(mappedByteBufferInputStream,
-        binaryDataInfo.getPosition(), lengthIn);
-    InputStream is = Base64.getDecoder().wrap(encodedIs);
-
     // for some reason there sometimes might be zero length <peaks> tags
     // (ms2 usually)
     // in this case we just return an empty result
     if (lengthIn == 0) {
-      return new double[0];
+      return array != null ? array : new double[0];
     }
 
-    InflaterInputStream iis = null;
-    LittleEndianDataInputStream dis = null;
-    byte[] bytes = null;
-
-    double[] data = new double[numPoints];
-
-    // first check for zlib compression, inflation must be done before
-    // NumPress
-    if (binaryDataInfo.getCompressionType() != null) {
-      switch (binaryDataInfo.getCompressionType()) {
-        case ZLIB:
-        case NUMPRESS_LINPRED_ZLIB:
-        case NUMPRESS_POSINT_ZLIB:
-        case NUMPRESS_SHLOGF_ZLIB:
-          iis = new InflaterInputStream(is);
-          dis = new LittleEndianDataInputStream(iis);
-          break;
+    double[] data = (array != null && array.length >= numPoints) ? array : new double[numPoints];
 
-        default:
-          dis = new LittleEndianDataInputStream(is);
-          break;
+    final MzMLCompressionType compressionType = getCompressionType(binaryDataInfo);
+    final DecodeBuffers buffers =
+        decodePlainData(mappedByteBufferInputStream, binaryDataInfo, compressionType);
+
+    // Now we can check for NumPress
+    int numDecodedDoubles;
+    switch (compressionType) {
+      case NUMPRESS_LINPRED:
+      case NUMPRESS_LINPRED_ZLIB:
+        numDecodedDoubles = MSNumpress.decodeLinear(buffers.plain, buffers.plainLength, data);
+        if (numDecodedDoubles < 0) {
+          throw new MSDKException("MSNumpress linear decoder failed");
+        }
+        return data;
+      case NUMPRESS_POSINT:
+      case NUMPRESS_POSINT_ZLIB:
+        numDecodedDoubles = MSNumpress.decodePic(buffers.plain, buffers.plainLength, data);
+        if (numDecodedDoubles < 0) {
+          throw new MSDKException("MSNumpress positive integer decoder failed");
+        }
+        return data;
+      case NUMPRESS_SHLOGF:
+      case NUMPRESS_SHLOGF_ZLIB:
+        numDecodedDoubles = MSNumpress.decodeSlof(buffers.plain, buffers.plainLength, data);
+        if (numDecodedDoubles < 0) {
+          throw new MSDKException("MSNumpress short logged float decoder failed");
+        }
+        return data;
+      default:
+        break;
+    }
+
+    final ByteBuffer plainBuffer = getPlainBuffer(buffers, binaryDataInfo);
+    if (getPrecision(binaryDataInfo) == 32) {
+      final FloatBuffer floatBuffer = plainBuffer.asFloatBuffer();
+      for (int i = 0; i < numPoints; i++) {
+        data[i] = floatBuffer.get(i);
       }
+    } else {
+      plainBuffer.asDoubleBuffer().get(data, 0, numPoints);
+    }
+
+    return data;
+  }
+
+  private static @Nonnull MzMLCompressionType getCompressionType(
+      @Nonnull MzMLBinaryDataInfo binaryDataInfo) {
+    final MzMLCompressionType compressionType = binaryDataInfo.getCompressionType();
+    return compressionType != null ? compressionType : MzMLCompressionType.NO_COMPRESSION;
+  }
 
-      // Now we can check for NumPress
-      int numDecodedDoubles;
-      switch (binaryDataInfo.getCompressionType()) {
-        case NUMPRESS_LINPRED:
-        case NUMPRESS_LINPRED_ZLIB:
-          bytes = IOUtils.toByteArray(dis);
-          numDecodedDoubles = MSNumpress.decodeLinear(bytes, bytes.length, data);
-          if (numDecodedDoubles < 0) {
-            throw new MSDKException("MSNumpress linear decoder failed");
-          }
-          return data;
-        case NUMPRESS_POSINT:
-        case NUMPRESS_POSINT_ZLIB:
-          bytes = IOUtils.toByteArray(dis);
-          numDecodedDoubles = MSNumpress.decodePic(bytes, bytes.length, data);
-          if (numDecodedDoubles < 0) {
-            throw new MSDKException("MSNumpress positive integer decoder failed");
-          }
-          return data;
-        case NUMPRESS_SHLOGF:
-        case NUMPRESS_SHLOGF_ZLIB:
-          bytes = IOUtils.toByteArray(dis);
-          numDecodedDoubles = MSNumpress.decodeSlof(bytes, bytes.length, data);
-          if (numDecodedDoubles < 0) {
-            throw new MSDKException("MSNumpress short logged float decoder failed");
-          }
-          return data;
+  private static int getPrecision(@Nonnull MzMLBinaryDataInfo binaryDataInfo) {
+    final MzMLBitLength bitLength = binaryDataInfo.getBitLength();
+    if (bitLength != null) {
+      switch (bitLength) {
+        case THIRTY_TWO_BIT_FLOAT:
+        case THIRTY_TWO_BIT_INTEGER:
+          return 32;
+        case SIXTY_FOUR_BIT_FLOAT:
+        case SIXTY_FOUR_BIT_INTEGER:
+          return 64;
         default:
           break;
       }
-    } else {
-      dis = new LittleEndianDataInputStream(is);
     }
+    throw new IllegalArgumentException(
+        "Precision MUST be specified and be either 32-bit or 64-bit, "
+            + "if MS-NUMPRESS compression was not used");
+  }
 
-    Integer precision;
-    switch (binaryDataInfo.getBitLength()) {
-      case THIRTY_TWO_BIT_FLOAT:
-      case THIRTY_TWO_BIT_INTEGER:
-        precision = 32;
-        break;
-      case SIXTY_FOUR_BIT_FLOAT:
-      case SIXTY_FOUR_BIT_INTEGER:
-        precision = 64;
+  /**
+   * Wraps the plain binary data of the current thread into a little-endian buffer, after checking
+   * that it contains all values of the array.
+   */
+  private static @Nonnull ByteBuffer getPlainBuffer(@Nonnull DecodeBuffers buffers,
+      @Nonnull MzMLBinaryDataInfo binaryDataInfo) throws MSDKException {
+    final long requiredLength =
+        (long) binaryDataInfo.getArrayLength() * (getPrecision(binaryDataInfo) / 8);
+    if (buffers.plainLength < requiredLength) {
+      throw new MSDKException("Binary data array is too short, expected " + requiredLength
+          + " bytes, found " + buffers.plainLength);
+    }
+    return ByteBuffer.wrap(buffers.plain, 0, buffers.plainLength).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Reads, Base64 decodes and, if needed, inflates the binary data array into the buffers of the
+   * current thread.
+   */
+  private static @Nonnull DecodeBuffers decodePlainData(@Nonnull ByteBufferInputStream is,
+      @Nonnull MzMLBinaryDataInfo binaryDataInfo, @Nonnull MzMLCompressionType compressionType)
+      throws DataFormatException, MSDKException {
+
+    final DecodeBuffers buffers = decodeBuffers.get();
+    final int encodedLength = binaryDataInfo.getEncodedLength();
+
+    // Base64 decoding
+    final int maxDecodedLength = encodedLength / 4 * 3 + 3;
+    if (buffers.decoded.length < maxDecodedLength)
+      buffers.decoded = new byte[maxDecodedLength];
+    final int decodedLength = decodeBase64(is, binaryDataInfo.getPosition(), encodedLength,
+        buffers.encoded, buffers.decoded);
+
+    switch (compressionType) {
+      case ZLIB:
+      case NUMPRESS_LINPRED_ZLIB:
+      case NUMPRESS_POSINT_ZLIB:
+      case NUMPRESS_SHLOGF_ZLIB:
         break;
       default:
-        dis.close();
-        throw new IllegalArgumentException(
-            "Precision MUST be specified and be either 32-bit or 64-bit, "
-                + "if MS-NUMPRESS compression was not used");
+        buffers.plain = buffers.decoded;
+        buffers.plainLength = decodedLength;
+        return buffers;
     }
 
-    switch (precision) {
-      case (32): {
-        int asInt;
+    // zlib inflation, the size of the output is only known for non-Numpress data
+    final Inflater inflater = buffers.inflater;
+    inflater.reset();
+    inflater.setInput(buffers.decoded, 0, decodedLength);
+    if (buffers.inflated.length == 0) {
+      buffers.inflated = new byte[Math.max(binaryDataInfo.getArrayLength() * 8, 1024)];
+    }
+    int inflatedLength = 0;
+    while (!inflater.finished()) {
+      if (inflatedLength == buffers.inflated.length)
+        buffers.inflated = Arrays.copyOf(buffers.inflated, buffers.inflated.length * 2);
+      final int n = inflater.inflate(buffers.inflated, inflatedLength,
+          buffers.inflated.length - inflatedLength);
+      if ((n == 0) && (inflater.needsInput() || inflater.needsDictionary()))
+        throw new MSDKException("Unexpected end of the zlib compressed binary data array");
+      inflatedLength += n;
+    }
 
-        for (int i = 0; i < numPoints; i++) {
-          asInt = dis.readInt();
-          data[i] = Float.intBitsToFloat(asInt);
-        }
-        break;
-      }
-      case (64): {
-        long asLong;
+    buffers.plain = buffers.inflated;
+    buffers.plainLength = inflatedLength;
+    return buffers;
+  }
 
-        for (int i = 0; i < numPoints; i++) {
-          asLong = dis.readLong();
-          data[i] = Double.longBitsToDouble(asLong);
+  /**
+   * Decodes the given number of Base64 encoded bytes, starting at the given position of the
+   * stream, into dst. The bytes are read in blocks into the given block buffer and decoded as they
+   * are read, so the encoded data is never copied as a whole. Decoding stops at the first padding
+   * character and whitespace is skipped.
+   *
+   * @return the number of decoded bytes
+   */
+  private static int decodeBase64(@Nonnull ByteBufferInputStream is, long position, int length,
+      @Nonnull byte block[], @Nonnull byte dst[]) throws MSDKException {
+    is.position(position);
+    int bits = 0, numBits = 0, numDecoded = 0, numRead = 0;
+    while (numRead < length) {
+      final int blockLength = is.read(block, 0, Math.min(block.length, length - numRead));
+      if (blockLength <= 0)
+        throw new MSDKException(
+            "Unexpected end of the binary data array at position " + (position + numRead));
+      numRead += blockLength;
+      for (int i = 0; i < blockLength; i++) {
+        final int c = block[i] & 0xff;
+        final int value = BASE64_VALUES[c];
+        if (value < 0) {
+          if (c == '=')
+            return numDecoded;
+          if (Character.isWhitespace(c))
+            continue;
+          throw new MSDKException(
+              "Illegal Base64 character '" + (char) c + "' in binary data array");
+        }
+        bits = (bits << 6) | value;
+        numBits += 6;
+        if (numBits >= 8) {
+          numBits -= 8;
+          dst[numDecoded++] = (byte) (bits >> numBits);
         }
-        break;
       }
     }
-
-    dis.close();
-    return data;
+    return numDecoded;
   }
 
 }
@@ -16,6 +16,7 @@ package io.github.msdk.io.mzml2;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.zip.DataFormatException;
 
 import org.junit.Assert;
@@ -184,4 +185,30 @@ public class BinaryDataArrayTest {
     Assert.assertArrayEquals(testData32bitFloat, result, 0.0f);
   }
 
+  @Test
+  public void testDecodeIntoArray() throws MSDKException, DataFormatException, IOException {
+    // Put the String onto an ByteBufferInputStream
+    ByteBufferInputStream is =
+        new ByteBufferInputStream(ByteBuffer.wrap(compressed64bit.getBytes(StandardCharsets.UTF_8)));
+
+    // Setting up the BinaryInfo
+    MzMLBinaryDataInfo binaryInfo = new MzMLBinaryDataInfo(664, 99);
+    binaryInfo.setBitLength(MzMLBitLength.SIXTY_FOUR_BIT_FLOAT);
+    binaryInfo.setCompressionType(MzMLCompressionType.ZLIB);
+    binaryInfo.setPosition(0);
+
+    // A large enough array is reused, the same data can be decoded repeatedly
+    double[] buffer = new double[120];
+    for (int i = 0; i < 3; i++) {
+      double[] result = MzMLPeaksDecoder.decodeToDouble(is, binaryInfo, buffer);
+      Assert.assertSame(buffer, result);
+      Assert.assertArrayEquals(testData64bitFloat, Arrays.copyOf(result, 99), 0.0);
+    }
+
+    // A small array is replaced by a new one
+    float[] result = MzMLPeaksDecoder.decodeToFloat(is, binaryInfo, new float[10]);
+    Assert.assertEquals(99, result.length);
+    Assert.assertEquals((float) testData64bitFloat[98], result[98], 0.0f);
+  }
+
 }
@@ -0,0 +1,150 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+
+package io.github.msdk.io.mzml2;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Paths;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Range;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.io.mzml2.data.MzMLRawDataFile;
+import io.github.msdk.io.mzml2.util.MzMLDecodedArrayCache;
+import io.github.msdk.util.MsSpectrumUtil;
+
+public class MzMLDecodedArrayCacheTest {
+
+  private File getResourceFile(String resource) throws MSDKException {
+    final URL url = MzMLDecodedArrayCacheTest.class.getClassLoader().getResource(resource);
+    try {
+      return Paths.get(url.toURI()).toAbsolutePath().toFile();
+    } catch (URISyntaxException e) {
+      throw new MSDKException(e);
+    }
+  }
+
+  /**
+   * Reads all scans in the way chromatogram builders do, reusing the buffers and asking for the
+   * TIC, m/z range and spectrum type of each scan.
+   */
+  private void readAllScans(MzMLRawDataFile rawFile) {
+    double mzBuffer[] = new double[0];
+    float intensityBuffer[] = new float[0];
+    for (MsScan scan : rawFile.getScans()) {
+      mzBuffer = scan.getMzValues(mzBuffer);
+      intensityBuffer = scan.getIntensityValues(intensityBuffer);
+      Assert.assertTrue(mzBuffer.length >= scan.getNumberOfDataPoints());
+      Assert.assertTrue(intensityBuffer.length >= scan.getNumberOfDataPoints());
+      Assert.assertNotNull(scan.getTIC());
+      scan.getMzRange();
+      Assert.assertNotNull(scan.getSpectrumType());
+    }
+  }
+
+  @Test
+  public void testDecodeOnce() throws MSDKException {
+    MzMLFileParser mzParser = new MzMLFileParser(getResourceFile("5peptideFT.mzML"));
+    MzMLRawDataFile rawFile = (MzMLRawDataFile) mzParser.execute();
+    Assert.assertNotNull(rawFile);
+    final int numOfScans = rawFile.getScans().size();
+    Assert.assertEquals(7, numOfScans);
+
+    MzMLDecodedArrayCache cache = rawFile.getDecodedArrayCache();
+
+    // Each m/z and intensity array is decoded only once
+    readAllScans(rawFile);
+    Assert.assertEquals(2 * numOfScans, cache.getDecodeCount());
+
+    // A second pass is served from the cache
+    final long hitCount = cache.getHitCount();
+    readAllScans(rawFile);
+    Assert.assertEquals(2 * numOfScans, cache.getDecodeCount());
+    Assert.assertEquals(hitCount + 2 * numOfScans, cache.getHitCount());
+    Assert.assertEquals(0, cache.getEvictionCount());
+
+    // The cached arrays are copied, so the callers cannot modify them
+    MsScan scan = rawFile.getScans().get(0);
+    double mzValues[] = scan.getMzValues();
+    final double firstMz = mzValues[0];
+    mzValues[0] = -1.0;
+    Assert.assertEquals(firstMz, scan.getMzValues()[0], 0.0);
+
+    rawFile.dispose();
+    Assert.assertEquals(0, cache.getCachedBytes());
+  }
+
+  @Test
+  public void testSizeLimit() throws MSDKException {
+    MzMLFileParser mzParser = new MzMLFileParser(getResourceFile("5peptideFT.mzML"));
+    MzMLRawDataFile rawFile = (MzMLRawDataFile) mzParser.execute();
+    Assert.assertNotNull(rawFile);
+    final int numOfScans = rawFile.getScans().size();
+
+    MzMLDecodedArrayCache cache = rawFile.getDecodedArrayCache();
+    readAllScans(rawFile);
+    final long cachedBytes = cache.getCachedBytes();
+    Assert.assertTrue(cachedBytes > 0);
+
+    // Shrinking the cache evicts the least recently used arrays
+    cache.setMaxCacheBytes(cachedBytes / 2);
+    Assert.assertTrue(cache.getEvictionCount() > 0);
+    Assert.assertTrue(cache.getCachedBytes() <= cachedBytes / 2);
+
+    // Without the cache, every access decodes again
+    cache.setMaxCacheBytes(0);
+    Assert.assertEquals(0, cache.getCachedBytes());
+    final long decodeCount = cache.getDecodeCount();
+    for (MsScan scan : rawFile.getScans())
+      scan.getMzValues(null);
+    Assert.assertEquals(decodeCount + numOfScans, cache.getDecodeCount());
+  }
+
+  @Test
+  public void testIndexedAccess() throws MSDKException {
+    MzMLFileParser mzParser = new MzMLFileParser(getResourceFile("5peptideFT.mzML"));
+    MzMLRawDataFile rawFile = (MzMLRawDataFile) mzParser.execute();
+    Assert.assertNotNull(rawFile);
+    final int numOfScans = rawFile.getScans().size();
+
+    MzMLDecodedArrayCache cache = rawFile.getDecodedArrayCache();
+
+    // Reading all data points one by one decodes each array only once
+    for (MsScan scan : rawFile.getScans()) {
+      final int size = scan.getNumberOfDataPoints();
+      Assert.assertEquals(size, scan.getMzBuffer().limit());
+      Assert.assertEquals(size, scan.getIntensityBuffer().limit());
+      float tic = 0f;
+      for (int i = 0; i < size; i++) {
+        Assert.assertTrue((i == 0) || (scan.getMz(i) >= scan.getMz(i - 1)));
+        tic += scan.getIntensity(i);
+      }
+      Assert.assertEquals(MsSpectrumUtil.getTIC(scan.getIntensityValues(), size), tic, 0.0f);
+      Assert.assertEquals(tic, MsSpectrumUtil.getTIC(scan, Range.all()), 0.0f);
+    }
+    Assert.assertEquals(2 * numOfScans, cache.getDecodeCount());
+
+    // The buffers are read-only views of the cached arrays
+    Assert.assertTrue(rawFile.getScans().get(0).getMzBuffer().isReadOnly());
+
+    rawFile.dispose();
+  }
+
+}
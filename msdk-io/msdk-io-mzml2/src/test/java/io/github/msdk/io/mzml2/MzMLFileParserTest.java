@@ -25,6 +25,8 @@ import java.util.List;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.collect.Range;
+
 import io.github.msdk.MSDKException;
 import io.github.msdk.datamodel.chromatograms.Chromatogram;
 import io.github.msdk.datamodel.chromatograms.ChromatogramType;
@@ -34,7 +36,11 @@ import io.github.msdk.datamodel.rawdata.IsolationInfo;
 import io.github.msdk.datamodel.rawdata.MsScan;
 import io.github.msdk.datamodel.rawdata.PolarityType;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.ScanFilter;
 import io.github.msdk.util.MsSpectrumUtil;
+import io.github.msdk.util.metrics.MSDKMethodMetrics;
+import io.github.msdk.util.metrics.MSDKMetrics;
+import io.github.msdk.util.metrics.MSDKMetricsCollector;
 
 public class MzMLFileParserTest {
 
@@ -477,4 +483,84 @@ public class MzMLFileParserTest {
     rawFile.dispose();
 
   }
+
+  @Test
+  public void testScanFilter() throws MSDKException {
+
+    // Positive MS1 scans within an RT window
+    File inputFile = getResourcePath("mzML_with_UV.mzML").toFile();
+    RawDataFile fullFile = new MzMLFileParser(inputFile).execute();
+    MzMLFileParser mzParser = new MzMLFileParser(inputFile);
+    mzParser.setScanFilter(new ScanFilter(Range.singleton(1), Range.closed(1128f, 1136f),
+        PolarityType.POSITIVE, null, null));
+    RawDataFile rawFile = mzParser.execute();
+    Assert.assertNotNull(rawFile);
+    Assert.assertEquals(8, rawFile.getScans().size());
+    Assert.assertEquals(Integer.valueOf(2104), rawFile.getScans().get(0).getScanNumber());
+    Assert.assertEquals(Integer.valueOf(2118), rawFile.getScans().get(7).getScanNumber());
+    MsScan fullScan = fullFile.getScans().get(4);
+    Assert.assertEquals(fullScan.getScanNumber(), rawFile.getScans().get(0).getScanNumber());
+    Assert.assertArrayEquals(fullScan.getMzValues(), rawFile.getScans().get(0).getMzValues(),
+        0.0);
+    fullFile.dispose();
+
+    // MS2 scans with precursors in a mass range
+    inputFile = getResourcePath("5peptideFT.mzML").toFile();
+    final ScanFilter precursorFilter =
+        new ScanFilter(Range.singleton(2), null, null, null, Range.closed(700.0, 815.0));
+    mzParser = new MzMLFileParser(inputFile);
+    mzParser.setScanFilter(precursorFilter);
+    rawFile = mzParser.execute();
+    Assert.assertEquals(3, rawFile.getScans().size());
+    for (MsScan scan : rawFile.getScans())
+      Assert.assertTrue(precursorFilter.test(scan));
+    Assert.assertEquals(1, rawFile.getChromatograms().size());
+
+    // Scan number range, the same in parallel mode
+    for (int parallelism = 1; parallelism <= 2; parallelism++) {
+      mzParser = new MzMLFileParser(inputFile);
+      mzParser.setParallelism(parallelism);
+      mzParser.setScanFilter(new ScanFilter(null, null, null, Range.closed(2, 4), null));
+      rawFile = mzParser.execute();
+      Assert.assertEquals(3, rawFile.getScans().size());
+      Assert.assertEquals(Integer.valueOf(2), rawFile.getScans().get(0).getScanNumber());
+      Assert.assertEquals(Integer.valueOf(4), rawFile.getScans().get(2).getScanNumber());
+    }
+
+    rawFile.dispose();
+
+  }
+
+  @Test
+  public void testMetrics() throws MSDKException {
+
+    MSDKMetricsCollector collector = new MSDKMetricsCollector();
+    MSDKMetrics.setListener(collector);
+    try {
+      // The sink decodes the data arrays of each scan
+      File inputFile = getResourcePath("5peptideFT.mzML").toFile();
+      final int streamedScans[] = {0};
+      new MzMLFileParser(inputFile).streamScans(scan -> {
+        scan.getMzValues();
+        scan.getIntensityValues();
+        streamedScans[0]++;
+        return true;
+      });
+      Assert.assertEquals(1, collector.getMetrics().size());
+      MSDKMethodMetrics metrics = collector.getMetrics().get(0);
+      Assert.assertEquals(streamedScans[0], metrics.getItems());
+      Assert.assertEquals("decode", metrics.getPhases().get(1).getName());
+      Assert.assertEquals(2 * streamedScans[0], metrics.getPhases().get(1).getItems());
+      Assert.assertEquals("sink", metrics.getPhases().get(2).getName());
+      Assert.assertEquals(streamedScans[0], metrics.getPhases().get(2).getItems());
+
+      // The metrics are also reported if the sink stops the parsing
+      new MzMLFileParser(inputFile).streamScans(scan -> false);
+      Assert.assertEquals(2, collector.getMetrics().size());
+      Assert.assertEquals(1, collector.getMetrics().get(1).getItems());
+    } finally {
+      MSDKMetrics.setListener(null);
+    }
+  }
+
 }
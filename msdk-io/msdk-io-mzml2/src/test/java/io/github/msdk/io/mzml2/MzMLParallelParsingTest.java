@@ -0,0 +1,181 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.io.mzml2;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.chromatograms.Chromatogram;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.io.mzml2.data.MzMLRawDataFile;
+
+public class MzMLParallelParsingTest {
+
+  private File getResourceFile(String resource) throws MSDKException {
+    final URL url = MzMLParallelParsingTest.class.getClassLoader().getResource(resource);
+    try {
+      return Paths.get(url.toURI()).toAbsolutePath().toFile();
+    } catch (URISyntaxException e) {
+      throw new MSDKException(e);
+    }
+  }
+
+  private void assertSameFile(RawDataFile expected, RawDataFile actual) {
+    Assert.assertNotNull(actual);
+
+    final List<MsScan> expectedScans = expected.getScans();
+    final List<MsScan> actualScans = actual.getScans();
+    Assert.assertEquals(expectedScans.size(), actualScans.size());
+    for (int i = 0; i < expectedScans.size(); i++) {
+      final MsScan expectedScan = expectedScans.get(i);
+      final MsScan actualScan = actualScans.get(i);
+      Assert.assertSame(actual, actualScan.getRawDataFile());
+      Assert.assertEquals(((MzMLSpectrum) expectedScan).getId(),
+          ((MzMLSpectrum) actualScan).getId());
+      Assert.assertEquals(expectedScan.getScanNumber(), actualScan.getScanNumber());
+      Assert.assertEquals(expectedScan.getMsLevel(), actualScan.getMsLevel());
+      Assert.assertEquals(expectedScan.getRetentionTime(), actualScan.getRetentionTime());
+      Assert.assertEquals(((MzMLSpectrum) expectedScan).getCVParams().size(),
+          ((MzMLSpectrum) actualScan).getCVParams().size());
+      Assert.assertArrayEquals(expectedScan.getMzValues(), actualScan.getMzValues(), 0.0);
+      Assert.assertArrayEquals(expectedScan.getIntensityValues(),
+          actualScan.getIntensityValues(), 0.0f);
+    }
+
+    final List<Chromatogram> expectedChromatograms = expected.getChromatograms();
+    final List<Chromatogram> actualChromatograms = actual.getChromatograms();
+    Assert.assertEquals(expectedChromatograms.size(), actualChromatograms.size());
+    for (int i = 0; i < expectedChromatograms.size(); i++) {
+      final Chromatogram expectedChromatogram = expectedChromatograms.get(i);
+      final Chromatogram actualChromatogram = actualChromatograms.get(i);
+      Assert.assertEquals(expectedChromatogram.getChromatogramNumber(),
+          actualChromatogram.getChromatogramNumber());
+      Assert.assertArrayEquals(expectedChromatogram.getRetentionTimes(),
+          actualChromatogram.getRetentionTimes(), 0.0f);
+      Assert.assertArrayEquals(expectedChromatogram.getIntensityValues(),
+          actualChromatogram.getIntensityValues(), 0.0f);
+    }
+  }
+
+  private void assertParallelParsing(String resource) throws MSDKException {
+    final File inputFile = getResourceFile(resource);
+    final RawDataFile expected = new MzMLFileParser(inputFile).execute();
+    Assert.assertNotNull(expected);
+
+    MzMLFileParser parser = new MzMLFileParser(inputFile);
+    parser.setParallelism(3);
+    RawDataFile actual = parser.execute();
+    assertSameFile(expected, actual);
+    Assert.assertEquals(1.0f, parser.getFinishedPercentage(), 0.0f);
+
+    parser = new MzMLFileParser(inputFile);
+    parser.setParallelism(2);
+    parser.setDecodeArrays(true);
+    actual = parser.execute();
+    assertSameFile(expected, actual);
+  }
+
+  @Test
+  public void testIndexedFile() throws MSDKException {
+    assertParallelParsing("5peptideFT.mzML");
+    assertParallelParsing("mzML_with_UV.mzML");
+    assertParallelParsing("MzValues_Zlib+Numpress.mzML");
+  }
+
+  @Test
+  public void testChromatograms() throws MSDKException {
+    assertParallelParsing("SRM.mzML");
+  }
+
+  @Test
+  public void testNotIndexedFile() throws MSDKException {
+    // The elements are found by scanning the file
+    assertParallelParsing("sample_small.mzML");
+    assertParallelParsing("tiny.pwiz.mzML");
+    assertParallelParsing("emptyScan.mzML");
+    assertParallelParsing("RawCentriodCidWithMsLevelInRefParamGroup.mzML");
+  }
+
+  @Test
+  public void testCorruptIndex() throws MSDKException {
+    // The offsets of the index do not match the content, so the file is scanned instead
+    assertParallelParsing("tiny.pwiz.idx.mzML");
+    assertParallelParsing("MzMLFile_7_compressed.mzML");
+  }
+
+  @Test
+  public void testExecutor() throws MSDKException {
+    final File inputFile = getResourceFile("5peptideFT.mzML");
+    final RawDataFile expected = new MzMLFileParser(inputFile).execute();
+
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      MzMLFileParser parser = new MzMLFileParser(inputFile);
+      parser.setExecutor(executor);
+      assertSameFile(expected, parser.execute());
+
+      // The executor is not shut down by the parser
+      Assert.assertFalse(executor.isShutdown());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testConcurrentChromatogramReads() throws Exception {
+    final File inputFile = getResourceFile("SRM.mzML");
+    final RawDataFile expected = new MzMLFileParser(inputFile).execute();
+    final MzMLRawDataFile rawFile = (MzMLRawDataFile) new MzMLFileParser(inputFile).execute();
+
+    // Without the cache, every read decodes the arrays from the mapped file
+    rawFile.getDecodedArrayCache().setMaxCacheBytes(0);
+    final List<Chromatogram> expectedChromatograms = expected.getChromatograms();
+    final List<Chromatogram> chromatograms = rawFile.getChromatograms();
+    Assert.assertFalse(chromatograms.isEmpty());
+
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<?>> results = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        results.add(executor.submit(() -> {
+          for (int r = 0; r < 20; r++) {
+            for (int i = 0; i < chromatograms.size(); i++) {
+              Assert.assertArrayEquals(expectedChromatograms.get(i).getRetentionTimes(),
+                  chromatograms.get(i).getRetentionTimes(), 0.0f);
+              Assert.assertArrayEquals(expectedChromatograms.get(i).getIntensityValues(),
+                  chromatograms.get(i).getIntensityValues(), 0.0f);
+            }
+          }
+        }));
+      }
+      for (Future<?> result : results)
+        result.get();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+
+package io.github.msdk.io.mzml2;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.chromatograms.Chromatogram;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+
+public class MzMLRandomAccessReaderTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File getResourceFile(String resource) throws MSDKException {
+    final URL url = MzMLRandomAccessReaderTest.class.getClassLoader().getResource(resource);
+    try {
+      return Paths.get(url.toURI()).toAbsolutePath().toFile();
+    } catch (URISyntaxException e) {
+      throw new MSDKException(e);
+    }
+  }
+
+  private void assertSameScan(MsScan expected, MsScan actual) {
+    Assert.assertNotNull(actual);
+    Assert.assertEquals(expected.getScanNumber(), actual.getScanNumber());
+    Assert.assertEquals(expected.getMsLevel(), actual.getMsLevel());
+    Assert.assertEquals(expected.getRetentionTime(), actual.getRetentionTime());
+    Assert.assertEquals(expected.getPolarity(), actual.getPolarity());
+    Assert.assertEquals(((MzMLSpectrum) expected).getCVParams().size(),
+        ((MzMLSpectrum) actual).getCVParams().size());
+    Assert.assertEquals(expected.getNumberOfDataPoints(), actual.getNumberOfDataPoints());
+    Assert.assertArrayEquals(expected.getMzValues(), actual.getMzValues(), 0.0);
+    Assert.assertArrayEquals(expected.getIntensityValues(), actual.getIntensityValues(), 0.0f);
+  }
+
+  @Test
+  public void testIndexedFile() throws MSDKException {
+    final File inputFile = getResourceFile("5peptideFT.mzML");
+    RawDataFile fullFile = new MzMLFileParser(inputFile).execute();
+    Assert.assertNotNull(fullFile);
+
+    MzMLRandomAccessReader reader = new MzMLRandomAccessReader(inputFile);
+    Assert.assertTrue(reader.isIndexed());
+    Assert.assertEquals(7, reader.getSpectrumIds().size());
+
+    // Only the requested spectrum is parsed
+    MzMLSpectrum spectrum = reader.getSpectrumByScanNumber(5);
+    assertSameScan(fullFile.getScans().get(4), spectrum);
+    Assert.assertEquals("controllerType=0 controllerNumber=1 scan=5", spectrum.getId());
+    Assert.assertSame(spectrum, reader.getSpectrum(spectrum.getId()));
+    Assert.assertEquals(1, reader.getRawDataFile().getScans().size());
+
+    for (MsScan scan : fullFile.getScans())
+      assertSameScan(scan, reader.getSpectrum(((MzMLSpectrum) scan).getId()));
+    Assert.assertEquals(7, reader.getRawDataFile().getScans().size());
+    Assert.assertNull(reader.getSpectrum("scan=100"));
+    Assert.assertNull(reader.getSpectrumByScanNumber(100));
+
+    // Chromatograms
+    Assert.assertEquals(1, reader.getChromatogramIds().size());
+    Chromatogram expectedChromatogram = fullFile.getChromatograms().get(0);
+    Chromatogram chromatogram = reader.getChromatogram("TIC");
+    Assert.assertNotNull(chromatogram);
+    Assert.assertEquals(expectedChromatogram.getNumberOfDataPoints(),
+        chromatogram.getNumberOfDataPoints());
+    Assert.assertArrayEquals(expectedChromatogram.getRetentionTimes(),
+        chromatogram.getRetentionTimes(), 0.0f);
+    Assert.assertArrayEquals(expectedChromatogram.getIntensityValues(),
+        chromatogram.getIntensityValues(), 0.0f);
+
+    Assert.assertTrue(reader.isIndexed());
+  }
+
+  @Test
+  public void testCorruptIndex() throws MSDKException {
+    // The offsets of this file do not match its content
+    MzMLRandomAccessReader reader =
+        new MzMLRandomAccessReader(getResourceFile("tiny.pwiz.idx.mzML"));
+    Assert.assertFalse(reader.isIndexed());
+    Assert.assertEquals(4, reader.getSpectrumIds().size());
+    Assert.assertEquals(4, reader.getRawDataFile().getScans().size());
+
+    MzMLSpectrum spectrum = reader.getSpectrumByScanNumber(19);
+    Assert.assertNotNull(spectrum);
+    Assert.assertEquals("scan=19", spectrum.getId());
+    Assert.assertEquals(Integer.valueOf(15), spectrum.getNumberOfDataPoints());
+    Assert.assertNotNull(reader.getChromatogram("sic"));
+    Assert.assertNull(reader.getSpectrum("scan=100"));
+  }
+
+  @Test
+  public void testCorruptIndexEntry() throws MSDKException, IOException {
+    // Move the offset of the third spectrum, the first and last entries remain valid
+    final File inputFile = getResourceFile("5peptideFT.mzML");
+    final List<String> lines = Files.readAllLines(inputFile.toPath(), StandardCharsets.UTF_8);
+    final String entry = "<offset idRef=\"controllerType=0 controllerNumber=1 scan=3\">";
+    boolean replaced = false;
+    for (int i = 0; i < lines.size(); i++) {
+      final String line = lines.get(i);
+      final int start = line.indexOf(entry);
+      if (start < 0)
+        continue;
+      final int valueStart = start + entry.length();
+      final int valueEnd = line.indexOf('<', valueStart);
+      final long offset = Long.parseLong(line.substring(valueStart, valueEnd));
+      lines.set(i, line.substring(0, valueStart) + (offset + 10) + line.substring(valueEnd));
+      replaced = true;
+    }
+    Assert.assertTrue(replaced);
+    final File corruptFile = folder.newFile("corrupt.mzML");
+    Files.write(corruptFile.toPath(), lines, StandardCharsets.UTF_8);
+
+    MzMLRandomAccessReader reader = new MzMLRandomAccessReader(corruptFile);
+    Assert.assertTrue(reader.isIndexed());
+    final RawDataFile rawFile = reader.getRawDataFile();
+    final MzMLSpectrum firstSpectrum = reader.getSpectrumByScanNumber(1);
+    Assert.assertNotNull(firstSpectrum);
+    Assert.assertEquals(1, rawFile.getScanIndex().getScans().size());
+
+    // The broken entry switches the reader to the whole file
+    MzMLSpectrum spectrum = reader.getSpectrumByScanNumber(3);
+    Assert.assertFalse(reader.isIndexed());
+    Assert.assertNotNull(spectrum);
+    Assert.assertEquals(Integer.valueOf(3), spectrum.getScanNumber());
+    Assert.assertEquals(Integer.valueOf(485), spectrum.getNumberOfDataPoints());
+
+    // The raw data file and the spectra resolved before remain valid
+    Assert.assertSame(rawFile, reader.getRawDataFile());
+    Assert.assertSame(rawFile, spectrum.getRawDataFile());
+    Assert.assertSame(firstSpectrum, reader.getSpectrumByScanNumber(1));
+    Assert.assertEquals(7, rawFile.getScans().size());
+    Assert.assertSame(firstSpectrum, rawFile.getScans().get(0));
+    Assert.assertEquals(Integer.valueOf(2), rawFile.getScans().get(1).getScanNumber());
+    Assert.assertEquals(7, rawFile.getScanIndex().getScans().size());
+  }
+
+  @Test
+  public void testNotIndexedFile() throws MSDKException {
+    MzMLRandomAccessReader reader =
+        new MzMLRandomAccessReader(getResourceFile("sample_small.mzML"));
+    Assert.assertFalse(reader.isIndexed());
+    Assert.assertEquals(4, reader.getSpectrumIds().size());
+    Assert.assertEquals(Integer.valueOf(10),
+        reader.getSpectrumByScanNumber(20).getNumberOfDataPoints());
+  }
+
+}
@@ -4,11 +4,14 @@ import java.io.DataInputStream;
 import java.io.File;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Date;
+import java.util.List;
 import java.util.zip.InflaterInputStream;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.Duration;
 
@@ -26,6 +29,7 @@ import io.github.msdk.datamodel.rawdata.IsolationInfo;
 import io.github.msdk.datamodel.rawdata.MsScanType;
 import io.github.msdk.datamodel.rawdata.PolarityType;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.ScanFilter;
 import io.github.msdk.spectra.spectrumtypedetection.SpectrumTypeDetectionAlgorithm;
 import it.unimi.dsi.io.ByteBufferInputStream;
 import javolution.text.CharArray;
@@ -41,6 +45,7 @@ public class MzXMLFileParser implements MSDKMethod<RawDataFile> {
   private Float progress;
   private int lastLoggedProgress;
   private Logger logger;
+  private @Nullable ScanFilter scanFilter;
 
   private SimpleMsScan buildingScan;
   private DatatypeFactory dataTypeFactory;
@@ -66,6 +71,17 @@ public class MzXMLFileParser implements MSDKMethod<RawDataFile> {
     this(mzXMLFilePath.toFile());
   }
 
+  /**
+   * Sets a filter of the scans. Each criterion is tested as soon as its value is read, and the
+   * peaks of the rejected scans are not decoded.
+   *
+   * @param scanFilter a {@link io.github.msdk.datamodel.rawdata.ScanFilter} object, or null to
+   *        accept all scans
+   */
+  public void setScanFilter(@Nullable ScanFilter scanFilter) {
+    this.scanFilter = scanFilter;
+  }
+
   public RawDataFile execute() throws MSDKException {
 
     try {
@@ -111,23 +127,16 @@ public class MzXMLFileParser implements MSDKMethod<RawDataFile> {
                 int msLevelInt = msLevel.toInt();
                 vars.peaksCount = peaksCount.toInt();
 
-                CharArray msFuncName = xmlStreamReader.getAttributeValue(null, "scanType");
-
-                buildingScan = new SimpleMsScan(scanNumberInt);
-
-                // MS function
-                if (msFuncName != null) {
-                  buildingScan.setRawDataFile(newRawFile);
-                  buildingScan.setMsLevel(msLevelInt);
-                  buildingScan.setMsFunction(msFuncName.toString());
-
-                  // Scan type & definition
-                  buildingScan.setMsScanType(MsScanType.UNKNOWN);
+                // MS/MS scans may be nested in their parent scan. The parent is restored at the
+                // closing tag, and each scan rejected by the scan filter is skipped (leaving
+                // buildingScan null) until its closing tag, independently of its parent.
+                vars.parentScans.add(buildingScan);
+                buildingScan = null;
+                if ((scanFilter != null) && (!scanFilter.acceptsScanNumber(scanNumberInt)
+                    || !scanFilter.acceptsMsLevel(msLevelInt)))
+                  break;
 
-                  // String filterLine = attrs.getValue("filterLine"); //Copied from the current
-                  // parser, always null
-                  buildingScan.setScanDefinition(null);
-                }
+                CharArray msFuncName = xmlStreamReader.getAttributeValue(null, "scanType");
 
                 // Polarity
                 PolarityType polarity = PolarityType.UNKNOWN;
@@ -142,19 +151,49 @@ public class MzXMLFileParser implements MSDKMethod<RawDataFile> {
                       break;
                   }
                 }
-                buildingScan.setPolarity(polarity);
+                if ((scanFilter != null) && !scanFilter.acceptsPolarity(polarity))
+                  break;
 
                 // Parse retention time
+                Float rt = null;
                 CharArray retentionTimeStr =
                     xmlStreamReader.getAttributeValue(null, "retentionTime");
                 if (retentionTimeStr != null) {
                   Date currentDate = new Date();
                   Duration dur = dataTypeFactory.newDuration(retentionTimeStr.toString());
-                  final float rt = (float) (dur.getTimeInMillis(currentDate) / 1000.0);
-                  buildingScan.setRetentionTime(rt);
+                  rt = (float) (dur.getTimeInMillis(currentDate) / 1000.0);
                 }
+                if ((scanFilter != null) && !scanFilter.acceptsRetentionTime(rt))
+                  break;
+
+                buildingScan = new SimpleMsScan(scanNumberInt);
+
+                // MS function
+                if (msFuncName != null) {
+                  buildingScan.setRawDataFile(newRawFile);
+                  buildingScan.setMsLevel(msLevelInt);
+                  buildingScan.setMsFunction(msFuncName.toString());
+
+                  // Scan type & definition
+                  buildingScan.setMsScanType(MsScanType.UNKNOWN);
+
+                  // String filterLine = attrs.getValue("filterLine"); //Copied from the current
+                  // parser, always null
+                  buildingScan.setScanDefinition(null);
+                }
+
+                buildingScan.setPolarity(polarity);
+                if (rt != null)
+                  buildingScan.setRetentionTime(rt);
 
               } else if (openingTagName.contentEquals(TAG_PEAKS)) {
+                // The precursors of the scan precede its peaks
+                if ((buildingScan != null) && (scanFilter != null)
+                    && !scanFilter.acceptsIsolations(buildingScan.getIsolations()))
+                  buildingScan = null;
+                if (buildingScan == null)
+                  break;
+
                 vars.compressionFlag = false;
                 CharArray compressionType =
                     xmlStreamReader.getAttributeValue(null, "compressionType");
@@ -182,9 +221,12 @@ public class MzXMLFileParser implements MSDKMethod<RawDataFile> {
 
               switch (closingTagName.toString()) {
                 case TAG_SCAN:
-                  newRawFile.addScan(buildingScan);
+                  buildingScan = vars.parentScans.remove(vars.parentScans.size() - 1);
                   break;
                 case TAG_PEAKS:
+                  if (buildingScan == null)
+                    break;
+
                   double[] mzValues = new double[vars.peaksCount];
                   float[] intensityValues = new float[vars.peaksCount];
 
@@ -221,12 +263,17 @@ public class MzXMLFileParser implements MSDKMethod<RawDataFile> {
                   MsSpectrumType spectrumType = SpectrumTypeDetectionAlgorithm
                       .detectSpectrumType(mzValues, intensityValues, vars.peaksCount);
                   buildingScan.setSpectrumType(spectrumType);
+
+                  // The peaks are the last element of a scan before its nested scans, so the scan
+                  // is complete and it is added in the order of the file
+                  newRawFile.addScan(buildingScan);
+                  buildingScan = null;
                   break;
               }
               break;
 
             case XMLStreamConstants.CHARACTERS:
-              if (vars.currentTag != null) {
+              if ((vars.currentTag != null) && (buildingScan != null)) {
                 switch (vars.currentTag.toString()) {
                   case TAG_PEAKS:
                     vars.peaksChars = new ByteBufferInputStreamAdapter(is.copy(), vars.peaksStart,
@@ -302,6 +349,7 @@ class Vars {
   CharArray currentTag;
   Integer peaksStart;
   InputStream peaksChars;
+  List<SimpleMsScan> parentScans;
 
   Vars() {
     precision = null;
@@ -311,5 +359,6 @@ class Vars {
     currentTag = null;
     peaksStart = 0;
     peaksChars = null;
+    parentScans = new ArrayList<>();
   }
 }
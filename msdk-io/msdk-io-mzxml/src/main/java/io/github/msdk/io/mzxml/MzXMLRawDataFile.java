@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Optional;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
@@ -14,6 +15,7 @@ import io.github.msdk.datamodel.chromatograms.Chromatogram;
 import io.github.msdk.datamodel.files.FileType;
 import io.github.msdk.datamodel.rawdata.MsScan;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.ScanIndex;
 
 public class MzXMLRawDataFile implements RawDataFile {
 
@@ -26,6 +28,8 @@ public class MzXMLRawDataFile implements RawDataFile {
 
   private @Nonnull String name;
 
+  private @Nullable ScanIndex scanIndex;
+
   /**
    * <p>
    * Constructor for MzXMLRawDataFile.
@@ -70,6 +74,20 @@ public class MzXMLRawDataFile implements RawDataFile {
     return ImmutableList.copyOf(msScans);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * The index is built on the first call and kept until a scan is added or removed.
+   */
+  @Override
+  public @Nonnull ScanIndex getScanIndex() {
+    synchronized (msScans) {
+      if (scanIndex == null)
+        scanIndex = new ScanIndex(msScans);
+      return scanIndex;
+    }
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -79,6 +97,7 @@ public class MzXMLRawDataFile implements RawDataFile {
     Preconditions.checkNotNull(scan);
     synchronized (msScans) {
       msScans.add(scan);
+      scanIndex = null;
     }
   }
 
@@ -90,7 +109,8 @@ public class MzXMLRawDataFile implements RawDataFile {
   public void removeScan(@Nonnull MsScan scan) {
     Preconditions.checkNotNull(scan);
     synchronized (msScans) {
-      msScans.remove(scan);
+      if (msScans.remove(scan))
+        scanIndex = null;
     }
   }
 
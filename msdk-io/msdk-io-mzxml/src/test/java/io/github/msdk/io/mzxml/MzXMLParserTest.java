@@ -5,15 +5,19 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.collect.Range;
+
 import io.github.msdk.MSDKException;
 import io.github.msdk.datamodel.rawdata.MsScan;
 import io.github.msdk.datamodel.rawdata.PolarityType;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.datamodel.rawdata.ScanFilter;
 import io.github.msdk.util.MsSpectrumUtil;
 
 public class MzXMLParserTest {
@@ -112,4 +116,94 @@ public class MzXMLParserTest {
     rawFile.dispose();
 
   }
+
+  @Test
+  public void testScanFilter() throws MSDKException {
+
+    File inputFile = getResourcePath("R1_RG59_B4_1.mzXML").toFile();
+    RawDataFile fullFile = new MzXMLFileParser(inputFile).execute();
+
+    final ScanFilter filters[] = {
+        // MS1 scans within an RT window
+        new ScanFilter(Range.singleton(1), Range.closed(1650f, 1700f), null, null, null),
+        // MS2 scans with precursors in a mass range
+        new ScanFilter(Range.singleton(2), null, PolarityType.POSITIVE, null,
+            Range.closed(400.0, 600.0)),
+        // Scan number range
+        new ScanFilter(null, null, null, Range.closed(1100, 1149), null)};
+
+    for (ScanFilter filter : filters) {
+      List<MsScan> expectedScans = new ArrayList<>();
+      for (MsScan scan : fullFile.getScans()) {
+        if (filter.test(scan))
+          expectedScans.add(scan);
+      }
+      Assert.assertFalse(expectedScans.isEmpty());
+
+      MzXMLFileParser parser = new MzXMLFileParser(inputFile);
+      parser.setScanFilter(filter);
+      RawDataFile rawFile = parser.execute();
+      Assert.assertNotNull(rawFile);
+      List<MsScan> scans = rawFile.getScans();
+      Assert.assertEquals(expectedScans.size(), scans.size());
+      for (int i = 0; i < scans.size(); i++) {
+        Assert.assertEquals(expectedScans.get(i).getScanNumber(), scans.get(i).getScanNumber());
+        Assert.assertEquals(expectedScans.get(i).getNumberOfDataPoints(),
+            scans.get(i).getNumberOfDataPoints());
+        Assert.assertArrayEquals(expectedScans.get(i).getMzValues(), scans.get(i).getMzValues(),
+            0.0);
+      }
+      rawFile.dispose();
+    }
+
+    fullFile.dispose();
+
+  }
+
+  @Test
+  public void testNestedScans() throws MSDKException {
+
+    // MS2 scans 2 and 3 are nested in MS1 scan 1, MS2 scan 5 in MS1 scan 4
+    File inputFile = getResourcePath("nested_scans.mzXML").toFile();
+    RawDataFile rawFile = new MzXMLFileParser(inputFile).execute();
+    Assert.assertNotNull(rawFile);
+    assertScans(rawFile, new int[] {1, 2, 3, 4, 5}, new int[] {3, 1, 2, 4, 1});
+    Assert.assertEquals(100.0, rawFile.getScans().get(0).getMzValues()[0], 0.0);
+    Assert.assertEquals(new Integer(2), rawFile.getScans().get(1).getMsLevel());
+    Assert.assertEquals(500.25,
+        rawFile.getScans().get(1).getIsolations().get(0).getPrecursorMz(), 0.0);
+    Assert.assertTrue(rawFile.getScans().get(3).getIsolations().isEmpty());
+    rawFile.dispose();
+
+    // Nested scans rejected at their start tag, the parent scan is kept
+    MzXMLFileParser parser = new MzXMLFileParser(inputFile);
+    parser.setScanFilter(new ScanFilter(null, null, null, Range.closed(1, 2), null));
+    rawFile = parser.execute();
+    assertScans(rawFile, new int[] {1, 2}, new int[] {3, 1});
+    rawFile.dispose();
+
+    // Parent scans rejected, the nested scans are kept
+    parser = new MzXMLFileParser(inputFile);
+    parser.setScanFilter(new ScanFilter(Range.singleton(2), null, null, null, null));
+    rawFile = parser.execute();
+    assertScans(rawFile, new int[] {2, 3, 5}, new int[] {1, 2, 1});
+    rawFile.dispose();
+
+    // Nested scans rejected by their precursors
+    parser = new MzXMLFileParser(inputFile);
+    parser.setScanFilter(new ScanFilter(null, null, null, null, Range.closed(550.0, 800.0)));
+    rawFile = parser.execute();
+    assertScans(rawFile, new int[] {3, 5}, new int[] {2, 1});
+    rawFile.dispose();
+
+  }
+
+  private void assertScans(RawDataFile rawFile, int scanNumbers[], int numsOfDataPoints[]) {
+    List<MsScan> scans = rawFile.getScans();
+    Assert.assertEquals(scanNumbers.length, scans.size());
+    for (int i = 0; i < scans.size(); i++) {
+      Assert.assertEquals(new Integer(scanNumbers[i]), scans.get(i).getScanNumber());
+      Assert.assertEquals(new Integer(numsOfDataPoints[i]), scans.get(i).getNumberOfDataPoints());
+    }
+  }
 }
@@ -25,9 +25,11 @@ import org.slf4j.LoggerFactory;
 
 import io.github.msdk.MSDKException;
 import io.github.msdk.MSDKMethod;
+import io.github.msdk.datamodel.datastore.DataPointStore;
 import io.github.msdk.datamodel.files.FileType;
 import io.github.msdk.datamodel.impl.SimpleMsScan;
 import io.github.msdk.datamodel.impl.SimpleRawDataFile;
+import io.github.msdk.datamodel.impl.StoredMsScan;
 import io.github.msdk.datamodel.msspectra.MsSpectrumType;
 import io.github.msdk.datamodel.rawdata.MsScan;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
@@ -58,6 +60,7 @@ public class NetCDFFileImportMethod implements MSDKMethod<RawDataFile> {
   private float scanRetentionTimes[];
 
   private final @Nonnull File sourceFile;
+  private final @Nullable DataPointStore dataStore;
 
   private SimpleRawDataFile newRawFile;
   private boolean canceled = false;
@@ -79,10 +82,23 @@ public class NetCDFFileImportMethod implements MSDKMethod<RawDataFile> {
    * </p>
    *
    * @param sourceFile a {@link java.io.File} object.
-   * @param dataStore a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
    */
   public NetCDFFileImportMethod(@Nonnull File sourceFile) {
+    this(sourceFile, null);
+  }
+
+  /**
+   * <p>
+   * Constructor for NetCDFFileImportMethod. If a DataPointStore is provided, the data points of
+   * the imported scans are kept in the store instead of the heap.
+   * </p>
+   *
+   * @param sourceFile a {@link java.io.File} object.
+   * @param dataStore a {@link io.github.msdk.datamodel.datastore.DataPointStore} object, or null.
+   */
+  public NetCDFFileImportMethod(@Nonnull File sourceFile, @Nullable DataPointStore dataStore) {
     this.sourceFile = sourceFile;
+    this.dataStore = dataStore;
   }
 
   /** {@inheritDoc} */
@@ -326,7 +342,8 @@ public class NetCDFFileImportMethod implements MSDKMethod<RawDataFile> {
     // Scan number
     final Integer scanNumber = scanIndex + 1;
 
-    SimpleMsScan scan = new SimpleMsScan(scanNumber);
+    SimpleMsScan scan = (dataStore != null) ? new StoredMsScan(dataStore, scanNumber)
+        : new SimpleMsScan(scanNumber);
 
     // Extract and store the data points
     extractDataPoints(scanIndex);
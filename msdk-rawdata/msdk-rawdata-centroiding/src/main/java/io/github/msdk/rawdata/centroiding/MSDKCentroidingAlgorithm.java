@@ -16,14 +16,20 @@ package io.github.msdk.rawdata.centroiding;
 import javax.annotation.Nonnull;
 
 import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.ScanStage;
 
 /**
  * <p>
  * MSDKCentroidingAlgorithm interface.
  * </p>
  *
+ * Implementations are not required to be thread-safe. {@link WaveletCentroidingAlgorithm} keeps no
+ * state between calls and may be shared by multiple threads. {@link BinningCentroidingAlgorithm},
+ * {@link ExactMassCentroidingAlgorithm}, {@link LocalMaximaCentroidingAlgorithm} and
+ * {@link RecursiveCentroidingAlgorithm} reuse their data point buffers between calls, so each
+ * thread needs its own instance, as created by the parallel mode of {@link MSDKCentroidingMethod}.
  */
-public interface MSDKCentroidingAlgorithm {
+public interface MSDKCentroidingAlgorithm extends ScanStage {
 
   /**
    * <p>
@@ -36,4 +42,15 @@ public interface MSDKCentroidingAlgorithm {
   @Nonnull
   MsScan centroidScan(@Nonnull MsScan input);
 
+  /**
+   * {@inheritDoc}
+   *
+   * Centroids the scan, so the algorithm can be used as a stage of a
+   * {@link io.github.msdk.datamodel.rawdata.ScanPipeline}.
+   */
+  @Override
+  default @Nonnull MsScan processScan(@Nonnull MsScan scan) {
+    return centroidScan(scan);
+  }
+
 }
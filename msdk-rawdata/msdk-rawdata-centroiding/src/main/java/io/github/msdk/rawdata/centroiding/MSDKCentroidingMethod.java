@@ -14,34 +14,52 @@
 package io.github.msdk.rawdata.centroiding;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Preconditions;
+
 import io.github.msdk.MSDKException;
 import io.github.msdk.MSDKMethod;
 import io.github.msdk.datamodel.impl.SimpleRawDataFile;
 import io.github.msdk.datamodel.rawdata.MsScan;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.util.ParallelChunkUtil;
+import io.github.msdk.util.metrics.MSDKMetrics;
 
 /**
  * <p>
  * MSDKCentroidingMethod class.
  * </p>
  *
+ * By default, the scans are processed sequentially by a single algorithm instance. In parallel
+ * mode, the scans are split into consecutive chunks that are processed concurrently, either by a
+ * fork-join pool with the given parallelism level or by a caller-supplied executor, see
+ * {@link ParallelChunkUtil}. Each chunk obtains its own algorithm instance by calling the given
+ * supplier once, inside the chunk's task, because most {@link MSDKCentroidingAlgorithm}
+ * implementations are not thread-safe. The order of the scans in the resulting raw data file is
+ * the same as in the input file.
  */
 public class MSDKCentroidingMethod implements MSDKMethod<RawDataFile> {
 
   private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-  private final @Nonnull MSDKCentroidingAlgorithm centroidingAlgorithm;
+  private final @Nonnull Supplier<? extends MSDKCentroidingAlgorithm> algorithmSupplier;
   private final @Nonnull RawDataFile rawDataFile;
-  
-  private int processedScans = 0, totalScans = 0;
+  private final int parallelism;
+  private final @Nullable ExecutorService executor;
+
+  private final AtomicInteger processedScans = new AtomicInteger();
+  private volatile int totalScans = 0;
   private SimpleRawDataFile result;
-  private boolean canceled = false;
+  private volatile boolean canceled = false;
 
   /**
    * <p>
@@ -49,14 +67,53 @@ public class MSDKCentroidingMethod implements MSDKMethod<RawDataFile> {
    * </p>
    *
    * @param rawDataFile a {@link io.github.msdk.datamodel.rawdata.RawDataFile} object.
-   * @param store a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
    * @param centroidingAlgorithm a
    *        {@link io.github.msdk.rawdata.centroiding.MSDKCentroidingAlgorithm} object.
    */
   public MSDKCentroidingMethod(@Nonnull RawDataFile rawDataFile,
       @Nonnull MSDKCentroidingAlgorithm centroidingAlgorithm) {
-    this.centroidingAlgorithm = centroidingAlgorithm;
+    Preconditions.checkNotNull(centroidingAlgorithm);
+    this.algorithmSupplier = () -> centroidingAlgorithm;
+    this.rawDataFile = rawDataFile;
+    this.parallelism = 1;
+    this.executor = null;
+  }
+
+  /**
+   * Constructor for parallel centroiding in a fork-join pool with the given parallelism level. The
+   * pool is created by execute() and shut down when it finishes.
+   *
+   * @param rawDataFile a {@link io.github.msdk.datamodel.rawdata.RawDataFile} object.
+   * @param algorithmSupplier supplies a new algorithm instance for each chunk of scans
+   * @param parallelism the number of threads, 1 means sequential processing
+   */
+  public MSDKCentroidingMethod(@Nonnull RawDataFile rawDataFile,
+      @Nonnull Supplier<? extends MSDKCentroidingAlgorithm> algorithmSupplier, int parallelism) {
+    Preconditions.checkNotNull(algorithmSupplier);
+    Preconditions.checkArgument(parallelism >= 1, "Parallelism must be at least 1");
+    this.algorithmSupplier = algorithmSupplier;
+    this.rawDataFile = rawDataFile;
+    this.parallelism = parallelism;
+    this.executor = null;
+  }
+
+  /**
+   * Constructor for parallel centroiding using the given executor. The executor is not shut down
+   * by this method.
+   *
+   * @param rawDataFile a {@link io.github.msdk.datamodel.rawdata.RawDataFile} object.
+   * @param algorithmSupplier supplies a new algorithm instance for each chunk of scans
+   * @param executor a {@link java.util.concurrent.ExecutorService} object.
+   */
+  public MSDKCentroidingMethod(@Nonnull RawDataFile rawDataFile,
+      @Nonnull Supplier<? extends MSDKCentroidingAlgorithm> algorithmSupplier,
+      @Nonnull ExecutorService executor) {
+    Preconditions.checkNotNull(algorithmSupplier);
+    Preconditions.checkNotNull(executor);
+    this.algorithmSupplier = algorithmSupplier;
     this.rawDataFile = rawDataFile;
+    this.parallelism = Runtime.getRuntime().availableProcessors();
+    this.executor = executor;
   }
 
   /** {@inheritDoc} */
@@ -65,7 +122,7 @@ public class MSDKCentroidingMethod implements MSDKMethod<RawDataFile> {
     if (totalScans == 0) {
       return null;
     } else {
-      return (float) processedScans / totalScans;
+      return (float) processedScans.get() / totalScans;
     }
   }
 
@@ -81,24 +138,57 @@ public class MSDKCentroidingMethod implements MSDKMethod<RawDataFile> {
 
     List<MsScan> scans = rawDataFile.getScans();
     totalScans = scans.size();
+    final MsScan newScans[] = new MsScan[scans.size()];
+    final MSDKMetrics metrics = MSDKMetrics.start(getClass().getSimpleName(), "scans");
+
+    try {
+      if ((parallelism == 1) && (executor == null))
+        centroidScans(algorithmSupplier.get(), scans, newScans, 0, scans.size());
+      else
+        centroidScansInParallel(scans, newScans);
+    } finally {
+      metrics.addItems(processedScans.get());
+      metrics.finish();
+    }
 
-    for (MsScan scan : scans) {
-
-      if (canceled)
-        return null;
-
-      MsScan newScan = centroidingAlgorithm.centroidScan(scan);
+    if (canceled)
+      return null;
 
-      // Add the new scan to the created raw data file
+    // Add the new scans to the created raw data file, in the original order
+    for (MsScan newScan : newScans) {
       if (newScan != null)
         result.addScan(newScan);
-
-      processedScans++;
     }
+
     logger.info("Finished centroiding file " + rawDataFile.getName());
     return result;
   }
 
+  private void centroidScansInParallel(@Nonnull List<MsScan> scans, @Nonnull MsScan newScans[])
+      throws MSDKException {
+    try {
+      ParallelChunkUtil.processInChunks(scans.size(), algorithmSupplier,
+          (algorithm, from, to) -> centroidScans(algorithm, scans, newScans, from, to), executor,
+          parallelism);
+    } catch (MSDKException e) {
+      canceled = true;
+      throw e;
+    }
+  }
+
+  private void centroidScans(@Nonnull MSDKCentroidingAlgorithm algorithm,
+      @Nonnull List<MsScan> scans, @Nonnull MsScan newScans[], int from, int to) {
+    for (int i = from; i < to; i++) {
+
+      if (canceled)
+        return;
+
+      newScans[i] = algorithm.centroidScan(scans.get(i));
+
+      processedScans.incrementAndGet();
+    }
+  }
+
   /** {@inheritDoc} */
   @Override
   public RawDataFile getResult() {
@@ -0,0 +1,70 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.rawdata.centroiding;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.files.FileType;
+import io.github.msdk.datamodel.impl.SimpleMsScan;
+import io.github.msdk.datamodel.impl.SimpleRawDataFile;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+
+/**
+ * Tests for the parallel mode of MSDKCentroidingMethod
+ */
+public class MSDKCentroidingMethodTest {
+
+  @Test
+  public void testParallelCentroiding() throws MSDKException {
+
+    // Profile scans with Gaussian peaks at a different position in each scan
+    SimpleRawDataFile rawFile = new SimpleRawDataFile("test", Optional.empty(), FileType.UNKNOWN);
+    for (int i = 0; i < 300; i++) {
+      final int size = 2000;
+      double mzValues[] = new double[size];
+      float intensityValues[] = new float[size];
+      for (int j = 0; j < size; j++) {
+        mzValues[j] = 100.0 + j * 0.01;
+        intensityValues[j] = (float) (1000.0 * Math.exp(-Math.pow(((j + i) % 40) - 20, 2) / 8.0));
+      }
+      SimpleMsScan scan = new SimpleMsScan(i + 1);
+      scan.setDataPoints(mzValues, intensityValues, size);
+      rawFile.addScan(scan);
+    }
+
+    RawDataFile sequentialResult =
+        new MSDKCentroidingMethod(rawFile, new LocalMaximaCentroidingAlgorithm()).execute();
+    MSDKCentroidingMethod parallelMethod =
+        new MSDKCentroidingMethod(rawFile, LocalMaximaCentroidingAlgorithm::new, 4);
+    RawDataFile parallelResult = parallelMethod.execute();
+    Assert.assertEquals(1.0, parallelMethod.getFinishedPercentage(), 0.0001);
+
+    List<MsScan> expectedScans = sequentialResult.getScans();
+    List<MsScan> actualScans = parallelResult.getScans();
+    Assert.assertEquals(300, actualScans.size());
+    for (int i = 0; i < expectedScans.size(); i++) {
+      Assert.assertEquals(new Integer(i + 1), actualScans.get(i).getScanNumber());
+      Assert.assertTrue(actualScans.get(i).getNumberOfDataPoints() > 0);
+      Assert.assertArrayEquals(expectedScans.get(i).getMzValues(),
+          actualScans.get(i).getMzValues(), 0.0);
+    }
+  }
+
+}
@@ -14,6 +14,7 @@
 package io.github.msdk.rawdata.filters;
 
 import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.ScanStage;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -22,8 +23,12 @@ import javax.annotation.Nullable;
  * MSDKFilteringAlgorithm interface.
  * </p>
  *
+ * Implementations are not required to be thread-safe. None of {@link CropFilterAlgorithm},
+ * {@link MeanFilterAlgorithm}, {@link ResampleFilterAlgorithm} and {@link SGFilterAlgorithm} is,
+ * because they reuse their data point buffers between calls. The parallel mode of
+ * {@link MSDKFilteringMethod} therefore creates a separate instance for each chunk of scans.
  */
-public interface MSDKFilteringAlgorithm {
+public interface MSDKFilteringAlgorithm extends ScanStage {
 
   /**
    * <p>
@@ -36,4 +41,15 @@ public interface MSDKFilteringAlgorithm {
   @Nullable
   MsScan performFilter(@Nonnull MsScan input);
 
+  /**
+   * {@inheritDoc}
+   *
+   * Filters the scan, so the algorithm can be used as a stage of a
+   * {@link io.github.msdk.datamodel.rawdata.ScanPipeline}.
+   */
+  @Override
+  default @Nullable MsScan processScan(@Nonnull MsScan scan) {
+    return performFilter(scan);
+  }
+
 }
@@ -14,34 +14,52 @@
 package io.github.msdk.rawdata.filters;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Preconditions;
+
 import io.github.msdk.MSDKException;
 import io.github.msdk.MSDKMethod;
 import io.github.msdk.datamodel.impl.SimpleRawDataFile;
 import io.github.msdk.datamodel.rawdata.MsScan;
 import io.github.msdk.datamodel.rawdata.RawDataFile;
+import io.github.msdk.util.ParallelChunkUtil;
+import io.github.msdk.util.metrics.MSDKMetrics;
 
 /**
  * <p>
  * MSDKFilteringMethod class.
  * </p>
  *
+ * By default, the scans are processed sequentially by a single algorithm instance. In parallel
+ * mode, the scans are split into consecutive chunks that are processed concurrently, either by a
+ * fork-join pool with the given parallelism level or by a caller-supplied executor, see
+ * {@link ParallelChunkUtil}. Each chunk obtains its own algorithm instance by calling the given
+ * supplier once, inside the chunk's task, because most {@link MSDKFilteringAlgorithm}
+ * implementations are not thread-safe. The order of the scans in the resulting raw data file is
+ * the same as in the input file.
  */
 public class MSDKFilteringMethod implements MSDKMethod<RawDataFile> {
 
   private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-  private final @Nonnull MSDKFilteringAlgorithm filteringAlgorithm;
+  private final @Nonnull Supplier<? extends MSDKFilteringAlgorithm> algorithmSupplier;
   private final @Nonnull RawDataFile rawDataFile;
+  private final int parallelism;
+  private final @Nullable ExecutorService executor;
 
-  private int processedScans = 0, totalScans = 0;
+  private final AtomicInteger processedScans = new AtomicInteger();
+  private volatile int totalScans = 0;
   private SimpleRawDataFile result;
-  private boolean canceled = false;
+  private volatile boolean canceled = false;
 
   /**
    * <p>
@@ -51,12 +69,51 @@ public class MSDKFilteringMethod implements MSDKMethod<RawDataFile> {
    * @param rawDataFile a {@link io.github.msdk.datamodel.rawdata.RawDataFile} object.
    * @param filteringAlgorithm a {@link io.github.msdk.rawdata.filters.MSDKFilteringAlgorithm}
    *        object.
-   * @param store a {@link io.github.msdk.datamodel.datastore.DataPointStore} object.
    */
   public MSDKFilteringMethod(@Nonnull RawDataFile rawDataFile,
       @Nonnull MSDKFilteringAlgorithm filteringAlgorithm) {
-    this.filteringAlgorithm = filteringAlgorithm;
+    Preconditions.checkNotNull(filteringAlgorithm);
+    this.algorithmSupplier = () -> filteringAlgorithm;
+    this.rawDataFile = rawDataFile;
+    this.parallelism = 1;
+    this.executor = null;
+  }
+
+  /**
+   * Constructor for parallel filtering in a fork-join pool with the given parallelism level. The
+   * pool is created by execute() and shut down when it finishes.
+   *
+   * @param rawDataFile a {@link io.github.msdk.datamodel.rawdata.RawDataFile} object.
+   * @param algorithmSupplier supplies a new algorithm instance for each chunk of scans
+   * @param parallelism the number of threads, 1 means sequential processing
+   */
+  public MSDKFilteringMethod(@Nonnull RawDataFile rawDataFile,
+      @Nonnull Supplier<? extends MSDKFilteringAlgorithm> algorithmSupplier, int parallelism) {
+    Preconditions.checkNotNull(algorithmSupplier);
+    Preconditions.checkArgument(parallelism >= 1, "Parallelism must be at least 1");
+    this.algorithmSupplier = algorithmSupplier;
     this.rawDataFile = rawDataFile;
+    this.parallelism = parallelism;
+    this.executor = null;
+  }
+
+  /**
+   * Constructor for parallel filtering using the given executor. The executor is not shut down
+   * by this method.
+   *
+   * @param rawDataFile a {@link io.github.msdk.datamodel.rawdata.RawDataFile} object.
+   * @param algorithmSupplier supplies a new algorithm instance for each chunk of scans
+   * @param executor a {@link java.util.concurrent.ExecutorService} object.
+   */
+  public MSDKFilteringMethod(@Nonnull RawDataFile rawDataFile,
+      @Nonnull Supplier<? extends MSDKFilteringAlgorithm> algorithmSupplier,
+      @Nonnull ExecutorService executor) {
+    Preconditions.checkNotNull(algorithmSupplier);
+    Preconditions.checkNotNull(executor);
+    this.algorithmSupplier = algorithmSupplier;
+    this.rawDataFile = rawDataFile;
+    this.parallelism = Runtime.getRuntime().availableProcessors();
+    this.executor = executor;
   }
 
   /** {@inheritDoc} */
@@ -65,15 +122,15 @@ public class MSDKFilteringMethod implements MSDKMethod<RawDataFile> {
     if (totalScans == 0) {
       return null;
     } else {
-      return (float) processedScans / totalScans;
+      return (float) processedScans.get() / totalScans;
     }
   }
 
   /** {@inheritDoc} */
   @Override
   public RawDataFile execute() throws MSDKException {
-    logger.info("Started filter " + filteringAlgorithm.getClass().getName() + " on raw data file "
-        + rawDataFile.getName());
+
+    logger.info("Started filtering file " + rawDataFile.getName());
 
     // Create a new raw data file
     result = new SimpleRawDataFile(rawDataFile.getName(), rawDataFile.getOriginalFile(),
@@ -81,26 +138,59 @@ public class MSDKFilteringMethod implements MSDKMethod<RawDataFile> {
 
     List<MsScan> scans = rawDataFile.getScans();
     totalScans = scans.size();
+    final MsScan newScans[] = new MsScan[scans.size()];
+    final MSDKMetrics metrics = MSDKMetrics.start(getClass().getSimpleName(), "scans");
+
+    try {
+      if ((parallelism == 1) && (executor == null))
+        filterScans(algorithmSupplier.get(), scans, newScans, 0, scans.size());
+      else
+        filterScansInParallel(scans, newScans);
+    } finally {
+      metrics.addItems(processedScans.get());
+      metrics.finish();
+    }
+
+    if (canceled)
+      return null;
 
-    for (MsScan scan : scans) {
+    // Add the new scans to the created raw data file, in the original order
+    for (MsScan newScan : newScans) {
+      if (newScan != null)
+        result.addScan(newScan);
+    }
+
+    logger.info("Finished filtering file " + rawDataFile.getName());
+    return result;
+  }
+
+  private void filterScansInParallel(@Nonnull List<MsScan> scans, @Nonnull MsScan newScans[])
+      throws MSDKException {
+    try {
+      ParallelChunkUtil.processInChunks(scans.size(), algorithmSupplier,
+          (algorithm, from, to) -> filterScans(algorithm, scans, newScans, from, to), executor,
+          parallelism);
+    } catch (MSDKException e) {
+      canceled = true;
+      throw e;
+    }
+  }
+
+  private void filterScans(@Nonnull MSDKFilteringAlgorithm algorithm,
+      @Nonnull List<MsScan> scans, @Nonnull MsScan newScans[], int from, int to) {
+    for (int i = from; i < to; i++) {
 
       if (canceled)
-        return null;
+        return;
 
+      final MsScan scan = scans.get(i);
       if (scan == null)
         continue;
 
-      MsScan newScan = filteringAlgorithm.performFilter(scan);
+      newScans[i] = algorithm.performFilter(scan);
 
-      // Add the new scan to the created raw data file
-      if (newScan != null)
-        result.addScan(newScan);
-
-      processedScans++;
+      processedScans.incrementAndGet();
     }
-    logger.info("Finished filter " + filteringAlgorithm.getClass().getName() + " on raw data file "
-        + rawDataFile.getName());
-    return result;
   }
 
   /** {@inheritDoc} */
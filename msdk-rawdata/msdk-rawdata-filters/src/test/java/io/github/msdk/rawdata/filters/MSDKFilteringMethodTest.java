@@ -0,0 +1,107 @@
+/*
+ * (C) Copyright 2015-2017 by MSDK Development Team
+ *
+ * This software is dual-licensed under either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1 as published by the Free
+ * Software Foundation
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by the Eclipse Foundation.
+ */
+
+package io.github.msdk.rawdata.filters;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.msdk.MSDKException;
+import io.github.msdk.datamodel.files.FileType;
+import io.github.msdk.datamodel.impl.SimpleMsScan;
+import io.github.msdk.datamodel.impl.SimpleRawDataFile;
+import io.github.msdk.datamodel.rawdata.MsScan;
+import io.github.msdk.datamodel.rawdata.RawDataFile;
+
+/**
+ * Tests for the parallel mode of MSDKFilteringMethod
+ */
+public class MSDKFilteringMethodTest {
+
+  private static RawDataFile createRawDataFile() {
+    SimpleRawDataFile rawDataFile =
+        new SimpleRawDataFile("test", Optional.empty(), FileType.UNKNOWN);
+    Random random = new Random(1);
+    for (int i = 0; i < 500; i++) {
+      final int size = 200 + random.nextInt(300);
+      double mzValues[] = new double[size];
+      float intensityValues[] = new float[size];
+      for (int j = 0; j < size; j++) {
+        mzValues[j] = 100.0 + j * 0.5 + random.nextDouble() * 0.1;
+        intensityValues[j] = random.nextFloat() * 1000f;
+      }
+      SimpleMsScan scan = new SimpleMsScan(i + 1);
+      scan.setRetentionTime((float) i);
+      scan.setDataPoints(mzValues, intensityValues, size);
+      rawDataFile.addScan(scan);
+    }
+    return rawDataFile;
+  }
+
+  private static void assertSameScans(RawDataFile expected, RawDataFile actual) {
+    List<MsScan> expectedScans = expected.getScans();
+    List<MsScan> actualScans = actual.getScans();
+    Assert.assertEquals(expectedScans.size(), actualScans.size());
+    for (int i = 0; i < expectedScans.size(); i++) {
+      MsScan expectedScan = expectedScans.get(i);
+      MsScan actualScan = actualScans.get(i);
+      Assert.assertEquals(expectedScan.getScanNumber(), actualScan.getScanNumber());
+      Assert.assertEquals(expectedScan.getNumberOfDataPoints(),
+          actualScan.getNumberOfDataPoints());
+      Assert.assertArrayEquals(expectedScan.getMzValues(), actualScan.getMzValues(), 0.0);
+      Assert.assertArrayEquals(expectedScan.getIntensityValues(),
+          actualScan.getIntensityValues(), 0f);
+    }
+  }
+
+  @Test
+  public void testParallelFiltering() throws MSDKException {
+    RawDataFile rawFile = createRawDataFile();
+
+    MSDKFilteringMethod sequentialMethod =
+        new MSDKFilteringMethod(rawFile, new MeanFilterAlgorithm(3.5));
+    RawDataFile sequentialResult = sequentialMethod.execute();
+
+    MSDKFilteringMethod parallelMethod =
+        new MSDKFilteringMethod(rawFile, () -> new MeanFilterAlgorithm(3.5), 4);
+    RawDataFile parallelResult = parallelMethod.execute();
+    Assert.assertEquals(1.0, parallelMethod.getFinishedPercentage(), 0.0001);
+    assertSameScans(sequentialResult, parallelResult);
+
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      MSDKFilteringMethod executorMethod =
+          new MSDKFilteringMethod(rawFile, () -> new MeanFilterAlgorithm(3.5), executor);
+      RawDataFile executorResult = executorMethod.execute();
+      Assert.assertEquals(1.0, executorMethod.getFinishedPercentage(), 0.0001);
+      assertSameScans(sequentialResult, executorResult);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testCancel() throws MSDKException {
+    MSDKFilteringMethod method = new MSDKFilteringMethod(createRawDataFile(),
+        () -> new SGFilterAlgorithm(11), 4);
+    method.cancel();
+    Assert.assertNull(method.execute());
+  }
+
+}